@@ -0,0 +1,119 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.property.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.github.mmm.property.criteria.CriteriaPredicate;
+import io.github.mmm.property.criteria.evaluation.CriteriaEvaluator;
+import io.github.mmm.property.criteria.evaluation.HiddenClassCriteriaEvaluator;
+
+/**
+ * Benchmark comparing the closure based {@link CriteriaEvaluator} with the {@link HiddenClassCriteriaEvaluator}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CriteriaEvaluatorBenchmark {
+
+  private static final String[] NAMES = { "John", "Jane", "Bob", "Alice", "Joe", "Mary" };
+
+  private List<BenchmarkPerson> persons;
+
+  private Predicate<BenchmarkPerson> closure;
+
+  private Predicate<BenchmarkPerson> hidden;
+
+  private Predicate<BenchmarkPerson> hiddenTyped;
+
+  private CriteriaPredicate predicate;
+
+  /**
+   * Creates the test data and compiles the filters.
+   */
+  @Setup
+  public void setup() {
+
+    Random random = new Random(4711);
+    this.persons = new ArrayList<>(10000);
+    for (int i = 0; i < 10000; i++) {
+      Integer age = null;
+      if (random.nextInt(10) > 0) {
+        age = Integer.valueOf(random.nextInt(100));
+      }
+      this.persons.add(new BenchmarkPerson(NAMES[random.nextInt(NAMES.length)], age));
+    }
+    BenchmarkPerson p = new BenchmarkPerson();
+    this.predicate = p.Name().like("J%").and(p.Age().ge(18), p.Age().lt(65)).or(p.Name().eq("Alice"));
+    this.closure = CriteriaEvaluator.get().compile(this.predicate);
+    HiddenClassCriteriaEvaluator evaluator = new HiddenClassCriteriaEvaluator();
+    this.hidden = evaluator.compile(this.predicate);
+    this.hiddenTyped = evaluator.compile(this.predicate, BenchmarkPerson.class);
+  }
+
+  private int count(Predicate<BenchmarkPerson> filter) {
+
+    int count = 0;
+    for (BenchmarkPerson person : this.persons) {
+      if (filter.test(person)) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * @return the number of matches using {@link CriteriaEvaluator}.
+   */
+  @Benchmark
+  public int closure() {
+
+    return count(this.closure);
+  }
+
+  /**
+   * @return the number of matches using {@link HiddenClassCriteriaEvaluator} with dynamic property access.
+   */
+  @Benchmark
+  public int hiddenClass() {
+
+    return count(this.hidden);
+  }
+
+  /**
+   * @return the number of matches using {@link HiddenClassCriteriaEvaluator} with static property access.
+   */
+  @Benchmark
+  public int hiddenClassTyped() {
+
+    return count(this.hiddenTyped);
+  }
+
+  /**
+   * @return the {@link HiddenClassCriteriaEvaluator} compiled from scratch to measure the compilation overhead.
+   */
+  @Benchmark
+  public Predicate<BenchmarkPerson> compileHiddenClass() {
+
+    return new HiddenClassCriteriaEvaluator().compile(this.predicate, BenchmarkPerson.class);
+  }
+
+}
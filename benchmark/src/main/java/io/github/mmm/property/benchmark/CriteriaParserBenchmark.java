@@ -0,0 +1,76 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.property.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.github.mmm.property.criteria.CriteriaObjectParser;
+import io.github.mmm.property.criteria.CriteriaParserCache;
+import io.github.mmm.scanner.CharSequenceScanner;
+import io.github.mmm.value.CriteriaObject;
+
+/**
+ * Benchmark measuring the parsing throughput of {@link CriteriaObjectParser} with and without
+ * {@link CriteriaParserCache}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CriteriaParserBenchmark {
+
+  private static final String[] CRITERIA = { "p.Age > 30", "p.Name LIKE 'J%' AND p.Age >= 18 AND p.Age < 65",
+      "(p.Name = 'Alice' OR p.Name = 'Bob') AND p.Age > 21 OR p.Address.City = 'Berlin'",
+      "NOT(p.Name LIKE 'X%') AND COUNT(p.Age) > 3" };
+
+  private CriteriaParserCache cache;
+
+  private int index;
+
+  /**
+   * Creates the {@link CriteriaParserCache}.
+   */
+  @Setup
+  public void setup() {
+
+    this.cache = new CriteriaParserCache();
+  }
+
+  private String next() {
+
+    this.index = (this.index + 1) % CRITERIA.length;
+    return CRITERIA[this.index];
+  }
+
+  /**
+   * @return the {@link CriteriaObject} parsed from scratch.
+   */
+  @Benchmark
+  public CriteriaObject<?> parse() {
+
+    return CriteriaObjectParser.get().parse(new CharSequenceScanner(next()));
+  }
+
+  /**
+   * @return the {@link CriteriaObject} from the {@link CriteriaParserCache}.
+   */
+  @Benchmark
+  public CriteriaObject<?> parseCached() {
+
+    return this.cache.parse(next());
+  }
+
+}
@@ -0,0 +1,20 @@
+/*
+ * Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0
+ */
+/**
+ * Provides JMH benchmarks for mmm-property.
+ */
+@SuppressWarnings("all") //
+module io.github.mmm.property.benchmark {
+
+  requires io.github.mmm.property;
+
+  requires jmh.core;
+
+  exports io.github.mmm.property.benchmark;
+
+  // generated by the JMH annotation processor and instantiated reflectively
+  opens io.github.mmm.property.benchmark.jmh_generated;
+
+}
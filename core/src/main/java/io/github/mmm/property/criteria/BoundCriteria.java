@@ -0,0 +1,85 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.property.criteria;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * A {@link PreparedCriteria} together with the {@link #getValues() values} bound to its parameters.
+ *
+ * @since 1.0.0
+ * @see PreparedCriteriaCache#prepare(CriteriaPredicate)
+ */
+public final class BoundCriteria {
+
+  private final PreparedCriteria prepared;
+
+  private final Object[] values;
+
+  private Predicate<Object> predicate;
+
+  private CriteriaStatement statement;
+
+  /**
+   * The constructor.
+   *
+   * @param prepared the {@link #getPrepared() prepared criteria}.
+   * @param values the {@link #getValues() values}.
+   */
+  public BoundCriteria(PreparedCriteria prepared, Object... values) {
+
+    super();
+    this.prepared = prepared;
+    this.values = values;
+  }
+
+  /**
+   * @return the {@link PreparedCriteria} shared by all {@link CriteriaPredicate}s of the same shape.
+   */
+  public PreparedCriteria getPrepared() {
+
+    return this.prepared;
+  }
+
+  /**
+   * @return the {@link List} with the parameter values in the order of the parameters.
+   */
+  public List<Object> getValues() {
+
+    return Collections.unmodifiableList(Arrays.asList(this.values));
+  }
+
+  /**
+   * @return the {@link PreparedCriteria#getStatement(Object...) statement} with placeholders for the
+   *         {@link #getValues() values}.
+   */
+  public CriteriaStatement getStatement() {
+
+    if (this.statement == null) {
+      this.statement = this.prepared.getStatement(this.values);
+    }
+    return this.statement;
+  }
+
+  /**
+   * @return the {@link PreparedCriteria#compile(Object...) compiled} {@link Predicate} for the {@link #getValues()
+   *         values}.
+   */
+  public Predicate<Object> compile() {
+
+    if (this.predicate == null) {
+      this.predicate = this.prepared.compile(this.values);
+    }
+    return this.predicate;
+  }
+
+  @Override
+  public String toString() {
+
+    return this.prepared + " " + Arrays.toString(this.values);
+  }
+
+}
@@ -130,4 +130,15 @@ public interface CriteriaAggregation<V extends Comparable<? super V>>
     return new CriteriaAggregationImpl<>(CriteriaAggregationOperator.COUNT, property);
   }
 
+  /**
+   * @param property the {@link PropertyPath} to aggregate.
+   * @return the {@link CriteriaAggregation} estimating the number of distinct values of the given {@link PropertyPath
+   *         property} using {@link CriteriaAggregationOperator#APPROX_COUNT_DISTINCT APPROX_COUNT_DISTINCT}.
+   */
+  static CriteriaAggregation<Long> approxCountDistinct(PropertyPath<?> property) {
+
+    Objects.requireNonNull(property, "property");
+    return new CriteriaAggregationImpl<>(CriteriaAggregationOperator.APPROX_COUNT_DISTINCT, property);
+  }
+
 }
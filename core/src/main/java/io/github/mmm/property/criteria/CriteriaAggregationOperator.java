@@ -52,6 +52,43 @@ public class CriteriaAggregationOperator extends CriteriaOperator {
    */
   public static final CriteriaAggregationOperator GROUP_CONCAT = new CriteriaAggregationOperator("GROUP_CONCAT");
 
+  /**
+   * Operator to estimate the number of distinct values of a {@link CriteriaAggregation#getFirstArg() property} (e.g.
+   * <em>APPROX_COUNT_DISTINCT(e.UserId)</em>) using a fixed-size HyperLogLog sketch (standard error of about 1.6%).
+   */
+  public static final CriteriaAggregationOperator APPROX_COUNT_DISTINCT = new CriteriaAggregationOperator(
+      "APPROX_COUNT_DISTINCT");
+
+  /**
+   * Operator to estimate the median of all values of a numeric {@link CriteriaAggregation#getFirstArg() property} (e.g.
+   * <em>APPROX_MEDIAN(e.Latency)</em>) using a t-digest sketch.
+   */
+  public static final CriteriaAggregationOperator APPROX_MEDIAN = new CriteriaAggregationOperator("APPROX_MEDIAN",
+      0.5);
+
+  /**
+   * Operator to estimate the 90th percentile of all values of a numeric {@link CriteriaAggregation#getFirstArg()
+   * property} (e.g. <em>APPROX_PERCENTILE_90(e.Latency)</em>) using a t-digest sketch.
+   */
+  public static final CriteriaAggregationOperator APPROX_PERCENTILE_90 = new CriteriaAggregationOperator(
+      "APPROX_PERCENTILE_90", 0.9);
+
+  /**
+   * Operator to estimate the 95th percentile of all values of a numeric {@link CriteriaAggregation#getFirstArg()
+   * property} (e.g. <em>APPROX_PERCENTILE_95(e.Latency)</em>) using a t-digest sketch.
+   */
+  public static final CriteriaAggregationOperator APPROX_PERCENTILE_95 = new CriteriaAggregationOperator(
+      "APPROX_PERCENTILE_95", 0.95);
+
+  /**
+   * Operator to estimate the 99th percentile of all values of a numeric {@link CriteriaAggregation#getFirstArg()
+   * property} (e.g. <em>APPROX_PERCENTILE_99(e.Latency)</em>) using a t-digest sketch.
+   */
+  public static final CriteriaAggregationOperator APPROX_PERCENTILE_99 = new CriteriaAggregationOperator(
+      "APPROX_PERCENTILE_99", 0.99);
+
+  private final double quantile;
+
   /**
    * The constructor.
    *
@@ -59,7 +96,28 @@ public class CriteriaAggregationOperator extends CriteriaOperator {
    */
   protected CriteriaAggregationOperator(String syntax) {
 
+    this(syntax, Double.NaN);
+  }
+
+  /**
+   * The constructor.
+   *
+   * @param syntax the {@link #getSyntax() syntax}.
+   * @param quantile the {@link #getQuantile() quantile}.
+   */
+  protected CriteriaAggregationOperator(String syntax, double quantile) {
+
     super(syntax, null, false);
+    this.quantile = quantile;
+  }
+
+  /**
+   * @return the quantile in the range {@code (0, 1)} for an approximate percentile operator such as
+   *         {@link #APPROX_MEDIAN} or {@link Double#NaN} otherwise.
+   */
+  public double getQuantile() {
+
+    return this.quantile;
   }
 
   @Override
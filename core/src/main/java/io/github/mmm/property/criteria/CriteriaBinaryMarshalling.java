@@ -0,0 +1,664 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.property.criteria;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.github.mmm.base.exception.ObjectNotFoundException;
+import io.github.mmm.property.criteria.impl.CriteriaAggregationImpl;
+import io.github.mmm.value.CriteriaObject;
+import io.github.mmm.value.PropertyPath;
+import io.github.mmm.value.SimplePath;
+
+/**
+ * Compact binary encoding of {@link CriteriaExpression}s as alternative to the JSON form of {@link CriteriaMarshalling}
+ * for high rates of criteria shipped between services. The encoding
+ * <ul>
+ * <li>starts with a {@link #VERSION version} byte,</li>
+ * <li>writes the tree in pre-order where each node starts with a tag byte,</li>
+ * <li>identifies {@link CriteriaOperator}s by their id from a stable table (unknown operators fall back to their
+ * {@link CriteriaOperator#getSyntax() syntax}),</li>
+ * <li>encodes all counts, ids, and integral numbers as (zig-zag) varints,</li>
+ * <li>sends each distinct {@link PropertyPath} only once and refers to it by its index in the path dictionary
+ * afterwards, and</li>
+ * <li>uses typed tags for {@link Literal} values ({@link Boolean}, {@link String}, the {@link Number} types, the
+ * common {@link java.time.temporal.Temporal} types and {@link Collection}s thereof).</li>
+ * </ul>
+ * Like {@link CriteriaMarshalling} decoding creates {@link SimplePath}s for {@link PropertyPath}s so the result
+ * round-trips with the JSON form. An {@link Enum} is encoded as its {@link Enum#name() name}. Data nested deeper
+ * than {@link #MAX_DEPTH} is rejected when decoding to protect against stack overflows. It is thread-safe.
+ *
+ * @since 1.0.0
+ */
+public class CriteriaBinaryMarshalling {
+
+  /** The version of the encoding written as first byte. */
+  public static final byte VERSION = 1;
+
+  /** The maximum nesting depth of {@link CriteriaExpression}s and collection values accepted when decoding. */
+  public static final int MAX_DEPTH = 256;
+
+  private static final int TAG_NULL = 0;
+
+  private static final int TAG_EXPRESSION = 1;
+
+  private static final int TAG_PATH = 2;
+
+  private static final int TAG_PROJECTION = 3;
+
+  private static final int TAG_TRUE = 16;
+
+  private static final int TAG_FALSE = 17;
+
+  private static final int TAG_STRING = 18;
+
+  private static final int TAG_INTEGER = 19;
+
+  private static final int TAG_LONG = 20;
+
+  private static final int TAG_SHORT = 21;
+
+  private static final int TAG_BYTE = 22;
+
+  private static final int TAG_DOUBLE = 23;
+
+  private static final int TAG_FLOAT = 24;
+
+  private static final int TAG_BIG_INTEGER = 25;
+
+  private static final int TAG_BIG_DECIMAL = 26;
+
+  private static final int TAG_INSTANT = 27;
+
+  private static final int TAG_LOCAL_DATE = 28;
+
+  private static final int TAG_LOCAL_DATE_TIME = 29;
+
+  private static final int TAG_LOCAL_TIME = 30;
+
+  private static final int TAG_COLLECTION = 31;
+
+  /**
+   * The stable operator table. The index is the operator id (0 is reserved for operators identified by syntax). New
+   * operators may only be appended.
+   */
+  private static final CriteriaOperator[] OPERATORS = { null, PredicateOperator.EQ, PredicateOperator.NEQ,
+      PredicateOperator.LT, PredicateOperator.LE, PredicateOperator.GT, PredicateOperator.GE, PredicateOperator.IS_NULL,
+      PredicateOperator.IS_NOT_NULL, PredicateOperator.LIKE, PredicateOperator.NOT_LIKE, PredicateOperator.IN,
+      PredicateOperator.NOT_IN, PredicateOperator.CONTAINS, PredicateOperator.NOT_CONTAINS, PredicateOperator.AND,
+      PredicateOperator.NAND, PredicateOperator.OR, PredicateOperator.NOR, PredicateOperator.NOT,
+      CriteriaAggregationOperator.COUNT, CriteriaAggregationOperator.SUM, CriteriaAggregationOperator.AVG,
+      CriteriaAggregationOperator.MIN, CriteriaAggregationOperator.MAX, CriteriaAggregationOperator.GROUP_CONCAT,
+      CriteriaAggregationOperator.APPROX_COUNT_DISTINCT, CriteriaAggregationOperator.APPROX_MEDIAN,
+      CriteriaAggregationOperator.APPROX_PERCENTILE_90, CriteriaAggregationOperator.APPROX_PERCENTILE_95,
+      CriteriaAggregationOperator.APPROX_PERCENTILE_99, CriteriaFunctionOperator.ADD, CriteriaFunctionOperator.SUB,
+      CriteriaFunctionOperator.MUL, CriteriaFunctionOperator.DIV, CriteriaFunctionOperator.MOD,
+      CriteriaFunctionOperator.ABS, CriteriaFunctionOperator.ROUND, CriteriaFunctionOperator.FLOOR,
+      CriteriaFunctionOperator.CEIL, CriteriaFunctionOperator.LOWER, CriteriaFunctionOperator.UPPER,
+      CriteriaFunctionOperator.TRIM, CriteriaFunctionOperator.LENGTH, CriteriaFunctionOperator.CONCAT,
+      CriteriaFunctionOperator.COALESCE };
+
+  private static final Map<CriteriaOperator, Integer> OPERATOR_IDS;
+
+  static {
+    OPERATOR_IDS = new IdentityHashMap<>(OPERATORS.length);
+    for (int i = 1; i < OPERATORS.length; i++) {
+      OPERATOR_IDS.put(OPERATORS[i], Integer.valueOf(i));
+    }
+  }
+
+  private static final CriteriaBinaryMarshalling INSTANCE = new CriteriaBinaryMarshalling();
+
+  /**
+   * The constructor.
+   */
+  protected CriteriaBinaryMarshalling() {
+
+    super();
+  }
+
+  /**
+   * @param expression the {@link CriteriaExpression} to encode.
+   * @return the binary encoding of the given {@link CriteriaExpression}.
+   * @throws IllegalArgumentException if a {@link Literal} value has an unsupported type.
+   */
+  public byte[] encode(CriteriaExpression<?> expression) {
+
+    Encoder encoder = new Encoder();
+    encoder.writeByte(VERSION);
+    encoder.writeArg(expression);
+    return encoder.toByteArray();
+  }
+
+  /**
+   * @param data the binary encoding as produced by {@link #encode(CriteriaExpression)}.
+   * @return the decoded {@link CriteriaExpression}.
+   * @throws IllegalArgumentException if the given {@code data} is invalid.
+   */
+  public CriteriaExpression<?> decode(byte[] data) {
+
+    return decode(data, 0, data.length);
+  }
+
+  /**
+   * @param data the buffer containing the binary encoding as produced by {@link #encode(CriteriaExpression)}.
+   * @param offset the index in {@code data} where the encoding starts.
+   * @param length the number of bytes of the encoding.
+   * @return the decoded {@link CriteriaExpression}.
+   * @throws IllegalArgumentException if the given {@code data} is invalid.
+   */
+  public CriteriaExpression<?> decode(byte[] data, int offset, int length) {
+
+    Decoder decoder = new Decoder(data, offset, offset + length);
+    int version = decoder.readByte();
+    if (version != VERSION) {
+      throw new IllegalArgumentException("Unsupported version " + version);
+    }
+    CriteriaObject<?> result = decoder.readArg();
+    if (decoder.pos != decoder.end) {
+      throw new IllegalArgumentException("Unexpected data at index " + decoder.pos);
+    } else if (!(result instanceof CriteriaExpression)) {
+      throw new IllegalArgumentException("Not an expression: " + result);
+    }
+    return (CriteriaExpression<?>) result;
+  }
+
+  /**
+   * @param data the binary encoding as produced by {@link #encode(CriteriaExpression)}.
+   * @return the decoded {@link CriteriaPredicate}.
+   * @throws IllegalArgumentException if the given {@code data} is invalid or not a {@link CriteriaPredicate}.
+   */
+  public CriteriaPredicate decodePredicate(byte[] data) {
+
+    CriteriaExpression<?> expression = decode(data);
+    if (expression instanceof CriteriaPredicate) {
+      return (CriteriaPredicate) expression;
+    }
+    throw new IllegalArgumentException("Expression is not a predicate: " + expression);
+  }
+
+  /**
+   * @return the singleton instance of this {@link CriteriaBinaryMarshalling}.
+   */
+  public static CriteriaBinaryMarshalling get() {
+
+    return INSTANCE;
+  }
+
+  private static class Encoder {
+
+    private byte[] buffer;
+
+    private int size;
+
+    private final Map<String, Integer> paths;
+
+    private Encoder() {
+
+      super();
+      this.buffer = new byte[64];
+      this.paths = new HashMap<>();
+    }
+
+    private byte[] toByteArray() {
+
+      return Arrays.copyOf(this.buffer, this.size);
+    }
+
+    private void ensureCapacity(int count) {
+
+      int capacity = this.size + count;
+      if (capacity > this.buffer.length) {
+        this.buffer = Arrays.copyOf(this.buffer, Math.max(capacity, this.buffer.length * 2));
+      }
+    }
+
+    private void writeByte(int b) {
+
+      ensureCapacity(1);
+      this.buffer[this.size++] = (byte) b;
+    }
+
+    private void writeVarLong(long value) {
+
+      ensureCapacity(10);
+      long v = value;
+      while ((v & ~0x7FL) != 0) {
+        this.buffer[this.size++] = (byte) ((v & 0x7F) | 0x80);
+        v >>>= 7;
+      }
+      this.buffer[this.size++] = (byte) v;
+    }
+
+    private void writeVarInt(int value) {
+
+      writeVarLong(value & 0xFFFFFFFFL);
+    }
+
+    private void writeZigZag(long value) {
+
+      writeVarLong((value << 1) ^ (value >> 63));
+    }
+
+    private void writeFixed(long value, int bytes) {
+
+      ensureCapacity(bytes);
+      for (int i = 0; i < bytes; i++) {
+        this.buffer[this.size++] = (byte) (value >>> (i * 8));
+      }
+    }
+
+    private void writeBytes(byte[] bytes) {
+
+      writeVarInt(bytes.length);
+      ensureCapacity(bytes.length);
+      System.arraycopy(bytes, 0, this.buffer, this.size, bytes.length);
+      this.size += bytes.length;
+    }
+
+    private void writeString(String string) {
+
+      writeBytes(string.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void writeArg(CriteriaObject<?> arg) {
+
+      if (arg == null) {
+        writeByte(TAG_NULL);
+      } else if (arg instanceof PropertyPath) {
+        writePath((PropertyPath<?>) arg);
+      } else if (arg instanceof Literal) {
+        writeValue(((Literal<?>) arg).get());
+      } else if (arg instanceof CriteriaExpression) {
+        CriteriaExpression<?> expression = (CriteriaExpression<?>) arg;
+        writeByte(TAG_EXPRESSION);
+        CriteriaOperator op = expression.getOperator();
+        Integer id = OPERATOR_IDS.get(op);
+        if (id == null) {
+          writeVarInt(0);
+          writeString(op.getSyntax());
+        } else {
+          writeVarInt(id.intValue());
+        }
+        List<? extends CriteriaObject<?>> args = expression.getArgs();
+        writeVarInt(args.size());
+        for (CriteriaObject<?> child : args) {
+          writeArg(child);
+        }
+      } else if (arg instanceof ProjectionProperty) {
+        ProjectionProperty<?> projection = (ProjectionProperty<?>) arg;
+        writeByte(TAG_PROJECTION);
+        writeArg(projection.getSelection());
+        writePath(projection.getProperty());
+      } else {
+        throw new IllegalArgumentException("Unsupported criteria object: " + arg);
+      }
+    }
+
+    private void writePath(PropertyPath<?> property) {
+
+      writeByte(TAG_PATH);
+      String path = property.path();
+      Integer id = this.paths.get(path);
+      if (id == null) {
+        int newId = this.paths.size();
+        this.paths.put(path, Integer.valueOf(newId));
+        writeVarInt(newId);
+        writeString(path);
+      } else {
+        writeVarInt(id.intValue());
+      }
+    }
+
+    private void writeValue(Object value) {
+
+      if (value == null) {
+        writeByte(TAG_NULL);
+      } else if (value instanceof Boolean) {
+        writeByte(((Boolean) value).booleanValue() ? TAG_TRUE : TAG_FALSE);
+      } else if (value instanceof String) {
+        writeByte(TAG_STRING);
+        writeString((String) value);
+      } else if (value instanceof Integer) {
+        writeByte(TAG_INTEGER);
+        writeZigZag(((Integer) value).intValue());
+      } else if (value instanceof Long) {
+        writeByte(TAG_LONG);
+        writeZigZag(((Long) value).longValue());
+      } else if (value instanceof Short) {
+        writeByte(TAG_SHORT);
+        writeZigZag(((Short) value).shortValue());
+      } else if (value instanceof Byte) {
+        writeByte(TAG_BYTE);
+        writeByte(((Byte) value).byteValue());
+      } else if (value instanceof Double) {
+        writeByte(TAG_DOUBLE);
+        writeFixed(Double.doubleToRawLongBits(((Double) value).doubleValue()), 8);
+      } else if (value instanceof Float) {
+        writeByte(TAG_FLOAT);
+        writeFixed(Float.floatToRawIntBits(((Float) value).floatValue()), 4);
+      } else if (value instanceof BigInteger) {
+        writeByte(TAG_BIG_INTEGER);
+        writeBytes(((BigInteger) value).toByteArray());
+      } else if (value instanceof BigDecimal) {
+        BigDecimal decimal = (BigDecimal) value;
+        writeByte(TAG_BIG_DECIMAL);
+        writeZigZag(decimal.scale());
+        writeBytes(decimal.unscaledValue().toByteArray());
+      } else if (value instanceof Instant) {
+        Instant instant = (Instant) value;
+        writeByte(TAG_INSTANT);
+        writeZigZag(instant.getEpochSecond());
+        writeVarInt(instant.getNano());
+      } else if (value instanceof LocalDate) {
+        writeByte(TAG_LOCAL_DATE);
+        writeZigZag(((LocalDate) value).toEpochDay());
+      } else if (value instanceof LocalDateTime) {
+        LocalDateTime dateTime = (LocalDateTime) value;
+        writeByte(TAG_LOCAL_DATE_TIME);
+        writeZigZag(dateTime.toEpochSecond(ZoneOffset.UTC));
+        writeVarInt(dateTime.getNano());
+      } else if (value instanceof LocalTime) {
+        writeByte(TAG_LOCAL_TIME);
+        writeVarLong(((LocalTime) value).toNanoOfDay());
+      } else if (value instanceof Collection) {
+        Collection<?> collection = (Collection<?>) value;
+        writeByte(TAG_COLLECTION);
+        writeVarInt(collection.size());
+        for (Object element : collection) {
+          writeValue(element);
+        }
+      } else if (value instanceof Enum) {
+        writeByte(TAG_STRING);
+        writeString(((Enum<?>) value).name());
+      } else {
+        throw new IllegalArgumentException("Unsupported literal type " + value.getClass().getName());
+      }
+    }
+  }
+
+  private static class Decoder {
+
+    private final byte[] data;
+
+    private final int end;
+
+    private int pos;
+
+    private PropertyPath<?>[] paths;
+
+    private int pathCount;
+
+    private int depth;
+
+    /** Operands of all levels share a single list to avoid a list per expression. */
+    private final List<CriteriaObject<?>> operands;
+
+    private Decoder(byte[] data, int offset, int end) {
+
+      super();
+      if ((offset < 0) || (end > data.length) || (offset > end)) {
+        throw new IllegalArgumentException("Invalid range " + offset + "-" + end);
+      }
+      this.data = data;
+      this.pos = offset;
+      this.end = end;
+      this.paths = new PropertyPath<?>[8];
+      this.operands = new ArrayList<>();
+    }
+
+    private int readByte() {
+
+      if (this.pos >= this.end) {
+        throw new IllegalArgumentException("Unexpected end of data.");
+      }
+      return this.data[this.pos++];
+    }
+
+    private long readVarLong() {
+
+      long result = 0;
+      int shift = 0;
+      while (shift < 64) {
+        int b = readByte();
+        result |= (long) (b & 0x7F) << shift;
+        if ((b & 0x80) == 0) {
+          return result;
+        }
+        shift += 7;
+      }
+      throw new IllegalArgumentException("Malformed varint at index " + this.pos);
+    }
+
+    private int readVarInt() {
+
+      long value = readVarLong();
+      if ((value < 0) || (value > Integer.MAX_VALUE)) {
+        throw new IllegalArgumentException("Invalid count or id " + value);
+      }
+      return (int) value;
+    }
+
+    private long readZigZag() {
+
+      long value = readVarLong();
+      return (value >>> 1) ^ -(value & 1);
+    }
+
+    private long readFixed(int bytes) {
+
+      long value = 0;
+      for (int i = 0; i < bytes; i++) {
+        value |= (readByte() & 0xFFL) << (i * 8);
+      }
+      return value;
+    }
+
+    private int readLength() {
+
+      int length = readVarInt();
+      if (length > this.end - this.pos) {
+        throw new IllegalArgumentException("Unexpected end of data.");
+      }
+      return length;
+    }
+
+    private byte[] readBytes() {
+
+      int length = readLength();
+      byte[] bytes = Arrays.copyOfRange(this.data, this.pos, this.pos + length);
+      this.pos += length;
+      return bytes;
+    }
+
+    private String readString() {
+
+      int length = readLength();
+      String string = new String(this.data, this.pos, length, StandardCharsets.UTF_8);
+      this.pos += length;
+      return string;
+    }
+
+    private void enter() {
+
+      if (this.depth == MAX_DEPTH) {
+        throw new IllegalArgumentException("Maximum depth of " + MAX_DEPTH + " exceeded at index " + this.pos);
+      }
+      this.depth++;
+    }
+
+    private CriteriaObject<?> readArg() {
+
+      int tag = readByte();
+      switch (tag) {
+        case TAG_NULL:
+          return null;
+        case TAG_EXPRESSION:
+        case TAG_PROJECTION:
+          enter();
+          CriteriaObject<?> node;
+          if (tag == TAG_EXPRESSION) {
+            node = readExpression();
+          } else {
+            node = readProjection();
+          }
+          this.depth--;
+          return node;
+        case TAG_PATH:
+          return readPath();
+        default:
+          return Literal.of(readValue(tag));
+      }
+    }
+
+    private CriteriaExpression<?> readExpression() {
+
+      int id = readVarInt();
+      CriteriaOperator op;
+      if (id == 0) {
+        String syntax = readString();
+        op = CriteriaOperator.of(syntax);
+        if (op == null) {
+          throw new ObjectNotFoundException("Operator", syntax);
+        }
+      } else if (id < OPERATORS.length) {
+        op = OPERATORS[id];
+      } else {
+        throw new ObjectNotFoundException("Operator", Integer.valueOf(id));
+      }
+      int count = readVarInt();
+      if (op instanceof CriteriaAggregationOperator) {
+        if (count > 1) {
+          throw new IllegalArgumentException("Aggregation with " + count + " arguments.");
+        }
+        CriteriaObject<?> arg = null;
+        if (count == 1) {
+          arg = readArg();
+        }
+        return new CriteriaAggregationImpl<>((CriteriaAggregationOperator) op, arg);
+      }
+      int start = this.operands.size();
+      for (int i = 0; i < count; i++) {
+        this.operands.add(readArg());
+      }
+      List<CriteriaObject<?>> args = this.operands.subList(start, this.operands.size());
+      CriteriaExpression<?> expression = op.expression(args);
+      args.clear();
+      return expression;
+    }
+
+    private PropertyPath<?> readPath() {
+
+      int id = readVarInt();
+      if (id < this.pathCount) {
+        return this.paths[id];
+      } else if (id > this.pathCount) {
+        throw new IllegalArgumentException("Invalid path id " + id);
+      }
+      PropertyPath<?> path = SimplePath.of(readString());
+      if (this.pathCount == this.paths.length) {
+        this.paths = Arrays.copyOf(this.paths, this.pathCount * 2);
+      }
+      this.paths[this.pathCount++] = path;
+      return path;
+    }
+
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    private ProjectionProperty<?> readProjection() {
+
+      CriteriaObject<?> selection = readArg();
+      if (readByte() != TAG_PATH) {
+        throw new IllegalArgumentException("Expected path of projection at index " + (this.pos - 1));
+      }
+      PropertyPath<?> property = readPath();
+      return new ProjectionProperty(selection, property);
+    }
+
+    private Object readValue(int tag) {
+
+      switch (tag) {
+        case TAG_NULL:
+          return null;
+        case TAG_TRUE:
+          return Boolean.TRUE;
+        case TAG_FALSE:
+          return Boolean.FALSE;
+        case TAG_STRING:
+          return readString();
+        case TAG_INTEGER:
+          return Integer.valueOf((int) readZigZag());
+        case TAG_LONG:
+          return Long.valueOf(readZigZag());
+        case TAG_SHORT:
+          return Short.valueOf((short) readZigZag());
+        case TAG_BYTE:
+          return Byte.valueOf((byte) readByte());
+        case TAG_DOUBLE:
+          return Double.valueOf(Double.longBitsToDouble(readFixed(8)));
+        case TAG_FLOAT:
+          return Float.valueOf(Float.intBitsToFloat((int) readFixed(4)));
+        case TAG_BIG_INTEGER:
+          return new BigInteger(readBytes());
+        case TAG_BIG_DECIMAL:
+          int scale = (int) readZigZag();
+          return new BigDecimal(new BigInteger(readBytes()), scale);
+        case TAG_INSTANT:
+        case TAG_LOCAL_DATE:
+        case TAG_LOCAL_DATE_TIME:
+        case TAG_LOCAL_TIME:
+          return readTemporal(tag);
+        case TAG_COLLECTION:
+          int size = readVarInt();
+          if (size > this.end - this.pos) {
+            throw new IllegalArgumentException("Unexpected end of data.");
+          }
+          enter();
+          List<Object> list = new ArrayList<>(size);
+          for (int i = 0; i < size; i++) {
+            list.add(readValue(readByte()));
+          }
+          this.depth--;
+          return list;
+        default:
+          throw new IllegalArgumentException("Unknown tag " + tag + " at index " + (this.pos - 1));
+      }
+    }
+
+    private Object readTemporal(int tag) {
+
+      int start = this.pos - 1;
+      try {
+        switch (tag) {
+          case TAG_INSTANT:
+            long seconds = readZigZag();
+            return Instant.ofEpochSecond(seconds, readVarInt());
+          case TAG_LOCAL_DATE:
+            return LocalDate.ofEpochDay(readZigZag());
+          case TAG_LOCAL_DATE_TIME:
+            long epochSecond = readZigZag();
+            return LocalDateTime.ofEpochSecond(epochSecond, readVarInt(), ZoneOffset.UTC);
+          default:
+            return LocalTime.ofNanoOfDay(readVarLong());
+        }
+      } catch (DateTimeException | ArithmeticException e) {
+        throw new IllegalArgumentException("Invalid temporal value at index " + start, e);
+      }
+    }
+  }
+
+}
@@ -0,0 +1,162 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.property.criteria;
+
+import io.github.mmm.base.io.AppendableWriter;
+
+/**
+ * Service provider interface for the specifics of a database dialect used by {@link CriteriaFormatter}. It defines how
+ * identifiers are quoted, the {@link LikePatternSyntax} and escaping used for LIKE patterns and the maximum number of
+ * elements of an {@link PredicateOperator#IN IN} list. Longer lists are split into chunks combined with
+ * {@link PredicateOperator#OR OR} (or {@link PredicateOperator#AND AND} for {@link PredicateOperator#NOT_IN NOT IN})
+ * for databases with a limit on parameters or list elements. For further specifics create a subclass and override
+ * the according methods.
+ *
+ * @since 1.0.0
+ */
+public class CriteriaDialect {
+
+  /** The default {@link CriteriaDialect} writing identifiers unquoted without any limits. */
+  public static final CriteriaDialect DEFAULT = new CriteriaDialect("Default", (char) 0, LikePatternSyntax.SQL, false,
+      0);
+
+  /** {@link CriteriaDialect} for ANSI SQL quoting identifiers with double quotes. */
+  public static final CriteriaDialect ANSI = new CriteriaDialect("ANSI", '"', LikePatternSyntax.SQL, true, 0);
+
+  /** {@link CriteriaDialect} for MySQL and MariaDB quoting identifiers with backticks. */
+  public static final CriteriaDialect MYSQL = new CriteriaDialect("MySQL", '`', LikePatternSyntax.SQL, false, 0);
+
+  /** {@link CriteriaDialect} for Oracle quoting identifiers with double quotes and limiting IN lists to 1000. */
+  public static final CriteriaDialect ORACLE = new CriteriaDialect("Oracle", '"', LikePatternSyntax.SQL, true, 1000);
+
+  private final String name;
+
+  private final char quote;
+
+  private final String quoteString;
+
+  private final String escapedQuote;
+
+  private final LikePatternSyntax likeSyntax;
+
+  private final String likeEscape;
+
+  private final int maxInListSize;
+
+  /**
+   * The constructor.
+   *
+   * @param name the {@link #getName() name}.
+   * @param quote the {@link #getQuote() quote character} or {@code 0} for none.
+   * @param likeSyntax the {@link #getLikeSyntax() LIKE syntax}.
+   * @param likeEscape {@code true} to {@link #getLikeEscape() declare the escape character} explicitly,
+   *        {@code false} otherwise (if {@link LikePatternSyntax#ESCAPE} is the default of the database).
+   * @param maxInListSize the {@link #getMaxInListSize() maximum IN list size}.
+   */
+  protected CriteriaDialect(String name, char quote, LikePatternSyntax likeSyntax, boolean likeEscape,
+      int maxInListSize) {
+
+    super();
+    assert (likeSyntax != null);
+    assert (maxInListSize >= 0);
+    this.name = name;
+    this.quote = quote;
+    if (quote == 0) {
+      this.quoteString = null;
+      this.escapedQuote = null;
+    } else {
+      this.quoteString = Character.toString(quote);
+      this.escapedQuote = this.quoteString + this.quoteString;
+    }
+    this.likeSyntax = likeSyntax;
+    if (likeEscape) {
+      this.likeEscape = " ESCAPE '" + LikePatternSyntax.ESCAPE + "'";
+    } else {
+      this.likeEscape = null;
+    }
+    this.maxInListSize = maxInListSize;
+  }
+
+  /**
+   * @return the name of this dialect.
+   */
+  public String getName() {
+
+    return this.name;
+  }
+
+  /**
+   * @return the character used to quote identifiers or {@code 0} if identifiers are written unquoted.
+   */
+  public char getQuote() {
+
+    return this.quote;
+  }
+
+  /**
+   * @return the {@link LikePatternSyntax} of the database used as
+   *         {@link CriteriaFormatter#getLikeSyntaxTarget() target syntax} for LIKE patterns.
+   */
+  public LikePatternSyntax getLikeSyntax() {
+
+    return this.likeSyntax;
+  }
+
+  /**
+   * @return the clause appended to LIKE expressions to declare {@link LikePatternSyntax#ESCAPE} as escape character
+   *         (e.g. {@code " ESCAPE '\'"}) or {@code null} if not required.
+   */
+  public String getLikeEscape() {
+
+    return this.likeEscape;
+  }
+
+  /**
+   * @return the maximum number of elements in a single {@link PredicateOperator#IN IN} list or {@code 0} for no limit.
+   */
+  public int getMaxInListSize() {
+
+    return this.maxInListSize;
+  }
+
+  /**
+   * Writes the given {@code path} as identifier. Each segment separated by a dot is quoted individually if a
+   * {@link #getQuote() quote character} is defined. Occurrences of the quote character are escaped by doubling them.
+   *
+   * @param path the {@link io.github.mmm.value.PropertyPath#path() path} to write.
+   * @param out the {@link AppendableWriter} to write to.
+   */
+  public void writeIdentifier(String path, AppendableWriter out) {
+
+    if (this.quoteString == null) {
+      out.write(path);
+      return;
+    }
+    int length = path.length();
+    int start = 0;
+    while (start <= length) {
+      int end = path.indexOf('.', start);
+      if (end < 0) {
+        end = length;
+      }
+      if (start > 0) {
+        out.write(".");
+      }
+      out.write(this.quoteString);
+      String segment = path.substring(start, end);
+      if (segment.indexOf(this.quote) >= 0) {
+        segment = segment.replace(this.quoteString, this.escapedQuote);
+      }
+      out.write(segment);
+      out.write(this.quoteString);
+      start = end + 1;
+    }
+  }
+
+  @Override
+  public String toString() {
+
+    return this.name;
+  }
+
+}
@@ -49,6 +49,16 @@ public interface CriteriaExpression<R> extends CriteriaObject<R> {
     return getArgs().size();
   }
 
+  /**
+   * @return the 64-bit structural fingerprint of this expression. Expressions that are structurally equal (same
+   *         {@link #getOperator() operator} and equal {@link #getArgs() arguments}) have the same fingerprint.
+   * @see CriteriaStructureHelper#fingerprint(CriteriaObject)
+   */
+  default long getFingerprint() {
+
+    return CriteriaStructureHelper.computeFingerprint(this);
+  }
+
   /**
    * Simplifies this expression. The following table shows some examples:
    * <table border="1">
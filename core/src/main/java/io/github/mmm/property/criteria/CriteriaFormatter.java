@@ -2,27 +2,41 @@
  * http://www.apache.org/licenses/LICENSE-2.0 */
 package io.github.mmm.property.criteria;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 import io.github.mmm.base.io.AppendableWriter;
 import io.github.mmm.property.criteria.impl.CriteriaParametersInline;
+import io.github.mmm.property.criteria.impl.GenericLiteral;
 import io.github.mmm.value.CriteriaObject;
 import io.github.mmm.value.PropertyPath;
 
 /**
  * A formatter to format {@link CriteriaExpression}s to database specific notation (e.g. SQL) {@link #toString() as
- * string} to a given {@link Appendable} (see {@link #out()}). See {@code of*} methods to create instances. For specific
- * database dialects simply create a subclass of this {@link CriteriaFormatter}.
+ * string} to a given {@link Appendable} (see {@link #out()}). See {@code of*} methods to create instances. The
+ * specifics of the database like quoting of identifiers or limits of IN lists are defined by the
+ * {@link #getDialect() dialect}. For further customization simply create a subclass of this {@link CriteriaFormatter}.
+ * To create many statements with little garbage use {@link #format(CriteriaExpression, CriteriaParameters,
+ * CriteriaDialect)} that reuses a buffer per thread or write directly to your {@link Appendable} or
+ * {@link java.io.Writer} via {@link #of(CriteriaParameters, CriteriaDialect, Appendable)}.
  *
  * @since 1.0.0
  */
 public class CriteriaFormatter implements CriteriaVisitor {
 
+  /** Maximum capacity of a per thread buffer to keep for reuse. Larger buffers are released after use. */
+  private static final int MAX_BUFFER_CAPACITY = 8192;
+
+  private static final ThreadLocal<Buffer> BUFFER = ThreadLocal.withInitial(Buffer::new);
+
   /** {@link Appendable} where to {@link Appendable#append(CharSequence) append} the SQL. */
   protected final AppendableWriter out;
 
   private final CriteriaParameters<?> parameters;
 
+  private CriteriaDialect dialect;
+
   private LikePatternSyntax likeSyntaxSource;
 
   private LikePatternSyntax likeSyntaxTarget;
@@ -54,7 +68,29 @@ public class CriteriaFormatter implements CriteriaVisitor {
       this.parameters = parameters;
     }
     this.out = out;
-    this.likeSyntaxTarget = LikePatternSyntax.SQL;
+    this.dialect = CriteriaDialect.DEFAULT;
+    this.likeSyntaxTarget = this.dialect.getLikeSyntax();
+  }
+
+  /**
+   * @return the {@link CriteriaDialect}. Defaults to {@link CriteriaDialect#DEFAULT}.
+   */
+  public CriteriaDialect getDialect() {
+
+    return this.dialect;
+  }
+
+  /**
+   * @param dialect new value of {@link #getDialect()}. Will also set the {@link #getLikeSyntaxTarget() LIKE target
+   *        syntax} to the {@link CriteriaDialect#getLikeSyntax() LIKE syntax of the dialect}.
+   */
+  public void setDialect(CriteriaDialect dialect) {
+
+    if (dialect == null) {
+      dialect = CriteriaDialect.DEFAULT;
+    }
+    this.dialect = dialect;
+    this.likeSyntaxTarget = dialect.getLikeSyntax();
   }
 
   /**
@@ -129,43 +165,71 @@ public class CriteriaFormatter implements CriteriaVisitor {
           write("(");
         }
       }
+    } else if ((op instanceof CriteriaFunctionOperator) && op.isInfix() && (parent != null)) {
+      // (a + b) * c or a - (b - c)
+      CriteriaOperator parentOp = parent.getOperator();
+      if (parentOp.isInfix()) {
+        int delta = op.getPriority() - parentOp.getPriority();
+        useBrackets = (delta > 0) || ((delta == 0) && (parent.getFirstArg() != expression));
+      }
+      if (useBrackets) {
+        write("(");
+      }
     }
     int argCount = expression.getArgCount();
     if (argCount <= 2) {
       if (argCount == 0) {
         onOperator(op);
       } else if (op.isInfix()) {
+        CriteriaObject<?> secondArg = expression.getSecondArg();
+        if ((argCount == 2) && isChunkInList(op, secondArg)) {
+          onChunkedInList(expression, op, (Literal<?>) secondArg, parent);
+          return this;
+        }
         onArg(expression.getFirstArg(), 0, expression);
-        write(" ");
-        onOperator(op);
+        if (argCount == 2) {
+          onInfixOperator(op);
+          onArg(secondArg, 1, expression);
+          if (PredicateOperator.isLikeBased(op)) {
+            String likeEscape = this.dialect.getLikeEscape();
+            if (likeEscape != null) {
+              write(likeEscape);
+            }
+          }
+        } else {
+          write(" ");
+          onOperator(op);
+        }
       } else {
         onOperator(op);
         write("(");
         useBrackets = true;
         onArg(expression.getFirstArg(), 0, expression);
-      }
-      if (argCount == 2) {
-        write(" ");
-        onArg(expression.getSecondArg(), 1, expression);
+        if (argCount == 2) {
+          write(", ");
+          onArg(expression.getSecondArg(), 1, expression);
+        }
       }
     } else {
       List<? extends CriteriaObject<?>> args = expression.getArgs();
       assert (args.size() == argCount);
-      String separator = ",";
-      if (op.isInfix()) {
-        separator = " " + op.toString() + " ";
-      } else {
+      boolean infix = op.isInfix();
+      if (!infix) {
         // actually a prefix operator should always be unary and therefore we could never get here...
         assert (!op.isUnary());
         onOperator(op);
         useBrackets = true;
         write("(");
       }
-      String s = "";
       for (int i = 0; i < argCount; i++) {
-        write(s);
+        if (i > 0) {
+          if (infix) {
+            onInfixOperator(op);
+          } else {
+            write(", ");
+          }
+        }
         onArg(args.get(i), i, expression);
-        s = separator;
       }
     }
     if (useBrackets) {
@@ -174,6 +238,60 @@ public class CriteriaFormatter implements CriteriaVisitor {
     return this;
   }
 
+  private boolean isChunkInList(CriteriaOperator op, CriteriaObject<?> arg) {
+
+    int max = this.dialect.getMaxInListSize();
+    if ((max > 0) && ((op == PredicateOperator.IN) || (op == PredicateOperator.NOT_IN)) && (arg instanceof Literal)) {
+      Object value = ((Literal<?>) arg).get();
+      return (value instanceof Collection) && (((Collection<?>) value).size() > max);
+    }
+    return false;
+  }
+
+  /**
+   * Writes an {@link PredicateOperator#IN IN} (or {@link PredicateOperator#NOT_IN NOT IN}) expression whose list
+   * exceeds the {@link CriteriaDialect#getMaxInListSize() maximum IN list size} as disjunction (or conjunction) of
+   * chunks (e.g. {@code (x IN (?, ?) OR x IN (?))}).
+   *
+   * @param expression the {@link CriteriaExpression} to write.
+   * @param op the {@link CriteriaExpression#getOperator() operator} of the {@code expression}.
+   * @param list the {@link Literal} with the {@link Collection} to split into chunks.
+   * @param parent the parent {@link CriteriaExpression} or {@code null}.
+   */
+  protected void onChunkedInList(CriteriaExpression<?> expression, CriteriaOperator op, Literal<?> list,
+      CriteriaExpression<?> parent) {
+
+    Collection<?> collection = (Collection<?>) list.get();
+    List<?> values;
+    if (collection instanceof List) {
+      values = (List<?>) collection;
+    } else {
+      values = new ArrayList<>(collection);
+    }
+    int size = values.size();
+    int max = this.dialect.getMaxInListSize();
+    CriteriaOperator junction = PredicateOperator.OR;
+    if (op == PredicateOperator.NOT_IN) {
+      junction = PredicateOperator.AND;
+    }
+    boolean useBrackets = (parent != null);
+    if (useBrackets) {
+      write("(");
+    }
+    for (int start = 0; start < size; start += max) {
+      if (start > 0) {
+        onInfixOperator(junction);
+      }
+      onArg(expression.getFirstArg(), 0, expression);
+      onInfixOperator(op);
+      // plain literal as the chunk is only written and never used for lookups
+      onArg(new GenericLiteral<>(values.subList(start, Math.min(start + max, size))), 1, expression);
+    }
+    if (useBrackets) {
+      write(")");
+    }
+  }
+
   /**
    * @param expression the {@link CriteriaExpression} to consider enclosing in brackets.
    * @param parent the parent {@link CriteriaExpression} using {@code expression} as {@link CriteriaExpression#getArgs()
@@ -212,10 +330,22 @@ public class CriteriaFormatter implements CriteriaVisitor {
     write(operator.toString());
   }
 
+  /**
+   * Writes the given {@link CriteriaOperator#isInfix() infix} {@link CriteriaOperator} including the surrounding
+   * spaces using the {@link CriteriaOperator#getInfixSyntax() precomputed token}. Override together with
+   * {@link #onOperator(CriteriaOperator)} if the dialect requires a different syntax for an operator.
+   *
+   * @param operator the {@link CriteriaOperator} to write between two arguments.
+   */
+  protected void onInfixOperator(CriteriaOperator operator) {
+
+    write(operator.getInfixSyntax());
+  }
+
   @Override
   public void onPropertyPath(PropertyPath<?> property, int i, CriteriaExpression<?> parent) {
 
-    write(property.path());
+    this.dialect.writeIdentifier(property.path(), this.out);
   }
 
   @Override
@@ -241,7 +371,7 @@ public class CriteriaFormatter implements CriteriaVisitor {
    */
   public void onAlias(String alias) {
 
-    write(alias);
+    this.dialect.writeIdentifier(alias, this.out);
   }
 
   @Override
@@ -270,17 +400,12 @@ public class CriteriaFormatter implements CriteriaVisitor {
 
   /**
    * @param glob the literal value for a LIKE expression assumed in glob-syntax.
-   * @return the given {@code glob} {@link String} converted to LIKE pattern.
+   * @return the given {@code glob} {@link String} converted to LIKE pattern in the
+   *         {@link #getLikeSyntaxTarget() target syntax}.
    */
   protected String convertLikePattern(String glob) {
 
-    int length = glob.length();
-    StringBuilder sb = new StringBuilder(length + 2);
-    int i = 0;
-    while (i < length) {
-
-    }
-    return sb.toString();
+    return this.likeSyntaxTarget.convert(glob, LikePatternSyntax.GLOB);
   }
 
   @Override
@@ -335,4 +460,98 @@ public class CriteriaFormatter implements CriteriaVisitor {
     return new CriteriaFormatter(parameters, appendable);
   }
 
+  /**
+   * @param parameters the {@link CriteriaParameters}.
+   * @param dialect the {@link #getDialect() dialect}.
+   * @param appendable the {@link Appendable} (e.g. a {@link java.io.Writer}) where to write the database syntax to
+   *        directly without intermediate buffer.
+   * @return the new {@link CriteriaFormatter}.
+   */
+  public static CriteriaFormatter of(CriteriaParameters<?> parameters, CriteriaDialect dialect, Appendable appendable) {
+
+    AppendableWriter writer;
+    if (appendable instanceof AppendableWriter) {
+      writer = (AppendableWriter) appendable;
+    } else {
+      writer = new AppendableWriter(appendable);
+    }
+    CriteriaFormatter formatter = of(parameters, writer);
+    formatter.setDialect(dialect);
+    return formatter;
+  }
+
+  /**
+   * @param expression the {@link CriteriaExpression} to format with inline parameters and the
+   *        {@link CriteriaDialect#DEFAULT default dialect}. <b>ATTENTION:</b> Only use this for testing or debugging
+   *        (e.g. in {@link #toString()}) to avoid SQL-injection security vulnerabilities.
+   * @return the formatted {@link CriteriaExpression}.
+   * @see #format(CriteriaExpression, CriteriaParameters, CriteriaDialect)
+   */
+  public static String format(CriteriaExpression<?> expression) {
+
+    return format(expression, null, CriteriaDialect.DEFAULT);
+  }
+
+  /**
+   * Formats the given {@link CriteriaExpression} using a buffer that is reused per thread so only the resulting
+   * {@link String} is allocated.
+   *
+   * @param expression the {@link CriteriaExpression} to format.
+   * @param parameters the {@link CriteriaParameters} or {@code null} for inline parameters (see
+   *        {@link #CriteriaFormatter()}).
+   * @param dialect the {@link #getDialect() dialect}.
+   * @return the formatted {@link CriteriaExpression}.
+   */
+  public static String format(CriteriaExpression<?> expression, CriteriaParameters<?> parameters,
+      CriteriaDialect dialect) {
+
+    Buffer buffer = BUFFER.get();
+    if (buffer.inUse) {
+      // re-entrant call (e.g. toString() of an argument while formatting)
+      CriteriaFormatter formatter = of(parameters, dialect, new StringBuilder());
+      formatter.onExpression(expression);
+      return formatter.toString();
+    }
+    buffer.inUse = true;
+    try {
+      CriteriaFormatter formatter = new CriteriaFormatter(parameters, buffer.writer);
+      formatter.setDialect(dialect);
+      formatter.onExpression(expression);
+      return buffer.builder.toString();
+    } finally {
+      buffer.reset();
+    }
+  }
+
+  private static final class Buffer {
+
+    private StringBuilder builder;
+
+    private AppendableWriter writer;
+
+    private boolean inUse;
+
+    private Buffer() {
+
+      super();
+      init();
+    }
+
+    private void init() {
+
+      this.builder = new StringBuilder(256);
+      this.writer = new AppendableWriter(this.builder);
+    }
+
+    private void reset() {
+
+      if (this.builder.capacity() > MAX_BUFFER_CAPACITY) {
+        init();
+      } else {
+        this.builder.setLength(0);
+      }
+      this.inUse = false;
+    }
+  }
+
 }
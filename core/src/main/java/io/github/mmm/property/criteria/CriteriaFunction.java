@@ -0,0 +1,45 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.property.criteria;
+
+import java.util.Objects;
+
+import io.github.mmm.value.CriteriaObject;
+
+/**
+ * {@link CriteriaExpression} using a {@link CriteriaFunctionOperator} such as {@link CriteriaFunctionOperator#ADD +},
+ * {@link CriteriaFunctionOperator#MUL *} or {@link CriteriaFunctionOperator#LOWER LOWER}. It computes a value from
+ * its {@link #getArgs() arguments} and can be used as argument of a {@link CriteriaPredicate} (e.g.
+ * <em>e.Price * e.Quantity &gt; 1000</em> or <em>LOWER(e.Name) = 'x'</em>).
+ *
+ * @param <V> type of the result value of the function.
+ * @since 1.0.0
+ */
+public interface CriteriaFunction<V> extends CriteriaExpression<V> {
+
+  @Override
+  CriteriaFunctionOperator getOperator();
+
+  /**
+   * @deprecated functions are not simplified. Direct usage is pointless.
+   */
+  @Deprecated
+  @Override
+  default CriteriaFunction<V> simplify() {
+
+    return this;
+  }
+
+  /**
+   * @param <V> type of the result value.
+   * @param operator the {@link CriteriaFunctionOperator}.
+   * @param args the {@link #getArgs() arguments}.
+   * @return the {@link CriteriaFunction} applying the given {@link CriteriaFunctionOperator} to the given arguments.
+   */
+  static <V> CriteriaFunction<V> of(CriteriaFunctionOperator operator, CriteriaObject<?>... args) {
+
+    Objects.requireNonNull(operator, "operator");
+    return operator.criteria(args);
+  }
+
+}
@@ -0,0 +1,190 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.property.criteria;
+
+import java.util.List;
+
+import io.github.mmm.property.criteria.impl.CriteriaFunctionImpl;
+import io.github.mmm.value.CriteriaObject;
+
+/**
+ * {@link CriteriaOperator} for a {@link CriteriaFunction} what is either an arithmetic operation (e.g.
+ * <em>e.Price * e.Quantity</em>) or a scalar function (e.g. <em>LOWER(e.Name)</em>).
+ *
+ * @since 1.0.0
+ */
+public class CriteriaFunctionOperator extends CriteriaOperator {
+
+  /** Operator to add numbers (e.g. <em>e.Price + e.Tax</em>). */
+  public static final CriteriaFunctionOperator ADD = new CriteriaFunctionOperator("+", "ADD", PRIO_3_ADD, 0);
+
+  /** Operator to subtract numbers from the first one (e.g. <em>e.Price - e.Discount</em>). */
+  public static final CriteriaFunctionOperator SUB = new CriteriaFunctionOperator("-", "SUB", PRIO_3_ADD, 0);
+
+  /** Operator to multiply numbers (e.g. <em>e.Price * e.Quantity</em>). */
+  public static final CriteriaFunctionOperator MUL = new CriteriaFunctionOperator("*", "MUL", PRIO_2_MUL, 0);
+
+  /**
+   * Operator to divide the first number by the following ones (e.g. <em>e.Price / e.Quantity</em>). In memory the
+   * division is not truncated for integral numbers and a division by zero is {@code null}.
+   */
+  public static final CriteriaFunctionOperator DIV = new CriteriaFunctionOperator("/", "DIV", PRIO_2_MUL, 0);
+
+  /** Operator for the remainder of a division (e.g. <em>e.Id % 10</em>). */
+  public static final CriteriaFunctionOperator MOD = new CriteriaFunctionOperator("%", "MOD", PRIO_2_MUL, 0);
+
+  /** Function for the absolute value of a number (e.g. <em>ABS(e.Balance)</em>). */
+  public static final CriteriaFunctionOperator ABS = new CriteriaFunctionOperator("ABS", 1);
+
+  /** Function to round a number half away from zero (e.g. <em>ROUND(e.Price)</em>). */
+  public static final CriteriaFunctionOperator ROUND = new CriteriaFunctionOperator("ROUND", 1);
+
+  /** Function to round a number down (e.g. <em>FLOOR(e.Price)</em>). */
+  public static final CriteriaFunctionOperator FLOOR = new CriteriaFunctionOperator("FLOOR", 1);
+
+  /** Function to round a number up (e.g. <em>CEIL(e.Price)</em>). */
+  public static final CriteriaFunctionOperator CEIL = new CriteriaFunctionOperator("CEIL", 1);
+
+  /** Function to convert a string to lower case (e.g. <em>LOWER(e.Name)</em>). */
+  public static final CriteriaFunctionOperator LOWER = new CriteriaFunctionOperator("LOWER", 1);
+
+  /** Function to convert a string to upper case (e.g. <em>UPPER(e.Name)</em>). */
+  public static final CriteriaFunctionOperator UPPER = new CriteriaFunctionOperator("UPPER", 1);
+
+  /** Function to remove leading and trailing whitespaces from a string (e.g. <em>TRIM(e.Name)</em>). */
+  public static final CriteriaFunctionOperator TRIM = new CriteriaFunctionOperator("TRIM", 1);
+
+  /** Function for the number of characters of a string (e.g. <em>LENGTH(e.Name)</em>). */
+  public static final CriteriaFunctionOperator LENGTH = new CriteriaFunctionOperator("LENGTH", 1);
+
+  /**
+   * Function to concatenate strings (e.g. <em>CONCAT(e.FirstName, ' ', e.LastName)</em>). The result is {@code null}
+   * if any argument is {@code null}.
+   */
+  public static final CriteriaFunctionOperator CONCAT = new CriteriaFunctionOperator("CONCAT", 0);
+
+  /** Function for the first argument that is not {@code null} (e.g. <em>COALESCE(e.Nickname, e.Name)</em>). */
+  public static final CriteriaFunctionOperator COALESCE = new CriteriaFunctionOperator("COALESCE", 0);
+
+  private final int priority;
+
+  private final boolean infix;
+
+  private final int arity;
+
+  /**
+   * The constructor for a prefix function (e.g. <em>LOWER(e.Name)</em>).
+   *
+   * @param syntax the {@link #getSyntax() syntax}.
+   * @param arity the {@link #getArity() arity}.
+   */
+  protected CriteriaFunctionOperator(String syntax, int arity) {
+
+    this(syntax, null, 0, false, arity);
+  }
+
+  /**
+   * The constructor for an infix operator (e.g. <em>e.Price * e.Quantity</em>).
+   *
+   * @param syntax the {@link #getSyntax() syntax}.
+   * @param name the {@link #getName() name}.
+   * @param priority the {@link #getPriority() priority}.
+   * @param arity the {@link #getArity() arity}.
+   */
+  protected CriteriaFunctionOperator(String syntax, String name, int priority, int arity) {
+
+    this(syntax, name, priority, true, arity);
+  }
+
+  private CriteriaFunctionOperator(String syntax, String name, int priority, boolean infix, int arity) {
+
+    super(syntax, null, false, name);
+    assert (arity >= 0);
+    assert !(infix && (arity == 1));
+    this.priority = priority;
+    this.infix = infix;
+    this.arity = arity;
+  }
+
+  /**
+   * @return the fixed number of arguments or {@code 0} if variable (at least two for {@link #isInfix() infix}
+   *         operators and at least one for functions).
+   */
+  public int getArity() {
+
+    return this.arity;
+  }
+
+  /**
+   * @return {@code true} if this operator computes a number from numeric arguments (e.g. {@link #ADD} or {@link #ABS}),
+   *         {@code false} otherwise (e.g. {@link #LOWER} or {@link #COALESCE}).
+   */
+  public boolean isNumeric() {
+
+    return this.infix || (this == ABS) || (this == ROUND) || (this == FLOOR) || (this == CEIL);
+  }
+
+  @Override
+  public boolean isUnary() {
+
+    return (this.arity == 1);
+  }
+
+  @Override
+  public boolean isInfix() {
+
+    return this.infix;
+  }
+
+  @Override
+  public int getPriority() {
+
+    // 0 for functions as they can not occur without parenthesis
+    return this.priority;
+  }
+
+  @Override
+  public CriteriaFunction<?> expression(List<CriteriaObject<?>> args) {
+
+    return criteria(args.toArray(new CriteriaObject<?>[args.size()]));
+  }
+
+  /**
+   * @param <V> type of the result value.
+   * @param args the {@link CriteriaFunction#getArgs() arguments}.
+   * @return the {@link CriteriaFunction} applying this {@link CriteriaFunctionOperator} to the given arguments.
+   */
+  public <V> CriteriaFunction<V> criteria(CriteriaObject<?>... args) {
+
+    int size = args.length;
+    if (this.arity > 0) {
+      if (size != this.arity) {
+        throw new IllegalArgumentException(getSyntax() + " requires " + this.arity + " argument(s) but got " + size);
+      }
+    } else if ((size == 0) || (this.infix && (size < 2))) {
+      throw new IllegalArgumentException(getSyntax() + " with " + size + " argument(s).");
+    }
+    return new CriteriaFunctionImpl<>(this, args);
+  }
+
+  /**
+   * @param syntax the {@link #getSyntax() syntax} of the requested {@link CriteriaFunctionOperator}.
+   * @return the predefined {@link CriteriaFunctionOperator} or {@code null} if no such operator exists.
+   */
+  public static CriteriaFunctionOperator of(String syntax) {
+
+    CriteriaOperator op = CriteriaOperator.of(syntax);
+    if (op instanceof CriteriaFunctionOperator) {
+      return (CriteriaFunctionOperator) op;
+    }
+    return null;
+  }
+
+  /**
+   * Ensure class-loading and initialization.
+   */
+  static void load() {
+
+  }
+
+}
@@ -0,0 +1,132 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.property.criteria;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import io.github.mmm.value.CriteriaObject;
+import io.github.mmm.value.PropertyPath;
+
+/**
+ * Hash-consing factory for {@link CriteriaObject}s. {@link #intern(CriteriaObject) Interning} returns a canonical
+ * instance for all {@link CriteriaStructureHelper#isEqual(CriteriaObject, CriteriaObject) structurally equal}
+ * {@link CriteriaExpression}s and {@link Literal}s. Sub-expressions are interned bottom-up so that common
+ * sub-expressions are shared. This allows to compare interned criteria by identity and to use them as keys of caches
+ * (e.g. for compiled predicates) without repeated deep comparison. The interner is thread-safe and bounded by its
+ * {@link #getMaxSize() maximum size}: if exceeded, all entries are dropped.
+ *
+ * @since 1.0.0
+ */
+public class CriteriaInterner {
+
+  /** Default value for {@link #getMaxSize()}. */
+  public static final int DEFAULT_MAX_SIZE = 10000;
+
+  private static final CriteriaInterner INSTANCE = new CriteriaInterner();
+
+  private final Map<CriteriaObject<?>, CriteriaObject<?>> pool;
+
+  private final int maxSize;
+
+  /**
+   * The constructor.
+   */
+  public CriteriaInterner() {
+
+    this(DEFAULT_MAX_SIZE);
+  }
+
+  /**
+   * The constructor.
+   *
+   * @param maxSize the {@link #getMaxSize() maximum size}.
+   */
+  public CriteriaInterner(int maxSize) {
+
+    super();
+    if (maxSize <= 0) {
+      throw new IllegalArgumentException("" + maxSize);
+    }
+    this.pool = new ConcurrentHashMap<>();
+    this.maxSize = maxSize;
+  }
+
+  /**
+   * @return the maximum number of canonical instances to keep.
+   */
+  public int getMaxSize() {
+
+    return this.maxSize;
+  }
+
+  /**
+   * @return the current number of canonical instances.
+   */
+  public int size() {
+
+    return this.pool.size();
+  }
+
+  /**
+   * Removes all canonical instances.
+   */
+  public void clear() {
+
+    this.pool.clear();
+  }
+
+  /**
+   * @param <C> type of the {@link CriteriaObject}.
+   * @param object the {@link CriteriaObject} to intern. May be {@code null}.
+   * @return the canonical instance that is {@link CriteriaStructureHelper#isEqual(CriteriaObject, CriteriaObject)
+   *         structurally equal} to the given {@link CriteriaObject}. {@link PropertyPath}s and {@link BooleanLiteral}s
+   *         are returned as is.
+   */
+  @SuppressWarnings("unchecked")
+  public <C extends CriteriaObject<?>> C intern(C object) {
+
+    if ((object == null) || (object instanceof PropertyPath) || (object instanceof BooleanLiteral)) {
+      return object;
+    }
+    CriteriaObject<?> canonical = this.pool.get(object);
+    if (canonical != null) {
+      return (C) canonical;
+    }
+    CriteriaObject<?> candidate = object;
+    if (object instanceof CriteriaExpression) {
+      candidate = internArgs((CriteriaExpression<?>) object);
+    } else if (!(object instanceof Literal)) {
+      return object;
+    }
+    if (this.pool.size() >= this.maxSize) {
+      this.pool.clear();
+    }
+    canonical = this.pool.putIfAbsent(candidate, candidate);
+    if (canonical == null) {
+      canonical = candidate;
+    }
+    return (C) canonical;
+  }
+
+  private CriteriaObject<?> internArgs(CriteriaExpression<?> expression) {
+
+    List<? extends CriteriaObject<?>> args = expression.getArgs();
+    List<CriteriaObject<?>> internedArgs = new ArrayList<>(args.size());
+    for (CriteriaObject<?> arg : args) {
+      internedArgs.add(intern(arg));
+    }
+    return CriteriaStructureHelper.replaceArgs(expression, internedArgs);
+  }
+
+  /**
+   * @return the default instance of {@link CriteriaInterner}.
+   */
+  public static CriteriaInterner get() {
+
+    return INSTANCE;
+  }
+
+}
@@ -31,7 +31,8 @@ public class CriteriaObjectParser implements CharScannerParser<CriteriaObject<?>
   private static CriteriaObjectParser INSTANCE = new CriteriaObjectParser();
 
   private static final CharFilter OP_FILTER = c -> ((c >= '0') && (c <= '9')) || ((c >= 'a') && (c <= 'z'))
-      || ((c >= 'A') && (c <= 'Z')) || (c == '+') || (c == '-') || (c == '<') || (c == '>') || (c == '=');
+      || ((c >= 'A') && (c <= 'Z')) || (c == '+') || (c == '-') || (c == '*') || (c == '/') || (c == '%')
+      || (c == '<') || (c == '>') || (c == '=');
 
   private static final CharFilter NUMER_FILTER = c -> ((c >= '0') && (c <= '9')) || (c == 'e') || (c == 'E')
       || (c == '+') || (c == '-') || (c == '.');
@@ -49,84 +50,83 @@ public class CriteriaObjectParser implements CharScannerParser<CriteriaObject<?>
    */
   public CriteriaObject<?> parse(CharStreamScanner scanner, PropertyPathParser pathParser) {
 
-    char c = scanner.peek();
-    if (c == '(') {
-      scanner.next();
+    ParseState state = new ParseState(scanner, pathParser);
+    CriteriaObject<?> expression = parseChain(state, Integer.MAX_VALUE);
+    assert (state.pending == null);
+    return expression;
+  }
+
+  /**
+   * Parses an operand followed by all infix operators binding tighter than the given {@code limit}.
+   *
+   * @param state the {@link ParseState}.
+   * @param limit the {@link CriteriaOperator#getPriority() priority} of the enclosing operator.
+   * @return the parsed {@link CriteriaObject}.
+   */
+  private CriteriaObject<?> parseChain(ParseState state, int limit) {
+
+    CriteriaObject<?> expression = parseOperand(state);
+    parseNextOperator(state);
+    while ((state.pending != null) && (state.pending.getPriority() < limit)) {
+      CriteriaOperator operator = state.pending;
+      List<CriteriaObject<?>> operands = state.operands;
+      int start = operands.size();
+      operands.add(expression);
+      do {
+        operands.add(parseChain(state, operator.getPriority()));
+      } while (state.pending == operator);
+      // operators copy their arguments so the shared operand list can be reused for all levels
+      List<CriteriaObject<?>> args = operands.subList(start, operands.size());
+      expression = operator.expression(args);
+      args.clear();
+    }
+    return expression;
+  }
+
+  private CriteriaObject<?> parseOperand(ParseState state) {
+
+    CharStreamScanner scanner = state.scanner;
+    if (scanner.expectOne('(')) {
       scanner.skipWhile(' ');
-      CriteriaObject<?> expression = parse(scanner);
+      CriteriaObject<?> expression = parseChain(state, Integer.MAX_VALUE);
       scanner.skipWhile(' ');
       if (!scanner.expectOne(')')) {
         throw new IllegalArgumentException("Missing ')'.");
       }
       return expression;
     }
-    return parse(scanner, pathParser, null, null);
+    return parseSelection(scanner, state.pathParser);
   }
 
-  private CriteriaObject<?> parse(CharStreamScanner scanner, PropertyPathParser pathParser,
-      CriteriaObject<?> expression, CriteriaOperator operator) {
+  private void parseNextOperator(ParseState state) {
 
-    List<CriteriaObject<?>> expressions = null;
-    if (expression != null) {
-      assert (operator != null);
-      expressions = new ArrayList<>();
-      expressions.add(expression);
-    }
-    do {
-      if (scanner.peek() == '(') {
-        expression = parse(scanner);
-      } else {
-        expression = parsePredicate(scanner, pathParser);
-      }
-      if (expressions != null) {
-        expressions.add(expression);
-      }
-      int spaces = scanner.skipWhile(' ');
-      char c = scanner.peek();
-      if ((c == ',') || (c == ')') || (c == CharStreamScanner.EOS)) {
-        break;
-      } else if ((c == 'o') || (c == 'O')) {
-        if (scanner.expect("ORDER BY ", true, true)) {
-          break;
-        }
-      } else if ((c == 'g') || (c == 'G')) {
-        if (scanner.expect("GROUP BY ", true, true)) {
-          break;
-        }
-      } else if ((c == 'h') || (c == 'H')) {
-        if (scanner.expect("HAVING ", true, true)) {
-          break;
-        }
+    CharStreamScanner scanner = state.scanner;
+    scanner.skipWhile(' ');
+    state.pending = null;
+    char c = scanner.peek();
+    if ((c == ',') || (c == ')') || (c == CharStreamScanner.EOS)) {
+      return;
+    } else if ((c == 'o') || (c == 'O')) {
+      if (scanner.expect("ORDER BY ", true, true)) {
+        return;
       }
-      CriteriaOperator newOp = parseOperator(scanner);
-      spaces = scanner.skipWhile(' ');
-      assert (spaces > 0);
-      if (expressions == null) {
-        expressions = new ArrayList<>();
-        expressions.add(expression);
+    } else if ((c == 'g') || (c == 'G')) {
+      if (scanner.expect("GROUP BY ", true, true)) {
+        return;
       }
-      if (operator == null) {
-        operator = newOp;
-      } else if (newOp != operator) {
-        if (newOp.getPriority() > operator.getPriority()) {
-          expressions.remove(expressions.size() - 1);
-          expression = parse(scanner, pathParser, expression, newOp);
-        } else {
-          expressions.add(expression);
-          expression = operator.expression(expressions);
-          expressions.clear();
-        }
+    } else if ((c == 'h') || (c == 'H')) {
+      if (scanner.expect("HAVING ", true, true)) {
+        return;
       }
-    } while (true);
-    if (expressions != null) {
-      assert (operator != null);
-      expression = operator.expression(expressions);
     }
-    return expression;
+    state.pending = parseOperator(scanner);
+    int spaces = scanner.skipWhile(' ');
+    assert (spaces > 0);
   }
 
   /**
-   * Parses a simple selection what is a {@link Literal}, a {@link PropertyPath}, or a {@link CriteriaAggregation}.
+   * Parses a simple selection what is a {@link Literal}, a {@link PropertyPath}, a {@link CriteriaAggregation}, or a
+   * {@link CriteriaFunction} with a prefix {@link CriteriaFunctionOperator} (e.g. {@code LOWER(e.Name)}).
    *
    * @param scanner the {@link CharStreamScanner} to read from.
    * @param pathParser the {@link PropertyPathParser}.
@@ -149,8 +149,16 @@ public class CriteriaObjectParser implements CharScannerParser<CriteriaObject<?>
         CriteriaObject<?> arg = parseSelection(scanner, pathParser);
         CriteriaAggregationOperator aggOp = (CriteriaAggregationOperator) operator;
         result = new CriteriaAggregationImpl<>(aggOp, arg);
+      } else if (operator instanceof CriteriaFunctionOperator) {
+        List<CriteriaObject<?>> args = new ArrayList<>();
+        do {
+          scanner.skipWhile(' ');
+          args.add(parse(scanner, pathParser));
+          scanner.skipWhile(' ');
+        } while (scanner.expectOne(','));
+        result = operator.expression(args);
       } else if (operator == PredicateOperator.NOT) {
-        CriteriaObject<?> arg = parse(scanner);
+        CriteriaObject<?> arg = parse(scanner, pathParser);
         if (arg instanceof CriteriaPredicate) {
           result = ((CriteriaPredicate) arg).not();
         } else {
@@ -242,6 +250,10 @@ public class CriteriaObjectParser implements CharScannerParser<CriteriaObject<?>
   public CriteriaPredicate parsePredicate(CharStreamScanner scanner, PropertyPathParser pathParser) {
 
     CriteriaObject<?> arg1 = parseSelection(scanner, pathParser);
+    if (arg1 instanceof CriteriaPredicate) {
+      // e.g. NOT(...)
+      return (CriteriaPredicate) arg1;
+    }
     scanner.skipWhile(' ');
     PredicateOperator operator = parsePredicateOperator(scanner);
     scanner.skipWhile(' ');
@@ -268,4 +280,23 @@ public class CriteriaObjectParser implements CharScannerParser<CriteriaObject<?>
     return INSTANCE;
   }
 
+  private static class ParseState {
+
+    private final CharStreamScanner scanner;
+
+    private final PropertyPathParser pathParser;
+
+    private final List<CriteriaObject<?>> operands;
+
+    private CriteriaOperator pending;
+
+    private ParseState(CharStreamScanner scanner, PropertyPathParser pathParser) {
+
+      super();
+      this.scanner = scanner;
+      this.pathParser = pathParser;
+      this.operands = new ArrayList<>();
+    }
+  }
+
 }
@@ -50,6 +50,8 @@ public abstract class CriteriaOperator {
 
   private final String syntax;
 
+  private final String infixSyntax;
+
   private final String name;
 
   private final boolean inverse;
@@ -59,6 +61,7 @@ public abstract class CriteriaOperator {
   static {
     PredicateOperator.load();
     CriteriaAggregationOperator.load();
+    CriteriaFunctionOperator.load();
   }
 
   /**
@@ -107,6 +110,7 @@ public abstract class CriteriaOperator {
     super();
     assert ((syntax != null) && !syntax.isEmpty()) : syntax;
     this.syntax = syntax;
+    this.infixSyntax = " " + syntax + " ";
     if (name == null) {
       this.name = syntax.replace(' ', '_');
     } else {
@@ -171,6 +175,15 @@ public abstract class CriteriaOperator {
     return this.syntax;
   }
 
+  /**
+   * @return the {@link #getSyntax() syntax} surrounded by spaces as precomputed token to write between the arguments
+   *         of an {@link #isInfix() infix} operator (e.g. {@code " AND "}).
+   */
+  public String getInfixSyntax() {
+
+    return this.infixSyntax;
+  }
+
   /**
    * @return a {@link #toString() string representation} like {@link #getSyntax() syntax} but guaranteed to match
    *         {@code [a-Z0-9_]+}.
@@ -0,0 +1,752 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.property.criteria;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.github.mmm.property.criteria.impl.CollectionLiteral;
+import io.github.mmm.property.criteria.impl.ConjunctionPredicate;
+import io.github.mmm.property.criteria.impl.SimplePredicate;
+import io.github.mmm.value.CriteriaObject;
+import io.github.mmm.value.PropertyPath;
+
+/**
+ * Optimizer for {@link CriteriaPredicate}s that goes beyond {@link CriteriaPredicate#simplify()}. It
+ * <ul>
+ * <li>folds constants (e.g. against {@link SimplePredicate#ALWAYS} and {@link SimplePredicate#NEVER}),</li>
+ * <li>merges ranges on the same property (e.g. {@code x > 5 AND x > 7} to {@code x > 7} or {@code x = 3 OR x = 4} to
+ * {@code x IN (3, 4)}),</li>
+ * <li>detects contradictions (e.g. {@code x = 3 AND x > 5} to {@link SimplePredicate#NEVER}),</li>
+ * <li>removes duplicate sub-predicates, and</li>
+ * <li>can {@link #toCnf(CriteriaPredicate) normalize to CNF} or {@link #toDnf(CriteriaPredicate) DNF} with a
+ * {@link #getMaxNormalFormSize() size limit}.</li>
+ * </ul>
+ * All transformations preserve the SQL semantics where a comparison with {@code null} is never satisfied. The result
+ * is cheaper to evaluate in memory and produces shorter SQL via {@link CriteriaFormatter}.
+ *
+ * @since 1.0.0
+ */
+public class CriteriaOptimizer {
+
+  /** The default {@link #getMaxNormalFormSize() maximum size} of a normal form. */
+  public static final int DEFAULT_MAX_NORMAL_FORM_SIZE = 64;
+
+  private static final CriteriaOptimizer INSTANCE = new CriteriaOptimizer(DEFAULT_MAX_NORMAL_FORM_SIZE);
+
+  private final int maxNormalFormSize;
+
+  /**
+   * The constructor.
+   *
+   * @param maxNormalFormSize the {@link #getMaxNormalFormSize() maximum size of a normal form}.
+   */
+  public CriteriaOptimizer(int maxNormalFormSize) {
+
+    super();
+    this.maxNormalFormSize = maxNormalFormSize;
+  }
+
+  /**
+   * @return the maximum number of atomic predicates in the result of {@link #toCnf(CriteriaPredicate)} or
+   *         {@link #toDnf(CriteriaPredicate)}. If the normal form would exceed this limit, the normalization is omitted
+   *         to prevent exponential growth.
+   */
+  public int getMaxNormalFormSize() {
+
+    return this.maxNormalFormSize;
+  }
+
+  /**
+   * @param predicate the {@link CriteriaPredicate} to optimize.
+   * @return the optimized {@link CriteriaPredicate} that is logically equivalent to the given {@link CriteriaPredicate}.
+   */
+  public CriteriaPredicate optimize(CriteriaPredicate predicate) {
+
+    if (predicate == null) {
+      return null;
+    }
+    CriteriaPredicate simplified = predicate.simplify();
+    if (simplified == null) {
+      simplified = predicate;
+    }
+    return optimizeNode(simplified);
+  }
+
+  /**
+   * @param predicate the {@link CriteriaPredicate} to normalize.
+   * @return the {@link #optimize(CriteriaPredicate) optimized} {@link CriteriaPredicate} in conjunctive normal form
+   *         (AND of ORs) or only {@link #optimize(CriteriaPredicate) optimized} if the normal form would exceed the
+   *         {@link #getMaxNormalFormSize() size limit}.
+   */
+  public CriteriaPredicate toCnf(CriteriaPredicate predicate) {
+
+    return normalize(predicate, true);
+  }
+
+  /**
+   * @param predicate the {@link CriteriaPredicate} to normalize.
+   * @return the {@link #optimize(CriteriaPredicate) optimized} {@link CriteriaPredicate} in disjunctive normal form
+   *         (OR of ANDs) or only {@link #optimize(CriteriaPredicate) optimized} if the normal form would exceed the
+   *         {@link #getMaxNormalFormSize() size limit}.
+   */
+  public CriteriaPredicate toDnf(CriteriaPredicate predicate) {
+
+    return normalize(predicate, false);
+  }
+
+  private CriteriaPredicate normalize(CriteriaPredicate predicate, boolean cnf) {
+
+    CriteriaPredicate optimized = optimize(predicate);
+    List<List<BooleanSelection>> clauses = toClauses(optimized, cnf);
+    if (clauses == null) {
+      return optimized;
+    }
+    PredicateOperator outer = cnf ? PredicateOperator.AND : PredicateOperator.OR;
+    PredicateOperator inner = cnf ? PredicateOperator.OR : PredicateOperator.AND;
+    List<BooleanSelection> args = new ArrayList<>(clauses.size());
+    for (List<BooleanSelection> clause : clauses) {
+      args.add(join(inner, clause));
+    }
+    return optimizeNode(join(outer, args));
+  }
+
+  private List<List<BooleanSelection>> toClauses(BooleanSelection selection, boolean cnf) {
+
+    PredicateOperator outer = cnf ? PredicateOperator.AND : PredicateOperator.OR;
+    PredicateOperator inner = cnf ? PredicateOperator.OR : PredicateOperator.AND;
+    List<List<BooleanSelection>> result = new ArrayList<>();
+    if (selection instanceof CriteriaPredicate) {
+      CriteriaPredicate predicate = (CriteriaPredicate) selection;
+      PredicateOperator op = predicate.getOperator();
+      if (op == outer) {
+        int size = 0;
+        for (BooleanSelection arg : getConjunctionArgs(predicate)) {
+          List<List<BooleanSelection>> clauses = toClauses(arg, cnf);
+          if (clauses == null) {
+            return null;
+          }
+          size += size(clauses);
+          if (size > this.maxNormalFormSize) {
+            return null;
+          }
+          result.addAll(clauses);
+        }
+        return result;
+      } else if (op == inner) {
+        result.add(List.of());
+        for (BooleanSelection arg : getConjunctionArgs(predicate)) {
+          List<List<BooleanSelection>> clauses = toClauses(arg, cnf);
+          if (clauses == null) {
+            return null;
+          }
+          List<List<BooleanSelection>> product = new ArrayList<>(result.size() * clauses.size());
+          int size = 0;
+          for (List<BooleanSelection> left : result) {
+            for (List<BooleanSelection> right : clauses) {
+              List<BooleanSelection> clause = new ArrayList<>(left.size() + right.size());
+              clause.addAll(left);
+              clause.addAll(right);
+              size += clause.size();
+              if (size > this.maxNormalFormSize) {
+                return null;
+              }
+              product.add(clause);
+            }
+          }
+          result = product;
+        }
+        return result;
+      }
+    }
+    result.add(List.of(selection));
+    return result;
+  }
+
+  private static int size(List<List<BooleanSelection>> clauses) {
+
+    int size = 0;
+    for (List<BooleanSelection> clause : clauses) {
+      size += clause.size();
+    }
+    return size;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static List<BooleanSelection> getConjunctionArgs(CriteriaPredicate predicate) {
+
+    return (List<BooleanSelection>) predicate.getArgs();
+  }
+
+  private static CriteriaPredicate join(PredicateOperator op, List<BooleanSelection> args) {
+
+    int size = args.size();
+    if (size == 0) {
+      if (op == PredicateOperator.AND) {
+        return SimplePredicate.ALWAYS;
+      }
+      return SimplePredicate.NEVER;
+    } else if ((size == 1) && (args.get(0) instanceof CriteriaPredicate)) {
+      return (CriteriaPredicate) args.get(0);
+    }
+    return new ConjunctionPredicate(op, new ArrayList<>(args));
+  }
+
+  private CriteriaPredicate optimizeNode(CriteriaPredicate predicate) {
+
+    PredicateOperator op = predicate.getOperator();
+    if (op.isConjunction()) {
+      return optimizeConjunction(predicate);
+    } else if (op == PredicateOperator.NOT) {
+      CriteriaObject<?> arg = predicate.getFirstArg();
+      if (arg instanceof CriteriaPredicate) {
+        CriteriaPredicate negation = ((CriteriaPredicate) arg).not();
+        if (negation != null) {
+          return optimizeNode(negation);
+        }
+      }
+      return predicate;
+    }
+    return optimizeSimple(predicate);
+  }
+
+  private CriteriaPredicate optimizeSimple(CriteriaPredicate predicate) {
+
+    if ((predicate == SimplePredicate.ALWAYS) || (predicate == SimplePredicate.NEVER)) {
+      return predicate;
+    }
+    PredicateOperator op = predicate.getOperator();
+    CriteriaObject<?> arg1 = predicate.getFirstArg();
+    CriteriaObject<?> arg2 = predicate.getSecondArg();
+    if ((arg1 instanceof Literal) && ((arg2 == null) || (arg2 instanceof Literal))) {
+      Object value1 = ((Literal<?>) arg1).get();
+      Object value2 = null;
+      if (arg2 != null) {
+        value2 = ((Literal<?>) arg2).get();
+      }
+      Boolean result = evaluate(op, value1, value2);
+      if (result != null) {
+        return result.booleanValue() ? SimplePredicate.ALWAYS : SimplePredicate.NEVER;
+      }
+    } else if ((arg2 instanceof CollectionLiteral) && (op == PredicateOperator.IN)) {
+      Collection<?> values = ((CollectionLiteral<?>) arg2).get();
+      if (values.isEmpty()) {
+        return SimplePredicate.NEVER;
+      } else if (values.size() == 1) {
+        Object value = values.iterator().next();
+        if (value != null) {
+          return new SimplePredicate(arg1, PredicateOperator.EQ, Literal.of(value));
+        }
+      }
+    }
+    return predicate;
+  }
+
+  private static Boolean evaluate(PredicateOperator op, Object value1, Object value2) {
+
+    if (op == PredicateOperator.IS_NULL) {
+      return Boolean.valueOf(value1 == null);
+    } else if (op == PredicateOperator.IS_NOT_NULL) {
+      return Boolean.valueOf(value1 != null);
+    } else if ((value1 == null) || (value2 == null)) {
+      return Boolean.FALSE;
+    } else if (op == PredicateOperator.EQ) {
+      return Boolean.valueOf(CriteriaValueHelper.isEqual(value1, value2));
+    } else if (op == PredicateOperator.NEQ) {
+      return Boolean.valueOf(!CriteriaValueHelper.isEqual(value1, value2));
+    }
+    try {
+      if (op == PredicateOperator.LT) {
+        return Boolean.valueOf(CriteriaValueHelper.compare(value1, value2) < 0);
+      } else if (op == PredicateOperator.LE) {
+        return Boolean.valueOf(CriteriaValueHelper.compare(value1, value2) <= 0);
+      } else if (op == PredicateOperator.GT) {
+        return Boolean.valueOf(CriteriaValueHelper.compare(value1, value2) > 0);
+      } else if (op == PredicateOperator.GE) {
+        return Boolean.valueOf(CriteriaValueHelper.compare(value1, value2) >= 0);
+      }
+    } catch (IllegalArgumentException e) {
+      // not comparable - leave as is
+    }
+    return null;
+  }
+
+  private CriteriaPredicate optimizeConjunction(CriteriaPredicate predicate) {
+
+    PredicateOperator op = predicate.getOperator();
+    List<BooleanSelection> args = getConjunctionArgs(predicate);
+    if (op.isInverse()) {
+      // De Morgan: NAND(a, b) = OR(NOT a, NOT b) and NOR(a, b) = AND(NOT a, NOT b)
+      List<BooleanSelection> negated = new ArrayList<>(args.size());
+      for (BooleanSelection arg : args) {
+        BooleanSelection negation = arg.not();
+        if (negation == null) {
+          return predicate;
+        }
+        negated.add(negation);
+      }
+      args = negated;
+      op = (op == PredicateOperator.NAND) ? PredicateOperator.OR : PredicateOperator.AND;
+    }
+    boolean and = (op == PredicateOperator.AND);
+    CriteriaPredicate neutral = and ? SimplePredicate.ALWAYS : SimplePredicate.NEVER;
+    CriteriaPredicate dominant = and ? SimplePredicate.NEVER : SimplePredicate.ALWAYS;
+    List<BooleanSelection> result = new ArrayList<>(args.size());
+    for (BooleanSelection arg : args) {
+      if (arg instanceof CriteriaPredicate) {
+        CriteriaPredicate optimized = optimizeNode((CriteriaPredicate) arg);
+        if (optimized == dominant) {
+          return dominant;
+        } else if (optimized == neutral) {
+          continue;
+        } else if (optimized.getOperator() == op) {
+          addAll(result, getConjunctionArgs(optimized));
+        } else {
+          add(result, optimized);
+        }
+      } else {
+        add(result, arg);
+      }
+    }
+    if (hasComplement(result, and)) {
+      return dominant;
+    }
+    result = mergeRanges(result, and);
+    if (result == null) {
+      return dominant;
+    }
+    if (result.size() == args.size()) {
+      boolean unchanged = (op == predicate.getOperator());
+      for (int i = 0; unchanged && (i < args.size()); i++) {
+        unchanged = (result.get(i) == args.get(i));
+      }
+      if (unchanged) {
+        return predicate;
+      }
+    }
+    return join(op, result);
+  }
+
+  private static void addAll(List<BooleanSelection> result, List<BooleanSelection> args) {
+
+    for (BooleanSelection arg : args) {
+      add(result, arg);
+    }
+  }
+
+  private static void add(List<BooleanSelection> result, BooleanSelection arg) {
+
+    for (BooleanSelection existing : result) {
+      if (CriteriaStructureHelper.isEqual(existing, arg)) {
+        return; // remove duplicate
+      }
+    }
+    result.add(arg);
+  }
+
+  /**
+   * @return {@code true} if the conjunction contains an atomic predicate and its negation so that it is a
+   *         contradiction (AND) or tautology (OR).
+   */
+  private static boolean hasComplement(List<BooleanSelection> args, boolean and) {
+
+    int size = args.size();
+    for (int i = 0; i < size; i++) {
+      BooleanSelection arg = args.get(i);
+      if (!(arg instanceof SimplePredicate)) {
+        continue;
+      }
+      PredicateOperator op = ((SimplePredicate) arg).getOperator();
+      // due to SQL null semantics "x > 5 OR x <= 5" is not a tautology but "x IS NULL OR x IS NOT NULL" is
+      if (!and && (op != PredicateOperator.IS_NULL)) {
+        continue;
+      }
+      CriteriaPredicate negation = ((SimplePredicate) arg).not();
+      if (negation == null) {
+        continue;
+      }
+      for (int j = 0; j < size; j++) {
+        if ((i != j) && CriteriaStructureHelper.isEqual(negation, args.get(j))) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  /**
+   * @return the merged arguments or {@code null} if a contradiction (AND) or tautology (OR) was detected.
+   */
+  private static List<BooleanSelection> mergeRanges(List<BooleanSelection> args, boolean and) {
+
+    Map<List<String>, Range> rangeMap = new LinkedHashMap<>();
+    List<Object> slots = new ArrayList<>(args.size());
+    for (BooleanSelection arg : args) {
+      Range range = null;
+      if (arg instanceof SimplePredicate) {
+        SimplePredicate predicate = (SimplePredicate) arg;
+        CriteriaObject<?> arg1 = predicate.getFirstArg();
+        if ((arg1 instanceof PropertyPath) && Range.isSupported(predicate)) {
+          List<String> key = Arrays.asList(PropertyPathHelper.getSegments((PropertyPath<?>) arg1));
+          range = rangeMap.get(key);
+          if (range == null) {
+            range = new Range(arg1);
+            rangeMap.put(key, range);
+            slots.add(range);
+          }
+          range.predicates.add(predicate);
+        }
+      }
+      if (range == null) {
+        slots.add(arg);
+      }
+    }
+    if (rangeMap.isEmpty()) {
+      return args;
+    }
+    List<BooleanSelection> result = new ArrayList<>(args.size());
+    for (Object slot : slots) {
+      if (slot instanceof Range) {
+        Range range = (Range) slot;
+        List<SimplePredicate> merged;
+        try {
+          if (and) {
+            merged = range.intersect();
+          } else {
+            merged = range.union();
+          }
+        } catch (IllegalArgumentException e) {
+          // values not comparable
+          merged = range.predicates;
+        }
+        if (merged == null) {
+          return null;
+        }
+        result.addAll(merged);
+      } else {
+        result.add((BooleanSelection) slot);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * @return the default instance of {@link CriteriaOptimizer}.
+   */
+  public static CriteriaOptimizer get() {
+
+    return INSTANCE;
+  }
+
+  /**
+   * Collects the atomic predicates on a single property to merge them.
+   */
+  private static class Range {
+
+    private final CriteriaObject<?> property;
+
+    private final List<SimplePredicate> predicates;
+
+    private SimplePredicate lower;
+
+    private SimplePredicate upper;
+
+    private Range(CriteriaObject<?> property) {
+
+      super();
+      this.property = property;
+      this.predicates = new ArrayList<>();
+    }
+
+    private static boolean isSupported(SimplePredicate predicate) {
+
+      PredicateOperator op = predicate.getOperator();
+      if ((op == PredicateOperator.IS_NULL) || (op == PredicateOperator.IS_NOT_NULL)) {
+        return true;
+      }
+      CriteriaObject<?> arg2 = predicate.getSecondArg();
+      if (!(arg2 instanceof Literal)) {
+        return false;
+      }
+      Object value = ((Literal<?>) arg2).get();
+      if (value == null) {
+        return false;
+      } else if (op == PredicateOperator.IN) {
+        if (!(value instanceof Collection)) {
+          return false;
+        }
+        for (Object element : (Collection<?>) value) {
+          if (element == null) {
+            return false;
+          }
+        }
+        return true;
+      }
+      return !(value instanceof Collection) && ((op == PredicateOperator.EQ) || (op == PredicateOperator.LT)
+          || (op == PredicateOperator.LE) || (op == PredicateOperator.GT) || (op == PredicateOperator.GE));
+    }
+
+    private static Object getValue(SimplePredicate predicate) {
+
+      return ((Literal<?>) predicate.getSecondArg()).get();
+    }
+
+    private static boolean isInclusive(SimplePredicate predicate) {
+
+      PredicateOperator op = predicate.getOperator();
+      return (op == PredicateOperator.GE) || (op == PredicateOperator.LE);
+    }
+
+    private boolean isInRange(Object value) {
+
+      if (this.lower != null) {
+        int delta = CriteriaValueHelper.compare(value, getValue(this.lower));
+        if ((delta < 0) || ((delta == 0) && !isInclusive(this.lower))) {
+          return false;
+        }
+      }
+      if (this.upper != null) {
+        int delta = CriteriaValueHelper.compare(value, getValue(this.upper));
+        if ((delta > 0) || ((delta == 0) && !isInclusive(this.upper))) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    /**
+     * @param stricter - {@code true} to keep the stricter bound (AND), {@code false} for the weaker bound (OR).
+     */
+    private void addBound(SimplePredicate predicate, boolean stricter) {
+
+      PredicateOperator op = predicate.getOperator();
+      boolean isLower = (op == PredicateOperator.GT) || (op == PredicateOperator.GE);
+      SimplePredicate current = isLower ? this.lower : this.upper;
+      boolean replace;
+      if (current == null) {
+        replace = true;
+      } else {
+        int delta = CriteriaValueHelper.compare(getValue(predicate), getValue(current));
+        if (!isLower) {
+          delta = -delta;
+        }
+        if (delta == 0) {
+          // same value: exclusive is stricter than inclusive
+          replace = (isInclusive(predicate) != stricter);
+        } else {
+          replace = ((delta > 0) == stricter);
+        }
+      }
+      if (replace) {
+        if (isLower) {
+          this.lower = predicate;
+        } else {
+          this.upper = predicate;
+        }
+      }
+    }
+
+    /**
+     * @return the merged predicates for AND or {@code null} for a contradiction.
+     */
+    private List<SimplePredicate> intersect() {
+
+      if (this.predicates.size() == 1) {
+        return this.predicates;
+      }
+      boolean isNull = false;
+      boolean notNull = false;
+      SimplePredicate eq = null;
+      List<Object> in = null;
+      SimplePredicate inPredicate = null;
+      for (SimplePredicate predicate : this.predicates) {
+        PredicateOperator op = predicate.getOperator();
+        if (op == PredicateOperator.IS_NULL) {
+          isNull = true;
+        } else if (op == PredicateOperator.IS_NOT_NULL) {
+          notNull = true;
+        } else {
+          notNull = true;
+          if (op == PredicateOperator.EQ) {
+            if (eq == null) {
+              eq = predicate;
+            } else if (!CriteriaValueHelper.isEqual(getValue(eq), getValue(predicate))) {
+              return null;
+            }
+          } else if (op == PredicateOperator.IN) {
+            Collection<?> values = (Collection<?>) getValue(predicate);
+            if (in == null) {
+              in = new ArrayList<>(values);
+              inPredicate = predicate;
+            } else {
+              in.removeIf(value -> !contains(values, value));
+              inPredicate = null;
+            }
+          } else {
+            addBound(predicate, true);
+          }
+        }
+      }
+      if (isNull) {
+        if (notNull) {
+          return null;
+        }
+        return this.predicates.subList(0, 1);
+      }
+      if (eq != null) {
+        Object value = getValue(eq);
+        if (!isInRange(value) || ((in != null) && !contains(in, value))) {
+          return null;
+        }
+        return List.of(eq);
+      } else if (in != null) {
+        int size = in.size();
+        in.removeIf(value -> !isInRange(value));
+        if (in.isEmpty()) {
+          return null;
+        } else if (in.size() == 1) {
+          return List.of(new SimplePredicate(this.property, PredicateOperator.EQ, Literal.of(in.get(0))));
+        } else if ((inPredicate != null) && (in.size() == size)) {
+          return List.of(inPredicate);
+        }
+        return List.of(new SimplePredicate(this.property, PredicateOperator.IN, new CollectionLiteral<>(in)));
+      }
+      List<SimplePredicate> result = new ArrayList<>(2);
+      if ((this.lower != null) && (this.upper != null)) {
+        int delta = CriteriaValueHelper.compare(getValue(this.lower), getValue(this.upper));
+        if (delta > 0) {
+          return null;
+        } else if (delta == 0) {
+          if (isInclusive(this.lower) && isInclusive(this.upper)) {
+            return List.of(new SimplePredicate(this.property, PredicateOperator.EQ, this.lower.getSecondArg()));
+          }
+          return null;
+        }
+      }
+      if (this.lower != null) {
+        result.add(this.lower);
+      }
+      if (this.upper != null) {
+        result.add(this.upper);
+      }
+      if (result.isEmpty()) {
+        // only IS NOT NULL
+        result.add(this.predicates.get(0));
+      }
+      return result;
+    }
+
+    /**
+     * @return the merged predicates for OR or {@code null} for a tautology.
+     */
+    private List<SimplePredicate> union() {
+
+      if (this.predicates.size() == 1) {
+        return this.predicates;
+      }
+      SimplePredicate isNull = null;
+      SimplePredicate notNull = null;
+      List<Object> in = new ArrayList<>();
+      SimplePredicate inPredicate = null;
+      int inCount = 0;
+      for (SimplePredicate predicate : this.predicates) {
+        PredicateOperator op = predicate.getOperator();
+        if (op == PredicateOperator.IS_NULL) {
+          isNull = predicate;
+        } else if (op == PredicateOperator.IS_NOT_NULL) {
+          notNull = predicate;
+        } else if ((op == PredicateOperator.EQ) || (op == PredicateOperator.IN)) {
+          Object value = getValue(predicate);
+          if (op == PredicateOperator.IN) {
+            for (Object element : (Collection<?>) value) {
+              addUnique(in, element);
+            }
+          } else {
+            addUnique(in, value);
+          }
+          inPredicate = predicate;
+          inCount++;
+        } else {
+          addBound(predicate, false);
+        }
+      }
+      if ((isNull != null) && (notNull != null)) {
+        return null;
+      }
+      List<SimplePredicate> result = new ArrayList<>(4);
+      if (isNull != null) {
+        result.add(isNull);
+      }
+      if (notNull != null) {
+        // IS NOT NULL covers every comparison
+        result.add(notNull);
+        return result;
+      }
+      if ((this.lower != null) && (this.upper != null)) {
+        int delta = CriteriaValueHelper.compare(getValue(this.lower), getValue(this.upper));
+        if ((delta < 0) || ((delta == 0) && (isInclusive(this.lower) || isInclusive(this.upper)))) {
+          // ranges overlap and cover all non null values
+          result.add(new SimplePredicate(this.property, PredicateOperator.IS_NOT_NULL, null));
+          return result;
+        }
+      }
+      int size = in.size();
+      in.removeIf(value -> isCoveredByBound(value));
+      if (!in.isEmpty()) {
+        if ((inCount == 1) && (in.size() == size)) {
+          result.add(inPredicate);
+        } else if (in.size() == 1) {
+          result.add(new SimplePredicate(this.property, PredicateOperator.EQ, Literal.of(in.get(0))));
+        } else {
+          result.add(new SimplePredicate(this.property, PredicateOperator.IN, new CollectionLiteral<>(in)));
+        }
+      }
+      if (this.lower != null) {
+        result.add(this.lower);
+      }
+      if (this.upper != null) {
+        result.add(this.upper);
+      }
+      return result;
+    }
+
+    private boolean isCoveredByBound(Object value) {
+
+      if (this.lower != null) {
+        int delta = CriteriaValueHelper.compare(value, getValue(this.lower));
+        if ((delta > 0) || ((delta == 0) && isInclusive(this.lower))) {
+          return true;
+        }
+      }
+      if (this.upper != null) {
+        int delta = CriteriaValueHelper.compare(value, getValue(this.upper));
+        if ((delta < 0) || ((delta == 0) && isInclusive(this.upper))) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    private static boolean contains(Collection<?> values, Object value) {
+
+      for (Object element : values) {
+        if (CriteriaValueHelper.isEqual(element, value)) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    private static void addUnique(List<Object> values, Object value) {
+
+      if (!contains(values, value)) {
+        values.add(value);
+      }
+    }
+  }
+
+}
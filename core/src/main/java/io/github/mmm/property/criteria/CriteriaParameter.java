@@ -30,4 +30,17 @@ public interface CriteriaParameter<V> {
    */
   V getValue();
 
+  /**
+   * @return the type of the {@link #getValue() value} or {@code null} if unknown (if the {@link #getValue() value} is
+   *         {@code null}).
+   */
+  default Class<?> getType() {
+
+    V value = getValue();
+    if (value == null) {
+      return null;
+    }
+    return value.getClass();
+  }
+
 }
@@ -0,0 +1,165 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.property.criteria;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import io.github.mmm.scanner.CharSequenceScanner;
+import io.github.mmm.scanner.CharStreamScanner;
+import io.github.mmm.value.CriteriaObject;
+
+/**
+ * Cache from criteria text to the {@link CriteriaObject} {@link CriteriaObjectParser#parse(CharStreamScanner,
+ * PropertyPathParser) parsed} from it. As parsed {@link CriteriaObject}s are immutable, they can be shared so criteria
+ * received over and over again (e.g. as query parameter of a REST service) are only parsed once. The cache is bounded
+ * and evicts the least recently used text. It is thread-safe.
+ *
+ * @since 1.0.0
+ */
+public class CriteriaParserCache {
+
+  /** Default value for {@link #getMaxSize()}. */
+  public static final int DEFAULT_MAX_SIZE = 256;
+
+  private final PropertyPathParser pathParser;
+
+  private final int maxSize;
+
+  private final Map<String, CriteriaObject<?>> cache;
+
+  private long hits;
+
+  private long misses;
+
+  /**
+   * The constructor.
+   */
+  public CriteriaParserCache() {
+
+    this(null, DEFAULT_MAX_SIZE);
+  }
+
+  /**
+   * The constructor.
+   *
+   * @param pathParser the {@link PropertyPathParser} or {@code null} for {@link SimplePathParser}.
+   * @param maxSize the {@link #getMaxSize() maximum size}.
+   */
+  public CriteriaParserCache(PropertyPathParser pathParser, int maxSize) {
+
+    super();
+    if (maxSize <= 0) {
+      throw new IllegalArgumentException("" + maxSize);
+    }
+    if (pathParser == null) {
+      this.pathParser = SimplePathParser.INSTANCE;
+    } else {
+      this.pathParser = pathParser;
+    }
+    this.maxSize = maxSize;
+    this.cache = new LinkedHashMap<>(16, 0.75F, true) {
+
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, CriteriaObject<?>> eldest) {
+
+        return size() > CriteriaParserCache.this.maxSize;
+      }
+    };
+  }
+
+  /**
+   * @return the maximum number of parsed texts to cache.
+   */
+  public int getMaxSize() {
+
+    return this.maxSize;
+  }
+
+  /**
+   * @param text the criteria text to parse (e.g. "p.Age > 30 AND p.Name LIKE 'J%'").
+   * @return the parsed {@link CriteriaObject} (shared for equal {@code text}).
+   * @throws IllegalArgumentException if the given {@code text} is invalid.
+   */
+  public CriteriaObject<?> parse(String text) {
+
+    CriteriaObject<?> result;
+    synchronized (this.cache) {
+      result = this.cache.get(text);
+      if (result != null) {
+        this.hits++;
+        return result;
+      }
+      this.misses++;
+    }
+    CharStreamScanner scanner = new CharSequenceScanner(text);
+    scanner.skipWhile(' ');
+    result = CriteriaObjectParser.get().parse(scanner, this.pathParser);
+    scanner.skipWhile(' ');
+    if (scanner.hasNext()) {
+      throw new IllegalArgumentException("Unexpected text after criteria: " + text);
+    }
+    synchronized (this.cache) {
+      this.cache.put(text, result);
+    }
+    return result;
+  }
+
+  /**
+   * @param text the criteria text to parse.
+   * @return the parsed {@link CriteriaPredicate}.
+   * @throws IllegalArgumentException if the given {@code text} is invalid or not a {@link CriteriaPredicate}.
+   * @see #parse(String)
+   */
+  public CriteriaPredicate parsePredicate(String text) {
+
+    CriteriaObject<?> result = parse(text);
+    if (result instanceof CriteriaPredicate) {
+      return (CriteriaPredicate) result;
+    }
+    throw new IllegalArgumentException("Not a predicate: " + text);
+  }
+
+  /**
+   * @return the current number of cached texts.
+   */
+  public int size() {
+
+    synchronized (this.cache) {
+      return this.cache.size();
+    }
+  }
+
+  /**
+   * @return the number of calls of {@link #parse(String)} that have been served from the cache.
+   */
+  public long getHits() {
+
+    synchronized (this.cache) {
+      return this.hits;
+    }
+  }
+
+  /**
+   * @return the number of calls of {@link #parse(String)} that had to parse the text.
+   */
+  public long getMisses() {
+
+    synchronized (this.cache) {
+      return this.misses;
+    }
+  }
+
+  /**
+   * Removes all cached texts.
+   */
+  public void clear() {
+
+    synchronized (this.cache) {
+      this.cache.clear();
+    }
+  }
+
+}
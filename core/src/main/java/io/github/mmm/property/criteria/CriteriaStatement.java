@@ -0,0 +1,55 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.property.criteria;
+
+import java.util.List;
+
+/**
+ * A database statement (e.g. SQL) with placeholders together with the {@link CriteriaParameter}s to bind.
+ *
+ * @since 1.0.0
+ * @see CriteriaStatementCache#format(CriteriaPredicate)
+ */
+public final class CriteriaStatement {
+
+  private final String sql;
+
+  private final List<CriteriaParameter<?>> parameters;
+
+  /**
+   * The constructor.
+   *
+   * @param sql the {@link #getSql() SQL}.
+   * @param parameters the {@link #getParameters() parameters}.
+   */
+  public CriteriaStatement(String sql, List<CriteriaParameter<?>> parameters) {
+
+    super();
+    this.sql = sql;
+    this.parameters = parameters;
+  }
+
+  /**
+   * @return the statement text with placeholders for the {@link #getParameters() parameters}.
+   */
+  public String getSql() {
+
+    return this.sql;
+  }
+
+  /**
+   * @return the {@link List} of {@link CriteriaParameter}s to bind in the order of their
+   *         {@link CriteriaParameter#getIndex() index}.
+   */
+  public List<CriteriaParameter<?>> getParameters() {
+
+    return this.parameters;
+  }
+
+  @Override
+  public String toString() {
+
+    return this.sql + " " + this.parameters;
+  }
+
+}
@@ -0,0 +1,209 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.property.criteria;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.github.mmm.property.criteria.impl.CriteriaParametersIndexed;
+import io.github.mmm.property.criteria.impl.ParameterLiteral;
+import io.github.mmm.value.CriteriaObject;
+
+/**
+ * Cache for the statement text of {@link CriteriaPredicate}s formatted with {@link CriteriaParametersIndexed}. The
+ * {@link CriteriaPredicate} is {@link PreparedCriteria#parameterize(CriteriaPredicate, List) parameterized} and its
+ * shape is used as key so the {@link CriteriaFormatter} is only invoked once per shape and the resulting statement
+ * text is identical for all {@link CriteriaPredicate}s of the same shape. This allows the database to reuse its plan
+ * cache for prepared statements. The cache is bounded and evicts the least recently used shape. It is thread-safe.
+ *
+ * @since 1.0.0
+ */
+public class CriteriaStatementCache {
+
+  /** Default value for {@link #getMaxSize()}. */
+  public static final int DEFAULT_MAX_SIZE = 256;
+
+  private final String namePrefix;
+
+  private final int maxSize;
+
+  private final Map<Key, Entry> cache;
+
+  /**
+   * The constructor for JDBC placeholders ({@code ?}).
+   */
+  public CriteriaStatementCache() {
+
+    this(null, DEFAULT_MAX_SIZE);
+  }
+
+  /**
+   * The constructor.
+   *
+   * @param namePrefix the {@link CriteriaParametersIndexed#getNamePrefix() name prefix} or {@code null} for JDBC
+   *        placeholders ({@code ?}).
+   * @param maxSize the {@link #getMaxSize() maximum size}.
+   */
+  public CriteriaStatementCache(String namePrefix, int maxSize) {
+
+    super();
+    if (maxSize <= 0) {
+      throw new IllegalArgumentException("" + maxSize);
+    }
+    this.namePrefix = namePrefix;
+    this.maxSize = maxSize;
+    this.cache = new LinkedHashMap<>(16, 0.75F, true) {
+
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+
+        return size() > CriteriaStatementCache.this.maxSize;
+      }
+    };
+  }
+
+  /**
+   * @return the maximum number of statements to cache.
+   */
+  public int getMaxSize() {
+
+    return this.maxSize;
+  }
+
+  /**
+   * @param predicate the {@link CriteriaPredicate} to format.
+   * @return the {@link CriteriaStatement} with the statement text and the {@link CriteriaParameter}s to bind.
+   */
+  public CriteriaStatement format(CriteriaPredicate predicate) {
+
+    List<Object> values = new ArrayList<>();
+    CriteriaPredicate template = PreparedCriteria.parameterize(predicate, values);
+    int size = values.size();
+    int[] sizes = new int[size];
+    for (int i = 0; i < size; i++) {
+      Object value = values.get(i);
+      if (value instanceof Collection) {
+        sizes[i] = ((Collection<?>) value).size();
+      } else {
+        sizes[i] = -1;
+      }
+    }
+    Key key = new Key(template, sizes);
+    Entry entry;
+    synchronized (this.cache) {
+      entry = this.cache.get(key);
+    }
+    CriteriaParametersIndexed parameters = new CriteriaParametersIndexed(this.namePrefix);
+    if (entry == null) {
+      String sql = CriteriaFormatter.format(predicate, parameters, CriteriaDialect.DEFAULT);
+      CriteriaExpression<?>[] parents = new CriteriaExpression<?>[size];
+      collectParents(template, null, parents);
+      entry = new Entry(sql, parents);
+      synchronized (this.cache) {
+        this.cache.put(key, entry);
+      }
+    } else {
+      for (int i = 0; i < size; i++) {
+        Object value = values.get(i);
+        CriteriaExpression<?> parent = entry.parents[i];
+        if ((value instanceof String) && (parent != null) && PredicateOperator.isLikeBased(parent.getOperator())) {
+          value = LikePatternSyntax.SQL.convert((String) value, null);
+        }
+        parameters.addValue(value, parent);
+      }
+    }
+    return new CriteriaStatement(entry.sql, parameters.getParameters());
+  }
+
+  private static void collectParents(CriteriaObject<?> object, CriteriaExpression<?> parent,
+      CriteriaExpression<?>[] parents) {
+
+    if (object instanceof ParameterLiteral) {
+      parents[((ParameterLiteral<?>) object).getIndex()] = parent;
+    } else if (object instanceof CriteriaExpression) {
+      CriteriaExpression<?> expression = (CriteriaExpression<?>) object;
+      for (CriteriaObject<?> arg : expression.getArgs()) {
+        collectParents(arg, expression, parents);
+      }
+    }
+  }
+
+  /**
+   * @return the current number of cached statements.
+   */
+  public int size() {
+
+    synchronized (this.cache) {
+      return this.cache.size();
+    }
+  }
+
+  /**
+   * Removes all cached statements.
+   */
+  public void clear() {
+
+    synchronized (this.cache) {
+      this.cache.clear();
+    }
+  }
+
+  private static final class Key {
+
+    private final CriteriaPredicate template;
+
+    private final int[] sizes;
+
+    private final int hash;
+
+    private Key(CriteriaPredicate template, int[] sizes) {
+
+      super();
+      this.template = template;
+      this.sizes = sizes;
+      // the alias is part of the SQL so the key must not ignore it like CriteriaPredicate.equals does
+      this.hash = CriteriaStructureHelper.hashCode(CriteriaStructureHelper.fingerprintWithAlias(template)) * 31
+          + Arrays.hashCode(sizes);
+    }
+
+    @Override
+    public int hashCode() {
+
+      return this.hash;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+
+      if (obj == this) {
+        return true;
+      } else if (!(obj instanceof Key)) {
+        return false;
+      }
+      Key other = (Key) obj;
+      return (this.hash == other.hash) && Arrays.equals(this.sizes, other.sizes)
+          && CriteriaStructureHelper.isEqualWithAlias(this.template, other.template);
+    }
+  }
+
+  private static final class Entry {
+
+    private final String sql;
+
+    private final CriteriaExpression<?>[] parents;
+
+    private Entry(String sql, CriteriaExpression<?>[] parents) {
+
+      super();
+      this.sql = sql;
+      this.parents = parents;
+    }
+  }
+
+}
@@ -0,0 +1,316 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.property.criteria;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+
+import io.github.mmm.property.criteria.impl.ConjunctionPredicate;
+import io.github.mmm.property.criteria.impl.CriteriaAggregationImpl;
+import io.github.mmm.property.criteria.impl.CriteriaFunctionImpl;
+import io.github.mmm.property.criteria.impl.SimplePredicate;
+import io.github.mmm.value.CriteriaObject;
+import io.github.mmm.value.PropertyPath;
+
+/**
+ * Little helper class for structural {@link #isEqual(CriteriaObject, CriteriaObject) equality} and
+ * {@link #fingerprint(CriteriaObject) fingerprints} of {@link CriteriaObject}s. Two {@link CriteriaObject}s are
+ * structurally equal if they have the same {@link CriteriaExpression#getOperator() operators}, the same
+ * {@link PropertyPath paths} (compared by their {@link PropertyPathHelper#getSegments(io.github.mmm.value.ReadablePath)
+ * segments}) and equal {@link Literal} values of the same type. As the segments omit the alias (e.g. {@code a.Age} and
+ * {@code b.Age} are structurally equal) the {@link #isEqualWithAlias(CriteriaObject, CriteriaObject) alias sensitive}
+ * variants have to be used as key for anything derived from the formatted text (e.g. SQL). Designed for framework
+ * internal reuse and not intended for external users.
+ *
+ * @since 1.0.0
+ */
+public final class CriteriaStructureHelper {
+
+  private static final long SEED_NULL = 0x6A09E667F3BCC908L;
+
+  private static final long SEED_PATH = 0xBB67AE8584CAA73BL;
+
+  private static final long SEED_LITERAL = 0x3C6EF372FE94F82BL;
+
+  private static final long SEED_EXPRESSION = 0xA54FF53A5F1D36F1L;
+
+  private static final long SEED_OTHER = 0x510E527FADE682D1L;
+
+  private static final long FNV_PRIME = 0x100000001B3L;
+
+  private CriteriaStructureHelper() {
+
+  }
+
+  /**
+   * @param object1 the first {@link CriteriaObject}.
+   * @param object2 the second {@link CriteriaObject}.
+   * @return {@code true} if both {@link CriteriaObject}s are structurally equal, {@code false} otherwise.
+   */
+  public static boolean isEqual(CriteriaObject<?> object1, CriteriaObject<?> object2) {
+
+    return isEqual(object1, object2, false);
+  }
+
+  /**
+   * Like {@link #isEqual(CriteriaObject, CriteriaObject)} but {@link PropertyPath}s are compared by their full
+   * {@link PropertyPath#path() path} including the alias so equal objects are also {@link CriteriaFormatter formatted}
+   * to the same text.
+   *
+   * @param object1 the first {@link CriteriaObject}.
+   * @param object2 the second {@link CriteriaObject}.
+   * @return {@code true} if both {@link CriteriaObject}s are structurally equal including the alias of their
+   *         {@link PropertyPath}s, {@code false} otherwise.
+   * @see #fingerprintWithAlias(CriteriaObject)
+   */
+  public static boolean isEqualWithAlias(CriteriaObject<?> object1, CriteriaObject<?> object2) {
+
+    return isEqual(object1, object2, true);
+  }
+
+  private static boolean isEqual(CriteriaObject<?> object1, CriteriaObject<?> object2, boolean alias) {
+
+    if (object1 == object2) {
+      return true;
+    } else if ((object1 == null) || (object2 == null)) {
+      return false;
+    } else if (object1 instanceof Literal) {
+      if (!(object2 instanceof Literal)) {
+        return false;
+      }
+      return isEqualValue(((Literal<?>) object1).get(), ((Literal<?>) object2).get());
+    } else if (object1 instanceof PropertyPath) {
+      if (!(object2 instanceof PropertyPath)) {
+        return false;
+      } else if (alias) {
+        return ((PropertyPath<?>) object1).path().equals(((PropertyPath<?>) object2).path());
+      }
+      return Arrays.equals(PropertyPathHelper.getSegments((PropertyPath<?>) object1),
+          PropertyPathHelper.getSegments((PropertyPath<?>) object2));
+    } else if (object1 instanceof CriteriaExpression) {
+      if (!(object2 instanceof CriteriaExpression)) {
+        return false;
+      }
+      CriteriaExpression<?> expression1 = (CriteriaExpression<?>) object1;
+      CriteriaExpression<?> expression2 = (CriteriaExpression<?>) object2;
+      if ((expression1.getOperator() != expression2.getOperator())
+          || (fingerprint(expression1) != fingerprint(expression2))) {
+        return false;
+      }
+      List<? extends CriteriaObject<?>> args1 = expression1.getArgs();
+      List<? extends CriteriaObject<?>> args2 = expression2.getArgs();
+      int size = args1.size();
+      if (size != args2.size()) {
+        return false;
+      }
+      for (int i = 0; i < size; i++) {
+        if (!isEqual(args1.get(i), args2.get(i), alias)) {
+          return false;
+        }
+      }
+      return true;
+    }
+    return object1.equals(object2);
+  }
+
+  private static boolean isEqualValue(Object value1, Object value2) {
+
+    if (value1 == value2) {
+      return true;
+    } else if ((value1 == null) || (value2 == null)) {
+      return false;
+    } else if ((value1 instanceof Collection) && (value2 instanceof Collection)) {
+      Collection<?> collection1 = (Collection<?>) value1;
+      Collection<?> collection2 = (Collection<?>) value2;
+      if (collection1.size() != collection2.size()) {
+        return false;
+      }
+      Iterator<?> iterator2 = collection2.iterator();
+      for (Object element1 : collection1) {
+        if (!isEqualValue(element1, iterator2.next())) {
+          return false;
+        }
+      }
+      return true;
+    } else if (value1.getClass() != value2.getClass()) {
+      return false;
+    } else if (value1 instanceof BigDecimal) {
+      return ((BigDecimal) value1).compareTo((BigDecimal) value2) == 0;
+    }
+    return value1.equals(value2);
+  }
+
+  /**
+   * @param object the {@link CriteriaObject}. May be {@code null}.
+   * @return the 64-bit fingerprint of the given {@link CriteriaObject}. Structurally {@link #isEqual(CriteriaObject,
+   *         CriteriaObject) equal} objects have the same fingerprint that is also stable across JVM instances (except
+   *         for {@link Literal} values of custom types).
+   */
+  public static long fingerprint(CriteriaObject<?> object) {
+
+    if ((object instanceof CriteriaExpression) && !(object instanceof Literal)) {
+      return ((CriteriaExpression<?>) object).getFingerprint();
+    }
+    return computeFingerprint(object);
+  }
+
+  /**
+   * @param object the {@link CriteriaObject}. May be {@code null}.
+   * @return the {@link #fingerprint(CriteriaObject) fingerprint} computed without caching for the given
+   *         {@link CriteriaObject} itself.
+   */
+  public static long computeFingerprint(CriteriaObject<?> object) {
+
+    return computeFingerprint(object, false);
+  }
+
+  /**
+   * @param object the {@link CriteriaObject}. May be {@code null}.
+   * @return the fingerprint of the given {@link CriteriaObject} that is equal for
+   *         {@link #isEqualWithAlias(CriteriaObject, CriteriaObject) equal objects including the alias}. It is not
+   *         cached and therefore computed from the entire tree.
+   */
+  public static long fingerprintWithAlias(CriteriaObject<?> object) {
+
+    return computeFingerprint(object, true);
+  }
+
+  private static long computeFingerprint(CriteriaObject<?> object, boolean alias) {
+
+    if (object == null) {
+      return SEED_NULL;
+    } else if (object instanceof Literal) {
+      Object value = ((Literal<?>) object).get();
+      return mix(SEED_LITERAL, hashValue(value));
+    } else if (object instanceof PropertyPath) {
+      long hash = SEED_PATH;
+      if (alias) {
+        return mix(hash, hash(((PropertyPath<?>) object).path()));
+      }
+      for (String segment : PropertyPathHelper.getSegments((PropertyPath<?>) object)) {
+        hash = mix(hash, hash(segment));
+      }
+      return hash;
+    } else if (object instanceof CriteriaExpression) {
+      CriteriaExpression<?> expression = (CriteriaExpression<?>) object;
+      long hash = mix(SEED_EXPRESSION, hash(expression.getOperator().getSyntax()));
+      for (CriteriaObject<?> arg : expression.getArgs()) {
+        if (alias) {
+          hash = mix(hash, computeFingerprint(arg, true));
+        } else {
+          hash = mix(hash, fingerprint(arg));
+        }
+      }
+      return hash;
+    }
+    return mix(SEED_OTHER, object.hashCode());
+  }
+
+  private static long hashValue(Object value) {
+
+    if (value == null) {
+      return SEED_NULL;
+    }
+    long hash = hash(value.getClass().getName());
+    if (value instanceof String) {
+      return mix(hash, hash((String) value));
+    } else if (value instanceof Collection) {
+      hash = SEED_OTHER;
+      for (Object element : (Collection<?>) value) {
+        hash = mix(hash, hashValue(element));
+      }
+      return hash;
+    } else if ((value instanceof Long) || (value instanceof Integer) || (value instanceof Short)
+        || (value instanceof Byte)) {
+      return mix(hash, ((Number) value).longValue());
+    } else if ((value instanceof Double) || (value instanceof Float)) {
+      return mix(hash, Double.doubleToLongBits(((Number) value).doubleValue()));
+    } else if (value instanceof BigDecimal) {
+      BigDecimal decimal = ((BigDecimal) value).stripTrailingZeros();
+      return mix(mix(hash, decimal.unscaledValue().hashCode()), decimal.scale());
+    } else if (value instanceof Enum) {
+      return mix(hash, hash(((Enum<?>) value).name()));
+    }
+    return mix(hash, value.hashCode());
+  }
+
+  private static long hash(String string) {
+
+    // FNV-1a
+    long hash = 0xCBF29CE484222325L;
+    int length = string.length();
+    for (int i = 0; i < length; i++) {
+      hash ^= string.charAt(i);
+      hash *= FNV_PRIME;
+    }
+    return hash;
+  }
+
+  private static long mix(long hash, long value) {
+
+    long h = (hash ^ value) * 0x9E3779B97F4A7C15L;
+    h ^= (h >>> 32);
+    h *= 0xD6E8FEB86659FD93L;
+    return h ^ (h >>> 32);
+  }
+
+  /**
+   * @param expression the {@link CriteriaExpression} to copy.
+   * @param args the new {@link CriteriaExpression#getArgs() arguments}. Has to have the same size as the original
+   *        {@link CriteriaExpression#getArgs() arguments}.
+   * @return a new {@link CriteriaExpression} with the same {@link CriteriaExpression#getOperator() operator} and the
+   *         given {@link CriteriaExpression#getArgs() arguments} or the given {@link CriteriaExpression} itself if the
+   *         {@link CriteriaExpression#getArgs() arguments} are identical or the implementation is unknown.
+   */
+  public static CriteriaExpression<?> replaceArgs(CriteriaExpression<?> expression,
+      List<? extends CriteriaObject<?>> args) {
+
+    List<? extends CriteriaObject<?>> oldArgs = expression.getArgs();
+    int size = oldArgs.size();
+    assert (args.size() == size);
+    boolean changed = false;
+    for (int i = 0; i < size; i++) {
+      if (oldArgs.get(i) != args.get(i)) {
+        changed = true;
+        break;
+      }
+    }
+    if (!changed) {
+      return expression;
+    }
+    CriteriaOperator operator = expression.getOperator();
+    if (expression instanceof SimplePredicate) {
+      CriteriaObject<?> arg2 = null;
+      if (size > 1) {
+        arg2 = args.get(1);
+      }
+      return new SimplePredicate(args.get(0), (PredicateOperator) operator, arg2);
+    } else if (expression instanceof ConjunctionPredicate) {
+      List<BooleanSelection> selections = new ArrayList<>(size);
+      for (CriteriaObject<?> arg : args) {
+        selections.add((BooleanSelection) arg);
+      }
+      return new ConjunctionPredicate((PredicateOperator) operator, selections);
+    } else if (expression instanceof CriteriaAggregationImpl) {
+      return new CriteriaAggregationImpl<>((CriteriaAggregationOperator) operator, args.get(0));
+    } else if (expression instanceof CriteriaFunctionImpl) {
+      return new CriteriaFunctionImpl<>((CriteriaFunctionOperator) operator, args);
+    }
+    // unknown implementation - keep as is
+    return expression;
+  }
+
+  /**
+   * @param fingerprint the {@link #fingerprint(CriteriaObject) fingerprint}.
+   * @return the {@link Object#hashCode() hash code} derived from the given {@code fingerprint}.
+   */
+  public static int hashCode(long fingerprint) {
+
+    return (int) (fingerprint ^ (fingerprint >>> 32));
+  }
+
+}
@@ -0,0 +1,412 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.property.criteria;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.function.Predicate;
+
+import io.github.mmm.property.criteria.impl.CollectionLiteral;
+import io.github.mmm.property.string.ReadableTagsProperty;
+import io.github.mmm.property.string.StringCollectionProperty;
+import io.github.mmm.value.ReadableValue;
+
+/**
+ * Little helper class for the comparison of values during in-memory evaluation. Numbers are compared by their numeric
+ * value independent of their type (e.g. {@link Integer} {@code 1} is equal to {@link Long} {@code 1L}) and an
+ * {@link Enum} is equal to a {@link String} matching its {@link Enum#name() name}. Designed for framework internal reuse
+ * and not intended for external users.
+ *
+ * @since 1.0.0
+ */
+public final class CriteriaValueHelper {
+
+  /**
+   * The number of elements up to which a {@link List} is scanned for {@link #contains(Object, Object) contains} checks.
+   * For longer lists a hash view is built if many elements are checked at once.
+   */
+  public static final int LIST_HASH_THRESHOLD = 16;
+
+  private static final Object NO_MATCH = new Object();
+
+  private CriteriaValueHelper() {
+
+  }
+
+  /**
+   * @param value1 the first value.
+   * @param value2 the second value.
+   * @return {@code true} if both values are logically equal, {@code false} otherwise.
+   */
+  public static boolean isEqual(Object value1, Object value2) {
+
+    if (value1 == value2) {
+      return true;
+    } else if ((value1 == null) || (value2 == null)) {
+      return false;
+    }
+    Class<?> type = value1.getClass();
+    if (type == value2.getClass()) {
+      if (type == BigDecimal.class) {
+        return ((BigDecimal) value1).compareTo((BigDecimal) value2) == 0;
+      }
+      return value1.equals(value2);
+    } else if ((value1 instanceof Number) && (value2 instanceof Number)) {
+      return compareNumbers((Number) value1, (Number) value2) == 0;
+    } else if ((value1 instanceof Enum) && (value2 instanceof String)) {
+      return ((Enum<?>) value1).name().equals(value2);
+    } else if ((value2 instanceof Enum) && (value1 instanceof String)) {
+      return ((Enum<?>) value2).name().equals(value1);
+    }
+    return value1.equals(value2);
+  }
+
+  /**
+   * @param value1 the first value. Must not be {@code null}.
+   * @param value2 the second value. Must not be {@code null}.
+   * @return the result of the comparison as specified by {@link Comparable#compareTo(Object)}.
+   * @throws IllegalArgumentException if the given values can not be compared.
+   */
+  @SuppressWarnings({ "unchecked", "rawtypes" })
+  public static int compare(Object value1, Object value2) {
+
+    if ((value1 instanceof Number) && (value2 instanceof Number) && (value1.getClass() != value2.getClass())) {
+      return compareNumbers((Number) value1, (Number) value2);
+    } else if (value1 instanceof Comparable) {
+      try {
+        return ((Comparable) value1).compareTo(value2);
+      } catch (ClassCastException e) {
+        throw new IllegalArgumentException("Can not compare " + value1 + " with " + value2, e);
+      }
+    }
+    throw new IllegalArgumentException("Value " + value1 + " is not comparable.");
+  }
+
+  /**
+   * @param number1 the first {@link Number}.
+   * @param number2 the second {@link Number}.
+   * @return the result of the numeric comparison as specified by {@link Comparable#compareTo(Object)}.
+   */
+  public static int compareNumbers(Number number1, Number number2) {
+
+    if (isIntegral(number1) && isIntegral(number2)) {
+      return Long.compare(number1.longValue(), number2.longValue());
+    } else if (isBig(number1) || isBig(number2)) {
+      return toBigDecimal(number1).compareTo(toBigDecimal(number2));
+    }
+    return Double.compare(number1.doubleValue(), number2.doubleValue());
+  }
+
+  /**
+   * @param number the {@link Number} to check.
+   * @return {@code true} if the given {@link Number} is an integral primitive wrapper ({@link Long}, {@link Integer},
+   *         {@link Short}, or {@link Byte}), {@code false} otherwise.
+   */
+  public static boolean isIntegral(Object number) {
+
+    return (number instanceof Integer) || (number instanceof Long) || (number instanceof Short)
+        || (number instanceof Byte);
+  }
+
+  /**
+   * @param number the {@link Number} to check.
+   * @return {@code true} if the given {@link Number} is a {@link BigDecimal} or {@link BigInteger}, {@code false}
+   *         otherwise.
+   */
+  public static boolean isBig(Number number) {
+
+    return (number instanceof BigDecimal) || (number instanceof BigInteger);
+  }
+
+  /**
+   * @param number the {@link Number} to convert.
+   * @return the given {@link Number} as {@link BigDecimal}.
+   */
+  public static BigDecimal toBigDecimal(Number number) {
+
+    if (number instanceof BigDecimal) {
+      return (BigDecimal) number;
+    } else if (number instanceof BigInteger) {
+      return new BigDecimal((BigInteger) number);
+    } else if (isIntegral(number)) {
+      return BigDecimal.valueOf(number.longValue());
+    }
+    return BigDecimal.valueOf(number.doubleValue());
+  }
+
+  /**
+   * @param value the value to normalize.
+   * @return the given {@code value} normalized as key for hashing consistent with {@link #isEqual(Object, Object)}
+   *         (integral numbers as {@link Long}, other numbers as stripped {@link BigDecimal}, and an {@link Enum} as its
+   *         {@link Enum#name() name}).
+   */
+  public static Object normalizeKey(Object value) {
+
+    if (value instanceof Number) {
+      return normalizeNumber((Number) value);
+    } else if (value instanceof Enum) {
+      return ((Enum<?>) value).name();
+    }
+    return value;
+  }
+
+  private static Object normalizeNumber(Number number) {
+
+    if (isIntegral(number)) {
+      return Long.valueOf(number.longValue());
+    } else if ((number instanceof BigInteger) && (((BigInteger) number).bitLength() < 64)) {
+      return Long.valueOf(number.longValue());
+    } else if ((number instanceof Double) || (number instanceof Float)) {
+      double d = number.doubleValue();
+      if (Double.isNaN(d) || Double.isInfinite(d)) {
+        return Double.valueOf(d);
+      }
+    }
+    BigDecimal decimal = toBigDecimal(number).stripTrailingZeros();
+    if ((decimal.scale() <= 0) && (decimal.precision() - decimal.scale() <= 18)) {
+      return Long.valueOf(decimal.longValue());
+    }
+    return decimal;
+  }
+
+  /**
+   * Determines if the given {@code container} contains the given {@code element} using the native lookup of the
+   * container: {@link StringCollectionProperty#contains(String) delimiter search} of a
+   * {@link StringCollectionProperty}, the {@link ReadableTagsProperty#getTags() tags} of a
+   * {@link ReadableTagsProperty}, {@link Set#contains(Object)}, or {@link Map#containsKey(Object)}. Other
+   * {@link ReadableValue}s (e.g. {@link io.github.mmm.property.container.list.ListProperty}) are
+   * {@link ReadableValue#get() unwrapped}. Lists and arrays are scanned via {@link #isEqual(Object, Object)}. Numbers
+   * are matched by their numeric value also for hash based lookups (e.g. a {@link Set} of {@link Integer}s contains
+   * {@link Long} {@code 1L} if it contains {@code 1}). Therefore the element is converted to the types it may be
+   * equal to so a {@link Set} is never scanned. Only a {@link Set} of {@link BigDecimal}s is scanned as their hash
+   * code depends on the scale. A {@link SortedSet} is only searched with the element converted to the type of its
+   * {@link SortedSet#first() first} element (instead of failing with a {@link ClassCastException}).
+   *
+   * @param container the container value (e.g. {@link Collection}, {@link Map}, array, {@link CharSequence}, or
+   *        container property).
+   * @param element the element to check.
+   * @return {@code true} if the given {@code container} contains the given {@code element}, {@code false} otherwise.
+   * @see #containsEach(Object, Collection)
+   */
+  public static boolean contains(Object container, Object element) {
+
+    if (container instanceof StringCollectionProperty) {
+      return (element != null) && ((StringCollectionProperty) container).contains(toElementString(element));
+    } else if (container instanceof ReadableTagsProperty) {
+      return (element != null) && ((ReadableTagsProperty) container).getTags().contains(toElementString(element));
+    } else if (container instanceof ReadableValue) {
+      return contains(((ReadableValue<?>) container).get(), element);
+    } else if (container instanceof Set) {
+      return containsInSet((Set<?>) container, element);
+    } else if (container instanceof Map) {
+      return containsInSet(((Map<?, ?>) container).keySet(), element);
+    } else if (container instanceof Collection) {
+      for (Object e : (Collection<?>) container) {
+        if (isEqual(e, element)) {
+          return true;
+        }
+      }
+      return false;
+    } else if (container instanceof Object[]) {
+      for (Object e : (Object[]) container) {
+        if (isEqual(e, element)) {
+          return true;
+        }
+      }
+      return false;
+    } else if ((container instanceof CharSequence) && (element != null)) {
+      return container.toString().contains(element.toString());
+    }
+    return false;
+  }
+
+  /**
+   * Bulk variant of {@link #contains(Object, Object)} checking many candidates against the same {@code container}. If
+   * the container is a {@link List} or array with more than {@link #LIST_HASH_THRESHOLD} elements, a hash view of it
+   * is built once instead of scanning it for every candidate.
+   *
+   * @param container the container value as for {@link #contains(Object, Object)}.
+   * @param candidates the {@link Collection} of elements to check.
+   * @return an array with the result of {@link #contains(Object, Object)} for each candidate in iteration order.
+   */
+  public static boolean[] containsEach(Object container, Collection<?> candidates) {
+
+    boolean[] result = new boolean[candidates.size()];
+    Predicate<Object> lookup = null;
+    if (result.length > 1) {
+      lookup = lookup(container);
+    }
+    int i = 0;
+    for (Object candidate : candidates) {
+      if (lookup == null) {
+        result[i++] = contains(container, candidate);
+      } else {
+        result[i++] = (candidate != null) && lookup.test(candidate);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * @param container the container value as for {@link #contains(Object, Object)}.
+   * @return a {@link Predicate} {@link Predicate#test(Object) testing} if the given {@code container} contains a
+   *         non-{@code null} element. For a {@link List} or array with more than {@link #LIST_HASH_THRESHOLD} elements
+   *         a hash view is built so the returned {@link Predicate} should be reused for many lookups.
+   */
+  public static Predicate<Object> lookup(Object container) {
+
+    if (container instanceof ReadableValue) {
+      if ((container instanceof StringCollectionProperty) || (container instanceof ReadableTagsProperty)) {
+        return element -> contains(container, element);
+      }
+      return lookup(((ReadableValue<?>) container).get());
+    }
+    Collection<?> elements = null;
+    if (container instanceof List) {
+      elements = (List<?>) container;
+    } else if (container instanceof Object[]) {
+      elements = Arrays.asList((Object[]) container);
+    }
+    if ((elements != null) && (elements.size() > LIST_HASH_THRESHOLD)) {
+      return new CollectionLiteral<>(elements)::contains;
+    }
+    return element -> contains(container, element);
+  }
+
+  private static String toElementString(Object element) {
+
+    if (element instanceof Enum) {
+      return ((Enum<?>) element).name();
+    }
+    return element.toString();
+  }
+
+  private static boolean containsInSet(Set<?> set, Object element) {
+
+    if ((element == null) || set.isEmpty()) {
+      return false;
+    } else if (containsKey(set, element)) {
+      return true;
+    }
+    Object sample;
+    if (set instanceof SortedSet) {
+      sample = ((SortedSet<?>) set).first();
+    } else {
+      sample = set.iterator().next();
+    }
+    if (sample instanceof BigDecimal) {
+      // equals and hashCode of BigDecimal depend on the scale
+      for (Object e : set) {
+        if (isEqual(e, element)) {
+          return true;
+        }
+      }
+      return false;
+    } else if (set instanceof SortedSet) {
+      // a sorted set can not contain elements of different types that are not comparable
+      if ((sample == null) || (sample.getClass() == element.getClass())) {
+        return false;
+      }
+      Object aligned = align(element, sample.getClass());
+      return (aligned != null) && (aligned != NO_MATCH) && containsKey(set, aligned);
+    }
+    return containsAligned(set, element, sample);
+  }
+
+  /**
+   * @param set the hash based {@link Set} that does not contain the {@code element} itself.
+   * @param element the element to check.
+   * @param sample an element of the {@link Set}.
+   * @return {@code true} if the {@link Set} contains the given {@code element} converted to one of the types it may be
+   *         equal to, {@code false} otherwise.
+   */
+  private static boolean containsAligned(Set<?> set, Object element, Object sample) {
+
+    if (element instanceof Number) {
+      Object key = normalizeKey(element);
+      if (key instanceof Long) {
+        long l = ((Long) key).longValue();
+        if (containsKey(set, key) || ((l == (int) l) && containsKey(set, Integer.valueOf((int) l)))
+            || ((l == (short) l) && containsKey(set, Short.valueOf((short) l)))
+            || ((l == (byte) l) && containsKey(set, Byte.valueOf((byte) l)))
+            || containsKey(set, BigInteger.valueOf(l))) {
+          return true;
+        }
+      } else if ((key instanceof BigDecimal) && (((BigDecimal) key).scale() <= 0)
+          && containsKey(set, ((BigDecimal) key).toBigInteger())) {
+        return true;
+      }
+      double d = ((Number) element).doubleValue();
+      if (Double.isNaN(d) || Double.isInfinite(d)) {
+        return containsKey(set, Double.valueOf(d)) || containsKey(set, Float.valueOf((float) d));
+      }
+      BigDecimal decimal = toBigDecimal((Number) element);
+      if ((new BigDecimal(d).compareTo(decimal) == 0) && containsKey(set, Double.valueOf(d))) {
+        return true;
+      }
+      float f = (float) d;
+      return !Float.isInfinite(f) && (new BigDecimal(f).compareTo(decimal) == 0)
+          && containsKey(set, Float.valueOf(f));
+    } else if (element instanceof Enum) {
+      return containsKey(set, ((Enum<?>) element).name());
+    } else if ((element instanceof String) && (sample instanceof Enum)) {
+      for (Object constant : ((Enum<?>) sample).getDeclaringClass().getEnumConstants()) {
+        if (((Enum<?>) constant).name().equals(element)) {
+          return containsKey(set, constant);
+        }
+      }
+    }
+    return false;
+  }
+
+  private static boolean containsKey(Set<?> set, Object element) {
+
+    try {
+      return set.contains(element);
+    } catch (ClassCastException e) {
+      // a SortedSet compares the element with its elements which fails for a different type
+      return false;
+    }
+  }
+
+  /**
+   * @param element the element to convert.
+   * @param type the type of the elements of a {@link SortedSet}.
+   * @return the given {@code element} converted to the given {@code type} so it can be found in a {@link SortedSet},
+   *         {@code NO_MATCH} if it can not be converted losslessly, or {@code null} if the type is not supported.
+   */
+  private static Object align(Object element, Class<?> type) {
+
+    if (element instanceof Number) {
+      Object key = normalizeKey(element);
+      if (key instanceof Long) {
+        long l = ((Long) key).longValue();
+        if (type == Long.class) {
+          return key;
+        } else if (type == Integer.class) {
+          return (l == (int) l) ? Integer.valueOf((int) l) : NO_MATCH;
+        } else if (type == Short.class) {
+          return (l == (short) l) ? Short.valueOf((short) l) : NO_MATCH;
+        } else if (type == Byte.class) {
+          return (l == (byte) l) ? Byte.valueOf((byte) l) : NO_MATCH;
+        }
+      }
+      if (type == Double.class) {
+        Double d = Double.valueOf(((Number) element).doubleValue());
+        return isEqual(d, element) ? d : NO_MATCH;
+      }
+    } else if (element instanceof Enum) {
+      if (type == String.class) {
+        return ((Enum<?>) element).name();
+      }
+    }
+    return null;
+  }
+
+}
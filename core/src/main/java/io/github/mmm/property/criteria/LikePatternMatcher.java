@@ -0,0 +1,322 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.property.criteria;
+
+import java.util.Arrays;
+
+/**
+ * Compiled form of a LIKE pattern in a specific {@link LikePatternSyntax} that can {@link #matches(CharSequence) match}
+ * arbitrary {@link CharSequence}s without allocating any objects. Depending on the pattern a specialized strategy is
+ * used (exact match, prefix, suffix, contains or a general wildcard matcher). Use
+ * {@link LikePatternSyntax#compile(String)} to get an instance.
+ *
+ * @since 1.0.0
+ */
+public abstract class LikePatternMatcher {
+
+  /** Token for {@link LikePatternSyntax#getAny() any wildcard}. */
+  static final int ANY = -1;
+
+  /** Token for {@link LikePatternSyntax#getSingle() single wildcard}. */
+  static final int SINGLE = -2;
+
+  private final String pattern;
+
+  private String literalPrefix;
+
+  LikePatternMatcher(String pattern) {
+
+    super();
+    this.pattern = pattern;
+  }
+
+  /**
+   * @return the original LIKE pattern this matcher has been compiled from.
+   */
+  public String getPattern() {
+
+    return this.pattern;
+  }
+
+  /**
+   * @return the literal characters at the beginning of the pattern before the first wildcard (e.g. "abc" for
+   *         "abc%d_"). Every text that {@link #matches(CharSequence) matches} starts with this prefix. Will be the empty
+   *         {@link String} if the pattern starts with a wildcard.
+   */
+  public String getLiteralPrefix() {
+
+    return this.literalPrefix;
+  }
+
+  /**
+   * @param text the {@link CharSequence} to match. May be {@code null}.
+   * @return {@code true} if the given {@code text} matches the LIKE pattern, {@code false} otherwise.
+   */
+  public abstract boolean matches(CharSequence text);
+
+  @Override
+  public String toString() {
+
+    return getClass().getSimpleName() + ":" + this.pattern;
+  }
+
+  /**
+   * @param pattern the LIKE pattern to compile.
+   * @param syntax the {@link LikePatternSyntax} of the {@code pattern}.
+   * @return the compiled {@link LikePatternMatcher}.
+   */
+  static LikePatternMatcher of(String pattern, LikePatternSyntax syntax) {
+
+    int[] tokens = tokenize(pattern, syntax);
+    LikePatternMatcher matcher = create(pattern, tokens);
+    StringBuilder prefix = new StringBuilder();
+    for (int token : tokens) {
+      if (token < 0) {
+        break;
+      }
+      prefix.append((char) token);
+    }
+    matcher.literalPrefix = prefix.toString();
+    return matcher;
+  }
+
+  private static LikePatternMatcher create(String pattern, int[] tokens) {
+
+    int length = tokens.length;
+    int anyCount = 0;
+    int singleCount = 0;
+    for (int token : tokens) {
+      if (token == ANY) {
+        anyCount++;
+      } else if (token == SINGLE) {
+        singleCount++;
+      }
+    }
+    if (anyCount == 0) {
+      return new ExactMatcher(pattern, tokens);
+    } else if (anyCount == 1) {
+      if (tokens[length - 1] == ANY) {
+        return new PrefixMatcher(pattern, Arrays.copyOf(tokens, length - 1));
+      } else if (tokens[0] == ANY) {
+        return new SuffixMatcher(pattern, Arrays.copyOfRange(tokens, 1, length));
+      }
+    } else if ((anyCount == 2) && (singleCount == 0) && (length > 2) && (tokens[0] == ANY)
+        && (tokens[length - 1] == ANY)) {
+      return new ContainsMatcher(pattern, Arrays.copyOfRange(tokens, 1, length - 1));
+    }
+    return new WildcardMatcher(pattern, tokens);
+  }
+
+  /**
+   * @param pattern the LIKE pattern.
+   * @param syntax the {@link LikePatternSyntax}.
+   * @return the pattern as tokens where each token is either a literal character, {@link #ANY} or {@link #SINGLE}.
+   *         Escape sequences are resolved and subsequent {@link #ANY} tokens are collapsed.
+   */
+  private static int[] tokenize(String pattern, LikePatternSyntax syntax) {
+
+    int length = pattern.length();
+    int[] tokens = new int[length];
+    int count = 0;
+    for (int i = 0; i < length; i++) {
+      char c = pattern.charAt(i);
+      int token = c;
+      if ((c == LikePatternSyntax.ESCAPE) && (i + 1 < length)) {
+        i++;
+        token = pattern.charAt(i);
+      } else if (c == syntax.getAny()) {
+        if ((count > 0) && (tokens[count - 1] == ANY)) {
+          continue;
+        }
+        token = ANY;
+      } else if (c == syntax.getSingle()) {
+        token = SINGLE;
+      }
+      tokens[count++] = token;
+    }
+    if (count < length) {
+      return Arrays.copyOf(tokens, count);
+    }
+    return tokens;
+  }
+
+  /**
+   * @param tokens the tokens without {@link #ANY}.
+   * @param text the {@link CharSequence} to match.
+   * @param offset the index in {@code text} where to start matching.
+   * @return {@code true} if all {@code tokens} match the {@code text} at the given {@code offset}.
+   */
+  static boolean matchesRegion(int[] tokens, CharSequence text, int offset) {
+
+    for (int i = 0; i < tokens.length; i++) {
+      int token = tokens[i];
+      if ((token != SINGLE) && (token != text.charAt(offset + i))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static class ExactMatcher extends LikePatternMatcher {
+
+    private final int[] tokens;
+
+    private ExactMatcher(String pattern, int[] tokens) {
+
+      super(pattern);
+      this.tokens = tokens;
+    }
+
+    @Override
+    public boolean matches(CharSequence text) {
+
+      if ((text == null) || (text.length() != this.tokens.length)) {
+        return false;
+      }
+      return matchesRegion(this.tokens, text, 0);
+    }
+  }
+
+  private static class PrefixMatcher extends LikePatternMatcher {
+
+    private final int[] prefix;
+
+    private PrefixMatcher(String pattern, int[] prefix) {
+
+      super(pattern);
+      this.prefix = prefix;
+    }
+
+    @Override
+    public boolean matches(CharSequence text) {
+
+      if ((text == null) || (text.length() < this.prefix.length)) {
+        return false;
+      }
+      return matchesRegion(this.prefix, text, 0);
+    }
+  }
+
+  private static class SuffixMatcher extends LikePatternMatcher {
+
+    private final int[] suffix;
+
+    private SuffixMatcher(String pattern, int[] suffix) {
+
+      super(pattern);
+      this.suffix = suffix;
+    }
+
+    @Override
+    public boolean matches(CharSequence text) {
+
+      if (text == null) {
+        return false;
+      }
+      int offset = text.length() - this.suffix.length;
+      if (offset < 0) {
+        return false;
+      }
+      return matchesRegion(this.suffix, text, offset);
+    }
+  }
+
+  /**
+   * {@link LikePatternMatcher} for a literal infix using the Boyer-Moore-Horspool algorithm with a skip table.
+   */
+  private static class ContainsMatcher extends LikePatternMatcher {
+
+    private static final int TABLE_SIZE = 256;
+
+    private static final int TABLE_MASK = TABLE_SIZE - 1;
+
+    private final int[] infix;
+
+    private final int[] skip;
+
+    private ContainsMatcher(String pattern, int[] infix) {
+
+      super(pattern);
+      this.infix = infix;
+      int length = infix.length;
+      this.skip = new int[TABLE_SIZE];
+      Arrays.fill(this.skip, length);
+      // characters sharing the same slot get the minimum shift so skipping is always safe
+      for (int i = 0; i < length - 1; i++) {
+        this.skip[infix[i] & TABLE_MASK] = length - 1 - i;
+      }
+    }
+
+    @Override
+    public boolean matches(CharSequence text) {
+
+      if (text == null) {
+        return false;
+      }
+      int length = this.infix.length;
+      int last = length - 1;
+      int end = text.length() - length;
+      int offset = 0;
+      while (offset <= end) {
+        char c = text.charAt(offset + last);
+        if ((c == this.infix[last]) && matchesRegion(this.infix, text, offset)) {
+          return true;
+        }
+        offset += this.skip[c & TABLE_MASK];
+      }
+      return false;
+    }
+  }
+
+  /**
+   * General {@link LikePatternMatcher} for arbitrary wildcards. It scans the text once and only backtracks to the last
+   * {@link #ANY} wildcard what results in {@code O(n*m)} in the worst case but linear runtime for typical patterns.
+   */
+  private static class WildcardMatcher extends LikePatternMatcher {
+
+    private final int[] tokens;
+
+    private WildcardMatcher(String pattern, int[] tokens) {
+
+      super(pattern);
+      this.tokens = tokens;
+    }
+
+    @Override
+    public boolean matches(CharSequence text) {
+
+      if (text == null) {
+        return false;
+      }
+      int textLength = text.length();
+      int tokenLength = this.tokens.length;
+      int textIndex = 0;
+      int tokenIndex = 0;
+      int anyTokenIndex = -1;
+      int anyTextIndex = 0;
+      while (textIndex < textLength) {
+        int token = ANY;
+        if (tokenIndex < tokenLength) {
+          token = this.tokens[tokenIndex];
+        }
+        if ((tokenIndex < tokenLength) && ((token == SINGLE) || (token == text.charAt(textIndex)))) {
+          tokenIndex++;
+          textIndex++;
+        } else if ((tokenIndex < tokenLength) && (token == ANY)) {
+          anyTokenIndex = tokenIndex++;
+          anyTextIndex = textIndex;
+        } else if (anyTokenIndex >= 0) {
+          tokenIndex = anyTokenIndex + 1;
+          textIndex = ++anyTextIndex;
+        } else {
+          return false;
+        }
+      }
+      while ((tokenIndex < tokenLength) && (this.tokens[tokenIndex] == ANY)) {
+        tokenIndex++;
+      }
+      return (tokenIndex == tokenLength);
+    }
+  }
+
+}
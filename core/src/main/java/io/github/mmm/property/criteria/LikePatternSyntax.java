@@ -4,6 +4,7 @@ package io.github.mmm.property.criteria;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import io.github.mmm.base.exception.DuplicateObjectException;
 
@@ -31,12 +32,16 @@ public class LikePatternSyntax {
   /** The escape character. */
   public static final char ESCAPE = '\\';
 
+  private static final int MATCHER_CACHE_SIZE = 256;
+
   private final String name;
 
   private final char any;
 
   private final char single;
 
+  private final Map<String, LikePatternMatcher> matcherCache;
+
   /**
    * The constructor.
    *
@@ -50,6 +55,7 @@ public class LikePatternSyntax {
     this.name = name;
     this.any = any;
     this.single = single;
+    this.matcherCache = new ConcurrentHashMap<>();
     LikePatternSyntax old = NAME2SYNTAX_MAP.putIfAbsent(name, this);
     if (old != null) {
       throw new DuplicateObjectException(this, name, old);
@@ -166,6 +172,25 @@ public class LikePatternSyntax {
     return sb.toString();
   }
 
+  /**
+   * @param pattern the LIKE pattern in this {@link LikePatternSyntax}.
+   * @return the compiled {@link LikePatternMatcher} for the given {@code pattern}. Compiled matchers are cached so
+   *         frequently used patterns are only compiled once.
+   */
+  public LikePatternMatcher compile(String pattern) {
+
+    LikePatternMatcher matcher = this.matcherCache.get(pattern);
+    if (matcher == null) {
+      matcher = LikePatternMatcher.of(pattern, this);
+      if (this.matcherCache.size() >= MATCHER_CACHE_SIZE) {
+        // simple eviction to bound memory for dynamic patterns
+        this.matcherCache.clear();
+      }
+      this.matcherCache.put(pattern, matcher);
+    }
+    return matcher;
+  }
+
   /**
    * @param pattern the string value that may be a pattern.
    * @return the {@link LikePatternSyntax} for the given {@code pattern} or {@code null} if the given {@code pattern}
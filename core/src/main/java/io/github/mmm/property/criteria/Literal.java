@@ -3,8 +3,10 @@
 package io.github.mmm.property.criteria;
 
 import java.time.temporal.Temporal;
+import java.util.Collection;
 import java.util.function.Supplier;
 
+import io.github.mmm.property.criteria.impl.CollectionLiteral;
 import io.github.mmm.property.criteria.impl.GenericLiteral;
 import io.github.mmm.property.criteria.impl.NumberLiteral;
 import io.github.mmm.property.criteria.impl.StringLiteral;
@@ -103,6 +105,8 @@ public interface Literal<V> extends CriteriaObject<V>, Supplier<V> {
       literal = of((Number) value);
     } else if (value instanceof Temporal) {
       literal = of((Temporal) value);
+    } else if (value instanceof Collection) {
+      literal = new CollectionLiteral<>((Collection) value);
     } else {
       literal = new GenericLiteral<>(value);
     }
@@ -306,7 +306,7 @@ public class PredicateOperator extends CriteriaOperator {
         if (argCount > 1) {
           arg2 = args.get(1);
         }
-        if ((this == NOT) == (argCount == 1)) {
+        if (isUnary() == (argCount == 1)) {
           return new SimplePredicate(arg1, this, arg2);
         }
       }
@@ -336,6 +336,15 @@ public class PredicateOperator extends CriteriaOperator {
     return ((op == LIKE) || (op == NOT_LIKE));
   }
 
+  /**
+   * @param op the {@link CriteriaOperator} to check.
+   * @return {@code true} if {@link #CONTAINS} or {@link #NOT_CONTAINS}, {@code false} otherwise.
+   */
+  public static boolean isContainsBased(CriteriaOperator op) {
+
+    return ((op == CONTAINS) || (op == NOT_CONTAINS));
+  }
+
   /**
    * @param op the {@link CriteriaOperator} to check.
    * @return {@code true} if {@link #IS_NULL} or {@link #IS_NOT_NULL}, {@code false} otherwise.
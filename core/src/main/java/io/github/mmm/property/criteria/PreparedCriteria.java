@@ -0,0 +1,211 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.property.criteria;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Predicate;
+
+import io.github.mmm.property.criteria.evaluation.CriteriaEvaluator;
+import io.github.mmm.property.criteria.evaluation.PredicateBinder;
+import io.github.mmm.property.criteria.impl.CriteriaParametersIndexed;
+import io.github.mmm.property.criteria.impl.ParameterLiteral;
+import io.github.mmm.property.criteria.impl.SimplePredicate;
+import io.github.mmm.value.CriteriaObject;
+
+/**
+ * A {@link CriteriaPredicate} prepared once per shape. The shape is the {@link #getTemplate() template} where all
+ * {@link Literal}s (except {@link BooleanLiteral}s) have been replaced with numbered {@link ParameterLiteral
+ * parameters}. The {@link #compile(Object...) compiled} {@link Predicate} is created once and then only new values need
+ * to be bound. The {@link #getStatement(Object...) statement} is formatted via {@link CriteriaParametersIndexed} so
+ * collection values (e.g. for {@link PredicateOperator#IN IN}) are expanded to one placeholder per element. Use
+ * {@link CriteriaStatementCache} to also reuse the statement text per shape and {@link PreparedCriteriaCache} to get
+ * the {@link PreparedCriteria} for a {@link CriteriaPredicate}.
+ *
+ * @since 1.0.0
+ */
+public final class PreparedCriteria {
+
+  private final CriteriaPredicate template;
+
+  private final int parameterCount;
+
+  private final CriteriaEvaluator evaluator;
+
+  private volatile PredicateBinder binder;
+
+  /**
+   * The constructor.
+   *
+   * @param template the {@link #getTemplate() template}.
+   * @param parameterCount the {@link #getParameterCount() number of parameters}.
+   * @param evaluator the {@link CriteriaEvaluator} used to {@link #compile(Object...) compile}.
+   */
+  public PreparedCriteria(CriteriaPredicate template, int parameterCount, CriteriaEvaluator evaluator) {
+
+    super();
+    Objects.requireNonNull(template, "template");
+    Objects.requireNonNull(evaluator, "evaluator");
+    this.template = template;
+    this.parameterCount = parameterCount;
+    this.evaluator = evaluator;
+  }
+
+  /**
+   * @return the template {@link CriteriaPredicate} with {@link ParameterLiteral}s instead of the actual
+   *         {@link Literal}s.
+   */
+  public CriteriaPredicate getTemplate() {
+
+    return this.template;
+  }
+
+  /**
+   * @return the number of parameters.
+   */
+  public int getParameterCount() {
+
+    return this.parameterCount;
+  }
+
+  /**
+   * @param values the parameter values to bind in the order of the parameter {@link ParameterLiteral#getIndex()
+   *        indexes}.
+   * @return the {@link CriteriaStatement} with the {@link CriteriaFormatter formatted} {@link #getTemplate() template}
+   *         using {@code ?} as placeholder for each parameter and the {@link CriteriaParameter}s to bind. A
+   *         {@link java.util.Collection} value is expanded to one placeholder per element (e.g.
+   *         {@code Age IN (?, ?)}).
+   */
+  public CriteriaStatement getStatement(Object... values) {
+
+    CriteriaPredicate predicate = bind(values);
+    CriteriaParametersIndexed parameters = new CriteriaParametersIndexed();
+    String sql = CriteriaFormatter.format(predicate, parameters, CriteriaDialect.DEFAULT);
+    return new CriteriaStatement(sql, parameters.getParameters());
+  }
+
+  /**
+   * @param values the parameter values to bind in the order of the parameter {@link ParameterLiteral#getIndex()
+   *        indexes}.
+   * @return the {@link Predicate} for the given {@code values}. Only the value specific parts are compiled, while the
+   *         rest (e.g. resolving {@link io.github.mmm.value.PropertyPath}s) is done only once per
+   *         {@link PreparedCriteria}.
+   */
+  public Predicate<Object> compile(Object... values) {
+
+    verifyValues(values);
+    PredicateBinder predicateBinder = this.binder;
+    if (predicateBinder == null) {
+      predicateBinder = this.evaluator.prepare(this.template);
+      this.binder = predicateBinder;
+    }
+    return predicateBinder.bind(values);
+  }
+
+  /**
+   * @param values the parameter values to bind in the order of the parameter {@link ParameterLiteral#getIndex()
+   *        indexes}.
+   * @return the {@link CriteriaPredicate} with the given {@code values} bound as {@link Literal}s.
+   */
+  public CriteriaPredicate bind(Object... values) {
+
+    verifyValues(values);
+    return (CriteriaPredicate) bind(this.template, values);
+  }
+
+  private void verifyValues(Object[] values) {
+
+    if (values.length != this.parameterCount) {
+      throw new IllegalArgumentException(
+          "Expected " + this.parameterCount + " parameter(s) but got " + values.length + ".");
+    }
+  }
+
+  @Override
+  public String toString() {
+
+    return CriteriaFormatter.format(this.template);
+  }
+
+  /**
+   * @param predicate the {@link CriteriaPredicate} to parameterize.
+   * @param values the {@link List} where to add the extracted {@link Literal#get() literal values}.
+   * @return the {@link #getTemplate() template} of the given {@link CriteriaPredicate}.
+   */
+  public static CriteriaPredicate parameterize(CriteriaPredicate predicate, List<Object> values) {
+
+    return (CriteriaPredicate) parameterize((CriteriaObject<?>) predicate, values);
+  }
+
+  private static CriteriaObject<?> parameterize(CriteriaObject<?> object, List<Object> values) {
+
+    if ((object instanceof Literal) && !(object instanceof BooleanLiteral)) {
+      int index = values.size();
+      values.add(((Literal<?>) object).get());
+      return ParameterLiteral.of(index);
+    } else if (object instanceof CriteriaExpression) {
+      CriteriaExpression<?> expression = (CriteriaExpression<?>) object;
+      List<? extends CriteriaObject<?>> args = expression.getArgs();
+      List<CriteriaObject<?>> newArgs = new ArrayList<>(args.size());
+      for (CriteriaObject<?> arg : args) {
+        newArgs.add(parameterize(arg, values));
+      }
+      return CriteriaStructureHelper.replaceArgs(expression, newArgs);
+    }
+    return object;
+  }
+
+  /**
+   * @param template the {@link CriteriaObject} that may contain {@link ParameterLiteral}s.
+   * @param values the parameter values to bind.
+   * @return the given {@link CriteriaObject} with all {@link ParameterLiteral}s replaced by {@link Literal}s of the
+   *         according {@code values}. A {@link CriteriaPredicate} with a {@code null} value is unknown (SQL semantics)
+   *         and therefore replaced by {@link SimplePredicate#NEVER} or by {@link SimplePredicate#ALWAYS} if negated
+   *         (e.g. via {@link PredicateOperator#NOT NOT}) so the result is never satisfied.
+   */
+  public static CriteriaObject<?> bind(CriteriaObject<?> template, Object[] values) {
+
+    return bind(template, values, false);
+  }
+
+  private static CriteriaObject<?> bind(CriteriaObject<?> template, Object[] values, boolean negated) {
+
+    if (template instanceof ParameterLiteral) {
+      return Literal.of(values[((ParameterLiteral<?>) template).getIndex()]);
+    } else if (template instanceof CriteriaExpression) {
+      CriteriaExpression<?> expression = (CriteriaExpression<?>) template;
+      boolean argsNegated = negated;
+      if (isNegation(expression.getOperator())) {
+        argsNegated = !negated;
+      }
+      List<? extends CriteriaObject<?>> args = expression.getArgs();
+      List<CriteriaObject<?>> newArgs = new ArrayList<>(args.size());
+      for (CriteriaObject<?> arg : args) {
+        CriteriaObject<?> newArg = bind(arg, values, argsNegated);
+        if ((newArg == null) && (expression instanceof CriteriaPredicate)) {
+          // comparison with null is unknown and never satisfied (SQL semantics)
+          if (negated) {
+            return SimplePredicate.ALWAYS;
+          }
+          return SimplePredicate.NEVER;
+        }
+        newArgs.add(newArg);
+      }
+      return CriteriaStructureHelper.replaceArgs(expression, newArgs);
+    }
+    return template;
+  }
+
+  private static boolean isNegation(CriteriaOperator operator) {
+
+    if (operator == PredicateOperator.NOT) {
+      return true;
+    } else if (operator instanceof PredicateOperator) {
+      PredicateOperator op = (PredicateOperator) operator;
+      return op.isConjunction() && op.isInverse();
+    }
+    return false;
+  }
+
+}
@@ -0,0 +1,188 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.property.criteria;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.github.mmm.property.criteria.evaluation.CriteriaEvaluator;
+
+/**
+ * Cache of {@link PreparedCriteria} keyed by their shape (the {@link PreparedCriteria#getTemplate() template}). If the
+ * same shape of {@link CriteriaPredicate} is used over and over again with different {@link Literal} values, the
+ * {@link PreparedCriteria#compile(Object...) evaluator} is compiled only once per shape. The cache is bounded and
+ * evicts the least recently used shape. It is thread-safe.
+ *
+ * @since 1.0.0
+ */
+public class PreparedCriteriaCache {
+
+  /** Default value for {@link #getMaxSize()}. */
+  public static final int DEFAULT_MAX_SIZE = 256;
+
+  private final CriteriaEvaluator evaluator;
+
+  private final int maxSize;
+
+  private final Map<Key, PreparedCriteria> cache;
+
+  private long hits;
+
+  private long misses;
+
+  /**
+   * The constructor.
+   */
+  public PreparedCriteriaCache() {
+
+    this(null, DEFAULT_MAX_SIZE);
+  }
+
+  /**
+   * The constructor.
+   *
+   * @param evaluator the {@link CriteriaEvaluator} or {@code null} for {@link CriteriaEvaluator#get() default}.
+   * @param maxSize the {@link #getMaxSize() maximum size}.
+   */
+  public PreparedCriteriaCache(CriteriaEvaluator evaluator, int maxSize) {
+
+    super();
+    if (maxSize <= 0) {
+      throw new IllegalArgumentException("" + maxSize);
+    }
+    if (evaluator == null) {
+      this.evaluator = CriteriaEvaluator.get();
+    } else {
+      this.evaluator = evaluator;
+    }
+    this.maxSize = maxSize;
+    this.cache = new LinkedHashMap<>(16, 0.75F, true) {
+
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Key, PreparedCriteria> eldest) {
+
+        return size() > PreparedCriteriaCache.this.maxSize;
+      }
+    };
+  }
+
+  /**
+   * @return the {@link CriteriaEvaluator} used to {@link PreparedCriteria#compile(Object...) compile}.
+   */
+  public CriteriaEvaluator getEvaluator() {
+
+    return this.evaluator;
+  }
+
+  /**
+   * @return the maximum number of shapes to cache.
+   */
+  public int getMaxSize() {
+
+    return this.maxSize;
+  }
+
+  /**
+   * @param predicate the {@link CriteriaPredicate} to prepare.
+   * @return the {@link BoundCriteria} with the cached {@link PreparedCriteria} for the shape of the given
+   *         {@link CriteriaPredicate} and its {@link Literal} values as {@link BoundCriteria#getValues() parameter
+   *         values}.
+   */
+  public BoundCriteria prepare(CriteriaPredicate predicate) {
+
+    List<Object> values = new ArrayList<>();
+    CriteriaPredicate template = PreparedCriteria.parameterize(predicate, values);
+    Key key = new Key(template);
+    PreparedCriteria prepared;
+    synchronized (this.cache) {
+      prepared = this.cache.get(key);
+      if (prepared == null) {
+        this.misses++;
+        prepared = new PreparedCriteria(template, values.size(), this.evaluator);
+        this.cache.put(key, prepared);
+      } else {
+        this.hits++;
+      }
+    }
+    return new BoundCriteria(prepared, values.toArray());
+  }
+
+  /**
+   * @return the current number of cached shapes.
+   */
+  public int size() {
+
+    synchronized (this.cache) {
+      return this.cache.size();
+    }
+  }
+
+  /**
+   * @return the number of calls of {@link #prepare(CriteriaPredicate)} that have been served from the cache.
+   */
+  public long getHits() {
+
+    synchronized (this.cache) {
+      return this.hits;
+    }
+  }
+
+  /**
+   * @return the number of calls of {@link #prepare(CriteriaPredicate)} that had to create a new
+   *         {@link PreparedCriteria}.
+   */
+  public long getMisses() {
+
+    synchronized (this.cache) {
+      return this.misses;
+    }
+  }
+
+  /**
+   * Removes all cached shapes.
+   */
+  public void clear() {
+
+    synchronized (this.cache) {
+      this.cache.clear();
+    }
+  }
+
+  private static final class Key {
+
+    private final CriteriaPredicate template;
+
+    private final int hash;
+
+    private Key(CriteriaPredicate template) {
+
+      super();
+      this.template = template;
+      // the alias is part of the SQL statement so the key must not ignore it like CriteriaPredicate.equals does
+      this.hash = CriteriaStructureHelper.hashCode(CriteriaStructureHelper.fingerprintWithAlias(template));
+    }
+
+    @Override
+    public int hashCode() {
+
+      return this.hash;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+
+      if (obj == this) {
+        return true;
+      } else if (!(obj instanceof Key)) {
+        return false;
+      }
+      Key other = (Key) obj;
+      return (this.hash == other.hash) && CriteriaStructureHelper.isEqualWithAlias(this.template, other.template);
+    }
+  }
+
+}
@@ -2,6 +2,12 @@
  * http://www.apache.org/licenses/LICENSE-2.0 */
 package io.github.mmm.property.criteria;
 
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import io.github.mmm.value.CriteriaObject;
 import io.github.mmm.value.PropertyPath;
 import io.github.mmm.value.ReadablePath;
 import io.github.mmm.value.SimplePath;
@@ -66,4 +72,62 @@ public final class PropertyPathHelper {
     return parent;
   }
 
+  /**
+   * Determines the {@link ReadablePath#pathSegment() segments} of the given {@link ReadablePath} relative to the
+   * object it is evaluated on. Beans are skipped (see {@link #getParent(ReadablePath)}) and for a {@link SimplePath}
+   * with multiple segments the top-level segment is considered to be an alias (e.g. "e" in "e.Name") and therefore
+   * omitted.
+   *
+   * @param path the {@link ReadablePath} to get the segments of.
+   * @return the segments of the given {@link ReadablePath} from the root to the leaf.
+   */
+  public static String[] getSegments(ReadablePath path) {
+
+    int count = 0;
+    ReadablePath root = null;
+    ReadablePath current = path;
+    while (current != null) {
+      count++;
+      root = current;
+      current = getParent(current);
+    }
+    int skip = 0;
+    if ((count > 1) && (root instanceof SimplePath) && (root.parentPath() == null)) {
+      skip = 1;
+    }
+    String[] segments = new String[count - skip];
+    current = path;
+    for (int i = segments.length - 1; i >= 0; i--) {
+      segments[i] = current.pathSegment();
+      current = getParent(current);
+    }
+    return segments;
+  }
+
+  /**
+   * @param object the {@link CriteriaObject} to traverse.
+   * @param paths the {@link List} where to add the {@link PropertyPath}s referenced by the given {@code object}
+   *        (without duplicates according to their {@link #getSegments(ReadablePath) segments}).
+   */
+  public static void collectPaths(CriteriaObject<?> object, List<PropertyPath<?>> paths) {
+
+    collectPaths(object, paths, new HashSet<>());
+  }
+
+  private static void collectPaths(CriteriaObject<?> object, List<PropertyPath<?>> paths, Set<List<String>> keys) {
+
+    if (object instanceof PropertyPath) {
+      PropertyPath<?> path = (PropertyPath<?>) object;
+      if (keys.add(Arrays.asList(getSegments(path)))) {
+        paths.add(path);
+      }
+    } else if (object instanceof ProjectionProperty) {
+      collectPaths(((ProjectionProperty<?>) object).getSelection(), paths, keys);
+    } else if (object instanceof CriteriaExpression) {
+      for (CriteriaObject<?> arg : ((CriteriaExpression<?>) object).getArgs()) {
+        collectPaths(arg, paths, keys);
+      }
+    }
+  }
+
 }
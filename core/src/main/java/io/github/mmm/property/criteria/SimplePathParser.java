@@ -1,11 +1,17 @@
 package io.github.mmm.property.criteria;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import io.github.mmm.scanner.CharStreamScanner;
 import io.github.mmm.value.PropertyPath;
 import io.github.mmm.value.SimplePath;
 
 /**
- * Implementation of {@link PropertyPathParser} for {@link SimplePath}.
+ * Implementation of {@link PropertyPathParser} for {@link SimplePath}. As {@link SimplePath}s are immutable, paths
+ * parsed from their root segment are interned in a bounded tree so the same criteria text does not create new
+ * {@link SimplePath} instances per segment on every parse.
  *
  * @since 1.0.0
  */
@@ -14,19 +20,51 @@ public class SimplePathParser implements PropertyPathParser {
   /** The singleton instance. */
   public static final SimplePathParser INSTANCE = new SimplePathParser();
 
+  /** Maximum number of interned {@link SimplePath}s before the interned paths are dropped. */
+  private static final int MAX_INTERNED_PATHS = 4096;
+
+  private final Map<String, PathNode> roots;
+
+  private final AtomicInteger internedPaths;
+
   private SimplePathParser() {
 
     super();
+    this.roots = new ConcurrentHashMap<>();
+    this.internedPaths = new AtomicInteger();
   }
 
   @Override
   public PropertyPath<?> parse(CharStreamScanner scanner, String segment) {
 
-    SimplePath path = null;
-    if (segment != null) {
-      path = new SimplePath(null, segment);
+    if (this.internedPaths.get() >= MAX_INTERNED_PATHS) {
+      this.roots.clear();
+      this.internedPaths.set(0);
+    }
+    PathNode node;
+    if (segment == null) {
+      node = getNode(this.roots, null, PropertyPathParser.readSegment(scanner, null));
+      if (!scanner.expectOne('.')) {
+        return node.path;
+      }
+    } else {
+      node = getNode(this.roots, null, segment);
+    }
+    do {
+      String child = PropertyPathParser.readSegment(scanner, node.path);
+      node = getNode(node.children, node.path, child);
+    } while (scanner.expectOne('.'));
+    return node.path;
+  }
+
+  private PathNode getNode(Map<String, PathNode> nodes, SimplePath parent, String segment) {
+
+    PathNode node = nodes.get(segment);
+    if (node == null) {
+      this.internedPaths.incrementAndGet();
+      node = nodes.computeIfAbsent(segment, s -> new PathNode(new SimplePath(parent, s)));
     }
-    return parse(scanner, path);
+    return node;
   }
 
   /**
@@ -43,4 +81,18 @@ public class SimplePathParser implements PropertyPathParser {
     } while (scanner.expectOne('.'));
     return path;
   }
+
+  private static final class PathNode {
+
+    private final SimplePath path;
+
+    private final Map<String, PathNode> children;
+
+    private PathNode(SimplePath path) {
+
+      super();
+      this.path = path;
+      this.children = new ConcurrentHashMap<>();
+    }
+  }
 }
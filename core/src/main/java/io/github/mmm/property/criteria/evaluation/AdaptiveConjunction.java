@@ -0,0 +1,278 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.property.criteria.evaluation;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Predicate;
+
+import io.github.mmm.property.criteria.PredicateOperator;
+import io.github.mmm.value.CriteriaObject;
+
+/**
+ * Compiled {@link PredicateOperator#AND AND} or {@link PredicateOperator#OR OR} created by
+ * {@link AdaptiveCriteriaEvaluator}. It records the pass rate and (sampled) evaluation cost of each argument and
+ * periodically reorders the arguments so that cheap and selective checks are evaluated first. The observed
+ * {@link #getStatistics() statistics} can be inspected at any time.
+ *
+ * @since 1.0.0
+ */
+public final class AdaptiveConjunction implements Predicate<Object> {
+
+  private static final double PRIOR_PASS_RATE = 0.5;
+
+  private static final double MIN_RATE = 0.001;
+
+  /** Estimated nanoseconds per unit of {@link ArgumentStatistics#getEstimatedCost() estimated cost}. */
+  private static final double NANOS_PER_COST = 5;
+
+  private final boolean and;
+
+  private final ArgumentStatistics[] statistics;
+
+  private final int reorderMask;
+
+  private final int sampleMask;
+
+  private volatile ArgumentStatistics[] order;
+
+  private long evaluations;
+
+  private int reorderCount;
+
+  AdaptiveConjunction(boolean and, ArgumentStatistics[] statistics, int reorderInterval, int sampleInterval) {
+
+    super();
+    this.and = and;
+    this.statistics = statistics;
+    this.reorderMask = reorderInterval - 1;
+    this.sampleMask = sampleInterval - 1;
+    ArgumentStatistics[] initialOrder = statistics.clone();
+    Arrays.sort(initialOrder, Comparator.comparingInt(ArgumentStatistics::getEstimatedCost));
+    this.order = initialOrder;
+  }
+
+  /**
+   * @return {@code true} for {@link PredicateOperator#AND AND}, {@code false} for {@link PredicateOperator#OR OR}.
+   */
+  public boolean isAnd() {
+
+    return this.and;
+  }
+
+  /**
+   * @return the number of evaluations of this conjunction.
+   */
+  public long getEvaluations() {
+
+    return this.evaluations;
+  }
+
+  /**
+   * @return the number of times the arguments have been reordered.
+   */
+  public int getReorderCount() {
+
+    return this.reorderCount;
+  }
+
+  /**
+   * @return the {@link ArgumentStatistics} in the original order of the arguments.
+   */
+  public List<ArgumentStatistics> getStatistics() {
+
+    return List.of(this.statistics);
+  }
+
+  /**
+   * @return the {@link ArgumentStatistics} in the current order of evaluation.
+   */
+  public List<ArgumentStatistics> getEvaluationOrder() {
+
+    return List.of(this.order);
+  }
+
+  @Override
+  public boolean test(Object bean) {
+
+    long count = ++this.evaluations;
+    ArgumentStatistics[] args = this.order;
+    // AND is true and OR is false unless short-circuited
+    boolean result = this.and;
+    if ((count & this.sampleMask) == 0) {
+      for (ArgumentStatistics arg : args) {
+        long start = System.nanoTime();
+        boolean pass = arg.predicate.test(bean);
+        arg.nanos += System.nanoTime() - start;
+        arg.samples++;
+        if (arg.record(pass) != this.and) {
+          result = !this.and;
+          break;
+        }
+      }
+    } else {
+      for (ArgumentStatistics arg : args) {
+        if (arg.record(arg.predicate.test(bean)) != this.and) {
+          result = !this.and;
+          break;
+        }
+      }
+    }
+    if ((count & this.reorderMask) == 0) {
+      reorder();
+    }
+    return result;
+  }
+
+  /**
+   * Reorders the arguments based on the observed statistics. For {@link PredicateOperator#AND AND} arguments are
+   * sorted by cost per rejection, for {@link PredicateOperator#OR OR} by cost per match. The ranks are computed from a
+   * local snapshot of the statistics so concurrent callers never see a partially sorted order or share mutable state;
+   * the new order is published atomically.
+   */
+  public void reorder() {
+
+    ArgumentStatistics[] newOrder = this.order.clone();
+    int length = newOrder.length;
+    double[] ranks = new double[length];
+    for (int i = 0; i < length; i++) {
+      ArgumentStatistics arg = newOrder[i];
+      double rate = arg.getPassRate();
+      if (this.and) {
+        rate = 1 - rate;
+      }
+      double rank = arg.getCost() / Math.max(rate, MIN_RATE);
+      // stable insertion sort as conjunctions only have few arguments
+      int j = i;
+      while ((j > 0) && (ranks[j - 1] > rank)) {
+        ranks[j] = ranks[j - 1];
+        newOrder[j] = newOrder[j - 1];
+        j--;
+      }
+      ranks[j] = rank;
+      newOrder[j] = arg;
+    }
+    this.order = newOrder;
+    this.reorderCount++;
+  }
+
+  @Override
+  public String toString() {
+
+    StringBuilder sb = new StringBuilder();
+    sb.append(this.and ? "AND" : "OR");
+    sb.append(Arrays.toString(this.order));
+    return sb.toString();
+  }
+
+  /**
+   * Statistics of a single argument of an {@link AdaptiveConjunction}. Counters are updated without synchronization
+   * and may therefore slightly deviate under concurrent evaluation.
+   */
+  public static final class ArgumentStatistics {
+
+    private final CriteriaObject<?> argument;
+
+    private final Predicate<Object> predicate;
+
+    private final int estimatedCost;
+
+    private long evaluations;
+
+    private long passes;
+
+    private long samples;
+
+    private long nanos;
+
+    ArgumentStatistics(CriteriaObject<?> argument, Predicate<Object> predicate, int estimatedCost) {
+
+      super();
+      this.argument = argument;
+      this.predicate = predicate;
+      this.estimatedCost = estimatedCost;
+    }
+
+    private boolean record(boolean pass) {
+
+      this.evaluations++;
+      if (pass) {
+        this.passes++;
+      }
+      return pass;
+    }
+
+    /**
+     * @return the original argument.
+     */
+    public CriteriaObject<?> getArgument() {
+
+      return this.argument;
+    }
+
+    /**
+     * @return the compiled {@link Predicate} of the {@link #getArgument() argument}. May be an
+     *         {@link AdaptiveConjunction} for nested conjunctions.
+     */
+    public Predicate<Object> getPredicate() {
+
+      return this.predicate;
+    }
+
+    /**
+     * @return the static cost estimation derived from the {@link PredicateOperator} used before any costs have been
+     *         measured.
+     */
+    public int getEstimatedCost() {
+
+      return this.estimatedCost;
+    }
+
+    /**
+     * @return the number of evaluations of this argument.
+     */
+    public long getEvaluations() {
+
+      return this.evaluations;
+    }
+
+    /**
+     * @return the number of evaluations of this argument that returned {@code true}.
+     */
+    public long getPasses() {
+
+      return this.passes;
+    }
+
+    /**
+     * @return the observed ratio of {@link #getPasses() passes} per {@link #getEvaluations() evaluation}.
+     */
+    public double getPassRate() {
+
+      if (this.evaluations == 0) {
+        return PRIOR_PASS_RATE;
+      }
+      return ((double) this.passes) / this.evaluations;
+    }
+
+    /**
+     * @return the average measured cost of an evaluation in nanoseconds or the {@link #getEstimatedCost() estimation}
+     *         if not yet measured.
+     */
+    public double getCost() {
+
+      if (this.samples == 0) {
+        return this.estimatedCost * NANOS_PER_COST;
+      }
+      return ((double) this.nanos) / this.samples;
+    }
+
+    @Override
+    public String toString() {
+
+      return this.argument + "{pass=" + Math.round(getPassRate() * 100) + "%,cost=" + Math.round(getCost()) + "ns}";
+    }
+  }
+
+}
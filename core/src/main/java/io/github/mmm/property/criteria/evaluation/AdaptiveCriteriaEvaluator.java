@@ -0,0 +1,145 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.property.criteria.evaluation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+import io.github.mmm.property.criteria.CriteriaPredicate;
+import io.github.mmm.property.criteria.LikePatternSyntax;
+import io.github.mmm.property.criteria.PredicateOperator;
+import io.github.mmm.value.CriteriaObject;
+
+/**
+ * {@link CriteriaEvaluator} with adaptive evaluation of {@link PredicateOperator#isConjunction() conjunctions}. Each
+ * compiled {@link PredicateOperator#AND AND} and {@link PredicateOperator#OR OR} is an {@link AdaptiveConjunction}
+ * that starts with an order based on a static {@link #estimateCost(CriteriaObject) cost estimation} (e.g.
+ * {@link PredicateOperator#IS_NULL IS NULL} before {@link PredicateOperator#LIKE LIKE}) and then periodically reorders
+ * its arguments by the observed pass rates and evaluation costs. As the arguments may be evaluated in any order, they
+ * should be free of side-effects.
+ *
+ * @since 1.0.0
+ */
+public class AdaptiveCriteriaEvaluator extends CriteriaEvaluator {
+
+  /** The default {@link #getReorderInterval() reorder interval}. */
+  public static final int DEFAULT_REORDER_INTERVAL = 1024;
+
+  /** The default {@link #getSampleInterval() sample interval}. */
+  public static final int DEFAULT_SAMPLE_INTERVAL = 16;
+
+  private final int reorderInterval;
+
+  private final int sampleInterval;
+
+  /**
+   * The constructor.
+   */
+  public AdaptiveCriteriaEvaluator() {
+
+    this(null, null, DEFAULT_REORDER_INTERVAL, DEFAULT_SAMPLE_INTERVAL);
+  }
+
+  /**
+   * The constructor.
+   *
+   * @param resolver the {@link PropertyPathResolver} or {@code null} for {@link ReflectivePropertyPathResolver}.
+   * @param likeSyntax the {@link #getLikeSyntax() LIKE syntax} or {@code null} for
+   *        {@link LikePatternSyntax#autoDetect(String) auto-detection}.
+   * @param reorderInterval the {@link #getReorderInterval() reorder interval}. Has to be a power of two.
+   * @param sampleInterval the {@link #getSampleInterval() sample interval}. Has to be a power of two.
+   */
+  public AdaptiveCriteriaEvaluator(PropertyPathResolver resolver, LikePatternSyntax likeSyntax, int reorderInterval,
+      int sampleInterval) {
+
+    super(resolver, likeSyntax);
+    if (Integer.bitCount(reorderInterval) != 1) {
+      throw new IllegalArgumentException("reorderInterval " + reorderInterval + " is not a power of two.");
+    }
+    if (Integer.bitCount(sampleInterval) != 1) {
+      throw new IllegalArgumentException("sampleInterval " + sampleInterval + " is not a power of two.");
+    }
+    this.reorderInterval = reorderInterval;
+    this.sampleInterval = sampleInterval;
+  }
+
+  /**
+   * @return the number of evaluations after which an {@link AdaptiveConjunction} {@link AdaptiveConjunction#reorder()
+   *         reorders} its arguments.
+   */
+  public int getReorderInterval() {
+
+    return this.reorderInterval;
+  }
+
+  /**
+   * @return the interval of evaluations where the cost of the arguments is measured. As measuring time has overhead,
+   *         only every n-th evaluation is sampled.
+   */
+  public int getSampleInterval() {
+
+    return this.sampleInterval;
+  }
+
+  @Override
+  protected Predicate<Object> compileConjunction(CriteriaPredicate predicate) {
+
+    PredicateOperator op = predicate.getOperator();
+    if (op.isInverse()) {
+      return compileCondition(pushNegation(predicate));
+    }
+    boolean and = (op == PredicateOperator.AND);
+    Predicate<Object> neutral = constant(and);
+    Predicate<Object> dominant = constant(!and);
+    List<AdaptiveConjunction.ArgumentStatistics> args = new ArrayList<>();
+    for (CriteriaObject<?> arg : predicate.getArgs()) {
+      Predicate<Object> compiled = compileCondition(arg);
+      if (compiled == dominant) {
+        return dominant;
+      } else if (compiled != neutral) {
+        args.add(new AdaptiveConjunction.ArgumentStatistics(arg, compiled, estimateCost(arg)));
+      }
+    }
+    int size = args.size();
+    if (size == 0) {
+      return neutral;
+    } else if (size == 1) {
+      return args.get(0).getPredicate();
+    }
+    return new AdaptiveConjunction(and, args.toArray(new AdaptiveConjunction.ArgumentStatistics[size]),
+        this.reorderInterval, this.sampleInterval);
+  }
+
+  /**
+   * @param arg the argument of a conjunction.
+   * @return the estimated relative cost to evaluate the given argument.
+   */
+  protected int estimateCost(CriteriaObject<?> arg) {
+
+    if (!(arg instanceof CriteriaPredicate)) {
+      return 2;
+    }
+    CriteriaPredicate predicate = (CriteriaPredicate) arg;
+    PredicateOperator op = predicate.getOperator();
+    if (op.isConjunction() || (op == PredicateOperator.NOT)) {
+      int cost = 0;
+      for (CriteriaObject<?> child : predicate.getArgs()) {
+        cost += estimateCost(child);
+      }
+      return cost;
+    } else if ((op == PredicateOperator.IS_NULL) || (op == PredicateOperator.IS_NOT_NULL)) {
+      return 1;
+    } else if ((op == PredicateOperator.EQ) || (op == PredicateOperator.NEQ)) {
+      return 2;
+    } else if ((op == PredicateOperator.IN) || (op == PredicateOperator.NOT_IN)) {
+      return 3;
+    } else if ((op == PredicateOperator.LIKE) || (op == PredicateOperator.NOT_LIKE)) {
+      return 8;
+    } else if ((op == PredicateOperator.CONTAINS) || (op == PredicateOperator.NOT_CONTAINS)) {
+      return 16;
+    }
+    return 3;
+  }
+
+}
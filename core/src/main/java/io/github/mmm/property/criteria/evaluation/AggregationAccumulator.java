@@ -0,0 +1,443 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.property.criteria.evaluation;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+
+import io.github.mmm.property.criteria.CriteriaAggregationOperator;
+import io.github.mmm.property.criteria.CriteriaValueHelper;
+
+/**
+ * Mergeable state of a single {@link io.github.mmm.property.criteria.CriteriaAggregation} for a single group. Numeric
+ * values are accumulated in primitive fields so no boxed intermediate results are created per row. Partial states
+ * computed in parallel can be combined via {@link #merge(AggregationAccumulator)}.
+ *
+ * @since 1.0.0
+ */
+public abstract class AggregationAccumulator {
+
+  /** The {@link ValueAccessor} for the aggregated values or {@code null} for {@code COUNT(*)}. */
+  protected final ValueAccessor accessor;
+
+  /**
+   * The constructor.
+   *
+   * @param accessor the {@link ValueAccessor} for the aggregated values or {@code null} for {@code COUNT(*)}.
+   */
+  protected AggregationAccumulator(ValueAccessor accessor) {
+
+    super();
+    this.accessor = accessor;
+  }
+
+  /**
+   * @param bean the bean (row) to accumulate.
+   */
+  public void add(Object bean) {
+
+    Object value = this.accessor.get(bean);
+    if (value != null) {
+      addValue(value);
+    }
+  }
+
+  /**
+   * @param value the non-{@code null} value to accumulate.
+   */
+  protected abstract void addValue(Object value);
+
+  /**
+   * @param other the {@link AggregationAccumulator} of the same type to merge into this one.
+   */
+  public abstract void merge(AggregationAccumulator other);
+
+  /**
+   * @return a new and empty {@link AggregationAccumulator} of the same type.
+   */
+  public abstract AggregationAccumulator newInstance();
+
+  /**
+   * @return the result of the aggregation. Will be {@code null} if no value was accumulated except for
+   *         {@link CriteriaAggregationOperator#COUNT COUNT}.
+   */
+  public abstract Object getResult();
+
+  /**
+   * @param operator the {@link CriteriaAggregationOperator}.
+   * @param accessor the {@link ValueAccessor} for the aggregated values or {@code null} for {@code COUNT(*)}.
+   * @return the new {@link AggregationAccumulator}.
+   */
+  public static AggregationAccumulator of(CriteriaAggregationOperator operator, ValueAccessor accessor) {
+
+    if (operator == CriteriaAggregationOperator.COUNT) {
+      return new Count(accessor);
+    } else if (accessor == null) {
+      throw new IllegalArgumentException("Aggregation " + operator + " requires an argument.");
+    } else if (operator == CriteriaAggregationOperator.SUM) {
+      return new Sum(accessor, false);
+    } else if (operator == CriteriaAggregationOperator.AVG) {
+      return new Sum(accessor, true);
+    } else if (operator == CriteriaAggregationOperator.MIN) {
+      return new MinMax(accessor, false);
+    } else if (operator == CriteriaAggregationOperator.MAX) {
+      return new MinMax(accessor, true);
+    } else if (operator == CriteriaAggregationOperator.GROUP_CONCAT) {
+      return new GroupConcat(accessor);
+    } else if (operator == CriteriaAggregationOperator.APPROX_COUNT_DISTINCT) {
+      return new ApproxCountDistinct(accessor);
+    } else if (!Double.isNaN(operator.getQuantile())) {
+      return new ApproxPercentile(accessor, operator.getQuantile());
+    }
+    throw new IllegalArgumentException("Unsupported aggregation: " + operator);
+  }
+
+  private static class Count extends AggregationAccumulator {
+
+    private long count;
+
+    private Count(ValueAccessor accessor) {
+
+      super(accessor);
+    }
+
+    @Override
+    public void add(Object bean) {
+
+      if ((this.accessor == null) || (this.accessor.get(bean) != null)) {
+        this.count++;
+      }
+    }
+
+    @Override
+    protected void addValue(Object value) {
+
+      this.count++;
+    }
+
+    @Override
+    public void merge(AggregationAccumulator other) {
+
+      this.count += ((Count) other).count;
+    }
+
+    @Override
+    public AggregationAccumulator newInstance() {
+
+      return new Count(this.accessor);
+    }
+
+    @Override
+    public Object getResult() {
+
+      return Long.valueOf(this.count);
+    }
+  }
+
+  /**
+   * Accumulator for {@link CriteriaAggregationOperator#SUM SUM} and {@link CriteriaAggregationOperator#AVG AVG}. Sums
+   * up integral values as {@code long}, switches to {@code double} for floating point values and to
+   * {@link BigDecimal} only when required.
+   */
+  private static class Sum extends AggregationAccumulator {
+
+    private final boolean average;
+
+    private long count;
+
+    private long longSum;
+
+    private double doubleSum;
+
+    private boolean floating;
+
+    private BigDecimal bigSum;
+
+    private Sum(ValueAccessor accessor, boolean average) {
+
+      super(accessor);
+      this.average = average;
+    }
+
+    @Override
+    protected void addValue(Object value) {
+
+      Number number = (Number) value;
+      this.count++;
+      if (CriteriaValueHelper.isIntegral(number)) {
+        long l = number.longValue();
+        long sum = this.longSum + l;
+        if (((this.longSum ^ sum) & (l ^ sum)) < 0) {
+          // overflow
+          addBig(BigDecimal.valueOf(this.longSum).add(BigDecimal.valueOf(l)));
+          this.longSum = 0;
+        } else {
+          this.longSum = sum;
+        }
+      } else if (CriteriaValueHelper.isBig(number)) {
+        addBig(CriteriaValueHelper.toBigDecimal(number));
+      } else {
+        this.floating = true;
+        this.doubleSum += number.doubleValue();
+      }
+    }
+
+    private void addBig(BigDecimal value) {
+
+      if (this.bigSum == null) {
+        this.bigSum = value;
+      } else {
+        this.bigSum = this.bigSum.add(value);
+      }
+    }
+
+    @Override
+    public void merge(AggregationAccumulator other) {
+
+      Sum sum = (Sum) other;
+      long count = this.count;
+      addValue(Long.valueOf(sum.longSum));
+      this.count = count + sum.count;
+      this.doubleSum += sum.doubleSum;
+      this.floating |= sum.floating;
+      if (sum.bigSum != null) {
+        addBig(sum.bigSum);
+      }
+    }
+
+    @Override
+    public AggregationAccumulator newInstance() {
+
+      return new Sum(this.accessor, this.average);
+    }
+
+    @Override
+    public Object getResult() {
+
+      if (this.count == 0) {
+        return null;
+      }
+      if (this.bigSum != null) {
+        BigDecimal sum = this.bigSum.add(BigDecimal.valueOf(this.longSum));
+        if (this.floating) {
+          sum = sum.add(BigDecimal.valueOf(this.doubleSum));
+        }
+        if (this.average) {
+          return sum.divide(BigDecimal.valueOf(this.count), MathContext.DECIMAL128);
+        }
+        return sum;
+      } else if (this.floating || this.average) {
+        double sum = this.longSum + this.doubleSum;
+        if (this.average) {
+          return Double.valueOf(sum / this.count);
+        }
+        return Double.valueOf(sum);
+      }
+      return Long.valueOf(this.longSum);
+    }
+  }
+
+  /**
+   * Accumulator for {@link CriteriaAggregationOperator#MIN MIN} and {@link CriteriaAggregationOperator#MAX MAX}. Keeps
+   * the original value so the result has the type of the property. Integral values are compared as {@code long}.
+   */
+  private static class MinMax extends AggregationAccumulator {
+
+    private final boolean max;
+
+    private Object result;
+
+    private long longResult;
+
+    private boolean integral;
+
+    private MinMax(ValueAccessor accessor, boolean max) {
+
+      super(accessor);
+      this.max = max;
+    }
+
+    @Override
+    protected void addValue(Object value) {
+
+      if (this.result == null) {
+        this.result = value;
+        this.integral = CriteriaValueHelper.isIntegral(value);
+        if (this.integral) {
+          this.longResult = ((Number) value).longValue();
+        }
+      } else if (this.integral && CriteriaValueHelper.isIntegral(value)) {
+        long l = ((Number) value).longValue();
+        if (this.max ? (l > this.longResult) : (l < this.longResult)) {
+          this.longResult = l;
+          this.result = value;
+        }
+      } else {
+        int delta = CriteriaValueHelper.compare(value, this.result);
+        if (this.max ? (delta > 0) : (delta < 0)) {
+          this.result = value;
+          this.integral = CriteriaValueHelper.isIntegral(value);
+          if (this.integral) {
+            this.longResult = ((Number) value).longValue();
+          }
+        }
+      }
+    }
+
+    @Override
+    public void merge(AggregationAccumulator other) {
+
+      Object otherResult = ((MinMax) other).result;
+      if (otherResult != null) {
+        addValue(otherResult);
+      }
+    }
+
+    @Override
+    public AggregationAccumulator newInstance() {
+
+      return new MinMax(this.accessor, this.max);
+    }
+
+    @Override
+    public Object getResult() {
+
+      return this.result;
+    }
+  }
+
+  private static class GroupConcat extends AggregationAccumulator {
+
+    private static final char SEPARATOR = ',';
+
+    private StringBuilder result;
+
+    private GroupConcat(ValueAccessor accessor) {
+
+      super(accessor);
+    }
+
+    @Override
+    protected void addValue(Object value) {
+
+      if (this.result == null) {
+        this.result = new StringBuilder();
+      } else {
+        this.result.append(SEPARATOR);
+      }
+      this.result.append(value);
+    }
+
+    @Override
+    public void merge(AggregationAccumulator other) {
+
+      StringBuilder otherResult = ((GroupConcat) other).result;
+      if (otherResult != null) {
+        addValue(otherResult);
+      }
+    }
+
+    @Override
+    public AggregationAccumulator newInstance() {
+
+      return new GroupConcat(this.accessor);
+    }
+
+    @Override
+    public Object getResult() {
+
+      if (this.result == null) {
+        return null;
+      }
+      return this.result.toString();
+    }
+  }
+
+  /**
+   * Accumulator for {@link CriteriaAggregationOperator#APPROX_COUNT_DISTINCT APPROX_COUNT_DISTINCT} based on
+   * {@link HyperLogLog}.
+   */
+  private static class ApproxCountDistinct extends AggregationAccumulator {
+
+    private final HyperLogLog sketch;
+
+    private ApproxCountDistinct(ValueAccessor accessor) {
+
+      super(accessor);
+      this.sketch = new HyperLogLog();
+    }
+
+    @Override
+    protected void addValue(Object value) {
+
+      this.sketch.add(value);
+    }
+
+    @Override
+    public void merge(AggregationAccumulator other) {
+
+      this.sketch.merge(((ApproxCountDistinct) other).sketch);
+    }
+
+    @Override
+    public AggregationAccumulator newInstance() {
+
+      return new ApproxCountDistinct(this.accessor);
+    }
+
+    @Override
+    public Object getResult() {
+
+      return Long.valueOf(this.sketch.estimate());
+    }
+  }
+
+  /**
+   * Accumulator for approximate percentiles such as {@link CriteriaAggregationOperator#APPROX_MEDIAN APPROX_MEDIAN}
+   * based on {@link TDigest}.
+   */
+  private static class ApproxPercentile extends AggregationAccumulator {
+
+    private final double quantile;
+
+    private final TDigest sketch;
+
+    private ApproxPercentile(ValueAccessor accessor, double quantile) {
+
+      super(accessor);
+      this.quantile = quantile;
+      this.sketch = new TDigest();
+    }
+
+    @Override
+    protected void addValue(Object value) {
+
+      if (!(value instanceof Number)) {
+        throw new IllegalArgumentException("Can not compute percentile of non-numeric value " + value);
+      }
+      this.sketch.add(((Number) value).doubleValue());
+    }
+
+    @Override
+    public void merge(AggregationAccumulator other) {
+
+      this.sketch.merge(((ApproxPercentile) other).sketch);
+    }
+
+    @Override
+    public AggregationAccumulator newInstance() {
+
+      return new ApproxPercentile(this.accessor, this.quantile);
+    }
+
+    @Override
+    public Object getResult() {
+
+      if (this.sketch.getCount() == 0) {
+        return null;
+      }
+      return Double.valueOf(this.sketch.quantile(this.quantile));
+    }
+  }
+
+}
@@ -0,0 +1,66 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.property.criteria.evaluation;
+
+import java.util.Arrays;
+
+/**
+ * Result row of a {@link CriteriaAggregator} with the values of the grouping expressions ({@code GROUP BY}) followed by
+ * the results of the aggregations.
+ *
+ * @since 1.0.0
+ */
+public final class AggregationRow {
+
+  private final Object[] groupValues;
+
+  private final Object[] values;
+
+  AggregationRow(Object[] groupValues, Object[] values) {
+
+    super();
+    this.groupValues = groupValues;
+    this.values = values;
+  }
+
+  /**
+   * @return the number of grouping values.
+   */
+  public int getGroupCount() {
+
+    return this.groupValues.length;
+  }
+
+  /**
+   * @param index the index of the grouping expression.
+   * @return the value of the grouping expression for this row.
+   */
+  public Object getGroupValue(int index) {
+
+    return this.groupValues[index];
+  }
+
+  /**
+   * @return the number of aggregation results.
+   */
+  public int getValueCount() {
+
+    return this.values.length;
+  }
+
+  /**
+   * @param index the index of the {@link io.github.mmm.property.criteria.CriteriaAggregation}.
+   * @return the result of the aggregation for this row.
+   */
+  public Object getValue(int index) {
+
+    return this.values[index];
+  }
+
+  @Override
+  public String toString() {
+
+    return Arrays.toString(this.groupValues) + "=" + Arrays.toString(this.values);
+  }
+
+}
@@ -0,0 +1,158 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.property.criteria.evaluation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+/**
+ * Mergeable partial state of a {@link CriteriaAggregator}. Each thread accumulates its own {@link AggregationState} that
+ * are finally {@link #merge(AggregationState) merged}.
+ *
+ * @since 1.0.0
+ */
+public final class AggregationState {
+
+  private static final Object NULL_KEY = new Object();
+
+  private final CriteriaAggregator aggregator;
+
+  private final Map<Object, AggregationAccumulator[]> groups;
+
+  AggregationState(CriteriaAggregator aggregator) {
+
+    super();
+    this.aggregator = aggregator;
+    this.groups = new LinkedHashMap<>();
+  }
+
+  /**
+   * @param bean the bean (row) to accumulate.
+   */
+  public void add(Object bean) {
+
+    ValueAccessor[] groupAccessors = this.aggregator.getGroupAccessors();
+    Object key;
+    int groupCount = groupAccessors.length;
+    if (groupCount == 0) {
+      key = NULL_KEY;
+    } else if (groupCount == 1) {
+      key = groupAccessors[0].get(bean);
+      if (key == null) {
+        key = NULL_KEY;
+      }
+    } else {
+      Object[] values = new Object[groupCount];
+      for (int i = 0; i < groupCount; i++) {
+        values[i] = groupAccessors[i].get(bean);
+      }
+      key = new GroupKey(values);
+    }
+    AggregationAccumulator[] accumulators = this.groups.get(key);
+    if (accumulators == null) {
+      accumulators = this.aggregator.newAccumulators();
+      this.groups.put(key, accumulators);
+    }
+    for (AggregationAccumulator accumulator : accumulators) {
+      accumulator.add(bean);
+    }
+  }
+
+  /**
+   * @param other the {@link AggregationState} to merge into this one.
+   * @return this {@link AggregationState} containing the merged result.
+   */
+  public AggregationState merge(AggregationState other) {
+
+    for (Entry<Object, AggregationAccumulator[]> entry : other.groups.entrySet()) {
+      AggregationAccumulator[] accumulators = this.groups.get(entry.getKey());
+      if (accumulators == null) {
+        this.groups.put(entry.getKey(), entry.getValue());
+      } else {
+        AggregationAccumulator[] otherAccumulators = entry.getValue();
+        for (int i = 0; i < accumulators.length; i++) {
+          accumulators[i].merge(otherAccumulators[i]);
+        }
+      }
+    }
+    return this;
+  }
+
+  /**
+   * @return the final {@link AggregationRow}s filtered by the {@code HAVING} clause.
+   */
+  public List<AggregationRow> getRows() {
+
+    int groupCount = this.aggregator.getGroupAccessors().length;
+    if ((groupCount == 0) && this.groups.isEmpty()) {
+      // without GROUP BY there is always exactly one result row
+      this.groups.put(NULL_KEY, this.aggregator.newAccumulators());
+    }
+    int valueCount = this.aggregator.getValueCount();
+    List<AggregationRow> rows = new ArrayList<>(this.groups.size());
+    for (Entry<Object, AggregationAccumulator[]> entry : this.groups.entrySet()) {
+      Object key = entry.getKey();
+      Object[] groupValues;
+      if (key instanceof GroupKey) {
+        groupValues = ((GroupKey) key).values;
+      } else if (groupCount == 0) {
+        groupValues = new Object[0];
+      } else if (key == NULL_KEY) {
+        groupValues = new Object[1];
+      } else {
+        groupValues = new Object[] { key };
+      }
+      AggregationAccumulator[] accumulators = entry.getValue();
+      Object[] values = new Object[accumulators.length];
+      for (int i = 0; i < values.length; i++) {
+        values[i] = accumulators[i].getResult();
+      }
+      AggregationRow row = new AggregationRow(groupValues, values);
+      if (this.aggregator.getHaving().test(row)) {
+        if (valueCount < values.length) {
+          // strip aggregations only used in HAVING clause
+          row = new AggregationRow(groupValues, Arrays.copyOf(values, valueCount));
+        }
+        rows.add(row);
+      }
+    }
+    return rows;
+  }
+
+  private static final class GroupKey {
+
+    private final Object[] values;
+
+    private final int hash;
+
+    private GroupKey(Object[] values) {
+
+      super();
+      this.values = values;
+      this.hash = Arrays.hashCode(values);
+    }
+
+    @Override
+    public int hashCode() {
+
+      return this.hash;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+
+      if (obj == this) {
+        return true;
+      } else if (!(obj instanceof GroupKey)) {
+        return false;
+      }
+      GroupKey other = (GroupKey) obj;
+      return (this.hash == other.hash) && Arrays.equals(this.values, other.values);
+    }
+  }
+
+}
@@ -0,0 +1,100 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.property.criteria.evaluation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Coalesces change notifications for beans. Listeners that react on property changes of a bean (e.g. to re-evaluate
+ * or re-index it) call {@link #notify(Object, Object, Runnable)} instead of reacting directly. Outside of a batch the
+ * action is executed immediately. Inside a batch started via {@link #run(Runnable)} on the current thread, the action
+ * is executed only once per listener and bean after the batch has completed, so modifying multiple properties of a
+ * bean results in a single notification. Batches may be nested and are then joined with the outermost batch.
+ *
+ * @since 1.0.0
+ * @see CriteriaUpdater
+ */
+public final class BeanChangeBatch {
+
+  private static final ThreadLocal<BeanChangeBatch> CURRENT = new ThreadLocal<>();
+
+  private final Map<Object, Set<Object>> notified;
+
+  private final List<Runnable> actions;
+
+  private BeanChangeBatch() {
+
+    super();
+    this.notified = new IdentityHashMap<>();
+    this.actions = new ArrayList<>();
+  }
+
+  /**
+   * Executes the given {@code task} as a batch. If the {@code task} fails, the changes it has applied before the
+   * failure are not rolled back. Therefore the deferred actions are still executed so observers (e.g. indexes) stay
+   * consistent with the partially modified beans. Exceptions thrown by these actions are then
+   * {@link Throwable#addSuppressed(Throwable) suppressed} so the original exception of the {@code task} is propagated.
+   *
+   * @param task the {@link Runnable} to execute as a batch. All {@link #notify(Object, Object, Runnable) notifications}
+   *        are deferred until the task has completed.
+   */
+  public static void run(Runnable task) {
+
+    if (CURRENT.get() != null) {
+      task.run();
+      return;
+    }
+    BeanChangeBatch batch = new BeanChangeBatch();
+    CURRENT.set(batch);
+    try {
+      task.run();
+    } catch (RuntimeException | Error e) {
+      CURRENT.remove();
+      for (Runnable action : batch.actions) {
+        try {
+          action.run();
+        } catch (RuntimeException | Error e2) {
+          e.addSuppressed(e2);
+        }
+      }
+      throw e;
+    } finally {
+      CURRENT.remove();
+    }
+    for (Runnable action : batch.actions) {
+      action.run();
+    }
+  }
+
+  /**
+   * @param listener the listener that has been notified about a change (used to identify duplicate notifications).
+   * @param bean the bean that has changed.
+   * @param action the {@link Runnable} reacting on the change. Executed immediately if no batch is active or deferred
+   *        until the end of the current batch unless the given {@code listener} already has been notified about the
+   *        given {@code bean} in this batch.
+   */
+  public static void notify(Object listener, Object bean, Runnable action) {
+
+    BeanChangeBatch batch = CURRENT.get();
+    if (batch == null) {
+      action.run();
+    } else if (batch.notified.computeIfAbsent(listener, k -> Collections.newSetFromMap(new IdentityHashMap<>()))
+        .add(bean)) {
+      batch.actions.add(action);
+    }
+  }
+
+  /**
+   * @return {@code true} if a batch is active on the current thread, {@code false} otherwise.
+   */
+  public static boolean isActive() {
+
+    return CURRENT.get() != null;
+  }
+
+}
@@ -0,0 +1,231 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.property.criteria.evaluation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+import io.github.mmm.property.criteria.CriteriaAggregation;
+import io.github.mmm.property.criteria.CriteriaPredicate;
+import io.github.mmm.property.criteria.PropertyPathHelper;
+import io.github.mmm.value.CriteriaObject;
+import io.github.mmm.value.PropertyPath;
+
+/**
+ * Executes {@link CriteriaAggregation}s in memory on a {@link Stream} or {@link Iterable} of beans. Supports grouping
+ * ({@code GROUP BY}) and filtering of groups ({@code HAVING}). All results are computed in a single pass using
+ * {@link AggregationAccumulator}s. A {@link Stream#isParallel() parallel} {@link Stream} is aggregated in parallel with
+ * {@link AggregationState#merge(AggregationState) merged} partial results.
+ *
+ * <pre>
+ * CriteriaAggregator aggregator = new CriteriaAggregator(List.of(p.City()),
+ *     List.of(CriteriaAggregation.COUNT_ALL, CriteriaAggregationOperator.AVG.criteria(p.Age())),
+ *     CriteriaAggregation.COUNT_ALL.gt(10));
+ * List&lt;AggregationRow&gt; rows = aggregator.aggregate(persons);
+ * </pre>
+ *
+ * @since 1.0.0
+ */
+public class CriteriaAggregator {
+
+  private final List<CriteriaObject<?>> groupBy;
+
+  private final List<CriteriaAggregation<?>> aggregations;
+
+  private final int valueCount;
+
+  private final ValueAccessor[] groupAccessors;
+
+  private final AggregationAccumulator[] accumulators;
+
+  private final Predicate<Object> having;
+
+  /**
+   * The constructor.
+   *
+   * @param groupBy the {@link List} of grouping expressions ({@code GROUP BY}). Typically {@link PropertyPath}s. May
+   *        be empty.
+   * @param aggregations the {@link List} of {@link CriteriaAggregation}s to compute.
+   * @param having the optional {@link CriteriaPredicate} to filter the groups ({@code HAVING}) or {@code null}.
+   */
+  public CriteriaAggregator(List<? extends CriteriaObject<?>> groupBy,
+      List<? extends CriteriaAggregation<?>> aggregations, CriteriaPredicate having) {
+
+    this(CriteriaEvaluator.get(), groupBy, aggregations, having);
+  }
+
+  /**
+   * The constructor.
+   *
+   * @param evaluator the {@link CriteriaEvaluator} used to compile the {@link PropertyPath}s.
+   * @param groupBy the {@link List} of grouping expressions ({@code GROUP BY}). Typically {@link PropertyPath}s. May
+   *        be empty.
+   * @param aggregations the {@link List} of {@link CriteriaAggregation}s to compute.
+   * @param having the optional {@link CriteriaPredicate} to filter the groups ({@code HAVING}) or {@code null}.
+   */
+  public CriteriaAggregator(CriteriaEvaluator evaluator, List<? extends CriteriaObject<?>> groupBy,
+      List<? extends CriteriaAggregation<?>> aggregations, CriteriaPredicate having) {
+
+    super();
+    this.groupBy = new ArrayList<>(groupBy);
+    this.aggregations = new ArrayList<>(aggregations);
+    this.valueCount = this.aggregations.size();
+    int groupCount = this.groupBy.size();
+    this.groupAccessors = new ValueAccessor[groupCount];
+    for (int i = 0; i < groupCount; i++) {
+      this.groupAccessors[i] = evaluator.compileValue(this.groupBy.get(i));
+    }
+    if (having == null) {
+      this.having = CriteriaEvaluator.TRUE;
+    } else {
+      // may add further aggregations only used in HAVING
+      this.having = new HavingEvaluator(evaluator).compileCondition(having);
+    }
+    int size = this.aggregations.size();
+    this.accumulators = new AggregationAccumulator[size];
+    for (int i = 0; i < size; i++) {
+      CriteriaAggregation<?> aggregation = this.aggregations.get(i);
+      CriteriaObject<?> arg = aggregation.getFirstArg();
+      if (arg instanceof CriteriaAggregation) {
+        throw new IllegalArgumentException("Nested aggregation " + aggregation + " is not supported.");
+      }
+      ValueAccessor accessor = null;
+      if (arg != null) {
+        accessor = evaluator.compileValue(arg);
+      }
+      this.accumulators[i] = AggregationAccumulator.of(aggregation.getOperator(), accessor);
+    }
+  }
+
+  /**
+   * @return the {@link List} of {@link CriteriaAggregation}s corresponding to {@link AggregationRow#getValue(int)}.
+   */
+  public List<CriteriaAggregation<?>> getAggregations() {
+
+    return this.aggregations.subList(0, this.valueCount);
+  }
+
+  /**
+   * @return the {@link List} of grouping expressions corresponding to {@link AggregationRow#getGroupValue(int)}.
+   */
+  public List<CriteriaObject<?>> getGroupBy() {
+
+    return this.groupBy;
+  }
+
+  ValueAccessor[] getGroupAccessors() {
+
+    return this.groupAccessors;
+  }
+
+  int getValueCount() {
+
+    return this.valueCount;
+  }
+
+  Predicate<Object> getHaving() {
+
+    return this.having;
+  }
+
+  AggregationAccumulator[] newAccumulators() {
+
+    AggregationAccumulator[] result = new AggregationAccumulator[this.accumulators.length];
+    for (int i = 0; i < result.length; i++) {
+      result[i] = this.accumulators[i].newInstance();
+    }
+    return result;
+  }
+
+  /**
+   * @return a new and empty {@link AggregationState} to accumulate beans manually.
+   */
+  public AggregationState newState() {
+
+    return new AggregationState(this);
+  }
+
+  /**
+   * @param beans the {@link Iterable} of beans to aggregate.
+   * @return the {@link List} of resulting {@link AggregationRow}s.
+   */
+  public List<AggregationRow> aggregate(Iterable<?> beans) {
+
+    AggregationState state = newState();
+    for (Object bean : beans) {
+      state.add(bean);
+    }
+    return state.getRows();
+  }
+
+  /**
+   * @param beans the {@link Stream} of beans to aggregate. If {@link Stream#isParallel() parallel} the aggregation is
+   *        performed in parallel.
+   * @return the {@link List} of resulting {@link AggregationRow}s.
+   */
+  public List<AggregationRow> aggregate(Stream<?> beans) {
+
+    AggregationState state = beans.collect(this::newState, AggregationState::add, (s1, s2) -> s1.merge(s2));
+    return state.getRows();
+  }
+
+  private int indexOf(CriteriaAggregation<?> aggregation) {
+
+    int size = this.aggregations.size();
+    for (int i = 0; i < size; i++) {
+      CriteriaAggregation<?> current = this.aggregations.get(i);
+      if ((current == aggregation) || ((current.getOperator() == aggregation.getOperator())
+          && isSameArg(current.getFirstArg(), aggregation.getFirstArg()))) {
+        return i;
+      }
+    }
+    this.aggregations.add(aggregation);
+    return size;
+  }
+
+  private static boolean isSameArg(CriteriaObject<?> arg1, CriteriaObject<?> arg2) {
+
+    if (arg1 == arg2) {
+      return true;
+    } else if ((arg1 instanceof PropertyPath) && (arg2 instanceof PropertyPath)) {
+      return Arrays.equals(PropertyPathHelper.getSegments((PropertyPath<?>) arg1),
+          PropertyPathHelper.getSegments((PropertyPath<?>) arg2));
+    }
+    return false;
+  }
+
+  /**
+   * {@link CriteriaEvaluator} for the {@code HAVING} clause evaluated on {@link AggregationRow}s.
+   */
+  private class HavingEvaluator extends CriteriaEvaluator {
+
+    private HavingEvaluator(CriteriaEvaluator evaluator) {
+
+      super(evaluator.getResolver(), evaluator.getLikeSyntax());
+    }
+
+    @Override
+    public ValueAccessor compileValue(CriteriaObject<?> arg) {
+
+      if (arg instanceof CriteriaAggregation) {
+        int index = indexOf((CriteriaAggregation<?>) arg);
+        return row -> ((AggregationRow) row).getValue(index);
+      }
+      int size = CriteriaAggregator.this.groupBy.size();
+      for (int i = 0; i < size; i++) {
+        if (isSameArg(CriteriaAggregator.this.groupBy.get(i), arg)) {
+          int index = i;
+          return row -> ((AggregationRow) row).getGroupValue(index);
+        }
+      }
+      if (arg instanceof PropertyPath) {
+        throw new IllegalArgumentException("Property " + arg + " is neither aggregated nor grouped.");
+      }
+      return super.compileValue(arg);
+    }
+  }
+
+}
@@ -0,0 +1,878 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.property.criteria.evaluation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.BiPredicate;
+import java.util.function.Predicate;
+
+import io.github.mmm.base.sort.SortOrder;
+import io.github.mmm.property.criteria.BooleanLiteral;
+import io.github.mmm.property.criteria.BooleanSelection;
+import io.github.mmm.property.criteria.CriteriaAggregation;
+import io.github.mmm.property.criteria.CriteriaExpression;
+import io.github.mmm.property.criteria.CriteriaFunction;
+import io.github.mmm.property.criteria.CriteriaOrdering;
+import io.github.mmm.property.criteria.CriteriaPredicate;
+import io.github.mmm.property.criteria.CriteriaValueHelper;
+import io.github.mmm.property.criteria.LikePatternMatcher;
+import io.github.mmm.property.criteria.LikePatternSyntax;
+import io.github.mmm.property.criteria.Literal;
+import io.github.mmm.property.criteria.PredicateOperator;
+import io.github.mmm.property.criteria.PreparedCriteria;
+import io.github.mmm.property.criteria.ProjectionProperty;
+import io.github.mmm.property.criteria.impl.CollectionLiteral;
+import io.github.mmm.property.criteria.impl.ConjunctionPredicate;
+import io.github.mmm.property.criteria.impl.ParameterLiteral;
+import io.github.mmm.property.criteria.impl.SimplePredicate;
+import io.github.mmm.value.CriteriaObject;
+import io.github.mmm.value.PropertyPath;
+import io.github.mmm.value.ReadableValue;
+
+/**
+ * Evaluator to compile a {@link CriteriaPredicate} once into a reusable {@link Predicate} that can be
+ * {@link Predicate#test(Object) tested} against plain Java objects in memory (e.g. to filter a {@link Collection} of
+ * beans). All {@link PredicateOperator}s are supported. The {@link PropertyPath}s are resolved via
+ * {@link PropertyPathResolver} at compile time so that testing an object does not need to walk the expression tree.
+ * <br>
+ * Comparisons follow the SQL semantics: a comparison with a {@code null} value (except for
+ * {@link PredicateOperator#IS_NULL IS NULL} and {@link PredicateOperator#IS_NOT_NULL IS NOT NULL}) is never satisfied
+ * and this also applies to negated operators such as {@link PredicateOperator#NEQ <>} or
+ * {@link PredicateOperator#NOT_IN NOT IN}. A negation ({@link PredicateOperator#NOT NOT}, {@link PredicateOperator#NAND
+ * NAND}, or {@link PredicateOperator#NOR NOR}) is pushed down to the atomic predicates so that it is not satisfied if
+ * the negated comparison is UNKNOWN due to a {@code null} value. Numbers are compared by their numeric value (see
+ * {@link CriteriaValueHelper}). Arithmetic {@link CriteriaFunction}s are compiled to {@link NumericAccessor}s that
+ * compute integral and decimal values exactly and fold constant operands at compile time. A comparison such as
+ * {@code e.Price * e.Quantity > 1000} is then evaluated unboxed with primitive {@code double}s.
+
+ *
+ * @since 1.0.0
+ */
+public class CriteriaEvaluator {
+
+  /** {@link Predicate} that is always {@code true}. */
+  protected static final Predicate<Object> TRUE = bean -> true;
+
+  /** {@link Predicate} that is always {@code false}. */
+  protected static final Predicate<Object> FALSE = bean -> false;
+
+  private static final CriteriaEvaluator INSTANCE = new CriteriaEvaluator();
+
+  private final PropertyPathResolver resolver;
+
+  private final LikePatternSyntax likeSyntax;
+
+  /**
+   * The constructor using {@link ReflectivePropertyPathResolver}.
+   */
+  public CriteriaEvaluator() {
+
+    this(null, null);
+  }
+
+  /**
+   * The constructor.
+   *
+   * @param resolver the {@link PropertyPathResolver} or {@code null} for {@link ReflectivePropertyPathResolver}.
+   */
+  public CriteriaEvaluator(PropertyPathResolver resolver) {
+
+    this(resolver, null);
+  }
+
+  /**
+   * The constructor.
+   *
+   * @param resolver the {@link PropertyPathResolver} or {@code null} for {@link ReflectivePropertyPathResolver}.
+   * @param likeSyntax the {@link #getLikeSyntax() LIKE syntax} or {@code null} for {@link LikePatternSyntax#autoDetect(String)
+   *        auto-detection}.
+   */
+  public CriteriaEvaluator(PropertyPathResolver resolver, LikePatternSyntax likeSyntax) {
+
+    super();
+    if (resolver == null) {
+      this.resolver = ReflectivePropertyPathResolver.get();
+    } else {
+      this.resolver = resolver;
+    }
+    this.likeSyntax = likeSyntax;
+  }
+
+  /**
+   * @return the {@link PropertyPathResolver} used to resolve {@link PropertyPath}s.
+   */
+  public PropertyPathResolver getResolver() {
+
+    return this.resolver;
+  }
+
+  /**
+   * @return the {@link LikePatternSyntax} of the patterns for {@link PredicateOperator#LIKE LIKE} or {@code null} for
+   *         {@link LikePatternSyntax#autoDetect(String) auto-detection}.
+   */
+  public LikePatternSyntax getLikeSyntax() {
+
+    return this.likeSyntax;
+  }
+
+  /**
+   * @param <T> type of the objects to test.
+   * @param predicate the {@link CriteriaPredicate} to compile.
+   * @return the compiled {@link Predicate}. Can be reused and {@link Predicate#test(Object) tested} for any number of
+   *         objects.
+   */
+  @SuppressWarnings({ "unchecked", "rawtypes" })
+  public <T> Predicate<T> compile(CriteriaPredicate predicate) {
+
+    return (Predicate) compileCondition(predicate);
+  }
+
+  /**
+   * @param template the template {@link CriteriaPredicate} that may contain {@link ParameterLiteral}s (see
+   *        {@link PreparedCriteria}).
+   * @return the {@link PredicateBinder} that only compiles the value specific parts when binding the parameter values.
+   */
+  public PredicateBinder prepare(CriteriaPredicate template) {
+
+    return prepareCondition(template);
+  }
+
+  /**
+   * @param condition the {@link CriteriaObject} to prepare as condition.
+   * @return the {@link PredicateBinder}.
+   * @see #prepare(CriteriaPredicate)
+   */
+  protected PredicateBinder prepareCondition(CriteriaObject<?> condition) {
+
+    if (!hasParameter(condition)) {
+      Predicate<Object> compiled = compileCondition(condition);
+      return values -> compiled;
+    } else if (!(condition instanceof CriteriaPredicate)) {
+      return values -> compileCondition(PreparedCriteria.bind(condition, values));
+    }
+    CriteriaPredicate predicate = (CriteriaPredicate) condition;
+    PredicateOperator op = predicate.getOperator();
+    if (isNegation(op)) {
+      return prepareCondition(pushNegation(predicate));
+    } else if (op.isConjunction()) {
+      boolean and = (op == PredicateOperator.AND);
+      List<? extends CriteriaObject<?>> args = predicate.getArgs();
+      PredicateBinder[] binders = new PredicateBinder[args.size()];
+      for (int i = 0; i < binders.length; i++) {
+        binders[i] = prepareCondition(args.get(i));
+      }
+      Predicate<Object> neutral = constant(and);
+      Predicate<Object> dominant = constant(!and);
+      return values -> {
+        List<Predicate<Object>> compiledArgs = new ArrayList<>(binders.length);
+        for (PredicateBinder binder : binders) {
+          Predicate<Object> compiled = binder.bind(values);
+          if (compiled == dominant) {
+            return dominant;
+          } else if (compiled != neutral) {
+            compiledArgs.add(compiled);
+          }
+        }
+        return compileConjunction(and, compiledArgs);
+      };
+    }
+    CriteriaObject<?> first = predicate.getFirstArg();
+    CriteriaObject<?> second = predicate.getSecondArg();
+    if ((first instanceof PropertyPath) && (second instanceof ParameterLiteral)) {
+      ValueAccessor accessor = compileValue(first);
+      int index = ((ParameterLiteral<?>) second).getIndex();
+      PredicateOperator operator = op;
+      return values -> compileComparison(operator, accessor, values[index]);
+    }
+    // generic fallback
+    return values -> compileCondition(PreparedCriteria.bind(condition, values));
+  }
+
+  private static boolean hasParameter(CriteriaObject<?> object) {
+
+    if (object instanceof ParameterLiteral) {
+      return true;
+    } else if (object instanceof CriteriaExpression) {
+      for (CriteriaObject<?> arg : ((CriteriaExpression<?>) object).getArgs()) {
+        if (hasParameter(arg)) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  /**
+   * @param <T> type of the objects to filter.
+   * @param beans the objects to filter.
+   * @param predicate the {@link CriteriaPredicate} to filter by.
+   * @return a new {@link List} with the objects from the given {@code beans} that match the given
+   *         {@link CriteriaPredicate}.
+   */
+  public <T> List<T> filter(Iterable<T> beans, CriteriaPredicate predicate) {
+
+    Predicate<T> filter = compile(predicate);
+    List<T> result = new ArrayList<>();
+    for (T bean : beans) {
+      if (filter.test(bean)) {
+        result.add(bean);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * @param condition the {@link CriteriaObject} to compile as condition. Typically a {@link CriteriaPredicate} but
+   *        may also be a {@link BooleanLiteral} or a {@link PropertyPath} with a {@link Boolean} value.
+   * @return the compiled {@link Predicate}.
+   */
+  public Predicate<Object> compileCondition(CriteriaObject<?> condition) {
+
+    if (condition instanceof CriteriaPredicate) {
+      CriteriaPredicate predicate = (CriteriaPredicate) condition;
+      PredicateOperator op = predicate.getOperator();
+      if (isNegation(op)) {
+        return compileCondition(pushNegation(predicate));
+      } else if (op.isConjunction()) {
+        return compileConjunction(predicate);
+      }
+      return compileSimple(predicate);
+    } else if (condition instanceof BooleanLiteral) {
+      return constant(((BooleanLiteral) condition).get().booleanValue());
+    }
+    ValueAccessor accessor = compileValue(condition);
+    return bean -> Boolean.TRUE.equals(accessor.get(bean));
+  }
+
+  /**
+   * @param predicate the {@link CriteriaPredicate} with a {@link PredicateOperator#isConjunction() conjunction}
+   *        {@link CriteriaPredicate#getOperator() operator}.
+   * @return the compiled {@link Predicate}.
+   */
+  protected Predicate<Object> compileConjunction(CriteriaPredicate predicate) {
+
+    PredicateOperator op = predicate.getOperator();
+    if (op.isInverse()) {
+      return compileCondition(pushNegation(predicate));
+    }
+    boolean and = (op == PredicateOperator.AND);
+    Predicate<Object> neutral = constant(and);
+    Predicate<Object> dominant = constant(!and);
+    List<Predicate<Object>> compiledArgs = new ArrayList<>();
+    for (CriteriaObject<?> arg : predicate.getArgs()) {
+      Predicate<Object> compiled = compileCondition(arg);
+      if (compiled == dominant) {
+        return dominant;
+      } else if (compiled != neutral) {
+        compiledArgs.add(compiled);
+      }
+    }
+    return compileConjunction(and, compiledArgs);
+  }
+
+  /**
+   * @param and - {@code true} for {@link PredicateOperator#AND AND}, {@code false} for {@link PredicateOperator#OR
+   *        OR}.
+   * @param args the compiled arguments (never constant).
+   * @return the compiled {@link Predicate} combining the given arguments.
+   */
+  protected Predicate<Object> compileConjunction(boolean and, List<Predicate<Object>> args) {
+
+    int size = args.size();
+    if (size == 0) {
+      return constant(and);
+    } else if (size == 1) {
+      return args.get(0);
+    } else if (size == 2) {
+      Predicate<Object> arg1 = args.get(0);
+      Predicate<Object> arg2 = args.get(1);
+      if (and) {
+        return bean -> arg1.test(bean) && arg2.test(bean);
+      } else {
+        return bean -> arg1.test(bean) || arg2.test(bean);
+      }
+    }
+    @SuppressWarnings("unchecked")
+    Predicate<Object>[] array = args.toArray(new Predicate[size]);
+    if (and) {
+      return bean -> {
+        for (Predicate<Object> arg : array) {
+          if (!arg.test(bean)) {
+            return false;
+          }
+        }
+        return true;
+      };
+    } else {
+      return bean -> {
+        for (Predicate<Object> arg : array) {
+          if (arg.test(bean)) {
+            return true;
+          }
+        }
+        return false;
+      };
+    }
+  }
+
+  /**
+   * @param predicate the {@link CriteriaPredicate} that is not a {@link PredicateOperator#isConjunction()
+   *        conjunction}.
+   * @return the compiled {@link Predicate}.
+   */
+  protected Predicate<Object> compileSimple(CriteriaPredicate predicate) {
+
+    PredicateOperator op = predicate.getOperator();
+    if (op == PredicateOperator.NOT) {
+      return compileCondition(pushNegation(predicate));
+    } else if (PredicateOperator.isContainsBased(op)) {
+      return compileContains(predicate.getFirstArg(), predicate.getSecondArg(), op == PredicateOperator.NOT_CONTAINS);
+
+    }
+    ValueAccessor first = compileValue(predicate.getFirstArg());
+    Predicate<Object> result;
+    if (op == PredicateOperator.IS_NULL) {
+      result = bean -> (first.get(bean) == null);
+    } else if (op == PredicateOperator.IS_NOT_NULL) {
+      result = bean -> (first.get(bean) != null);
+    } else if ((predicate.getSecondArg() instanceof CollectionLiteral) && !first.isConstant()
+        && ((op == PredicateOperator.IN) || (op == PredicateOperator.NOT_IN))) {
+      return compileIn(first, (CollectionLiteral<?>) predicate.getSecondArg(), op == PredicateOperator.NOT_IN);
+    } else {
+      ValueAccessor second = compileValue(predicate.getSecondArg());
+      result = compileComparison(op, first, second);
+      if (second.isConstant()) {
+        if (first.isConstant()) {
+          return constant(result.test(null));
+        } else if (second.get(null) == null) {
+          // comparison with null is never satisfied (SQL semantics)
+          return FALSE;
+        }
+      }
+      return result;
+    }
+    if (first.isConstant()) {
+      return constant(result.test(null));
+    }
+    return result;
+  }
+
+  /**
+   * @param container the {@link CriteriaExpression#getFirstArg() first argument} with the container (e.g.
+   *        {@link io.github.mmm.property.container.set.SetProperty} or
+   *        {@link io.github.mmm.property.string.StringSetProperty}).
+   * @param element the {@link CriteriaExpression#getSecondArg() second argument} with the element to check.
+   * @param inverse - {@code true} for {@link PredicateOperator#NOT_CONTAINS NOT CONTAINS}, {@code false} for
+   *        {@link PredicateOperator#CONTAINS CONTAINS}.
+   * @return the compiled {@link Predicate} using the native lookup of the container (see
+   *         {@link CriteriaValueHelper#contains(Object, Object)}). A constant container is converted to a
+   *         {@link CriteriaValueHelper#lookup(Object) lookup} once.
+   */
+  protected Predicate<Object> compileContains(CriteriaObject<?> container, CriteriaObject<?> element,
+      boolean inverse) {
+
+    ValueAccessor first = compileContainer(container);
+    ValueAccessor second = compileValue(element);
+    if (second.isConstant()) {
+      Object value = second.get(null);
+      if (value == null) {
+        // comparison with null is never satisfied (SQL semantics)
+        return FALSE;
+      } else if (first.isConstant()) {
+        Object constant = first.get(null);
+        return constant(!isNullContainer(constant) && (CriteriaValueHelper.contains(constant, value) != inverse));
+      }
+      return bean -> {
+        Object value1 = first.get(bean);
+        return !isNullContainer(value1) && (CriteriaValueHelper.contains(value1, value) != inverse);
+      };
+    } else if (first.isConstant()) {
+      Object constant = first.get(null);
+      if (isNullContainer(constant)) {
+        return FALSE;
+      }
+      Predicate<Object> lookup = CriteriaValueHelper.lookup(constant);
+      return bean -> {
+        Object value2 = second.get(bean);
+        return (value2 != null) && (lookup.test(value2) != inverse);
+      };
+    }
+    return bean -> {
+      Object value1 = first.get(bean);
+      if (isNullContainer(value1)) {
+        return false;
+      }
+      Object value2 = second.get(bean);
+      if (value2 == null) {
+        return false;
+      }
+      return CriteriaValueHelper.contains(value1, value2) != inverse;
+    };
+  }
+
+  /**
+   * @param container the {@link CriteriaObject} with the container of a {@link PredicateOperator#CONTAINS CONTAINS}
+   *        check.
+   * @return the compiled {@link ValueAccessor}. In case of a {@link PropertyPath} resolved by
+   *         {@link ReflectivePropertyPathResolver} the property itself is returned without unwrapping so its native
+   *         lookup (e.g. {@link io.github.mmm.property.string.StringCollectionProperty#contains(String)}) can be used.
+   */
+  protected ValueAccessor compileContainer(CriteriaObject<?> container) {
+
+    if ((container instanceof PropertyPath) && (this.resolver instanceof ReflectivePropertyPathResolver)) {
+      return ((ReflectivePropertyPathResolver) this.resolver).resolve((PropertyPath<?>) container, false);
+    }
+    return compileValue(container);
+  }
+
+  private static boolean isNullContainer(Object container) {
+
+    if (container instanceof ReadableValue) {
+      return ((ReadableValue<?>) container).get() == null;
+    }
+    return (container == null);
+  }
+
+  /**
+   * @param first the {@link ValueAccessor} for the {@link CriteriaExpression#getFirstArg() first argument}.
+   * @param values the {@link CollectionLiteral} with the values to check.
+   * @param inverse - {@code true} for {@link PredicateOperator#NOT_IN NOT IN}, {@code false} for
+   *        {@link PredicateOperator#IN IN}.
+   * @return the compiled {@link Predicate} using the lookup structure of the {@link CollectionLiteral}.
+   */
+  protected Predicate<Object> compileIn(ValueAccessor first, CollectionLiteral<?> values, boolean inverse) {
+
+    if (inverse) {
+      return bean -> {
+        Object value = first.get(bean);
+        return (value != null) && !values.contains(value);
+      };
+    }
+    return bean -> values.contains(first.get(bean));
+  }
+
+  /**
+   * @param op the binary {@link PredicateOperator}.
+   * @param first the {@link ValueAccessor} for the {@link CriteriaExpression#getFirstArg() first argument}.
+   * @param second the {@link ValueAccessor} for the {@link CriteriaExpression#getSecondArg() second argument}.
+   * @return the compiled {@link Predicate}.
+   */
+  protected Predicate<Object> compileComparison(PredicateOperator op, ValueAccessor first, ValueAccessor second) {
+
+    if ((first instanceof NumericAccessor) && !first.isConstant()) {
+      Predicate<Object> numeric = compileNumericComparison(op, (NumericAccessor) first, second);
+      if (numeric != null) {
+        return numeric;
+      }
+    }
+    boolean inverse = op.isInverse();
+    PredicateOperator positive = op;
+    if (inverse) {
+      positive = op.not();
+    }
+    if (second.isConstant() && !first.isConstant()) {
+      Predicate<Object> test = compileTest(positive, second.get(null));
+      if (inverse) {
+        return bean -> {
+          Object value = first.get(bean);
+          return (value != null) && !test.test(value);
+        };
+      }
+      return bean -> {
+        Object value = first.get(bean);
+        return (value != null) && test.test(value);
+      };
+    }
+    BiPredicate<Object, Object> test = compileTest(positive);
+    return bean -> {
+      Object value1 = first.get(bean);
+      if (value1 == null) {
+        return false;
+      }
+      Object value2 = second.get(bean);
+      if (value2 == null) {
+        return false;
+      }
+      return test.test(value1, value2) != inverse;
+    };
+  }
+
+  /**
+   * @param op the binary {@link PredicateOperator}.
+   * @param first the {@link NumericAccessor} for the {@link CriteriaExpression#getFirstArg() first argument} that is
+   *        not {@link ValueAccessor#isConstant() constant}.
+   * @param second the {@link ValueAccessor} for the {@link CriteriaExpression#getSecondArg() second argument}.
+   * @return the compiled {@link Predicate} comparing primitive {@code double} values or {@code null} if not applicable
+   *         for the given operator or second argument.
+   */
+  protected Predicate<Object> compileNumericComparison(PredicateOperator op, NumericAccessor first,
+      ValueAccessor second) {
+
+    if (second.isConstant()) {
+      Object constant = second.get(null);
+      if (!(constant instanceof Number) || CriteriaValueHelper.isBig((Number) constant)) {
+        return null;
+      }
+      double value2 = ((Number) constant).doubleValue();
+      // NaN (null) never satisfies a comparison
+      if (op == PredicateOperator.EQ) {
+        return bean -> first.getDouble(bean) == value2;
+      } else if (op == PredicateOperator.NEQ) {
+        return bean -> {
+          double value1 = first.getDouble(bean);
+          return (value1 != value2) && !Double.isNaN(value1);
+        };
+      } else if (op == PredicateOperator.LT) {
+        return bean -> first.getDouble(bean) < value2;
+      } else if (op == PredicateOperator.LE) {
+        return bean -> first.getDouble(bean) <= value2;
+      } else if (op == PredicateOperator.GT) {
+        return bean -> first.getDouble(bean) > value2;
+      } else if (op == PredicateOperator.GE) {
+        return bean -> first.getDouble(bean) >= value2;
+      }
+    } else if (second instanceof NumericAccessor) {
+      NumericAccessor other = (NumericAccessor) second;
+      if (op == PredicateOperator.EQ) {
+        return bean -> first.getDouble(bean) == other.getDouble(bean);
+      } else if (op == PredicateOperator.NEQ) {
+        return bean -> {
+          double value1 = first.getDouble(bean);
+          double value2 = other.getDouble(bean);
+          return (value1 != value2) && !Double.isNaN(value1) && !Double.isNaN(value2);
+        };
+      } else if (op == PredicateOperator.LT) {
+        return bean -> first.getDouble(bean) < other.getDouble(bean);
+      } else if (op == PredicateOperator.LE) {
+        return bean -> first.getDouble(bean) <= other.getDouble(bean);
+      } else if (op == PredicateOperator.GT) {
+        return bean -> first.getDouble(bean) > other.getDouble(bean);
+      } else if (op == PredicateOperator.GE) {
+        return bean -> first.getDouble(bean) >= other.getDouble(bean);
+      }
+    }
+    return null;
+  }
+
+  /**
+   * @param op the binary {@link PredicateOperator}.
+   * @param first the {@link ValueAccessor} for the {@link CriteriaExpression#getFirstArg() first argument} that is
+   *        not {@link ValueAccessor#isConstant() constant}.
+   * @param constant the constant {@link CriteriaExpression#getSecondArg() second argument}. May be {@code null}.
+   * @return the compiled {@link Predicate}.
+   */
+  protected Predicate<Object> compileComparison(PredicateOperator op, ValueAccessor first, Object constant) {
+
+    if (constant == null) {
+      // comparison with null is never satisfied (SQL semantics)
+      return FALSE;
+    } else if ((constant instanceof Collection)
+        && ((op == PredicateOperator.IN) || (op == PredicateOperator.NOT_IN))) {
+      return compileIn(first, new CollectionLiteral<>((Collection<?>) constant), op == PredicateOperator.NOT_IN);
+    }
+    return compileComparison(op, first, ValueAccessor.ofConstant(constant));
+  }
+
+  /**
+   * @param op the binary {@link PredicateOperator} that is not {@link PredicateOperator#isInverse() inverse}.
+   * @param constant the constant {@link CriteriaExpression#getSecondArg() second argument} (e.g. value of a
+   *        {@link Literal}). Will not be {@code null}.
+   * @return the {@link Predicate} testing the (non {@code null}) value of the {@link CriteriaExpression#getFirstArg()
+   *         first argument}.
+   */
+  protected Predicate<Object> compileTest(PredicateOperator op, Object constant) {
+
+    if (op == PredicateOperator.EQ) {
+      return value -> CriteriaValueHelper.isEqual(value, constant);
+    } else if (op == PredicateOperator.LT) {
+      return value -> CriteriaValueHelper.compare(value, constant) < 0;
+    } else if (op == PredicateOperator.LE) {
+      return value -> CriteriaValueHelper.compare(value, constant) <= 0;
+    } else if (op == PredicateOperator.GT) {
+      return value -> CriteriaValueHelper.compare(value, constant) > 0;
+    } else if (op == PredicateOperator.GE) {
+      return value -> CriteriaValueHelper.compare(value, constant) >= 0;
+    } else if (op == PredicateOperator.LIKE) {
+      LikePatternMatcher matcher = compileLikePattern(constant.toString());
+      return value -> matcher.matches(toCharSequence(value));
+    } else if (op == PredicateOperator.IN) {
+      CollectionLiteral<?> values;
+      if (constant instanceof Collection) {
+        values = new CollectionLiteral<>((Collection<?>) constant);
+      } else {
+        values = new CollectionLiteral<>(Arrays.asList(toArray(constant)));
+      }
+      return values::contains;
+    } else if (op == PredicateOperator.CONTAINS) {
+      return value -> CriteriaValueHelper.contains(value, constant);
+    }
+    BiPredicate<Object, Object> test = compileTest(op);
+    return value -> test.test(value, constant);
+  }
+
+  /**
+   * @param op the binary {@link PredicateOperator} that is not {@link PredicateOperator#isInverse() inverse}.
+   * @return the {@link BiPredicate} testing the (non {@code null}) values of the {@link CriteriaExpression#getFirstArg()
+   *         first} and {@link CriteriaExpression#getSecondArg() second argument}.
+   */
+  protected BiPredicate<Object, Object> compileTest(PredicateOperator op) {
+
+    if (op == PredicateOperator.EQ) {
+      return CriteriaValueHelper::isEqual;
+    } else if (op == PredicateOperator.LT) {
+      return (value1, value2) -> CriteriaValueHelper.compare(value1, value2) < 0;
+    } else if (op == PredicateOperator.LE) {
+      return (value1, value2) -> CriteriaValueHelper.compare(value1, value2) <= 0;
+    } else if (op == PredicateOperator.GT) {
+      return (value1, value2) -> CriteriaValueHelper.compare(value1, value2) > 0;
+    } else if (op == PredicateOperator.GE) {
+      return (value1, value2) -> CriteriaValueHelper.compare(value1, value2) >= 0;
+    } else if (op == PredicateOperator.LIKE) {
+      return (value1, value2) -> compileLikePattern(value2.toString()).matches(toCharSequence(value1));
+    } else if (op == PredicateOperator.IN) {
+      return (value1, value2) -> {
+        for (Object element : toArray(value2)) {
+          if (CriteriaValueHelper.isEqual(value1, element)) {
+            return true;
+          }
+        }
+        return false;
+      };
+    } else if (op == PredicateOperator.CONTAINS) {
+      return CriteriaValueHelper::contains;
+    }
+    throw new IllegalArgumentException("Unsupported operator: " + op);
+  }
+
+  /**
+   * @param pattern the LIKE pattern in {@link #getLikeSyntax() LIKE syntax}.
+   * @return the compiled {@link LikePatternMatcher}.
+   */
+  protected LikePatternMatcher compileLikePattern(String pattern) {
+
+    LikePatternSyntax syntax = this.likeSyntax;
+    if (syntax == null) {
+      syntax = LikePatternSyntax.autoDetect(pattern);
+      if (syntax == null) {
+        syntax = LikePatternSyntax.SQL;
+      }
+    }
+    return syntax.compile(pattern);
+  }
+
+  private static CharSequence toCharSequence(Object value) {
+
+    if (value instanceof CharSequence) {
+      return (CharSequence) value;
+    }
+    return value.toString();
+  }
+
+  private static Object[] toArray(Object values) {
+
+    if (values instanceof Collection) {
+      return ((Collection<?>) values).toArray();
+    } else if (values instanceof Object[]) {
+      return (Object[]) values;
+    }
+    return new Object[] { values };
+  }
+
+  /**
+   * @param arg the {@link CriteriaObject} to compile. Typically a {@link Literal} or {@link PropertyPath}.
+   * @return the compiled {@link ValueAccessor}.
+   */
+  public ValueAccessor compileValue(CriteriaObject<?> arg) {
+
+    if (arg == null) {
+      return ValueAccessor.ofConstant(null);
+    } else if (arg instanceof Literal) {
+      return ValueAccessor.ofConstant(((Literal<?>) arg).get());
+    } else if (arg instanceof PropertyPath) {
+      return this.resolver.resolve((PropertyPath<?>) arg);
+    } else if (arg instanceof CriteriaPredicate) {
+      Predicate<Object> predicate = compileCondition(arg);
+      if (predicate == TRUE) {
+        return ValueAccessor.ofConstant(Boolean.TRUE);
+      } else if (predicate == FALSE) {
+        return ValueAccessor.ofConstant(Boolean.FALSE);
+      }
+      return bean -> Boolean.valueOf(predicate.test(bean));
+    } else if (arg instanceof ProjectionProperty) {
+      return compileValue(((ProjectionProperty<?>) arg).getSelection());
+    } else if (arg instanceof CriteriaFunction) {
+      return compileFunction((CriteriaFunction<?>) arg);
+    } else if (arg instanceof CriteriaAggregation) {
+      throw new IllegalArgumentException("Aggregation " + arg + " can not be evaluated on a single object.");
+    }
+    throw new IllegalArgumentException("Unsupported argument: " + arg);
+  }
+
+  /**
+   * @param function the {@link CriteriaFunction} to compile.
+   * @return the compiled {@link ValueAccessor}. Will be a {@link NumericAccessor} for arithmetic and constant if all
+   *         arguments are constant.
+   */
+  protected ValueAccessor compileFunction(CriteriaFunction<?> function) {
+
+    List<? extends CriteriaObject<?>> args = function.getArgs();
+    int size = args.size();
+    ValueAccessor[] accessors = new ValueAccessor[size];
+    for (int i = 0; i < size; i++) {
+      accessors[i] = compileValue(args.get(i));
+    }
+    return CriteriaFunctionCompiler.compile(function.getOperator(), accessors);
+  }
+
+  /**
+   * @param orderings the {@link CriteriaOrdering}s to compile. The first {@link CriteriaOrdering} has the highest
+   *        priority and the following ones are only considered for ties.
+   * @return the compiled {@link Comparator}. Values are compared via {@link CriteriaValueHelper#compare(Object, Object)}
+   *         and {@code null} values are treated as greater than any other value (so they come last for
+   *         {@link SortOrder#ASCENDING} and first for {@link SortOrder#DESCENDING} like in PostgreSQL or Oracle).
+   * @throws IllegalArgumentException if the values of a {@link CriteriaOrdering} can not be compared.
+   */
+  public Comparator<Object> compileOrdering(List<CriteriaOrdering> orderings) {
+
+    int size = orderings.size();
+    ValueAccessor[] accessors = new ValueAccessor[size];
+    boolean[] descending = new boolean[size];
+    for (int i = 0; i < size; i++) {
+      CriteriaOrdering ordering = orderings.get(i);
+      accessors[i] = compileValue(ordering.getProperty());
+      descending[i] = (ordering.getOrder() == SortOrder.DESCENDING);
+    }
+    if (size == 1) {
+      ValueAccessor accessor = accessors[0];
+      if (descending[0]) {
+        return (bean1, bean2) -> compareNullsLast(accessor.get(bean2), accessor.get(bean1));
+      }
+      return (bean1, bean2) -> compareNullsLast(accessor.get(bean1), accessor.get(bean2));
+    }
+    return (bean1, bean2) -> {
+      for (int i = 0; i < size; i++) {
+        ValueAccessor accessor = accessors[i];
+        int result;
+        if (descending[i]) {
+          result = compareNullsLast(accessor.get(bean2), accessor.get(bean1));
+        } else {
+          result = compareNullsLast(accessor.get(bean1), accessor.get(bean2));
+        }
+        if (result != 0) {
+          return result;
+        }
+      }
+      return 0;
+    };
+  }
+
+  private static int compareNullsLast(Object value1, Object value2) {
+
+    if (value1 == value2) {
+      return 0;
+    } else if (value1 == null) {
+      return 1;
+    } else if (value2 == null) {
+      return -1;
+    }
+    return CriteriaValueHelper.compare(value1, value2);
+  }
+
+  /**
+   * @param value the constant result.
+   * @return the constant {@link Predicate}.
+   */
+  protected static Predicate<Object> constant(boolean value) {
+
+    if (value) {
+      return TRUE;
+    }
+    return FALSE;
+  }
+
+  /**
+   * @param op the {@link PredicateOperator} to check.
+   * @return {@code true} if {@link PredicateOperator#NOT NOT}, {@link PredicateOperator#NAND NAND}, or
+   *         {@link PredicateOperator#NOR NOR} that is compiled via {@link #pushNegation(CriteriaPredicate)},
+   *         {@code false} otherwise.
+   */
+  protected static boolean isNegation(PredicateOperator op) {
+
+    return (op == PredicateOperator.NOT) || (op.isConjunction() && op.isInverse());
+  }
+
+  /**
+   * @param predicate the {@link CriteriaPredicate} with a {@link #isNegation(PredicateOperator) negation} as
+   *        {@link CriteriaPredicate#getOperator() operator}.
+   * @return the equivalent condition with the negation {@link #negateCondition(CriteriaObject) pushed down} to the
+   *         atomic predicates.
+   */
+  protected static CriteriaObject<?> pushNegation(CriteriaPredicate predicate) {
+
+    if (predicate.getOperator() == PredicateOperator.NOT) {
+      return negateCondition(predicate.getFirstArg());
+    }
+    // NAND(a, b) = NOT AND(a, b)
+    return negateCondition(predicate.not());
+  }
+
+  /**
+   * Negates the given condition by pushing the negation down to the atomic predicates (De Morgan) that are replaced
+   * with their {@link PredicateOperator#not() inverse} operator. Unlike negating a compiled {@link Predicate} this
+   * preserves the SQL semantics: if a comparison is UNKNOWN due to a {@code null} value, its negation is UNKNOWN as
+   * well. E.g. {@code NOT (e.Age > 18)} becomes {@code e.Age <= 18} that is not satisfied if {@code e.Age} is
+   * {@code null}.
+   *
+   * @param condition the condition to negate. Typically a {@link CriteriaPredicate}.
+   * @return the negation of the given {@code condition}. If the given {@code condition} is a
+   *         {@link PredicateOperator#NOT NOT}, {@link PredicateOperator#NAND NAND}, or {@link PredicateOperator#NOR
+   *         NOR} the negation is removed rather than pushed down.
+   */
+  protected static CriteriaObject<?> negateCondition(CriteriaObject<?> condition) {
+
+    if (condition instanceof CriteriaPredicate) {
+      CriteriaPredicate predicate = (CriteriaPredicate) condition;
+      PredicateOperator op = predicate.getOperator();
+      if (op == PredicateOperator.NOT) {
+        return predicate.getFirstArg();
+      } else if (op.isConjunction()) {
+        if (op.isInverse()) {
+          return predicate.not();
+        }
+        List<? extends CriteriaObject<?>> args = predicate.getArgs();
+        List<BooleanSelection> negatedArgs = new ArrayList<>(args.size());
+        for (CriteriaObject<?> arg : args) {
+          CriteriaObject<?> negated = negateCondition(arg);
+          if (negated instanceof BooleanSelection) {
+            negatedArgs.add((BooleanSelection) negated);
+          } else {
+            negatedArgs.add(new SimplePredicate(negated, PredicateOperator.EQ, BooleanLiteral.TRUE));
+          }
+        }
+        PredicateOperator dual = (op == PredicateOperator.AND) ? PredicateOperator.OR : PredicateOperator.AND;
+        return new ConjunctionPredicate(dual, negatedArgs);
+      }
+      CriteriaPredicate negation = predicate.not();
+      if (negation != null) {
+        return negation;
+      }
+    } else if (condition instanceof BooleanLiteral) {
+      return ((BooleanLiteral) condition).not();
+    }
+    // boolean value: NOT is only satisfied for FALSE but not for null
+    return new SimplePredicate(condition, PredicateOperator.EQ, BooleanLiteral.FALSE);
+  }
+
+  /**
+   * @return the default instance of {@link CriteriaEvaluator}.
+   */
+  public static CriteriaEvaluator get() {
+
+    return INSTANCE;
+  }
+
+}
@@ -0,0 +1,365 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.property.criteria.evaluation;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleUnaryOperator;
+import java.util.function.Function;
+
+import io.github.mmm.base.text.CaseHelper;
+import io.github.mmm.property.criteria.CriteriaFunctionOperator;
+import io.github.mmm.property.criteria.CriteriaValueHelper;
+
+/**
+ * Compiles a {@link io.github.mmm.property.criteria.CriteriaFunction} from the {@link ValueAccessor}s of its arguments.
+ * Arithmetic is compiled to {@link NumericAccessor}s and constant arguments are folded at compile time. Like in SQL
+ * the arithmetic is exact if both operands are integral ({@code long} with truncating division, computed via
+ * {@link BigDecimal} on overflow) or decimal ({@link BigDecimal}) and only uses {@code double} if an operand is
+ * floating point. Operands are never reordered (e.g. {@code a + 1 + 2} is not folded to {@code a + 3}) since
+ * {@code double} arithmetic is not associative and the result has to be identical to the evaluation from left to
+ * right.
+ *
+ * @see CriteriaEvaluator#compileFunction(io.github.mmm.property.criteria.CriteriaFunction)
+ */
+final class CriteriaFunctionCompiler {
+
+  private static final DoubleBinaryOperator ADD = (a, b) -> a + b;
+
+  private static final DoubleBinaryOperator SUB = (a, b) -> a - b;
+
+  private static final DoubleBinaryOperator MUL = (a, b) -> a * b;
+
+  // division by zero is null (NaN) instead of infinity
+  private static final DoubleBinaryOperator DIV = (a, b) -> (b == 0) ? Double.NaN : a / b;
+
+  private static final DoubleBinaryOperator MOD = (a, b) -> a % b;
+
+  private CriteriaFunctionCompiler() {
+
+  }
+
+  /**
+   * @param op the {@link CriteriaFunctionOperator}.
+   * @param args the compiled {@link ValueAccessor}s of the arguments.
+   * @return the compiled {@link ValueAccessor} for the function.
+   */
+  static ValueAccessor compile(CriteriaFunctionOperator op, ValueAccessor[] args) {
+
+    if (op.isInfix()) {
+      return compileArithmetic(op, args);
+    } else if (op == CriteriaFunctionOperator.ABS) {
+      return compileUnary(args[0], Math::abs);
+    } else if (op == CriteriaFunctionOperator.ROUND) {
+      return compileUnary(args[0], CriteriaFunctionCompiler::round);
+    } else if (op == CriteriaFunctionOperator.FLOOR) {
+      return compileUnary(args[0], Math::floor);
+    } else if (op == CriteriaFunctionOperator.CEIL) {
+      return compileUnary(args[0], Math::ceil);
+    } else if (op == CriteriaFunctionOperator.LOWER) {
+      return compileString(args[0], CaseHelper::toLowerCase);
+    } else if (op == CriteriaFunctionOperator.UPPER) {
+      return compileString(args[0], CaseHelper::toUpperCase);
+    } else if (op == CriteriaFunctionOperator.TRIM) {
+      return compileString(args[0], String::trim);
+    } else if (op == CriteriaFunctionOperator.LENGTH) {
+      return compileLength(args[0]);
+    } else if (op == CriteriaFunctionOperator.CONCAT) {
+      return compileConcat(args);
+    } else if (op == CriteriaFunctionOperator.COALESCE) {
+      return compileCoalesce(args);
+    }
+    throw new IllegalArgumentException("Unsupported function: " + op);
+  }
+
+  private static NumericAccessor compileArithmetic(CriteriaFunctionOperator op, ValueAccessor[] args) {
+
+    DoubleBinaryOperator function;
+    if (op == CriteriaFunctionOperator.ADD) {
+      function = ADD;
+    } else if (op == CriteriaFunctionOperator.SUB) {
+      function = SUB;
+    } else if (op == CriteriaFunctionOperator.MUL) {
+      function = MUL;
+    } else if (op == CriteriaFunctionOperator.DIV) {
+      function = DIV;
+    } else if (op == CriteriaFunctionOperator.MOD) {
+      function = MOD;
+    } else {
+      throw new IllegalArgumentException("Unsupported operator: " + op);
+    }
+    // leading constants are folded by compileBinary (1 + 2 + a = 3 + a)
+    ValueAccessor result = args[0];
+    for (int i = 1; i < args.length; i++) {
+      result = compileBinary(result, args[i], op, function);
+    }
+    return NumericAccessor.of(result);
+  }
+
+  private static NumericAccessor compileBinary(ValueAccessor arg1, ValueAccessor arg2, CriteriaFunctionOperator op,
+      DoubleBinaryOperator function) {
+
+    if (isNull(arg1) || isNull(arg2)) {
+      return NumericAccessor.ofConstant(Double.NaN);
+    }
+    NumericAccessor arithmetic = new Arithmetic(arg1, arg2, op, function);
+    if (arg1.isConstant() && arg2.isConstant()) {
+      return NumericAccessor.ofConstant((Number) arithmetic.get(null));
+    }
+    return arithmetic;
+  }
+
+  private static boolean isNull(ValueAccessor accessor) {
+
+    if (accessor.isConstant()) {
+      Object value = accessor.get(null);
+      return (value == null) || ((value instanceof Double) && ((Double) value).isNaN());
+    }
+    return false;
+  }
+
+  private static boolean isExact(Object value) {
+
+    return CriteriaValueHelper.isIntegral(value) || (value instanceof BigDecimal) || (value instanceof BigInteger);
+  }
+
+  private static BigDecimal toDecimal(Object value) {
+
+    return CriteriaValueHelper.toBigDecimal((Number) value);
+  }
+
+  private static Number calculate(long value1, long value2, CriteriaFunctionOperator op) {
+
+    if (op == CriteriaFunctionOperator.ADD) {
+      return Long.valueOf(Math.addExact(value1, value2));
+    } else if (op == CriteriaFunctionOperator.SUB) {
+      return Long.valueOf(Math.subtractExact(value1, value2));
+    } else if (op == CriteriaFunctionOperator.MUL) {
+      return Long.valueOf(Math.multiplyExact(value1, value2));
+    } else if (value2 == 0) {
+      // division by zero is null instead of an error
+      return null;
+    } else if (op == CriteriaFunctionOperator.DIV) {
+      if ((value1 == Long.MIN_VALUE) && (value2 == -1)) {
+        throw new ArithmeticException("long overflow");
+      }
+      // truncating integer division like SQL
+      return Long.valueOf(value1 / value2);
+    }
+    return Long.valueOf(value1 % value2);
+  }
+
+  private static Number calculate(BigDecimal value1, BigDecimal value2, CriteriaFunctionOperator op,
+      boolean integral) {
+
+    BigDecimal result;
+    if (op == CriteriaFunctionOperator.ADD) {
+      result = value1.add(value2);
+    } else if (op == CriteriaFunctionOperator.SUB) {
+      result = value1.subtract(value2);
+    } else if (op == CriteriaFunctionOperator.MUL) {
+      result = value1.multiply(value2);
+    } else if (value2.signum() == 0) {
+      return null;
+    } else if (op == CriteriaFunctionOperator.DIV) {
+      if (integral) {
+        result = value1.divideToIntegralValue(value2);
+      } else {
+        result = value1.divide(value2, MathContext.DECIMAL128);
+      }
+    } else {
+      result = value1.remainder(value2);
+    }
+    if (integral) {
+      BigInteger integer = result.toBigInteger();
+      if (integer.bitLength() < 64) {
+        return Long.valueOf(integer.longValue());
+      }
+      return integer;
+    }
+    return result;
+  }
+
+  private static NumericAccessor compileUnary(ValueAccessor arg, DoubleUnaryOperator function) {
+
+    NumericAccessor operand = NumericAccessor.of(arg);
+    if (operand.isConstant()) {
+      return NumericAccessor.ofConstant(function.applyAsDouble(operand.getDouble(null)));
+    }
+    return bean -> function.applyAsDouble(operand.getDouble(bean));
+  }
+
+  private static double round(double value) {
+
+    // half away from zero like SQL, value - floor(value) is exact while value + 0.5 may round up
+    double abs = Math.abs(value);
+    double floor = Math.floor(abs);
+    if (abs - floor >= 0.5) {
+      floor = floor + 1;
+    }
+    return Math.copySign(floor, value);
+  }
+
+  private static ValueAccessor compileString(ValueAccessor arg, Function<String, String> function) {
+
+    if (arg.isConstant()) {
+      Object value = arg.get(null);
+      if (value == null) {
+        return arg;
+      }
+      return ValueAccessor.ofConstant(function.apply(value.toString()));
+    }
+    return bean -> {
+      Object value = arg.get(bean);
+      if (value == null) {
+        return null;
+      }
+      return function.apply(value.toString());
+    };
+  }
+
+  private static NumericAccessor compileLength(ValueAccessor arg) {
+
+    if (arg.isConstant()) {
+      Object value = arg.get(null);
+      if (value == null) {
+        return NumericAccessor.ofConstant(Double.NaN);
+      }
+      return NumericAccessor.ofConstant(value.toString().length());
+    }
+    return bean -> {
+      Object value = arg.get(bean);
+      if (value instanceof CharSequence) {
+        return ((CharSequence) value).length();
+      } else if (value == null) {
+        return Double.NaN;
+      }
+      return value.toString().length();
+    };
+  }
+
+  private static ValueAccessor compileConcat(ValueAccessor[] args) {
+
+    boolean constant = true;
+    for (ValueAccessor arg : args) {
+      if (arg.isConstant()) {
+        if (arg.get(null) == null) {
+          return arg;
+        }
+      } else {
+        constant = false;
+      }
+    }
+    ValueAccessor result = bean -> {
+      StringBuilder sb = new StringBuilder();
+      for (ValueAccessor arg : args) {
+        Object value = arg.get(bean);
+        if (value == null) {
+          return null;
+        }
+        sb.append(value);
+      }
+      return sb.toString();
+    };
+    if (constant) {
+      return ValueAccessor.ofConstant(result.get(null));
+    }
+    return result;
+  }
+
+  private static ValueAccessor compileCoalesce(ValueAccessor[] args) {
+
+    List<ValueAccessor> candidates = new ArrayList<>(args.length);
+    for (ValueAccessor arg : args) {
+      if (arg.isConstant()) {
+        if (arg.get(null) != null) {
+          // all following arguments can never be reached
+          candidates.add(arg);
+          break;
+        }
+      } else {
+        candidates.add(arg);
+      }
+    }
+    int size = candidates.size();
+    if (size == 0) {
+      return ValueAccessor.ofConstant(null);
+    } else if (size == 1) {
+      return candidates.get(0);
+    }
+    ValueAccessor[] accessors = candidates.toArray(new ValueAccessor[size]);
+    return bean -> {
+      for (ValueAccessor accessor : accessors) {
+        Object value = accessor.get(bean);
+        if (value != null) {
+          return value;
+        }
+      }
+      return null;
+    };
+  }
+
+  private static final class Arithmetic implements NumericAccessor {
+
+    private final ValueAccessor arg1;
+
+    private final ValueAccessor arg2;
+
+    private final CriteriaFunctionOperator op;
+
+    private final DoubleBinaryOperator function;
+
+    private Arithmetic(ValueAccessor arg1, ValueAccessor arg2, CriteriaFunctionOperator op,
+        DoubleBinaryOperator function) {
+
+      super();
+      this.arg1 = arg1;
+      this.arg2 = arg2;
+      this.op = op;
+      this.function = function;
+    }
+
+    @Override
+    public double getDouble(Object bean) {
+
+      return NumericAccessor.toDouble(get(bean));
+    }
+
+    @Override
+    public Object get(Object bean) {
+
+      Object value1 = this.arg1.get(bean);
+      if (value1 == null) {
+        return null;
+      }
+      Object value2 = this.arg2.get(bean);
+      if (value2 == null) {
+        return null;
+      }
+      if (CriteriaValueHelper.isIntegral(value1) && CriteriaValueHelper.isIntegral(value2)) {
+        try {
+          return calculate(((Number) value1).longValue(), ((Number) value2).longValue(), this.op);
+        } catch (ArithmeticException e) {
+          // overflow
+          return calculate(toDecimal(value1), toDecimal(value2), this.op, true);
+        }
+      } else if (isExact(value1) && isExact(value2)) {
+        boolean integral = !(value1 instanceof BigDecimal) && !(value2 instanceof BigDecimal);
+        return calculate(toDecimal(value1), toDecimal(value2), this.op, integral);
+      }
+      double result = this.function.applyAsDouble(NumericAccessor.toDouble(value1), NumericAccessor.toDouble(value2));
+      return NumericAccessor.toNumber(result);
+    }
+
+    @Override
+    public String toString() {
+
+      return "(" + this.arg1 + " " + this.op.getSyntax() + " " + this.arg2 + ")";
+    }
+  }
+
+}
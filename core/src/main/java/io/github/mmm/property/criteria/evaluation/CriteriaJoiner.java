@@ -0,0 +1,324 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.property.criteria.evaluation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import io.github.mmm.property.criteria.CriteriaPredicate;
+import io.github.mmm.property.criteria.CriteriaValueHelper;
+import io.github.mmm.property.criteria.PredicateOperator;
+import io.github.mmm.value.CriteriaObject;
+import io.github.mmm.value.PropertyPath;
+
+/**
+ * Joins two collections of beans in memory by a {@link CriteriaPredicate} comparing {@link PropertyPath}s of both sides
+ * (e.g. {@code order.CustomerId() = customer.Id()}). The {@link CriteriaPredicate#getFirstArg() first argument} of each
+ * comparison is read from the left and the {@link CriteriaPredicate#getSecondArg() second argument} from the right
+ * bean. The condition may be a single comparison or a conjunction ({@link PredicateOperator#AND AND}) of comparisons:
+ * <ul>
+ * <li>If it contains {@link PredicateOperator#EQ equi-join} comparisons, a hash join is performed that builds a hash
+ * table on the smaller side and probes it with the other side.</li>
+ * <li>Otherwise the right side is sorted by the first range comparison ({@link PredicateOperator#LT LT},
+ * {@link PredicateOperator#LE LE}, {@link PredicateOperator#GT GT}, or {@link PredicateOperator#GE GE}) and each left
+ * bean is merged with the matching range via binary search.</li>
+ * </ul>
+ * All remaining comparisons (including {@link PredicateOperator#NEQ NEQ}) are applied to the candidate pairs. As in
+ * SQL, {@code null} values never match. The pairs are produced lazily as {@link Stream} in unspecified order.
+ *
+ * @since 1.0.0
+ */
+public class CriteriaJoiner {
+
+  private final CriteriaPredicate condition;
+
+  private final List<Comparison> equiJoins;
+
+  private final List<Comparison> rangeJoins;
+
+  /**
+   * The constructor.
+   *
+   * @param condition the {@link #getCondition() join condition}.
+   */
+  public CriteriaJoiner(CriteriaPredicate condition) {
+
+    this(null, condition);
+  }
+
+  /**
+   * The constructor.
+   *
+   * @param evaluator the {@link CriteriaEvaluator} or {@code null} for {@link CriteriaEvaluator#get() default}.
+   * @param condition the {@link #getCondition() join condition}.
+   */
+  public CriteriaJoiner(CriteriaEvaluator evaluator, CriteriaPredicate condition) {
+
+    super();
+    if (evaluator == null) {
+      evaluator = CriteriaEvaluator.get();
+    }
+    this.condition = condition;
+    this.equiJoins = new ArrayList<>();
+    this.rangeJoins = new ArrayList<>();
+    collect(evaluator, condition);
+    if (this.equiJoins.isEmpty() && this.rangeJoins.isEmpty()) {
+      throw new IllegalArgumentException("No join comparison found in " + condition);
+    }
+  }
+
+  private void collect(CriteriaEvaluator evaluator, CriteriaPredicate predicate) {
+
+    PredicateOperator op = predicate.getOperator();
+    if (op == PredicateOperator.AND) {
+      for (CriteriaObject<?> arg : predicate.getArgs()) {
+        if (!(arg instanceof CriteriaPredicate)) {
+          throw new IllegalArgumentException("Unsupported join condition " + arg);
+        }
+        collect(evaluator, (CriteriaPredicate) arg);
+      }
+      return;
+    }
+    CriteriaObject<?> arg1 = predicate.getFirstArg();
+    CriteriaObject<?> arg2 = predicate.getSecondArg();
+    if (!(arg1 instanceof PropertyPath) || !(arg2 instanceof PropertyPath)) {
+      throw new IllegalArgumentException("Join condition must compare two property paths: " + predicate);
+    }
+    Comparison comparison = new Comparison(op, evaluator.compileValue(arg1), evaluator.compileValue(arg2));
+    if (op == PredicateOperator.EQ) {
+      this.equiJoins.add(comparison);
+    } else if ((op == PredicateOperator.NEQ) || isRange(op)) {
+      this.rangeJoins.add(comparison);
+    } else {
+      throw new IllegalArgumentException("Unsupported join operator " + op + " in " + predicate);
+    }
+  }
+
+  private static boolean isRange(PredicateOperator op) {
+
+    return (op == PredicateOperator.LT) || (op == PredicateOperator.LE) || (op == PredicateOperator.GT)
+        || (op == PredicateOperator.GE);
+  }
+
+  /**
+   * @return the join condition.
+   */
+  public CriteriaPredicate getCondition() {
+
+    return this.condition;
+  }
+
+  /**
+   * @param <L> type of the left beans.
+   * @param <R> type of the right beans.
+   * @param left the left {@link Collection} of beans.
+   * @param right the right {@link Collection} of beans.
+   * @return the {@link Stream} of {@link JoinPair}s matching the {@link #getCondition() join condition}.
+   */
+  public <L, R> Stream<JoinPair<L, R>> join(Collection<? extends L> left, Collection<? extends R> right) {
+
+    if (left.isEmpty() || right.isEmpty()) {
+      return Stream.empty();
+    } else if (!this.equiJoins.isEmpty()) {
+      return hashJoin(left, right);
+    }
+    for (Comparison comparison : this.rangeJoins) {
+      if (comparison.operator != PredicateOperator.NEQ) {
+        return sortMergeJoin(left, right, comparison);
+      }
+    }
+    // only NEQ comparisons: nested loops are inevitable
+    return left.stream()
+        .flatMap(l -> right.stream().filter(r -> matches(this.rangeJoins, l, r)).map(r -> new JoinPair<>(l, r)));
+  }
+
+  private <L, R> Stream<JoinPair<L, R>> hashJoin(Collection<? extends L> left, Collection<? extends R> right) {
+
+    if (left.size() <= right.size()) {
+      Map<Object, List<L>> table = buildHashTable(left, true);
+      return right.stream().flatMap(r -> {
+        List<L> matches = table.get(hashKey(r, false));
+        if (matches == null) {
+          return Stream.empty();
+        }
+        return matches.stream().filter(l -> matches(this.rangeJoins, l, r)).map(l -> new JoinPair<>(l, r));
+      });
+    } else {
+      Map<Object, List<R>> table = buildHashTable(right, false);
+      return left.stream().flatMap(l -> {
+        List<R> matches = table.get(hashKey(l, true));
+        if (matches == null) {
+          return Stream.empty();
+        }
+        return matches.stream().filter(r -> matches(this.rangeJoins, l, r)).map(r -> new JoinPair<>(l, r));
+      });
+    }
+  }
+
+  private <B> Map<Object, List<B>> buildHashTable(Collection<? extends B> beans, boolean leftSide) {
+
+    Map<Object, List<B>> table = new HashMap<>();
+    for (B bean : beans) {
+      Object key = hashKey(bean, leftSide);
+      if (key != null) {
+        table.computeIfAbsent(key, k -> new ArrayList<>(1)).add(bean);
+      }
+    }
+    return table;
+  }
+
+  private Object hashKey(Object bean, boolean leftSide) {
+
+    int size = this.equiJoins.size();
+    if (size == 1) {
+      return this.equiJoins.get(0).getKey(bean, leftSide);
+    }
+    Object[] keys = new Object[size];
+    for (int i = 0; i < size; i++) {
+      Object key = this.equiJoins.get(i).getKey(bean, leftSide);
+      if (key == null) {
+        return null;
+      }
+      keys[i] = key;
+    }
+    return Arrays.asList(keys);
+  }
+
+  private <L, R> Stream<JoinPair<L, R>> sortMergeJoin(Collection<? extends L> left, Collection<? extends R> right,
+      Comparison merge) {
+
+    List<Comparison> residual = new ArrayList<>(this.rangeJoins);
+    residual.remove(merge);
+    int size = 0;
+    Object[] keys = new Object[right.size()];
+    Object[] beans = new Object[keys.length];
+    for (R bean : right) {
+      Object key = merge.right.get(bean);
+      if (key != null) {
+        keys[size] = key;
+        beans[size] = bean;
+        size++;
+      }
+    }
+    Integer[] order = new Integer[size];
+    for (int i = 0; i < size; i++) {
+      order[i] = Integer.valueOf(i);
+    }
+    Arrays.sort(order, (i1, i2) -> CriteriaValueHelper.compare(keys[i1.intValue()], keys[i2.intValue()]));
+    Object[] sortedKeys = new Object[size];
+    Object[] sortedBeans = new Object[size];
+    for (int i = 0; i < size; i++) {
+      int index = order[i].intValue();
+      sortedKeys[i] = keys[index];
+      sortedBeans[i] = beans[index];
+    }
+    PredicateOperator op = merge.operator;
+    return left.stream().flatMap(l -> {
+      Object value = merge.left.get(l);
+      if (value == null) {
+        return Stream.empty();
+      }
+      int start = 0;
+      int end = sortedKeys.length;
+      if (op == PredicateOperator.LT) {
+        start = bound(sortedKeys, value, false);
+      } else if (op == PredicateOperator.LE) {
+        start = bound(sortedKeys, value, true);
+      } else if (op == PredicateOperator.GT) {
+        end = bound(sortedKeys, value, true);
+      } else {
+        end = bound(sortedKeys, value, false);
+      }
+      return IntStream.range(start, end).mapToObj(i -> {
+        @SuppressWarnings("unchecked")
+        R r = (R) sortedBeans[i];
+        return r;
+      }).filter(r -> matches(residual, l, r)).map(r -> new JoinPair<>(l, r));
+    });
+  }
+
+  /**
+   * @param keys the sorted keys.
+   * @param value the value to search.
+   * @param lower - {@code true} for the index of the first key greater or equal to {@code value}, {@code false} for
+   *        the index of the first key strictly greater than {@code value}.
+   * @return the bound index.
+   */
+  private static int bound(Object[] keys, Object value, boolean lower) {
+
+    int low = 0;
+    int high = keys.length;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      int delta = CriteriaValueHelper.compare(keys[mid], value);
+      if ((delta < 0) || (!lower && (delta == 0))) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  private static boolean matches(List<Comparison> comparisons, Object left, Object right) {
+
+    for (Comparison comparison : comparisons) {
+      if (!comparison.matches(left, right)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static final class Comparison {
+
+    private final PredicateOperator operator;
+
+    private final ValueAccessor left;
+
+    private final ValueAccessor right;
+
+    private Comparison(PredicateOperator operator, ValueAccessor left, ValueAccessor right) {
+
+      super();
+      this.operator = operator;
+      this.left = left;
+      this.right = right;
+    }
+
+    private Object getKey(Object bean, boolean leftSide) {
+
+      ValueAccessor accessor = leftSide ? this.left : this.right;
+      return CriteriaValueHelper.normalizeKey(accessor.get(bean));
+    }
+
+    private boolean matches(Object leftBean, Object rightBean) {
+
+      Object value1 = this.left.get(leftBean);
+      Object value2 = this.right.get(rightBean);
+      if ((value1 == null) || (value2 == null)) {
+        return false;
+      } else if (this.operator == PredicateOperator.NEQ) {
+        return !CriteriaValueHelper.isEqual(value1, value2);
+      }
+      int delta = CriteriaValueHelper.compare(value1, value2);
+      if (this.operator == PredicateOperator.LT) {
+        return delta < 0;
+      } else if (this.operator == PredicateOperator.LE) {
+        return delta <= 0;
+      } else if (this.operator == PredicateOperator.GT) {
+        return delta > 0;
+      } else if (this.operator == PredicateOperator.GE) {
+        return delta >= 0;
+      }
+      return CriteriaValueHelper.isEqual(value1, value2);
+    }
+  }
+
+}
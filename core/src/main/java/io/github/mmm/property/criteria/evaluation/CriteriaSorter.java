@@ -0,0 +1,181 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.property.criteria.evaluation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.stream.Stream;
+
+import io.github.mmm.property.criteria.CriteriaOrdering;
+
+/**
+ * Executes {@code ORDER BY} with optional {@code OFFSET} and {@code LIMIT} in memory for a {@link List} of
+ * {@link CriteriaOrdering}s. The {@link CriteriaOrdering}s are compiled once into a single {@link #getComparator()
+ * comparator} (see {@link CriteriaEvaluator#compileOrdering(List)}). If a {@code limit} is given, only the first
+ * {@code offset + limit} beans are kept in a bounded heap so a page of a huge {@link Iterable} or {@link Stream} is
+ * computed in {@code O(n log k)} time and {@code O(k)} memory instead of sorting all beans. Sorting is stable, so beans
+ * with equal sort keys keep their encounter order.
+ *
+ * <pre>
+ * CriteriaSorter sorter = new CriteriaSorter(List.of(new CriteriaOrdering(p.Age(), SortOrder.DESCENDING)));
+ * List&lt;Person&gt; page = sorter.sort(persons, 20, 10);
+ * </pre>
+ *
+ * @since 1.0.0
+ */
+public class CriteriaSorter {
+
+  private final List<CriteriaOrdering> orderings;
+
+  private final Comparator<Object> comparator;
+
+  /**
+   * The constructor.
+   *
+   * @param orderings the {@link #getOrderings() orderings}.
+   */
+  public CriteriaSorter(List<CriteriaOrdering> orderings) {
+
+    this(null, orderings);
+  }
+
+  /**
+   * The constructor.
+   *
+   * @param evaluator the {@link CriteriaEvaluator} or {@code null} for {@link CriteriaEvaluator#get() default}.
+   * @param orderings the {@link #getOrderings() orderings}.
+   */
+  public CriteriaSorter(CriteriaEvaluator evaluator, List<CriteriaOrdering> orderings) {
+
+    super();
+    if (evaluator == null) {
+      evaluator = CriteriaEvaluator.get();
+    }
+    this.orderings = List.copyOf(orderings);
+    this.comparator = evaluator.compileOrdering(this.orderings);
+  }
+
+  /**
+   * @return the {@link List} of {@link CriteriaOrdering}s to sort by.
+   */
+  public List<CriteriaOrdering> getOrderings() {
+
+    return this.orderings;
+  }
+
+  /**
+   * @param <T> type of the beans to compare.
+   * @return the compiled {@link Comparator}.
+   */
+  @SuppressWarnings({ "unchecked", "rawtypes" })
+  public <T> Comparator<T> getComparator() {
+
+    return (Comparator) this.comparator;
+  }
+
+  /**
+   * @param <T> type of the beans to sort.
+   * @param beans the beans to sort.
+   * @return a new {@link List} with all given {@code beans} sorted.
+   */
+  public <T> List<T> sort(Iterable<T> beans) {
+
+    return sort(beans, 0, -1);
+  }
+
+  /**
+   * @param <T> type of the beans to sort.
+   * @param beans the beans to sort.
+   * @param offset the number of leading beans to skip ({@code OFFSET}).
+   * @param limit the maximum number of beans to return ({@code LIMIT}) or a negative value for no limit.
+   * @return a new {@link List} with the requested page of the sorted {@code beans}.
+   */
+  public <T> List<T> sort(Iterable<T> beans, int offset, int limit) {
+
+    if (offset < 0) {
+      throw new IllegalArgumentException("offset " + offset);
+    }
+    if ((limit < 0) || ((offset + (long) limit) >= Integer.MAX_VALUE)) {
+      List<T> list = new ArrayList<>();
+      beans.forEach(list::add);
+      list.sort(getComparator());
+      if (offset == 0) {
+        return list;
+      } else if (offset >= list.size()) {
+        return new ArrayList<>();
+      }
+      int end = list.size();
+      if (limit >= 0) {
+        end = (int) Math.min(end, offset + (long) limit);
+      }
+      return new ArrayList<>(list.subList(offset, end));
+    } else if (limit == 0) {
+      return new ArrayList<>();
+    }
+    return topK(beans, offset, limit);
+  }
+
+  /**
+   * @param <T> type of the beans to sort.
+   * @param beans the {@link Stream} of beans to sort. Will be consumed sequentially.
+   * @param offset the number of leading beans to skip ({@code OFFSET}).
+   * @param limit the maximum number of beans to return ({@code LIMIT}) or a negative value for no limit.
+   * @return a new {@link List} with the requested page of the sorted {@code beans}.
+   */
+  public <T> List<T> sort(Stream<T> beans, int offset, int limit) {
+
+    return sort(beans::iterator, offset, limit);
+  }
+
+  private <T> List<T> topK(Iterable<T> beans, int offset, int limit) {
+
+    int k = offset + limit;
+    Comparator<Entry<T>> entryComparator = (e1, e2) -> {
+      int result = this.comparator.compare(e1.bean, e2.bean);
+      if (result == 0) {
+        result = Long.compare(e1.index, e2.index);
+      }
+      return result;
+    };
+    // max-heap so the worst of the current top-k is at the head
+    PriorityQueue<Entry<T>> heap = new PriorityQueue<>(Math.min(k, 1024), entryComparator.reversed());
+    long index = 0;
+    for (T bean : beans) {
+      Entry<T> entry = new Entry<>(bean, index++);
+      if (heap.size() < k) {
+        heap.add(entry);
+      } else if (entryComparator.compare(entry, heap.peek()) < 0) {
+        heap.poll();
+        heap.add(entry);
+      }
+    }
+    if (heap.size() <= offset) {
+      return new ArrayList<>();
+    }
+    List<Entry<T>> entries = new ArrayList<>(heap);
+    Collections.sort(entries, entryComparator);
+    List<T> result = new ArrayList<>(entries.size() - offset);
+    for (int i = offset; i < entries.size(); i++) {
+      result.add(entries.get(i).bean);
+    }
+    return result;
+  }
+
+  private static final class Entry<T> {
+
+    private final T bean;
+
+    private final long index;
+
+    private Entry(T bean, long index) {
+
+      super();
+      this.bean = bean;
+      this.index = index;
+    }
+  }
+
+}
@@ -0,0 +1,158 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.property.criteria.evaluation;
+
+import java.util.List;
+import java.util.function.Predicate;
+
+import io.github.mmm.property.criteria.CriteriaPredicate;
+import io.github.mmm.property.criteria.PropertyAssignment;
+
+/**
+ * Executes an {@code UPDATE ... SET ... WHERE ...} in memory by applying {@link PropertyAssignment}s to beans. The
+ * {@link PropertyAssignment#getProperty() properties} and {@link PropertyAssignment#getValue() values} are resolved
+ * only once. Like in SQL all values of a bean are evaluated before the first assignment so {@code SET a=b, b=a} swaps
+ * the values. The assignments of each bean are applied as a {@link BeanChangeBatch} so observers such as
+ * {@link io.github.mmm.property.criteria.live.ContinuousQuery} or
+ * {@link io.github.mmm.property.criteria.index.IndexedCollection} are notified only once per bean.
+ *
+ * <pre>
+ * CriteriaUpdater updater = new CriteriaUpdater(List.of(PropertyAssignment.of(p.Status(), "ACTIVE"),
+ *     PropertyAssignment.of(p.Modified(), p.Created())), p.Status().eq("NEW"));
+ * int count = updater.update(persons);
+ * </pre>
+ *
+ * @since 1.0.0
+ */
+public class CriteriaUpdater {
+
+  private final List<PropertyAssignment<?>> assignments;
+
+  private final CriteriaPredicate where;
+
+  private final ValueWriter[] writers;
+
+  private final ValueAccessor[] values;
+
+  private final Predicate<Object> filter;
+
+  /**
+   * The constructor.
+   *
+   * @param assignments the {@link #getAssignments() assignments}.
+   */
+  public CriteriaUpdater(List<? extends PropertyAssignment<?>> assignments) {
+
+    this(assignments, null);
+  }
+
+  /**
+   * The constructor.
+   *
+   * @param assignments the {@link #getAssignments() assignments}.
+   * @param where the optional {@link #getWhere() where} condition. May be {@code null}.
+   */
+  public CriteriaUpdater(List<? extends PropertyAssignment<?>> assignments, CriteriaPredicate where) {
+
+    this(null, assignments, where);
+  }
+
+  /**
+   * The constructor.
+   *
+   * @param evaluator the {@link CriteriaEvaluator} or {@code null} for {@link CriteriaEvaluator#get() default}. Its
+   *        {@link CriteriaEvaluator#getResolver() resolver} has to be a {@link PropertyPathWriterResolver}.
+   * @param assignments the {@link #getAssignments() assignments}.
+   * @param where the optional {@link #getWhere() where} condition. May be {@code null}.
+   * @throws IllegalArgumentException if the {@link CriteriaEvaluator#getResolver() resolver} does not support
+   *         writing.
+   */
+  public CriteriaUpdater(CriteriaEvaluator evaluator, List<? extends PropertyAssignment<?>> assignments,
+      CriteriaPredicate where) {
+
+    super();
+    if (evaluator == null) {
+      evaluator = CriteriaEvaluator.get();
+    }
+    PropertyPathResolver resolver = evaluator.getResolver();
+    if (!(resolver instanceof PropertyPathWriterResolver)) {
+      throw new IllegalArgumentException(
+          "Resolver " + resolver.getClass().getSimpleName() + " does not support writing.");
+    }
+    PropertyPathWriterResolver writerResolver = (PropertyPathWriterResolver) resolver;
+    this.assignments = List.copyOf(assignments);
+    this.where = where;
+    int size = this.assignments.size();
+    this.writers = new ValueWriter[size];
+    this.values = new ValueAccessor[size];
+    for (int i = 0; i < size; i++) {
+      PropertyAssignment<?> assignment = this.assignments.get(i);
+      this.writers[i] = writerResolver.resolveWriter(assignment.getProperty());
+      this.values[i] = evaluator.compileValue(assignment.getValue());
+    }
+    if (where == null) {
+      this.filter = null;
+    } else {
+      this.filter = evaluator.compileCondition(where);
+    }
+  }
+
+  /**
+   * @return the {@link List} of {@link PropertyAssignment}s to apply.
+   */
+  public List<PropertyAssignment<?>> getAssignments() {
+
+    return this.assignments;
+  }
+
+  /**
+   * @return the {@link CriteriaPredicate} restricting the beans to update or {@code null} to update all beans.
+   */
+  public CriteriaPredicate getWhere() {
+
+    return this.where;
+  }
+
+  /**
+   * @param bean the bean to update.
+   * @return {@code true} if the bean has been updated, {@code false} if it does not match the {@link #getWhere()
+   *         where} condition or none of the {@link #getAssignments() assignments} could be applied because an
+   *         intermediate object of a nested {@link PropertyAssignment#getProperty() property} is {@code null}.
+   */
+  public boolean update(Object bean) {
+
+    if ((this.filter != null) && !this.filter.test(bean)) {
+      return false;
+    }
+    int size = this.writers.length;
+    Object[] newValues = new Object[size];
+    for (int i = 0; i < size; i++) {
+      newValues[i] = this.values[i].get(bean);
+    }
+    boolean[] updated = new boolean[1];
+    BeanChangeBatch.run(() -> {
+      for (int i = 0; i < size; i++) {
+        if (this.writers[i].set(bean, newValues[i])) {
+          updated[0] = true;
+        }
+      }
+    });
+    return updated[0];
+  }
+
+  /**
+   * @param beans the beans to update.
+   * @return the number of updated beans.
+   */
+  public int update(Iterable<?> beans) {
+
+    int count = 0;
+    for (Object bean : beans) {
+      if (update(bean)) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+}
@@ -0,0 +1,555 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.property.criteria.evaluation;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodHandles.Lookup;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiPredicate;
+import java.util.function.Predicate;
+
+import io.github.mmm.property.criteria.BooleanLiteral;
+import io.github.mmm.property.criteria.CriteriaFunction;
+import io.github.mmm.property.criteria.CriteriaPredicate;
+import io.github.mmm.property.criteria.CriteriaStructureHelper;
+import io.github.mmm.property.criteria.Literal;
+import io.github.mmm.property.criteria.PredicateOperator;
+import io.github.mmm.property.criteria.PropertyPathHelper;
+import io.github.mmm.property.criteria.impl.CollectionLiteral;
+import io.github.mmm.value.CriteriaObject;
+import io.github.mmm.value.PropertyPath;
+import io.github.mmm.value.ReadableValue;
+
+/**
+ * Alternative {@link CriteriaEvaluator} that compiles a {@link CriteriaPredicate} into a single {@link MethodHandle}
+ * tree (property access, comparisons, and short-circuiting of conjunctions) and binds it as constant to a dedicated
+ * hidden class (see {@link Lookup#defineHiddenClassWithClassData(byte[], Object, boolean, Lookup.ClassOption...)})
+ * implementing {@link Predicate}. As the {@link MethodHandle} is a constant of the generated class, the JIT compiler can
+ * inline and optimize the entire filter as a unit without megamorphic calls between the nodes. Compilation is more
+ * expensive than with {@link CriteriaEvaluator} so this backend should only be used for hot filters that are tested
+ * against many objects. If the type of the objects to test is known, use {@link #compile(CriteriaPredicate, Class)} so
+ * that property access can be resolved statically. Compiled {@link Predicate}s are cached by the
+ * {@link CriteriaStructureHelper#fingerprint(CriteriaObject) fingerprint} of the {@link CriteriaPredicate} so compiling
+ * a structurally equal {@link CriteriaPredicate} again reuses the hidden class instead of defining a new one.
+ *
+ * @since 1.0.0
+ */
+public class HiddenClassCriteriaEvaluator extends CriteriaEvaluator {
+
+  /** Default value for {@link #getMaxCacheSize()}. */
+  public static final int DEFAULT_MAX_CACHE_SIZE = 256;
+
+  private static final String CLASS_NAME = "io/github/mmm/property/criteria/evaluation/CompiledCriteriaPredicate";
+
+  private static final byte[] PREDICATE_CLASS = createPredicateClass();
+
+  private static final MethodType CONDITION_TYPE = MethodType.methodType(boolean.class, Object.class);
+
+  private static final MethodType VALUE_TYPE = MethodType.methodType(Object.class, Object.class);
+
+  private static final MethodHandle MH_TRUE = MethodHandles
+      .dropArguments(MethodHandles.constant(boolean.class, Boolean.TRUE), 0, Object.class);
+
+  private static final MethodHandle MH_FALSE = MethodHandles
+      .dropArguments(MethodHandles.constant(boolean.class, Boolean.FALSE), 0, Object.class);
+
+  private static final MethodHandle MH_NULL = MethodHandles.dropArguments(MethodHandles.constant(Object.class, null),
+      0, Object.class);
+
+  private static final MethodHandle MH_IS_NULL;
+
+  private static final MethodHandle MH_IS_NOT_NULL;
+
+  private static final MethodHandle MH_IS_TRUE;
+
+  private static final MethodHandle MH_TEST_VALUE;
+
+  private static final MethodHandle MH_TEST_VALUES;
+
+  private static final MethodHandle MH_PREDICATE;
+
+  private static final MethodHandle MH_ACCESSOR;
+
+  private static final MethodHandle MH_READ_VALUE;
+
+  static {
+    Lookup lookup = MethodHandles.lookup();
+    Class<?> type = HiddenClassCriteriaEvaluator.class;
+    try {
+      MH_IS_NULL = lookup.findStatic(type, "isNull", CONDITION_TYPE);
+      MH_IS_NOT_NULL = lookup.findStatic(type, "isNotNull", CONDITION_TYPE);
+      MH_IS_TRUE = lookup.findStatic(type, "isTrue", CONDITION_TYPE);
+      MH_TEST_VALUE = lookup.findStatic(type, "testValue",
+          MethodType.methodType(boolean.class, Predicate.class, boolean.class, Object.class));
+      MH_TEST_VALUES = lookup.findStatic(type, "testValues",
+          MethodType.methodType(boolean.class, BiPredicate.class, boolean.class, Object.class, Object.class));
+      MH_PREDICATE = lookup.findVirtual(Predicate.class, "test", CONDITION_TYPE);
+      MH_ACCESSOR = lookup.findVirtual(ValueAccessor.class, "get", VALUE_TYPE);
+      MH_READ_VALUE = lookup.findVirtual(ReadableValue.class, "get", MethodType.methodType(Object.class));
+    } catch (ReflectiveOperationException e) {
+      throw new ExceptionInInitializerError(e);
+    }
+  }
+
+  private final int maxCacheSize;
+
+  private final Map<CacheKey, Predicate<?>> cache;
+
+  /**
+   * The constructor using {@link ReflectivePropertyPathResolver}.
+   */
+  public HiddenClassCriteriaEvaluator() {
+
+    this(null);
+  }
+
+  /**
+   * The constructor.
+   *
+   * @param resolver the {@link PropertyPathResolver} or {@code null} for {@link ReflectivePropertyPathResolver}.
+   */
+  public HiddenClassCriteriaEvaluator(PropertyPathResolver resolver) {
+
+    this(resolver, DEFAULT_MAX_CACHE_SIZE);
+  }
+
+  /**
+   * The constructor.
+   *
+   * @param resolver the {@link PropertyPathResolver} or {@code null} for {@link ReflectivePropertyPathResolver}.
+   * @param maxCacheSize the {@link #getMaxCacheSize() maximum cache size}.
+   */
+  public HiddenClassCriteriaEvaluator(PropertyPathResolver resolver, int maxCacheSize) {
+
+    super(resolver);
+    if (maxCacheSize < 0) {
+      throw new IllegalArgumentException("" + maxCacheSize);
+    }
+    this.maxCacheSize = maxCacheSize;
+    this.cache = new LinkedHashMap<>(16, 0.75F, true) {
+
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<CacheKey, Predicate<?>> eldest) {
+
+        return size() > HiddenClassCriteriaEvaluator.this.maxCacheSize;
+      }
+    };
+  }
+
+  /**
+   * @return the maximum number of compiled {@link Predicate}s to cache or {@code 0} to disable caching. The least
+   *         recently used {@link Predicate} is evicted.
+   */
+  public int getMaxCacheSize() {
+
+    return this.maxCacheSize;
+  }
+
+  @Override
+  public <T> Predicate<T> compile(CriteriaPredicate predicate) {
+
+    return compile(predicate, null);
+  }
+
+  /**
+   * @param <T> type of the objects to test.
+   * @param predicate the {@link CriteriaPredicate} to compile.
+   * @param type the {@link Class} reflecting the objects to test or {@code null} if unknown. If given, the
+   *        {@link PropertyPath}s are resolved statically for this type.
+   * @return the compiled {@link Predicate}. Can be reused and {@link Predicate#test(Object) tested} for any number of
+   *         objects.
+   */
+  @SuppressWarnings({ "unchecked", "rawtypes" })
+  public <T> Predicate<T> compile(CriteriaPredicate predicate, Class<T> type) {
+
+    CacheKey key = null;
+    if (this.maxCacheSize > 0) {
+      key = new CacheKey(predicate, type);
+      synchronized (this.cache) {
+        Predicate<?> cached = this.cache.get(key);
+        if (cached != null) {
+          return (Predicate) cached;
+        }
+      }
+    }
+    MethodHandle handle = compileHandle(predicate, type);
+    Predicate<Object> result;
+    if (handle == MH_TRUE) {
+      result = TRUE;
+    } else if (handle == MH_FALSE) {
+      result = FALSE;
+    } else {
+      result = define(handle);
+    }
+    if (key != null) {
+      synchronized (this.cache) {
+        this.cache.put(key, result);
+      }
+    }
+    return (Predicate) result;
+  }
+
+  /**
+   * @param condition the condition to compile. Typically a {@link CriteriaPredicate}.
+   * @param type the {@link Class} reflecting the objects to test or {@code null} if unknown.
+   * @return the compiled {@link MethodHandle} of type {@code (Object)boolean}.
+   */
+  protected MethodHandle compileHandle(CriteriaObject<?> condition, Class<?> type) {
+
+    if (condition instanceof CriteriaPredicate) {
+      CriteriaPredicate predicate = (CriteriaPredicate) condition;
+      PredicateOperator op = predicate.getOperator();
+      if (isNegation(op)) {
+        return compileHandle(pushNegation(predicate), type);
+      } else if (op.isConjunction()) {
+        return compileConjunctionHandle(predicate, type);
+      }
+      return compileSimpleHandle(predicate, type);
+    } else if (condition instanceof BooleanLiteral) {
+      return constantHandle(((BooleanLiteral) condition).get().booleanValue());
+    }
+    return MethodHandles.filterReturnValue(compileValueHandle(condition, type), MH_IS_TRUE);
+  }
+
+  private MethodHandle compileConjunctionHandle(CriteriaPredicate predicate, Class<?> type) {
+
+    boolean and = (predicate.getOperator() == PredicateOperator.AND);
+    MethodHandle neutral = constantHandle(and);
+    MethodHandle dominant = constantHandle(!and);
+    List<MethodHandle> handles = new ArrayList<>();
+    for (CriteriaObject<?> arg : predicate.getArgs()) {
+      MethodHandle handle = compileHandle(arg, type);
+      if (handle == dominant) {
+        return dominant;
+      } else if (handle != neutral) {
+        handles.add(handle);
+      }
+    }
+    int size = handles.size();
+    if (size == 0) {
+      return neutral;
+    }
+    MethodHandle result = handles.get(size - 1);
+    for (int i = size - 2; i >= 0; i--) {
+      if (and) {
+        result = MethodHandles.guardWithTest(handles.get(i), result, MH_FALSE);
+      } else {
+        result = MethodHandles.guardWithTest(handles.get(i), MH_TRUE, result);
+      }
+    }
+    return result;
+  }
+
+  private MethodHandle compileSimpleHandle(CriteriaPredicate predicate, Class<?> type) {
+
+    CriteriaObject<?> arg1 = predicate.getFirstArg();
+    CriteriaObject<?> arg2 = predicate.getSecondArg();
+    if ((!(arg1 instanceof PropertyPath) && !(arg2 instanceof PropertyPath)) || (arg1 instanceof CriteriaFunction)
+        || (arg2 instanceof CriteriaFunction) || PredicateOperator.isContainsBased(predicate.getOperator())) {
+      // e.g. constant, nested predicate as value, function compiled with primitive arithmetic, or container lookup
+      Predicate<Object> compiled = compileSimple(predicate);
+      if (compiled == TRUE) {
+        return MH_TRUE;
+      } else if (compiled == FALSE) {
+        return MH_FALSE;
+      }
+      return MH_PREDICATE.bindTo(compiled);
+    }
+    PredicateOperator op = predicate.getOperator();
+    MethodHandle first = compileValueHandle(arg1, type);
+    if (op == PredicateOperator.IS_NULL) {
+      return MethodHandles.filterReturnValue(first, MH_IS_NULL);
+    } else if (op == PredicateOperator.IS_NOT_NULL) {
+      return MethodHandles.filterReturnValue(first, MH_IS_NOT_NULL);
+    }
+    boolean inverse = op.isInverse();
+    PredicateOperator positive = op;
+    if (inverse) {
+      positive = op.not();
+    }
+    if ((arg2 == null) || (arg2 instanceof Literal)) {
+      Object constant = null;
+      if (arg2 != null) {
+        constant = ((Literal<?>) arg2).get();
+      }
+      if (constant == null) {
+        return MH_FALSE;
+      }
+      Predicate<Object> test;
+      if ((arg2 instanceof CollectionLiteral) && (positive == PredicateOperator.IN)) {
+        test = ((CollectionLiteral<?>) arg2)::contains;
+      } else {
+        test = compileTest(positive, constant);
+      }
+      MethodHandle handle = MethodHandles.insertArguments(MH_TEST_VALUE, 0, test, Boolean.valueOf(inverse));
+      return MethodHandles.filterArguments(handle, 0, first);
+    }
+    MethodHandle second = compileValueHandle(arg2, type);
+    BiPredicate<Object, Object> test = compileTest(positive);
+    MethodHandle handle = MethodHandles.insertArguments(MH_TEST_VALUES, 0, test, Boolean.valueOf(inverse));
+    handle = MethodHandles.filterArguments(handle, 0, first, second);
+    return MethodHandles.permuteArguments(handle, CONDITION_TYPE, 0, 0);
+  }
+
+  /**
+   * @param arg the {@link CriteriaObject} to compile.
+   * @param type the {@link Class} reflecting the objects to test or {@code null} if unknown.
+   * @return the compiled {@link MethodHandle} of type {@code (Object)Object}.
+   */
+  protected MethodHandle compileValueHandle(CriteriaObject<?> arg, Class<?> type) {
+
+    if ((arg instanceof PropertyPath) && (type != null) && (getResolver() instanceof ReflectivePropertyPathResolver)) {
+      MethodHandle handle = resolveStatic((PropertyPath<?>) arg, type,
+          (ReflectivePropertyPathResolver) getResolver());
+      if (handle != null) {
+        return handle;
+      }
+    }
+    ValueAccessor accessor = compileValue(arg);
+    if (accessor.isConstant()) {
+      return MethodHandles.dropArguments(MethodHandles.constant(Object.class, accessor.get(null)), 0, Object.class);
+    }
+    return MH_ACCESSOR.bindTo(accessor);
+  }
+
+  private MethodHandle resolveStatic(PropertyPath<?> path, Class<?> type, ReflectivePropertyPathResolver resolver) {
+
+    MethodHandle result = null;
+    Class<?> current = type;
+    for (String segment : PropertyPathHelper.getSegments(path)) {
+      if ((current == Object.class) || current.isPrimitive() || Map.class.isAssignableFrom(current)) {
+        return null;
+      }
+      Method method = resolver.findMethod(current, segment);
+      if (method == null) {
+        return null;
+      }
+      MethodHandle handle = resolver.unreflect(method);
+      Class<?> returnType = method.getReturnType();
+      if (ReadableValue.class.isAssignableFrom(returnType)) {
+        handle = MethodHandles.filterReturnValue(handle, MH_READ_VALUE.asType(MethodType.methodType(Object.class,
+            returnType)));
+        current = Object.class;
+      } else {
+        current = returnType;
+      }
+      handle = handle.asType(VALUE_TYPE);
+      if (result == null) {
+        result = handle;
+      } else {
+        MethodHandle nullSafe = MethodHandles.guardWithTest(MH_IS_NULL, MH_NULL, handle);
+        result = MethodHandles.filterReturnValue(result, nullSafe);
+      }
+    }
+    return result;
+  }
+
+  private static MethodHandle constantHandle(boolean value) {
+
+    if (value) {
+      return MH_TRUE;
+    }
+    return MH_FALSE;
+  }
+
+  private static final class CacheKey {
+
+    private final CriteriaPredicate predicate;
+
+    private final Class<?> type;
+
+    private final int hash;
+
+    private CacheKey(CriteriaPredicate predicate, Class<?> type) {
+
+      super();
+      this.predicate = predicate;
+      this.type = type;
+      this.hash = CriteriaStructureHelper.hashCode(CriteriaStructureHelper.fingerprint(predicate)) * 31
+          + System.identityHashCode(type);
+    }
+
+    @Override
+    public int hashCode() {
+
+      return this.hash;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+
+      if (obj == this) {
+        return true;
+      } else if (!(obj instanceof CacheKey)) {
+        return false;
+      }
+      CacheKey other = (CacheKey) obj;
+      return (this.hash == other.hash) && (this.type == other.type)
+          && CriteriaStructureHelper.isEqual(this.predicate, other.predicate);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Predicate<Object> define(MethodHandle handle) {
+
+    assert (handle.type().equals(CONDITION_TYPE));
+    try {
+      Lookup lookup = MethodHandles.lookup().defineHiddenClassWithClassData(PREDICATE_CLASS, handle, true);
+      MethodHandle constructor = lookup.findConstructor(lookup.lookupClass(), MethodType.methodType(void.class));
+      return (Predicate<Object>) constructor.invoke();
+    } catch (Throwable e) {
+      throw new IllegalStateException("Failed to define hidden class for predicate.", e);
+    }
+  }
+
+  private static boolean isNull(Object value) {
+
+    return (value == null);
+  }
+
+  private static boolean isNotNull(Object value) {
+
+    return (value != null);
+  }
+
+  private static boolean isTrue(Object value) {
+
+    return Boolean.TRUE.equals(value);
+  }
+
+  private static boolean testValue(Predicate<Object> test, boolean inverse, Object value) {
+
+    if (value == null) {
+      return false;
+    }
+    return test.test(value) != inverse;
+  }
+
+  private static boolean testValues(BiPredicate<Object, Object> test, boolean inverse, Object value1,
+      Object value2) {
+
+    if ((value1 == null) || (value2 == null)) {
+      return false;
+    }
+    return test.test(value1, value2) != inverse;
+  }
+
+  /**
+   * Creates the bytecode of a minimal final class implementing {@link Predicate} whose
+   * {@link Predicate#test(Object) test} method loads the {@link MethodHandle} from its class data (via
+   * {@link MethodHandles#classData(Lookup, String, Class) constant dynamic}) and invokes it exactly. As a constant, the
+   * {@link MethodHandle} is inlined by the JIT.
+   *
+   * @return the bytecode of the class.
+   */
+  private static byte[] createPredicateClass() {
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(512);
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      out.writeInt(0xCAFEBABE);
+      out.writeShort(0); // minor version
+      out.writeShort(61); // major version (Java 17)
+      out.writeShort(31); // constant pool count
+      writeUtf8(out, CLASS_NAME); // #1
+      writeRef(out, 7, 1); // #2 Class this
+      writeUtf8(out, "java/lang/Object"); // #3
+      writeRef(out, 7, 3); // #4 Class Object
+      writeUtf8(out, "java/util/function/Predicate"); // #5
+      writeRef(out, 7, 5); // #6 Class Predicate
+      writeUtf8(out, "<init>"); // #7
+      writeUtf8(out, "()V"); // #8
+      writeRef(out, 12, 7, 8); // #9 NameAndType <init>()V
+      writeRef(out, 10, 4, 9); // #10 Methodref Object.<init>()V
+      writeUtf8(out, "test"); // #11
+      writeUtf8(out, "(Ljava/lang/Object;)Z"); // #12
+      writeUtf8(out, "Code"); // #13
+      writeUtf8(out, "java/lang/invoke/MethodHandles"); // #14
+      writeRef(out, 7, 14); // #15 Class MethodHandles
+      writeUtf8(out, "classData"); // #16
+      writeUtf8(out, "(Ljava/lang/invoke/MethodHandles$Lookup;Ljava/lang/String;Ljava/lang/Class;)Ljava/lang/Object;"); // #17
+      writeRef(out, 12, 16, 17); // #18 NameAndType classData
+      writeRef(out, 10, 15, 18); // #19 Methodref MethodHandles.classData
+      out.writeByte(15); // #20 MethodHandle
+      out.writeByte(6); // REF_invokeStatic
+      out.writeShort(19);
+      writeUtf8(out, "_"); // #21
+      writeUtf8(out, "Ljava/lang/invoke/MethodHandle;"); // #22
+      writeRef(out, 12, 21, 22); // #23 NameAndType _:MethodHandle
+      writeRef(out, 17, 0, 23); // #24 Dynamic (bootstrap method #0)
+      writeUtf8(out, "java/lang/invoke/MethodHandle"); // #25
+      writeRef(out, 7, 25); // #26 Class MethodHandle
+      writeUtf8(out, "invokeExact"); // #27
+      writeRef(out, 12, 27, 12); // #28 NameAndType invokeExact(Object)Z
+      writeRef(out, 10, 26, 28); // #29 Methodref MethodHandle.invokeExact
+      writeUtf8(out, "BootstrapMethods"); // #30
+      out.writeShort(0x0031); // ACC_PUBLIC | ACC_FINAL | ACC_SUPER
+      out.writeShort(2); // this class
+      out.writeShort(4); // super class
+      out.writeShort(1); // interfaces count
+      out.writeShort(6);
+      out.writeShort(0); // fields count
+      out.writeShort(2); // methods count
+      // public <init>() { super(); }
+      out.writeShort(0x0001);
+      out.writeShort(7);
+      out.writeShort(8);
+      out.writeShort(1);
+      writeCode(out, 1, 1, 0x2A, 0xB7, 0x00, 10, 0xB1); // aload_0, invokespecial #10, return
+      // public boolean test(Object) { return classData.invokeExact(arg); }
+      out.writeShort(0x0001);
+      out.writeShort(11);
+      out.writeShort(12);
+      out.writeShort(1);
+      writeCode(out, 2, 2, 0x12, 24, 0x2B, 0xB6, 0x00, 29, 0xAC); // ldc #24, aload_1, invokevirtual #29, ireturn
+      out.writeShort(1); // attributes count
+      out.writeShort(30); // BootstrapMethods
+      out.writeInt(6);
+      out.writeShort(1); // number of bootstrap methods
+      out.writeShort(20); // MethodHandles.classData
+      out.writeShort(0); // no static arguments
+    } catch (IOException e) {
+      throw new IllegalStateException(e);
+    }
+    return bytes.toByteArray();
+  }
+
+  private static void writeUtf8(DataOutputStream out, String value) throws IOException {
+
+    out.writeByte(1);
+    out.writeUTF(value);
+  }
+
+  private static void writeRef(DataOutputStream out, int tag, int... indexes) throws IOException {
+
+    out.writeByte(tag);
+    for (int index : indexes) {
+      out.writeShort(index);
+    }
+  }
+
+  private static void writeCode(DataOutputStream out, int maxStack, int maxLocals, int... code) throws IOException {
+
+    out.writeShort(13); // Code
+    out.writeInt(12 + code.length);
+    out.writeShort(maxStack);
+    out.writeShort(maxLocals);
+    out.writeInt(code.length);
+    for (int b : code) {
+      out.writeByte(b);
+    }
+    out.writeShort(0); // exception table length
+    out.writeShort(0); // attributes count
+  }
+
+}
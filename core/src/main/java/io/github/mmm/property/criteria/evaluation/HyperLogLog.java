@@ -0,0 +1,176 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.property.criteria.evaluation;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+import io.github.mmm.property.criteria.CriteriaValueHelper;
+
+/**
+ * Fixed-size and mergeable HyperLogLog sketch to estimate the number of distinct values. With the
+ * {@link #DEFAULT_PRECISION default precision} it uses 4 KiB of memory independent of the number of values and has a
+ * standard error of about 1.6%. Values are hashed consistently with {@link CriteriaValueHelper#isEqual(Object, Object)}
+ * so e.g. {@link Integer} {@code 1} and {@link Long} {@code 1L} are counted as the same value.
+ *
+ * @since 1.0.0
+ * @see io.github.mmm.property.criteria.CriteriaAggregationOperator#APPROX_COUNT_DISTINCT
+ */
+public final class HyperLogLog {
+
+  /** The default {@link #getPrecision() precision}. */
+  public static final int DEFAULT_PRECISION = 12;
+
+  private final int precision;
+
+  private final byte[] registers;
+
+  /**
+   * The constructor using the {@link #DEFAULT_PRECISION default precision}.
+   */
+  public HyperLogLog() {
+
+    this(DEFAULT_PRECISION);
+  }
+
+  /**
+   * The constructor.
+   *
+   * @param precision the {@link #getPrecision() precision} in the range from 4 to 18.
+   */
+  public HyperLogLog(int precision) {
+
+    super();
+    if ((precision < 4) || (precision > 18)) {
+      throw new IllegalArgumentException("precision " + precision);
+    }
+    this.precision = precision;
+    this.registers = new byte[1 << precision];
+  }
+
+  /**
+   * @return the precision {@code p} so the sketch has {@code 2^p} registers and a standard error of about
+   *         {@code 1.04/sqrt(2^p)}.
+   */
+  public int getPrecision() {
+
+    return this.precision;
+  }
+
+  /**
+   * @param value the value to add. {@code null} is ignored.
+   */
+  public void add(Object value) {
+
+    if (value != null) {
+      addHash(hash(value));
+    }
+  }
+
+  /**
+   * @param hash the 64-bit hash of the value to add. Should be well distributed.
+   */
+  public void addHash(long hash) {
+
+    int index = (int) (hash >>> (64 - this.precision));
+    // sentinel bit limits the rank to 64 - precision + 1
+    long remainder = (hash << this.precision) | (1L << (this.precision - 1));
+    byte rank = (byte) (Long.numberOfLeadingZeros(remainder) + 1);
+    if (rank > this.registers[index]) {
+      this.registers[index] = rank;
+    }
+  }
+
+  /**
+   * @param other the {@link HyperLogLog} to merge into this one. Must have the same {@link #getPrecision()
+   *        precision}.
+   */
+  public void merge(HyperLogLog other) {
+
+    if (other.precision != this.precision) {
+      throw new IllegalArgumentException(
+          "Can not merge HyperLogLog with precision " + other.precision + " into precision " + this.precision);
+    }
+    for (int i = 0; i < this.registers.length; i++) {
+      if (other.registers[i] > this.registers[i]) {
+        this.registers[i] = other.registers[i];
+      }
+    }
+  }
+
+  /**
+   * @return the estimated number of distinct values.
+   */
+  public long estimate() {
+
+    int m = this.registers.length;
+    double sum = 0;
+    int zeros = 0;
+    for (byte register : this.registers) {
+      sum += Double.longBitsToDouble((1023L - register) << 52);
+      if (register == 0) {
+        zeros++;
+      }
+    }
+    double alpha = 0.7213 / (1 + 1.079 / m);
+    double estimate = alpha * m * m / sum;
+    if ((estimate <= 2.5 * m) && (zeros > 0)) {
+      // small range correction via linear counting
+      estimate = m * Math.log((double) m / zeros);
+    }
+    return Math.round(estimate);
+  }
+
+  /**
+   * @param value the value to hash. Must not be {@code null}.
+   * @return the 64-bit hash of the given value.
+   */
+  static long hash(Object value) {
+
+    long hash;
+    if (CriteriaValueHelper.isIntegral(value)) {
+      hash = ((Number) value).longValue();
+    } else if ((value instanceof Double) || (value instanceof Float)) {
+      double d = ((Number) value).doubleValue();
+      long l = (long) d;
+      if (l == d) {
+        hash = l;
+      } else {
+        hash = Double.doubleToLongBits(d);
+      }
+    } else if ((value instanceof BigDecimal) || (value instanceof BigInteger)) {
+      BigDecimal decimal = CriteriaValueHelper.toBigDecimal((Number) value);
+      try {
+        hash = decimal.longValueExact();
+      } catch (ArithmeticException e) {
+        hash = decimal.stripTrailingZeros().hashCode();
+      }
+    } else {
+      CharSequence text;
+      if (value instanceof Enum) {
+        text = ((Enum<?>) value).name();
+      } else if (value instanceof CharSequence) {
+        text = (CharSequence) value;
+      } else {
+        text = null;
+      }
+      if (text == null) {
+        hash = value.hashCode();
+      } else {
+        hash = 1125899906842597L;
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+          hash = 31 * hash + text.charAt(i);
+        }
+      }
+    }
+    // finalizer of MurmurHash3 to spread the bits
+    hash ^= hash >>> 33;
+    hash *= 0xff51afd7ed558ccdL;
+    hash ^= hash >>> 33;
+    hash *= 0xc4ceb9fe1a85ec53L;
+    hash ^= hash >>> 33;
+    return hash;
+  }
+
+}
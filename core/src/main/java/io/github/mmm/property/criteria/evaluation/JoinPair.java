@@ -0,0 +1,73 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.property.criteria.evaluation;
+
+import java.util.Objects;
+
+/**
+ * A pair of beans joined by a {@link CriteriaJoiner}.
+ *
+ * @param <L> type of the left bean.
+ * @param <R> type of the right bean.
+ * @since 1.0.0
+ */
+public final class JoinPair<L, R> {
+
+  private final L left;
+
+  private final R right;
+
+  /**
+   * The constructor.
+   *
+   * @param left the {@link #getLeft() left bean}.
+   * @param right the {@link #getRight() right bean}.
+   */
+  public JoinPair(L left, R right) {
+
+    super();
+    this.left = left;
+    this.right = right;
+  }
+
+  /**
+   * @return the bean from the left collection.
+   */
+  public L getLeft() {
+
+    return this.left;
+  }
+
+  /**
+   * @return the bean from the right collection.
+   */
+  public R getRight() {
+
+    return this.right;
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+
+    if (obj == this) {
+      return true;
+    } else if ((obj == null) || (obj.getClass() != getClass())) {
+      return false;
+    }
+    JoinPair<?, ?> other = (JoinPair<?, ?>) obj;
+    return Objects.equals(this.left, other.left) && Objects.equals(this.right, other.right);
+  }
+
+  @Override
+  public int hashCode() {
+
+    return Objects.hash(this.left, this.right);
+  }
+
+  @Override
+  public String toString() {
+
+    return "(" + this.left + ", " + this.right + ")";
+  }
+
+}
@@ -0,0 +1,155 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.property.criteria.evaluation;
+
+/**
+ * {@link ValueAccessor} for a numeric value that can be read as primitive {@code double} without boxing (e.g. for
+ * comparisons). Compiled arithmetic {@link io.github.mmm.property.criteria.CriteriaFunction functions} are chained via
+ * {@link #get(Object)} so integral and decimal values are computed exactly. A {@code null} value is represented as
+ * {@link Double#NaN} so it never satisfies a comparison (SQL semantics).<br>
+ * <b>ATTENTION:</b> As there is no separate null flag, a {@link Double#NaN} value (e.g. read from a {@link Double}
+ * property or computed as {@code Infinity - Infinity}) can not be distinguished from {@code null} and is therefore
+ * treated as {@code null} (e.g. {@link #get(Object)} returns {@code null}). The same applies to a division by zero.
+ * Infinite values are not affected.<br>
+ * <b>ATTENTION:</b> {@link #getDouble(Object)} has {@code double} precision. Integral values beyond 2<sup>53</sup>
+ * and {@link java.math.BigDecimal}s may therefore lose precision when compared.
+ *
+ * @since 1.0.0
+ * @see CriteriaEvaluator#compileValue(io.github.mmm.value.CriteriaObject)
+ */
+@FunctionalInterface
+public interface NumericAccessor extends ValueAccessor {
+
+  /**
+   * @param bean the target object to evaluate against.
+   * @return the numeric value for the given {@code bean} or {@link Double#NaN} if {@code null}.
+   */
+  double getDouble(Object bean);
+
+  /**
+   * @return the {@link #getDouble(Object) value} as {@link Number} (see {@link #toNumber(double)}).
+   */
+  @Override
+  default Object get(Object bean) {
+
+    return toNumber(getDouble(bean));
+  }
+
+  /**
+   * @param value the primitive value.
+   * @return the given {@code value} as {@link Long} if it is integral and exactly representable, as {@link Double}
+   *         otherwise, or {@code null} for {@link Double#NaN}.
+   */
+  static Number toNumber(double value) {
+
+    if (Double.isNaN(value)) {
+      return null;
+    } else if ((value == Math.rint(value)) && (Math.abs(value) <= 0x1p53)) {
+      return Long.valueOf((long) value);
+    }
+    return Double.valueOf(value);
+  }
+
+  /**
+   * @param value the value to convert.
+   * @return the given {@code value} as primitive {@code double} or {@link Double#NaN} if {@code null}.
+   * @throws IllegalArgumentException if the value is not a {@link Number}.
+   */
+  static double toDouble(Object value) {
+
+    if (value instanceof Number) {
+      return ((Number) value).doubleValue();
+    } else if (value == null) {
+      return Double.NaN;
+    }
+    throw new IllegalArgumentException("Not a number: " + value);
+  }
+
+  /**
+   * @param accessor the {@link ValueAccessor} to adapt.
+   * @return the given {@link ValueAccessor} as {@link NumericAccessor}.
+   */
+  static NumericAccessor of(ValueAccessor accessor) {
+
+    if (accessor instanceof NumericAccessor) {
+      return (NumericAccessor) accessor;
+    } else if (accessor.isConstant()) {
+      Object value = accessor.get(null);
+      if ((value == null) || (value instanceof Number)) {
+        return ofConstant((Number) value);
+      }
+      throw new IllegalArgumentException("Not a number: " + value);
+    }
+    return bean -> toDouble(accessor.get(bean));
+  }
+
+  /**
+   * @param value the constant value. May be {@link Double#NaN} for {@code null}.
+   * @return a {@link NumericAccessor} that always returns the given {@code value}.
+   */
+  static NumericAccessor ofConstant(double value) {
+
+    return new NumericAccessor() {
+
+      @Override
+      public double getDouble(Object bean) {
+
+        return value;
+      }
+
+      @Override
+      public boolean isConstant() {
+
+        return true;
+      }
+
+      @Override
+      public String toString() {
+
+        return String.valueOf(toNumber(value));
+      }
+    };
+  }
+
+  /**
+   * @param value the constant value. May be {@code null}.
+   * @return a {@link NumericAccessor} that always returns the given {@code value} without loss of precision.
+   */
+  static NumericAccessor ofConstant(Number value) {
+
+    if (value == null) {
+      return ofConstant(Double.NaN);
+    }
+    double doubleValue = value.doubleValue();
+    if (Double.isNaN(doubleValue)) {
+      return ofConstant(doubleValue);
+    }
+    return new NumericAccessor() {
+
+      @Override
+      public double getDouble(Object bean) {
+
+        return doubleValue;
+      }
+
+      @Override
+      public Object get(Object bean) {
+
+        return value;
+      }
+
+      @Override
+      public boolean isConstant() {
+
+        return true;
+      }
+
+      @Override
+      public String toString() {
+
+        return value.toString();
+      }
+    };
+  }
+
+}
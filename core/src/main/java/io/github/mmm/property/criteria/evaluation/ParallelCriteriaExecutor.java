@@ -0,0 +1,300 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.property.criteria.evaluation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import io.github.mmm.property.criteria.CriteriaOrdering;
+import io.github.mmm.property.criteria.CriteriaPredicate;
+
+/**
+ * Executes in-memory filtering, sorting and aggregation of large {@link Collection}s in parallel. The beans are split
+ * via {@link Spliterator#trySplit()} into chunks that are processed as fork/join tasks in a {@link ForkJoinPool}.
+ * Partial results are combined in encounter order, so the result of {@link #filter(Collection, CriteriaPredicate)} has
+ * the same order as the input and sorting by {@link CriteriaOrdering}s is stable. Partial
+ * {@link AggregationState}s are {@link AggregationState#merge(AggregationState) merged}. Collections smaller than the
+ * {@link #getThreshold() threshold} are processed sequentially in the calling thread as the overhead of forking would
+ * exceed the gain. The {@link CriteriaPredicate} is compiled only once and the compiled {@link Predicate} is shared by
+ * all threads.
+ *
+ * @since 1.0.0
+ */
+public class ParallelCriteriaExecutor {
+
+  /** The default {@link #getThreshold() threshold}. */
+  public static final int DEFAULT_THRESHOLD = 10000;
+
+  private static final int MIN_CHUNK_SIZE = 1024;
+
+  private final CriteriaEvaluator evaluator;
+
+  private final ForkJoinPool pool;
+
+  private final int threshold;
+
+  /**
+   * The constructor using the {@link ForkJoinPool#commonPool() common pool}.
+   */
+  public ParallelCriteriaExecutor() {
+
+    this(null, null, DEFAULT_THRESHOLD);
+  }
+
+  /**
+   * The constructor.
+   *
+   * @param evaluator the {@link CriteriaEvaluator} or {@code null} for {@link CriteriaEvaluator#get() default}.
+   * @param pool the {@link ForkJoinPool} or {@code null} for the {@link ForkJoinPool#commonPool() common pool}.
+   * @param threshold the {@link #getThreshold() threshold}.
+   */
+  public ParallelCriteriaExecutor(CriteriaEvaluator evaluator, ForkJoinPool pool, int threshold) {
+
+    super();
+    if (evaluator == null) {
+      evaluator = CriteriaEvaluator.get();
+    }
+    if (pool == null) {
+      pool = ForkJoinPool.commonPool();
+    }
+    if (threshold < 1) {
+      throw new IllegalArgumentException("threshold " + threshold);
+    }
+    this.evaluator = evaluator;
+    this.pool = pool;
+    this.threshold = threshold;
+  }
+
+  /**
+   * @return the {@link ForkJoinPool} used for parallel execution.
+   */
+  public ForkJoinPool getPool() {
+
+    return this.pool;
+  }
+
+  /**
+   * @return the minimum number of beans to process in parallel.
+   */
+  public int getThreshold() {
+
+    return this.threshold;
+  }
+
+  /**
+   * @param <T> type of the beans.
+   * @param beans the beans to filter.
+   * @param predicate the {@link CriteriaPredicate} to filter by.
+   * @return a new {@link List} with the matching beans in encounter order.
+   */
+  public <T> List<T> filter(Collection<T> beans, CriteriaPredicate predicate) {
+
+    Predicate<Object> filter = this.evaluator.compileCondition(predicate);
+    return execute(beans, spliterator -> {
+      List<T> result = new ArrayList<>();
+      spliterator.forEachRemaining(bean -> {
+        if (filter.test(bean)) {
+          result.add(bean);
+        }
+      });
+      return result;
+    }, ParallelCriteriaExecutor::concat);
+  }
+
+  /**
+   * @param <T> type of the beans.
+   * @param beans the beans to filter.
+   * @param predicate the {@link CriteriaPredicate} to filter by or {@code null} to select all beans.
+   * @param orderings the {@link CriteriaOrdering}s to sort by.
+   * @param offset the number of leading beans to skip ({@code OFFSET}).
+   * @param limit the maximum number of beans to return ({@code LIMIT}) or a negative value for no limit.
+   * @return a new {@link List} with the requested page of the matching beans sorted by the given
+   *         {@link CriteriaOrdering}s. Beans with equal sort keys keep their encounter order.
+   */
+  public <T> List<T> filter(Collection<T> beans, CriteriaPredicate predicate, List<CriteriaOrdering> orderings,
+      int offset, int limit) {
+
+    if (offset < 0) {
+      throw new IllegalArgumentException("offset " + offset);
+    }
+    Predicate<Object> filter;
+    if (predicate == null) {
+      filter = CriteriaEvaluator.TRUE;
+    } else {
+      filter = this.evaluator.compileCondition(predicate);
+    }
+    CriteriaSorter sorter = new CriteriaSorter(this.evaluator, orderings);
+    if ((limit < 0) || ((offset + (long) limit) >= Integer.MAX_VALUE)) {
+      List<T> matches = execute(beans, spliterator -> {
+        List<T> result = new ArrayList<>();
+        spliterator.forEachRemaining(bean -> {
+          if (filter.test(bean)) {
+            result.add(bean);
+          }
+        });
+        return result;
+      }, ParallelCriteriaExecutor::concat);
+      return sort(matches, sorter.getComparator(), offset, limit);
+    }
+    int k = offset + limit;
+    // each chunk only keeps its own top-k, combining keeps the top-k of both
+    List<T> candidates = execute(beans, spliterator -> {
+      List<T> result = new ArrayList<>();
+      spliterator.forEachRemaining(bean -> {
+        if (filter.test(bean)) {
+          result.add(bean);
+        }
+      });
+      return sorter.sort(result, 0, k);
+    }, (list1, list2) -> sorter.sort(concat(list1, list2), 0, k));
+    return sorter.sort(candidates, offset, limit);
+  }
+
+  private <T> List<T> sort(List<T> list, Comparator<T> comparator, int offset, int limit) {
+
+    int size = list.size();
+    if (size >= this.threshold) {
+      @SuppressWarnings("unchecked")
+      T[] array = (T[]) list.toArray();
+      // parallel merge sort is stable and runs in our pool if invoked from one of its workers
+      this.pool.invoke(new RecursiveTask<Void>() {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected Void compute() {
+
+          Arrays.parallelSort(array, comparator);
+          return null;
+        }
+      });
+      list = Arrays.asList(array);
+    } else {
+      list.sort(comparator);
+    }
+    if (offset >= size) {
+      return new ArrayList<>();
+    }
+    int end = size;
+    if (limit >= 0) {
+      end = (int) Math.min(size, offset + (long) limit);
+    }
+    return new ArrayList<>(list.subList(offset, end));
+  }
+
+  /**
+   * @param beans the beans to aggregate.
+   * @param aggregator the {@link CriteriaAggregator} to use.
+   * @return the {@link List} of resulting {@link AggregationRow}s.
+   */
+  public List<AggregationRow> aggregate(Collection<?> beans, CriteriaAggregator aggregator) {
+
+    return aggregate(beans, null, aggregator);
+  }
+
+  /**
+   * @param beans the beans to aggregate.
+   * @param predicate the {@link CriteriaPredicate} to filter by ({@code WHERE}) or {@code null} to aggregate all beans.
+   * @param aggregator the {@link CriteriaAggregator} to use.
+   * @return the {@link List} of resulting {@link AggregationRow}s.
+   */
+  public List<AggregationRow> aggregate(Collection<?> beans, CriteriaPredicate predicate,
+      CriteriaAggregator aggregator) {
+
+    Predicate<Object> filter;
+    if (predicate == null) {
+      filter = CriteriaEvaluator.TRUE;
+    } else {
+      filter = this.evaluator.compileCondition(predicate);
+    }
+    AggregationState state = execute(beans, spliterator -> {
+      AggregationState partial = aggregator.newState();
+      spliterator.forEachRemaining(bean -> {
+        if (filter.test(bean)) {
+          partial.add(bean);
+        }
+      });
+      return partial;
+    }, AggregationState::merge);
+    return state.getRows();
+  }
+
+  /**
+   * @param <T> type of the beans.
+   * @param <R> type of the (partial) result.
+   * @param beans the beans to process.
+   * @param leaf the {@link Function} processing a chunk of beans.
+   * @param combiner the {@link BinaryOperator} combining the partial results of two adjacent chunks (in encounter
+   *        order).
+   * @return the combined result.
+   */
+  protected <T, R> R execute(Collection<T> beans, Function<Spliterator<T>, R> leaf, BinaryOperator<R> combiner) {
+
+    Spliterator<T> spliterator = beans.spliterator();
+    int size = beans.size();
+    if (size < this.threshold) {
+      return leaf.apply(spliterator);
+    }
+    long chunkSize = Math.max(MIN_CHUNK_SIZE, size / (4L * this.pool.getParallelism()));
+    return this.pool.invoke(new SplitTask<>(spliterator, chunkSize, leaf, combiner));
+  }
+
+  private static <T> List<T> concat(List<T> list1, List<T> list2) {
+
+    if (list1.isEmpty()) {
+      return list2;
+    }
+    list1.addAll(list2);
+    return list1;
+  }
+
+  private static final class SplitTask<T, R> extends RecursiveTask<R> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Spliterator<T> spliterator;
+
+    private final long chunkSize;
+
+    private final Function<Spliterator<T>, R> leaf;
+
+    private final BinaryOperator<R> combiner;
+
+    private SplitTask(Spliterator<T> spliterator, long chunkSize, Function<Spliterator<T>, R> leaf,
+        BinaryOperator<R> combiner) {
+
+      super();
+      this.spliterator = spliterator;
+      this.chunkSize = chunkSize;
+      this.leaf = leaf;
+      this.combiner = combiner;
+    }
+
+    @Override
+    protected R compute() {
+
+      if (this.spliterator.estimateSize() > this.chunkSize) {
+        Spliterator<T> prefix = this.spliterator.trySplit();
+        if (prefix != null) {
+          SplitTask<T, R> left = new SplitTask<>(prefix, this.chunkSize, this.leaf, this.combiner);
+          SplitTask<T, R> right = new SplitTask<>(this.spliterator, this.chunkSize, this.leaf, this.combiner);
+          left.fork();
+          R rightResult = right.compute();
+          R leftResult = left.join();
+          return this.combiner.apply(leftResult, rightResult);
+        }
+      }
+      return this.leaf.apply(this.spliterator);
+    }
+  }
+
+}
@@ -0,0 +1,25 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.property.criteria.evaluation;
+
+import java.util.function.Predicate;
+
+import io.github.mmm.property.criteria.impl.ParameterLiteral;
+
+/**
+ * Compiled form of a template {@link io.github.mmm.property.criteria.CriteriaPredicate} containing
+ * {@link ParameterLiteral}s. Binding values only compiles the value specific parts.
+ *
+ * @since 1.0.0
+ * @see CriteriaEvaluator#prepare(io.github.mmm.property.criteria.CriteriaPredicate)
+ */
+@FunctionalInterface
+public interface PredicateBinder {
+
+  /**
+   * @param values the parameter values in the order of the {@link ParameterLiteral#getIndex() indexes}.
+   * @return the {@link Predicate} for the given {@code values}.
+   */
+  Predicate<Object> bind(Object[] values);
+
+}
@@ -0,0 +1,25 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.property.criteria.evaluation;
+
+import io.github.mmm.value.PropertyPath;
+
+/**
+ * Interface to resolve a {@link PropertyPath} into a {@link ValueAccessor} that reads the according value from a target
+ * object. Resolving is done only once when a {@link io.github.mmm.property.criteria.CriteriaExpression} gets compiled so
+ * the returned {@link ValueAccessor} should be efficient to be invoked for many objects.
+ *
+ * @since 1.0.0
+ * @see ReflectivePropertyPathResolver
+ * @see PropertyPathWriterResolver
+ */
+@FunctionalInterface
+public interface PropertyPathResolver {
+
+  /**
+   * @param path the {@link PropertyPath} to resolve.
+   * @return the {@link ValueAccessor} reading the value of the given {@link PropertyPath} from a target object.
+   */
+  ValueAccessor resolve(PropertyPath<?> path);
+
+}
@@ -0,0 +1,22 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.property.criteria.evaluation;
+
+import io.github.mmm.value.PropertyPath;
+
+/**
+ * {@link PropertyPathResolver} that is also capable of writing. Resolves a {@link PropertyPath} into a
+ * {@link ValueWriter} that assigns the according value in a target object (e.g. for {@link CriteriaUpdater}).
+ *
+ * @since 1.0.0
+ * @see ReflectivePropertyPathResolver
+ */
+public interface PropertyPathWriterResolver extends PropertyPathResolver {
+
+  /**
+   * @param path the {@link PropertyPath} to resolve.
+   * @return the {@link ValueWriter} assigning the value of the given {@link PropertyPath} in a target object.
+   */
+  ValueWriter resolveWriter(PropertyPath<?> path);
+
+}
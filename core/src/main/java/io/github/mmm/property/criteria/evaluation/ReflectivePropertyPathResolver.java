@@ -0,0 +1,470 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.property.criteria.evaluation;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import io.github.mmm.property.WritableProperty;
+import io.github.mmm.property.criteria.PropertyPathHelper;
+import io.github.mmm.value.PropertyPath;
+import io.github.mmm.value.ReadableValue;
+import io.github.mmm.value.TypedPropertyPath;
+
+/**
+ * Default implementation of {@link PropertyPathResolver} that resolves each {@link PropertyPath#pathSegment() segment}
+ * of a {@link PropertyPath} via reflection. For a segment such as "Name" it will look for a public method
+ * {@code Name()} (property accessor as used by {@code mmm-bean}), {@code name()} (e.g. for records), {@code getName()},
+ * {@code isName()}, or a public field {@code Name}. If the target object is a {@link Map} the segment is used as key.
+ * Values that are {@link ReadableValue}s (e.g. {@link io.github.mmm.property.ReadableProperty properties}) are
+ * automatically unwrapped. For {@link #resolveWriter(PropertyPath) writing} the value is assigned to the
+ * {@link WritableProperty property} returned by the accessor, via a public setter {@code setName(value)} (for
+ * overloaded setters the one matching the {@link TypedPropertyPath#getValueClass() value type} of the
+ * {@link PropertyPath}), or via a public non-final field {@code Name}.<br>
+ * The reflective lookup is done only once per {@link Class} of the target object and cached as {@link MethodHandle}.
+ *
+ * @since 1.0.0
+ */
+public class ReflectivePropertyPathResolver implements PropertyPathWriterResolver {
+
+  private static final ReflectivePropertyPathResolver INSTANCE = new ReflectivePropertyPathResolver();
+
+  private static final MethodType ACCESSOR_TYPE = MethodType.methodType(Object.class, Object.class);
+
+  private static final MethodType WRITER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+  private final ClassValue<Map<String, MethodHandle>> accessors = new ClassValue<>() {
+
+    @Override
+    protected Map<String, MethodHandle> computeValue(Class<?> type) {
+
+      return new ConcurrentHashMap<>();
+    }
+  };
+
+  private final ClassValue<Map<WriterKey, ValueWriter>> writers = new ClassValue<>() {
+
+    @Override
+    protected Map<WriterKey, ValueWriter> computeValue(Class<?> type) {
+
+      return new ConcurrentHashMap<>();
+    }
+  };
+
+  /**
+   * The constructor.
+   */
+  protected ReflectivePropertyPathResolver() {
+
+    super();
+  }
+
+  @Override
+  public ValueAccessor resolve(PropertyPath<?> path) {
+
+    return resolve(path, true);
+  }
+
+  /**
+   * @param path the {@link PropertyPath} to resolve.
+   * @param unwrap - {@code true} to {@link ReadableValue#get() unwrap} the value of the last segment if it is a
+   *        {@link ReadableValue}, {@code false} otherwise (e.g. to get the {@link io.github.mmm.property.ReadableProperty
+   *        property} itself).
+   * @return the {@link ValueAccessor} reading the value of the given {@link PropertyPath} from a target object.
+   */
+  public ValueAccessor resolve(PropertyPath<?> path, boolean unwrap) {
+
+    String[] segments = PropertyPathHelper.getSegments(path);
+    ValueAccessor accessor = null;
+    int last = segments.length - 1;
+    for (int i = 0; i <= last; i++) {
+      accessor = new SegmentAccessor(accessor, segments[i], unwrap || (i < last));
+    }
+    return accessor;
+  }
+
+  @Override
+  public ValueWriter resolveWriter(PropertyPath<?> path) {
+
+    String[] segments = PropertyPathHelper.getSegments(path);
+    ValueAccessor parent = null;
+    int last = segments.length - 1;
+    for (int i = 0; i < last; i++) {
+      parent = new SegmentAccessor(parent, segments[i], true);
+    }
+    Class<?> valueType = null;
+    if (path instanceof TypedPropertyPath) {
+      valueType = ((TypedPropertyPath<?>) path).getValueClass();
+    }
+    return new SegmentWriter(parent, new WriterKey(segments[last], valueType));
+  }
+
+  /**
+   * @param type the {@link Class} of the object to write to.
+   * @param segment the {@link PropertyPath#pathSegment() segment} to write.
+   * @param valueType the {@link TypedPropertyPath#getValueClass() value type} of the {@link PropertyPath} to write or
+   *        {@code null} if unknown. Used to choose between overloaded setters.
+   * @return the {@link ValueWriter} assigning the given {@code segment} in an instance of the given {@link Class}.
+   */
+  @SuppressWarnings("unchecked")
+  protected ValueWriter findWriter(Class<?> type, String segment, Class<?> valueType) {
+
+    Method getter = findMethod(type, segment);
+    if ((getter != null) && WritableProperty.class.isAssignableFrom(getter.getReturnType())) {
+      MethodHandle handle = unreflect(getter).asType(ACCESSOR_TYPE);
+      return (bean, value) -> {
+        Object property;
+        try {
+          property = (Object) handle.invokeExact(bean);
+        } catch (RuntimeException | Error e) {
+          throw e;
+        } catch (Throwable e) {
+          throw new IllegalStateException("Failed to read property '" + segment + "'.", e);
+        }
+        if (property == null) {
+          return false;
+        }
+        ((WritableProperty<Object>) property).set(value);
+        return true;
+      };
+    }
+    MethodHandle handle = null;
+    Method setter = findSetter(type, segment, valueType);
+    if (setter != null) {
+      handle = unreflect(setter);
+    } else {
+      try {
+        Field field = type.getField(segment);
+        if (!Modifier.isStatic(field.getModifiers()) && !Modifier.isFinal(field.getModifiers())) {
+          handle = MethodHandles.publicLookup().unreflectSetter(field);
+        }
+      } catch (NoSuchFieldException | IllegalAccessException e) {
+        // ignore and fail below
+      }
+    }
+    if (handle == null) {
+      throw new IllegalArgumentException("Property '" + segment + "' is not writable in " + type.getName() + ".");
+    }
+    MethodHandle writer = handle.asType(WRITER_TYPE);
+    return (bean, value) -> {
+      try {
+        writer.invokeExact(bean, value);
+      } catch (RuntimeException | Error e) {
+        throw e;
+      } catch (Throwable e) {
+        throw new IllegalStateException("Failed to write property '" + segment + "'.", e);
+      }
+      return true;
+    };
+  }
+
+  /**
+   * @param type the {@link Class} of the object to write to.
+   * @param segment the {@link PropertyPath#pathSegment() segment} to write.
+   * @param valueType the value type to match or {@code null} if unknown.
+   * @return the public setter {@link Method} for the given {@code segment} or {@code null} if not found. If the setter
+   *         is overloaded the one with the parameter type equal to the given {@code valueType} is preferred over the
+   *         most specific one that is assignable from the given {@code valueType}.
+   * @throws IllegalArgumentException if the setter is overloaded and none or multiple setters match.
+   */
+  protected Method findSetter(Class<?> type, String segment, Class<?> valueType) {
+
+    String setterName = "set" + Character.toUpperCase(segment.charAt(0)) + segment.substring(1);
+    List<Method> setters = new ArrayList<>();
+    for (Method method : type.getMethods()) {
+      if (method.getName().equals(setterName) && (method.getParameterCount() == 1)
+          && !Modifier.isStatic(method.getModifiers())) {
+        setters.add(method);
+      }
+    }
+    int size = setters.size();
+    if (size <= 1) {
+      return (size == 0) ? null : setters.get(0);
+    }
+    Method result = null;
+    if (valueType != null) {
+      Class<?> wrappedType = MethodType.methodType(valueType).wrap().returnType();
+      for (Method method : setters) {
+        Class<?> parameterType = MethodType.methodType(method.getParameterTypes()[0]).wrap().returnType();
+        if (parameterType == wrappedType) {
+          return method;
+        } else if (parameterType.isAssignableFrom(wrappedType)) {
+          if ((result == null) || result.getParameterTypes()[0].isAssignableFrom(parameterType)) {
+            result = method;
+          }
+        }
+      }
+    }
+    if (result == null) {
+      throw new IllegalArgumentException("Ambiguous setters " + setters + " for property '" + segment
+          + "' with value type " + valueType + ".");
+    }
+    return result;
+  }
+
+  /**
+   * @param type the {@link Class} of the object to read from.
+   * @param segment the {@link PropertyPath#pathSegment() segment} to read.
+   * @return the {@link MethodHandle} of type {@code (Object)Object} reading the given {@code segment} from an instance
+   *         of the given {@link Class}.
+   */
+  protected MethodHandle findAccessor(Class<?> type, String segment) {
+
+    Method method = findMethod(type, segment);
+    if (method != null) {
+      return unreflect(method).asType(ACCESSOR_TYPE);
+    }
+    try {
+      Field field = type.getField(segment);
+      if (!Modifier.isStatic(field.getModifiers())) {
+        return MethodHandles.publicLookup().unreflectGetter(field).asType(ACCESSOR_TYPE);
+      }
+    } catch (NoSuchFieldException | IllegalAccessException e) {
+      // ignore and fail below
+    }
+    throw new IllegalArgumentException("Property '" + segment + "' not found in " + type.getName() + ".");
+  }
+
+  private MethodHandle getAccessor(Class<?> type, String segment) {
+
+    return this.accessors.get(type).computeIfAbsent(segment, s -> findAccessor(type, s));
+  }
+
+  /**
+   * @param method the {@link Method} to unreflect.
+   * @return the {@link MethodHandle} for the given {@link Method}.
+   */
+  protected MethodHandle unreflect(Method method) {
+
+    try {
+      return MethodHandles.publicLookup().unreflect(method);
+    } catch (IllegalAccessException e) {
+      if (method.trySetAccessible()) {
+        try {
+          return MethodHandles.lookup().unreflect(method);
+        } catch (IllegalAccessException e2) {
+          e.addSuppressed(e2);
+        }
+      }
+      throw new IllegalStateException("Method " + method + " is not accessible.", e);
+    }
+  }
+
+  /**
+   * @param type the {@link Class} of the object to read from.
+   * @param segment the {@link PropertyPath#pathSegment() segment} to read.
+   * @return the public {@link Method} to read the given {@code segment} or {@code null} if not found.
+   */
+  protected Method findMethod(Class<?> type, String segment) {
+
+    String capitalized = Character.toUpperCase(segment.charAt(0)) + segment.substring(1);
+    String uncapitalized = Character.toLowerCase(segment.charAt(0)) + segment.substring(1);
+    for (String name : new String[] { segment, uncapitalized, "get" + capitalized, "is" + capitalized }) {
+      try {
+        Method method = type.getMethod(name);
+        if (!Modifier.isStatic(method.getModifiers()) && (method.getReturnType() != void.class)) {
+          return method;
+        }
+      } catch (NoSuchMethodException e) {
+        // try next naming convention
+      }
+    }
+    return null;
+  }
+
+  /**
+   * @return the singleton instance of this {@link ReflectivePropertyPathResolver}.
+   */
+  public static ReflectivePropertyPathResolver get() {
+
+    return INSTANCE;
+  }
+
+  private class SegmentAccessor implements ValueAccessor {
+
+    private final ValueAccessor parent;
+
+    private final String segment;
+
+    private final boolean unwrap;
+
+    // last resolved type to avoid the lookup in the shared cache for the typical monomorphic case
+    private AccessorHandle last;
+
+    private SegmentAccessor(ValueAccessor parent, String segment, boolean unwrap) {
+
+      super();
+      this.parent = parent;
+      this.segment = segment;
+      this.unwrap = unwrap;
+    }
+
+    @Override
+    public Object get(Object bean) {
+
+      Object object = bean;
+      if (this.parent != null) {
+        object = this.parent.get(bean);
+      }
+      if (object == null) {
+        return null;
+      }
+      Object value;
+      if (object instanceof Map) {
+        value = ((Map<?, ?>) object).get(this.segment);
+      } else {
+        Class<?> type = object.getClass();
+        AccessorHandle accessor = this.last;
+        if ((accessor == null) || (accessor.type != type)) {
+          accessor = new AccessorHandle(type, getAccessor(type, this.segment));
+          this.last = accessor;
+        }
+        try {
+          value = (Object) accessor.handle.invokeExact(object);
+        } catch (RuntimeException | Error e) {
+          throw e;
+        } catch (Throwable e) {
+          throw new IllegalStateException("Failed to read property '" + this.segment + "'.", e);
+        }
+      }
+      if (this.unwrap && (value instanceof ReadableValue)) {
+        value = ((ReadableValue<?>) value).get();
+      }
+      return value;
+    }
+
+    @Override
+    public String toString() {
+
+      if (this.parent == null) {
+        return this.segment;
+      }
+      return this.parent + "." + this.segment;
+    }
+  }
+
+  private static final class AccessorHandle {
+
+    private final Class<?> type;
+
+    private final MethodHandle handle;
+
+    private AccessorHandle(Class<?> type, MethodHandle handle) {
+
+      super();
+      this.type = type;
+      this.handle = handle;
+    }
+  }
+
+  private ValueWriter getWriter(Class<?> type, WriterKey key) {
+
+    return this.writers.get(type).computeIfAbsent(key, k -> findWriter(type, k.segment, k.valueType));
+  }
+
+  private class SegmentWriter implements ValueWriter {
+
+    private final ValueAccessor parent;
+
+    private final WriterKey key;
+
+    // last resolved type to avoid the lookup in the shared cache for the typical monomorphic case
+    private WriterHandle last;
+
+    private SegmentWriter(ValueAccessor parent, WriterKey key) {
+
+      super();
+      this.parent = parent;
+      this.key = key;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public boolean set(Object bean, Object value) {
+
+      Object object = bean;
+      if (this.parent != null) {
+        object = this.parent.get(bean);
+      }
+      if (object == null) {
+        return false;
+      }
+      if (object instanceof Map) {
+        ((Map<String, Object>) object).put(this.key.segment, value);
+        return true;
+      }
+      Class<?> type = object.getClass();
+      WriterHandle writer = this.last;
+      if ((writer == null) || (writer.type != type)) {
+        writer = new WriterHandle(type, getWriter(type, this.key));
+        this.last = writer;
+      }
+      return writer.writer.set(object, value);
+    }
+
+    @Override
+    public String toString() {
+
+      if (this.parent == null) {
+        return this.key.segment;
+      }
+      return this.parent + "." + this.key.segment;
+    }
+  }
+
+  private static final class WriterHandle {
+
+    private final Class<?> type;
+
+    private final ValueWriter writer;
+
+    private WriterHandle(Class<?> type, ValueWriter writer) {
+
+      super();
+      this.type = type;
+      this.writer = writer;
+    }
+  }
+
+  private static final class WriterKey {
+
+    private final String segment;
+
+    private final Class<?> valueType;
+
+    private WriterKey(String segment, Class<?> valueType) {
+
+      super();
+      this.segment = segment;
+      this.valueType = valueType;
+    }
+
+    @Override
+    public int hashCode() {
+
+      return this.segment.hashCode() * 31 + Objects.hashCode(this.valueType);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+
+      if (obj == this) {
+        return true;
+      } else if (!(obj instanceof WriterKey)) {
+        return false;
+      }
+      WriterKey other = (WriterKey) obj;
+      return this.segment.equals(other.segment) && (this.valueType == other.valueType);
+    }
+  }
+
+}
@@ -0,0 +1,279 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.property.criteria.evaluation;
+
+import java.util.Arrays;
+
+/**
+ * Mergeable t-digest sketch to estimate quantiles (percentiles) of numeric values. Values are buffered and
+ * periodically merged into a bounded number of centroids, where centroids near the tails are kept small so extreme
+ * quantiles (e.g. 99th percentile) are estimated accurately. Memory is bounded by the {@link #getCompression()
+ * compression} independent of the number of values.
+ *
+ * @since 1.0.0
+ * @see io.github.mmm.property.criteria.CriteriaAggregationOperator#APPROX_MEDIAN
+ */
+public final class TDigest {
+
+  /** The default {@link #getCompression() compression}. */
+  public static final double DEFAULT_COMPRESSION = 100;
+
+  private final double compression;
+
+  private double[] means;
+
+  private double[] weights;
+
+  private int size;
+
+  private final double[] bufferMeans;
+
+  private final double[] bufferWeights;
+
+  private int bufferSize;
+
+  private double totalWeight;
+
+  private double min;
+
+  private double max;
+
+  /**
+   * The constructor using the {@link #DEFAULT_COMPRESSION default compression}.
+   */
+  public TDigest() {
+
+    this(DEFAULT_COMPRESSION);
+  }
+
+  /**
+   * The constructor.
+   *
+   * @param compression the {@link #getCompression() compression}.
+   */
+  public TDigest(double compression) {
+
+    super();
+    if (compression < 10) {
+      throw new IllegalArgumentException("compression " + compression);
+    }
+    this.compression = compression;
+    int capacity = (int) Math.ceil(compression) + 10;
+    this.means = new double[capacity];
+    this.weights = new double[capacity];
+    int bufferCapacity = 5 * capacity;
+    this.bufferMeans = new double[bufferCapacity];
+    this.bufferWeights = new double[bufferCapacity];
+    this.min = Double.POSITIVE_INFINITY;
+    this.max = Double.NEGATIVE_INFINITY;
+  }
+
+  /**
+   * @return the compression that bounds the number of centroids (and therefore memory) and determines the accuracy.
+   */
+  public double getCompression() {
+
+    return this.compression;
+  }
+
+  /**
+   * @return the total weight (number of added values).
+   */
+  public double getCount() {
+
+    return this.totalWeight;
+  }
+
+  /**
+   * @param value the value to add.
+   */
+  public void add(double value) {
+
+    add(value, 1);
+  }
+
+  /**
+   * @param value the value to add.
+   * @param weight the weight of the value.
+   */
+  public void add(double value, double weight) {
+
+    if (Double.isNaN(value)) {
+      return;
+    }
+    if (this.bufferSize == this.bufferMeans.length) {
+      compress();
+    }
+    this.bufferMeans[this.bufferSize] = value;
+    this.bufferWeights[this.bufferSize] = weight;
+    this.bufferSize++;
+    this.totalWeight += weight;
+    if (value < this.min) {
+      this.min = value;
+    }
+    if (value > this.max) {
+      this.max = value;
+    }
+  }
+
+  /**
+   * @param other the {@link TDigest} to merge into this one.
+   */
+  public void merge(TDigest other) {
+
+    other.compress();
+    for (int i = 0; i < other.size; i++) {
+      add(other.means[i], other.weights[i]);
+    }
+    if (other.min < this.min) {
+      this.min = other.min;
+    }
+    if (other.max > this.max) {
+      this.max = other.max;
+    }
+  }
+
+  /**
+   * @param q the quantile in the range from 0 to 1 (e.g. {@code 0.5} for the median).
+   * @return the estimated value at the given quantile or {@link Double#NaN} if no value has been added.
+   */
+  public double quantile(double q) {
+
+    if ((q < 0) || (q > 1)) {
+      throw new IllegalArgumentException("quantile " + q);
+    }
+    compress();
+    if (this.size == 0) {
+      return Double.NaN;
+    } else if (this.size == 1) {
+      return this.means[0];
+    }
+    double index = q * this.totalWeight;
+    double first = this.weights[0] / 2;
+    if (index < first) {
+      return this.min + (this.means[0] - this.min) * (index / first);
+    }
+    double cumulative = first;
+    for (int i = 0; i < this.size - 1; i++) {
+      double delta = (this.weights[i] + this.weights[i + 1]) / 2;
+      if (cumulative + delta > index) {
+        double t = (index - cumulative) / delta;
+        return this.means[i] + t * (this.means[i + 1] - this.means[i]);
+      }
+      cumulative += delta;
+    }
+    int last = this.size - 1;
+    double lastHalf = this.weights[last] / 2;
+    double t = Math.min(1, (index - cumulative) / lastHalf);
+    return this.means[last] + t * (this.max - this.means[last]);
+  }
+
+  private void compress() {
+
+    if (this.bufferSize == 0) {
+      return;
+    }
+    sort(this.bufferMeans, this.bufferWeights, 0, this.bufferSize - 1);
+    int count = this.size + this.bufferSize;
+    double[] newMeans = new double[this.means.length];
+    double[] newWeights = new double[this.weights.length];
+    int newSize = 0;
+    double weightSoFar = 0;
+    double qLimit = 0;
+    int i = 0;
+    int j = 0;
+    double mean = 0;
+    double weight = 0;
+    for (int n = 0; n < count; n++) {
+      double nextMean;
+      double nextWeight;
+      if ((j >= this.bufferSize) || ((i < this.size) && (this.means[i] <= this.bufferMeans[j]))) {
+        nextMean = this.means[i];
+        nextWeight = this.weights[i++];
+      } else {
+        nextMean = this.bufferMeans[j];
+        nextWeight = this.bufferWeights[j++];
+      }
+      if (n == 0) {
+        mean = nextMean;
+        weight = nextWeight;
+        qLimit = quantileLimit(0);
+      } else if ((weightSoFar + weight + nextWeight) / this.totalWeight <= qLimit) {
+        weight += nextWeight;
+        mean += (nextMean - mean) * nextWeight / weight;
+      } else {
+        if (newSize == newMeans.length) {
+          newMeans = Arrays.copyOf(newMeans, newSize * 2);
+          newWeights = Arrays.copyOf(newWeights, newSize * 2);
+        }
+        newMeans[newSize] = mean;
+        newWeights[newSize++] = weight;
+        weightSoFar += weight;
+        qLimit = quantileLimit(weightSoFar / this.totalWeight);
+        mean = nextMean;
+        weight = nextWeight;
+      }
+    }
+    if (newSize == newMeans.length) {
+      newMeans = Arrays.copyOf(newMeans, newSize + 1);
+      newWeights = Arrays.copyOf(newWeights, newSize + 1);
+    }
+    newMeans[newSize] = mean;
+    newWeights[newSize++] = weight;
+    this.means = newMeans;
+    this.weights = newWeights;
+    this.size = newSize;
+    this.bufferSize = 0;
+  }
+
+  /**
+   * @param q the current quantile.
+   * @return the maximum quantile the current centroid may grow to according to the scale function
+   *         {@code k(q) = compression / (2 * PI) * asin(2q - 1)}.
+   */
+  private double quantileLimit(double q) {
+
+    double factor = this.compression / (2 * Math.PI);
+    double k = factor * Math.asin(2 * q - 1) + 1;
+    if (k >= factor * Math.PI / 2) {
+      return 1;
+    }
+    return (Math.sin(k / factor) + 1) / 2;
+  }
+
+  private static void sort(double[] keys, double[] values, int low, int high) {
+
+    while (low < high) {
+      double pivot = keys[(low + high) >>> 1];
+      int i = low;
+      int j = high;
+      while (i <= j) {
+        while (keys[i] < pivot) {
+          i++;
+        }
+        while (keys[j] > pivot) {
+          j--;
+        }
+        if (i <= j) {
+          double key = keys[i];
+          keys[i] = keys[j];
+          keys[j] = key;
+          double value = values[i];
+          values[i] = values[j];
+          values[j] = value;
+          i++;
+          j--;
+        }
+      }
+      // recurse into the smaller part to bound the stack depth
+      if ((j - low) < (high - i)) {
+        sort(keys, values, low, j);
+        low = i;
+      } else {
+        sort(keys, values, i, high);
+        high = j;
+      }
+    }
+  }
+
+}
@@ -0,0 +1,59 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.property.criteria.evaluation;
+
+import io.github.mmm.value.CriteriaObject;
+
+/**
+ * Compiled form of a {@link CriteriaObject} that computes its value for a given target object (bean).
+ *
+ * @since 1.0.0
+ * @see CriteriaEvaluator#compileValue(CriteriaObject)
+ */
+@FunctionalInterface
+public interface ValueAccessor {
+
+  /**
+   * @param bean the target object to evaluate against.
+   * @return the value for the given {@code bean}. May be {@code null}.
+   */
+  Object get(Object bean);
+
+  /**
+   * @return {@code true} if this {@link ValueAccessor} always returns the same {@link #get(Object) value} independent of
+   *         the given object (e.g. for a {@link io.github.mmm.property.criteria.Literal}), {@code false} otherwise.
+   */
+  default boolean isConstant() {
+
+    return false;
+  }
+
+  /**
+   * @param value the constant value.
+   * @return a {@link ValueAccessor} that always returns the given {@code value}.
+   */
+  static ValueAccessor ofConstant(Object value) {
+
+    return new ValueAccessor() {
+
+      @Override
+      public Object get(Object bean) {
+
+        return value;
+      }
+
+      @Override
+      public boolean isConstant() {
+
+        return true;
+      }
+
+      @Override
+      public String toString() {
+
+        return String.valueOf(value);
+      }
+    };
+  }
+
+}
@@ -0,0 +1,23 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.property.criteria.evaluation;
+
+/**
+ * Interface to assign a value to a target object. It is the counterpart of {@link ValueAccessor} for a
+ * {@link io.github.mmm.value.PropertyPath} that has been
+ * {@link PropertyPathWriterResolver#resolveWriter(io.github.mmm.value.PropertyPath) resolved} once.
+ *
+ * @since 1.0.0
+ */
+@FunctionalInterface
+public interface ValueWriter {
+
+  /**
+   * @param bean the target object to modify.
+   * @param value the value to assign. May be {@code null}.
+   * @return {@code true} if the value has been assigned, {@code false} if the target could not be reached because an
+   *         intermediate object of a nested {@link io.github.mmm.value.PropertyPath} is {@code null}.
+   */
+  boolean set(Object bean, Object value);
+
+}
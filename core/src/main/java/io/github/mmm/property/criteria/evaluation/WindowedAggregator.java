@@ -0,0 +1,261 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.property.criteria.evaluation;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import io.github.mmm.property.criteria.CriteriaAggregation;
+import io.github.mmm.value.PropertyPath;
+
+/**
+ * Computes {@link CriteriaAggregation}s over time windows of a stream of beans in memory. Each bean is assigned to a
+ * bucket of fixed {@link #getBucketWidth() width} according to the value of a temporal {@link PropertyPath} (e.g. an
+ * {@link io.github.mmm.property.temporal.instant.InstantProperty}). The buckets are kept in a ring buffer with a fixed
+ * {@link #getBucketCount() number} of slots so memory is bounded: when a bean of a newer bucket arrives (or
+ * {@link #advanceTo(Instant)} is called), expired buckets are evicted and beans older than the retained buckets are
+ * dropped. Use {@link #getBuckets()} for tumbling windows and {@link #getWindow(int)} for a sliding window over the
+ * latest buckets (computed by {@link AggregationAccumulator#merge(AggregationAccumulator) merging} the buckets).<br>
+ * Supported timestamp values are {@link Instant}, {@link ZonedDateTime}, {@link OffsetDateTime}, {@link Date},
+ * {@link LocalDateTime} and {@link LocalDate} (both interpreted as UTC), and {@link Number}s as epoch milliseconds.
+ * This class is not thread-safe.
+ *
+ * <pre>
+ * WindowedAggregator perMinute = new WindowedAggregator(m.Timestamp(), Duration.ofMinutes(1), 60,
+ *     List.of(CriteriaAggregation.COUNT_ALL, CriteriaAggregationOperator.AVG.criteria(m.Latency())));
+ * metrics.forEach(perMinute::add);
+ * AggregationRow lastFiveMinutes = perMinute.getWindow(5);
+ * </pre>
+ *
+ * @since 1.0.0
+ */
+public class WindowedAggregator {
+
+  private final CriteriaAggregator aggregator;
+
+  private final ValueAccessor timestampAccessor;
+
+  private final long width;
+
+  private final AggregationAccumulator[][] buckets;
+
+  private final long[] bucketIds;
+
+  private long newestId;
+
+  /**
+   * The constructor.
+   *
+   * @param timestamp the temporal {@link PropertyPath} to determine the bucket of a bean.
+   * @param bucketWidth the {@link #getBucketWidth() bucket width}.
+   * @param bucketCount the {@link #getBucketCount() bucket count}.
+   * @param aggregations the {@link List} of {@link CriteriaAggregation}s to compute per bucket.
+   */
+  public WindowedAggregator(PropertyPath<?> timestamp, Duration bucketWidth, int bucketCount,
+      List<? extends CriteriaAggregation<?>> aggregations) {
+
+    this(null, timestamp, bucketWidth, bucketCount, aggregations);
+  }
+
+  /**
+   * The constructor.
+   *
+   * @param evaluator the {@link CriteriaEvaluator} or {@code null} for {@link CriteriaEvaluator#get() default}.
+   * @param timestamp the temporal {@link PropertyPath} to determine the bucket of a bean.
+   * @param bucketWidth the {@link #getBucketWidth() bucket width}.
+   * @param bucketCount the {@link #getBucketCount() bucket count}.
+   * @param aggregations the {@link List} of {@link CriteriaAggregation}s to compute per bucket.
+   */
+  public WindowedAggregator(CriteriaEvaluator evaluator, PropertyPath<?> timestamp, Duration bucketWidth,
+      int bucketCount, List<? extends CriteriaAggregation<?>> aggregations) {
+
+    super();
+    if (evaluator == null) {
+      evaluator = CriteriaEvaluator.get();
+    }
+    this.width = bucketWidth.toMillis();
+    if (this.width <= 0) {
+      throw new IllegalArgumentException("bucketWidth " + bucketWidth);
+    }
+    if (bucketCount <= 0) {
+      throw new IllegalArgumentException("bucketCount " + bucketCount);
+    }
+    this.aggregator = new CriteriaAggregator(evaluator, List.of(), aggregations, null);
+    this.timestampAccessor = evaluator.compileValue(timestamp);
+    this.buckets = new AggregationAccumulator[bucketCount][];
+    this.bucketIds = new long[bucketCount];
+    this.newestId = Long.MIN_VALUE;
+  }
+
+  /**
+   * @return the {@link Duration} covered by a single bucket (e.g. one minute).
+   */
+  public Duration getBucketWidth() {
+
+    return Duration.ofMillis(this.width);
+  }
+
+  /**
+   * @return the maximum number of buckets retained in the ring buffer.
+   */
+  public int getBucketCount() {
+
+    return this.buckets.length;
+  }
+
+  /**
+   * @return the {@link List} of {@link CriteriaAggregation}s corresponding to {@link AggregationRow#getValue(int)}.
+   */
+  public List<CriteriaAggregation<?>> getAggregations() {
+
+    return this.aggregator.getAggregations();
+  }
+
+  /**
+   * @param bean the bean to add.
+   * @return {@code true} if the bean has been accumulated, {@code false} if its timestamp is {@code null} or it is
+   *         older than the retained buckets.
+   */
+  public boolean add(Object bean) {
+
+    Object timestamp = this.timestampAccessor.get(bean);
+    if (timestamp == null) {
+      return false;
+    }
+    long id = Math.floorDiv(toEpochMillis(timestamp), this.width);
+    advance(id);
+    if (id <= this.newestId - this.buckets.length) {
+      return false;
+    }
+    int slot = (int) Math.floorMod(id, (long) this.buckets.length);
+    AggregationAccumulator[] accumulators = this.buckets[slot];
+    if ((accumulators == null) || (this.bucketIds[slot] != id)) {
+      accumulators = this.aggregator.newAccumulators();
+      this.buckets[slot] = accumulators;
+      this.bucketIds[slot] = id;
+    }
+    for (AggregationAccumulator accumulator : accumulators) {
+      accumulator.add(bean);
+    }
+    return true;
+  }
+
+  /**
+   * Evicts all buckets that have expired at the given point in time even if no new bean arrives.
+   *
+   * @param time the current point in time.
+   */
+  public void advanceTo(Instant time) {
+
+    advance(Math.floorDiv(time.toEpochMilli(), this.width));
+  }
+
+  private void advance(long id) {
+
+    if (id <= this.newestId) {
+      return;
+    }
+    long oldestRetained = id - this.buckets.length + 1;
+    for (int slot = 0; slot < this.buckets.length; slot++) {
+      if ((this.buckets[slot] != null) && (this.bucketIds[slot] < oldestRetained)) {
+        this.buckets[slot] = null;
+      }
+    }
+    this.newestId = id;
+  }
+
+  /**
+   * @return the {@link List} of {@link AggregationRow}s for all non-empty retained buckets (tumbling windows) ordered
+   *         from oldest to newest. The {@link AggregationRow#getGroupValue(int) group value} is the start of the
+   *         bucket as {@link Instant}.
+   */
+  public List<AggregationRow> getBuckets() {
+
+    List<AggregationRow> rows = new ArrayList<>();
+    if (this.newestId == Long.MIN_VALUE) {
+      return rows;
+    }
+    int valueCount = this.aggregator.getValueCount();
+    for (long id = this.newestId - this.buckets.length + 1; id <= this.newestId; id++) {
+      int slot = (int) Math.floorMod(id, (long) this.buckets.length);
+      AggregationAccumulator[] accumulators = this.buckets[slot];
+      if ((accumulators != null) && (this.bucketIds[slot] == id)) {
+        rows.add(new AggregationRow(new Object[] { Instant.ofEpochMilli(id * this.width) },
+            getResults(accumulators, valueCount)));
+      }
+    }
+    return rows;
+  }
+
+  /**
+   * @param bucketCount the number of latest buckets forming the sliding window. Must not exceed the
+   *        {@link #getBucketCount() bucket count}.
+   * @return the {@link AggregationRow} with the aggregations over the latest buckets. The
+   *         {@link AggregationRow#getGroupValue(int) group value} is the start of the window as {@link Instant} (or
+   *         {@code null} if no bean has been added yet).
+   */
+  public AggregationRow getWindow(int bucketCount) {
+
+    if ((bucketCount <= 0) || (bucketCount > this.buckets.length)) {
+      throw new IllegalArgumentException("bucketCount " + bucketCount);
+    }
+    AggregationAccumulator[] merged = this.aggregator.newAccumulators();
+    Instant start = null;
+    if (this.newestId != Long.MIN_VALUE) {
+      long firstId = this.newestId - bucketCount + 1;
+      start = Instant.ofEpochMilli(firstId * this.width);
+      for (long id = firstId; id <= this.newestId; id++) {
+        int slot = (int) Math.floorMod(id, (long) this.buckets.length);
+        AggregationAccumulator[] accumulators = this.buckets[slot];
+        if ((accumulators != null) && (this.bucketIds[slot] == id)) {
+          for (int i = 0; i < merged.length; i++) {
+            merged[i].merge(accumulators[i]);
+          }
+        }
+      }
+    }
+    return new AggregationRow(new Object[] { start }, getResults(merged, this.aggregator.getValueCount()));
+  }
+
+  private static Object[] getResults(AggregationAccumulator[] accumulators, int valueCount) {
+
+    Object[] values = new Object[valueCount];
+    for (int i = 0; i < valueCount; i++) {
+      values[i] = accumulators[i].getResult();
+    }
+    return values;
+  }
+
+  /**
+   * @param timestamp the temporal value.
+   * @return the given {@code timestamp} as milliseconds since the epoch.
+   */
+  protected long toEpochMillis(Object timestamp) {
+
+    if (timestamp instanceof Instant) {
+      return ((Instant) timestamp).toEpochMilli();
+    } else if (timestamp instanceof LocalDateTime) {
+      return ((LocalDateTime) timestamp).toInstant(ZoneOffset.UTC).toEpochMilli();
+    } else if (timestamp instanceof ZonedDateTime) {
+      return ((ZonedDateTime) timestamp).toInstant().toEpochMilli();
+    } else if (timestamp instanceof OffsetDateTime) {
+      return ((OffsetDateTime) timestamp).toInstant().toEpochMilli();
+    } else if (timestamp instanceof LocalDate) {
+      return ((LocalDate) timestamp).toEpochDay() * 86400000L;
+    } else if (timestamp instanceof Date) {
+      return ((Date) timestamp).getTime();
+    } else if (timestamp instanceof Number) {
+      return ((Number) timestamp).longValue();
+    }
+    throw new IllegalArgumentException("Unsupported timestamp " + timestamp);
+  }
+
+}
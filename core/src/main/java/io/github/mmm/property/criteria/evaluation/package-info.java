@@ -0,0 +1,9 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+/**
+ * Contains the in-memory evaluation of {@link io.github.mmm.property.criteria.CriteriaExpression}s. Use
+ * {@link io.github.mmm.property.criteria.evaluation.CriteriaEvaluator} to compile a
+ * {@link io.github.mmm.property.criteria.CriteriaPredicate} once into a reusable {@link java.util.function.Predicate}
+ * that can be applied to plain Java objects.
+ */
+package io.github.mmm.property.criteria.evaluation;
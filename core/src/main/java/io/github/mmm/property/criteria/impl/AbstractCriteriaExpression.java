@@ -4,15 +4,19 @@ package io.github.mmm.property.criteria.impl;
 
 import io.github.mmm.property.criteria.CriteriaExpression;
 import io.github.mmm.property.criteria.CriteriaFormatter;
+import io.github.mmm.property.criteria.CriteriaStructureHelper;
 
 /**
- * Base-class for a search criteria.
+ * Base-class for a search criteria. Implements {@link #equals(Object)} and {@link #hashCode()} structurally based on
+ * the lazily computed {@link #getFingerprint() fingerprint}.
  *
  * @param <R> type of the value to compare.
  * @since 1.0.0
  */
 public abstract class AbstractCriteriaExpression<R> implements CriteriaExpression<R> {
 
+  private long fingerprint;
+
   /**
    * The constructor.
    */
@@ -21,10 +25,41 @@ public abstract class AbstractCriteriaExpression<R> implements CriteriaExpressio
     super();
   }
 
+  @Override
+  public long getFingerprint() {
+
+    long result = this.fingerprint;
+    if (result == 0) {
+      result = CriteriaStructureHelper.computeFingerprint(this);
+      if (result == 0) {
+        result = 1;
+      }
+      this.fingerprint = result;
+    }
+    return result;
+  }
+
+  @Override
+  public int hashCode() {
+
+    return CriteriaStructureHelper.hashCode(getFingerprint());
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+
+    if (obj == this) {
+      return true;
+    } else if (!(obj instanceof CriteriaExpression)) {
+      return false;
+    }
+    return CriteriaStructureHelper.isEqual(this, (CriteriaExpression<?>) obj);
+  }
+
   @Override
   public String toString() {
 
-    return new CriteriaFormatter().onExpression(this).toString();
+    return CriteriaFormatter.format(this);
   }
 
 }
@@ -0,0 +1,287 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.property.criteria.impl;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+import io.github.mmm.property.criteria.CriteriaValueHelper;
+import io.github.mmm.property.criteria.PredicateOperator;
+
+/**
+ * {@link GenericLiteral} for a {@link Collection} of values as used for {@link PredicateOperator#IN IN} and
+ * {@link PredicateOperator#NOT_IN NOT IN}. Additionally to the plain {@link #get() values} it carries a lookup
+ * structure chosen by the type of the elements so {@link #contains(Object)} does not need to scan all values: integral
+ * numbers are stored in a sorted {@code long[]} or a primitive open-addressing hash set, {@link String}s and
+ * {@link Enum}s in a hash set. The values shall not be modified after the literal has been created.
+ *
+ * @param <V> type of the elements.
+ * @since 1.0.0
+ */
+public class CollectionLiteral<V> extends GenericLiteral<Collection<V>> {
+
+  /** Maximum number of values for a sorted {@code long[]} before a hash set is used. */
+  private static final int MAX_SORTED_SIZE = 64;
+
+  private final Lookup lookup;
+
+  /**
+   * The constructor.
+   *
+   * @param values the {@link #get() values}.
+   */
+  public CollectionLiteral(Collection<V> values) {
+
+    super(values);
+    this.lookup = createLookup(values);
+  }
+
+  /**
+   * @param value the value to check. May be {@code null}.
+   * @return {@code true} if the given {@code value} is {@link CriteriaValueHelper#isEqual(Object, Object) equal} to one
+   *         of the {@link #get() values}, {@code false} otherwise.
+   */
+  public boolean contains(Object value) {
+
+    if (value == null) {
+      return false;
+    }
+    return this.lookup.contains(value);
+  }
+
+  private static Lookup createLookup(Collection<?> values) {
+
+    boolean integral = true;
+    boolean named = true;
+    Class<?> type = null;
+    boolean sameType = true;
+    for (Object value : values) {
+      if (value == null) {
+        continue;
+      }
+      if (!CriteriaValueHelper.isIntegral(value)) {
+        integral = false;
+      }
+      if (!(value instanceof String) && !(value instanceof Enum)) {
+        named = false;
+      }
+      if (type == null) {
+        type = value.getClass();
+      } else if (type != value.getClass()) {
+        sameType = false;
+      }
+    }
+    if (type == null) {
+      return value -> false;
+    } else if (integral) {
+      long[] longs = new long[values.size()];
+      int size = 0;
+      for (Object value : values) {
+        if (value != null) {
+          longs[size++] = ((Number) value).longValue();
+        }
+      }
+      if (size <= MAX_SORTED_SIZE) {
+        longs = Arrays.copyOf(longs, size);
+        Arrays.sort(longs);
+        return new SortedLongLookup(longs);
+      }
+      return new HashLongLookup(longs, size);
+    } else if (named) {
+      return new NameLookup(values);
+    } else if (sameType && !(Number.class.isAssignableFrom(type))) {
+      return new HashLookup(type, values);
+    }
+    Object[] array = values.toArray();
+    return value -> {
+      for (Object element : array) {
+        if (CriteriaValueHelper.isEqual(value, element)) {
+          return true;
+        }
+      }
+      return false;
+    };
+  }
+
+  @FunctionalInterface
+  private interface Lookup {
+
+    boolean contains(Object value);
+  }
+
+  private abstract static class LongLookup implements Lookup {
+
+    @Override
+    public boolean contains(Object value) {
+
+      if (CriteriaValueHelper.isIntegral(value)) {
+        return containsLong(((Number) value).longValue());
+      } else if (value instanceof Number) {
+        Number number = (Number) value;
+        if (CriteriaValueHelper.isBig(number)) {
+          BigDecimal decimal = CriteriaValueHelper.toBigDecimal(number);
+          try {
+            return containsLong(decimal.longValueExact());
+          } catch (ArithmeticException e) {
+            return false;
+          }
+        }
+        double d = number.doubleValue();
+        long l = (long) d;
+        return (l == d) && containsLong(l);
+      }
+      return false;
+    }
+
+    abstract boolean containsLong(long value);
+  }
+
+  private static class SortedLongLookup extends LongLookup {
+
+    private final long[] values;
+
+    private SortedLongLookup(long[] values) {
+
+      super();
+      this.values = values;
+    }
+
+    @Override
+    boolean containsLong(long value) {
+
+      return Arrays.binarySearch(this.values, value) >= 0;
+    }
+  }
+
+  /**
+   * Open-addressing hash set of primitive {@code long} values with linear probing. {@link Long#MIN_VALUE} is used to
+   * mark empty slots and therefore tracked separately.
+   */
+  private static class HashLongLookup extends LongLookup {
+
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private final long[] table;
+
+    private final int mask;
+
+    private boolean containsEmpty;
+
+    private HashLongLookup(long[] values, int size) {
+
+      super();
+      int capacity = Integer.highestOneBit(Math.max(size, 2) * 2 - 1) << 1;
+      this.table = new long[capacity];
+      this.mask = capacity - 1;
+      Arrays.fill(this.table, EMPTY);
+      for (int i = 0; i < size; i++) {
+        long value = values[i];
+        if (value == EMPTY) {
+          this.containsEmpty = true;
+        } else {
+          int index = index(value);
+          while ((this.table[index] != EMPTY) && (this.table[index] != value)) {
+            index = (index + 1) & this.mask;
+          }
+          this.table[index] = value;
+        }
+      }
+    }
+
+    private int index(long value) {
+
+      long hash = value * 0x9E3779B97F4A7C15L;
+      return (int) (hash ^ (hash >>> 32)) & this.mask;
+    }
+
+    @Override
+    boolean containsLong(long value) {
+
+      if (value == EMPTY) {
+        return this.containsEmpty;
+      }
+      int index = index(value);
+      while (true) {
+        long current = this.table[index];
+        if (current == value) {
+          return true;
+        } else if (current == EMPTY) {
+          return false;
+        }
+        index = (index + 1) & this.mask;
+      }
+    }
+  }
+
+  /**
+   * {@link Lookup} for {@link String}s and {@link Enum}s where an {@link Enum} is also equal to a {@link String} of its
+   * {@link Enum#name() name}.
+   */
+  private static class NameLookup implements Lookup {
+
+    private final Set<String> strings;
+
+    private final Set<Object> enums;
+
+    private final Set<String> enumNames;
+
+    private NameLookup(Collection<?> values) {
+
+      super();
+      this.strings = new HashSet<>();
+      this.enums = new HashSet<>();
+      this.enumNames = new HashSet<>();
+      for (Object value : values) {
+        if (value instanceof String) {
+          this.strings.add((String) value);
+        } else if (value instanceof Enum) {
+          this.enums.add(value);
+          this.enumNames.add(((Enum<?>) value).name());
+        }
+      }
+    }
+
+    @Override
+    public boolean contains(Object value) {
+
+      if (value instanceof String) {
+        return this.strings.contains(value) || this.enumNames.contains(value);
+      } else if (value instanceof Enum) {
+        return this.enums.contains(value) || this.strings.contains(((Enum<?>) value).name());
+      }
+      return false;
+    }
+  }
+
+  private static class HashLookup implements Lookup {
+
+    private final Class<?> type;
+
+    private final Set<Object> values;
+
+    private HashLookup(Class<?> type, Collection<?> values) {
+
+      super();
+      this.type = type;
+      this.values = new HashSet<>(values);
+    }
+
+    @Override
+    public boolean contains(Object value) {
+
+      if (value.getClass() == this.type) {
+        return this.values.contains(value);
+      }
+      for (Object element : this.values) {
+        if (CriteriaValueHelper.isEqual(value, element)) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+
+}
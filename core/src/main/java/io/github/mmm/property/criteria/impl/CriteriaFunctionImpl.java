@@ -0,0 +1,82 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.property.criteria.impl;
+
+import java.util.List;
+
+import io.github.mmm.property.criteria.CriteriaFunction;
+import io.github.mmm.property.criteria.CriteriaFunctionOperator;
+import io.github.mmm.value.CriteriaObject;
+
+/**
+ * Implementation of {@link CriteriaFunction}.
+ *
+ * @param <V> type of the result value of the function.
+ * @since 1.0.0
+ */
+public class CriteriaFunctionImpl<V> extends AbstractCriteriaExpression<V> implements CriteriaFunction<V> {
+
+  private final CriteriaFunctionOperator operator;
+
+  private final List<CriteriaObject<?>> args;
+
+  /**
+   * The constructor.
+   *
+   * @param operator the {@link #getOperator() operator}.
+   * @param args the {@link #getArgs() arguments}.
+   */
+  public CriteriaFunctionImpl(CriteriaFunctionOperator operator, CriteriaObject<?>... args) {
+
+    super();
+    this.operator = operator;
+    this.args = List.of(args);
+  }
+
+  /**
+   * The constructor.
+   *
+   * @param operator the {@link #getOperator() operator}.
+   * @param args the {@link #getArgs() arguments}.
+   */
+  public CriteriaFunctionImpl(CriteriaFunctionOperator operator, List<? extends CriteriaObject<?>> args) {
+
+    super();
+    this.operator = operator;
+    this.args = List.copyOf(args);
+  }
+
+  @Override
+  public CriteriaFunctionOperator getOperator() {
+
+    return this.operator;
+  }
+
+  @Override
+  public CriteriaObject<?> getFirstArg() {
+
+    return this.args.get(0);
+  }
+
+  @Override
+  public CriteriaObject<?> getSecondArg() {
+
+    if (this.args.size() < 2) {
+      return null;
+    }
+    return this.args.get(1);
+  }
+
+  @Override
+  public List<? extends CriteriaObject<?>> getArgs() {
+
+    return this.args;
+  }
+
+  @Override
+  public int getArgCount() {
+
+    return this.args.size();
+  }
+
+}
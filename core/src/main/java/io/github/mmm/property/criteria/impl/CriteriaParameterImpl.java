@@ -0,0 +1,64 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.property.criteria.impl;
+
+import io.github.mmm.property.criteria.CriteriaParameter;
+
+/**
+ * Implementation of {@link CriteriaParameter}.
+ *
+ * @param <V> type of the {@link #getValue() value}.
+ * @since 1.0.0
+ */
+public class CriteriaParameterImpl<V> implements CriteriaParameter<V> {
+
+  private final int index;
+
+  private final String name;
+
+  private final V value;
+
+  /**
+   * The constructor.
+   *
+   * @param index the {@link #getIndex() index}.
+   * @param name the {@link #getName() name}. May be {@code null}.
+   * @param value the {@link #getValue() value}.
+   */
+  public CriteriaParameterImpl(int index, String name, V value) {
+
+    super();
+    this.index = index;
+    this.name = name;
+    this.value = value;
+  }
+
+  @Override
+  public int getIndex() {
+
+    return this.index;
+  }
+
+  @Override
+  public String getName() {
+
+    return this.name;
+  }
+
+  @Override
+  public V getValue() {
+
+    return this.value;
+  }
+
+  @Override
+  public String toString() {
+
+    String key = this.name;
+    if (key == null) {
+      key = Integer.toString(this.index);
+    }
+    return key + "=" + this.value;
+  }
+
+}
@@ -0,0 +1,206 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.property.criteria.impl;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Supplier;
+
+import io.github.mmm.base.io.AppendableWriter;
+import io.github.mmm.property.criteria.BooleanLiteral;
+import io.github.mmm.property.criteria.CriteriaExpression;
+import io.github.mmm.property.criteria.CriteriaOperator;
+import io.github.mmm.property.criteria.CriteriaParameter;
+import io.github.mmm.property.criteria.CriteriaParameters;
+import io.github.mmm.property.criteria.Literal;
+import io.github.mmm.property.criteria.PredicateOperator;
+
+/**
+ * Implementation of {@link CriteriaParameters} that writes a placeholder for each {@link Literal} and collects the
+ * {@link Literal#get() values} as {@link CriteriaParameter}s in the order of their occurrence. By default the JDBC
+ * placeholder {@code ?} is written. If a name prefix is given, named placeholders (e.g. {@code :p1}, {@code :p2}) are
+ * written instead. The values of {@link Collection}s for {@link PredicateOperator#IN IN} and
+ * {@link PredicateOperator#NOT_IN NOT IN} are expanded to one parameter per element (e.g. {@code IN (?, ?, ?)}).
+ * Values are {@link #convertValue(Object) converted} to types supported by JDBC. {@link BooleanLiteral}s are written
+ * inline.
+ *
+ * @since 1.0.0
+ */
+public class CriteriaParametersIndexed implements CriteriaParameters<CriteriaParameter<?>> {
+
+  private final String namePrefix;
+
+  private final List<CriteriaParameter<?>> parameters;
+
+  /**
+   * The constructor for JDBC placeholders ({@code ?}).
+   */
+  public CriteriaParametersIndexed() {
+
+    this(null);
+  }
+
+  /**
+   * The constructor.
+   *
+   * @param namePrefix the prefix for the {@link CriteriaParameter#getName() parameter names} (e.g. "p" for
+   *        {@code :p1}) or {@code null} for JDBC placeholders ({@code ?}).
+   */
+  public CriteriaParametersIndexed(String namePrefix) {
+
+    super();
+    this.namePrefix = namePrefix;
+    this.parameters = new ArrayList<>();
+  }
+
+  /**
+   * @return the prefix for the {@link CriteriaParameter#getName() parameter names} or {@code null} for JDBC
+   *         placeholders ({@code ?}).
+   */
+  public String getNamePrefix() {
+
+    return this.namePrefix;
+  }
+
+  @Override
+  public void onLiteral(Literal<?> literal, AppendableWriter out, CriteriaExpression<?> parent) {
+
+    if (literal instanceof BooleanLiteral) {
+      // constant that is part of the shape and not a parameter (e.g. SimplePredicate.ALWAYS)
+      out.write(literal.toString());
+    } else {
+      addValue(literal.get(), parent, out);
+    }
+  }
+
+  /**
+   * Adds the parameter(s) for the given {@code value} without writing placeholders. Used to bind new values to an
+   * already formatted statement.
+   *
+   * @param value the {@link Literal#get() literal value}.
+   * @param parent the parent {@link CriteriaExpression} containing the {@link Literal}. May be {@code null}.
+   */
+  public void addValue(Object value, CriteriaExpression<?> parent) {
+
+    addValue(value, parent, null);
+  }
+
+  private void addValue(Object value, CriteriaExpression<?> parent, AppendableWriter out) {
+
+    CriteriaOperator op = null;
+    if (parent != null) {
+      op = parent.getOperator();
+    }
+    if ((value instanceof Collection) && ((op == PredicateOperator.IN) || (op == PredicateOperator.NOT_IN))) {
+      Collection<?> collection = (Collection<?>) value;
+      write(out, "(");
+      if (collection.isEmpty()) {
+        write(out, "NULL");
+      }
+      String separator = "";
+      for (Object element : collection) {
+        write(out, separator);
+        addParameter(element, out);
+        separator = ", ";
+      }
+      write(out, ")");
+    } else {
+      addParameter(value, out);
+    }
+  }
+
+  private void addParameter(Object value, AppendableWriter out) {
+
+    int index = this.parameters.size();
+    String name = null;
+    if (this.namePrefix == null) {
+      write(out, "?");
+    } else {
+      name = this.namePrefix + (index + 1);
+      write(out, ":");
+      write(out, name);
+    }
+    this.parameters.add(new CriteriaParameterImpl<>(index, name, convertValue(value)));
+  }
+
+  private static void write(AppendableWriter out, String text) {
+
+    if (out != null) {
+      out.write(text);
+    }
+  }
+
+  /**
+   * @param value the {@link Literal#get() literal value}.
+   * @return the given {@code value} converted to a type supported by JDBC.
+   */
+  protected Object convertValue(Object value) {
+
+    if (value instanceof Supplier) {
+      return convertValue(((Supplier<?>) value).get());
+    } else if (value instanceof Enum) {
+      return ((Enum<?>) value).name();
+    } else if (value instanceof Character) {
+      return value.toString();
+    } else if (value instanceof BigInteger) {
+      return new BigDecimal((BigInteger) value);
+    }
+    return value;
+  }
+
+  /**
+   * @return the number of collected {@link CriteriaParameter}s.
+   */
+  public int size() {
+
+    return this.parameters.size();
+  }
+
+  /**
+   * @param index the {@link CriteriaParameter#getIndex() index} of the requested {@link CriteriaParameter}.
+   * @return the {@link CriteriaParameter} at the given {@code index}.
+   */
+  public CriteriaParameter<?> get(int index) {
+
+    return this.parameters.get(index);
+  }
+
+  /**
+   * @return the {@link List} with the {@link CriteriaParameter#getValue() values} of the collected
+   *         {@link CriteriaParameter}s in the order of their {@link CriteriaParameter#getIndex() index}.
+   */
+  public List<Object> getValues() {
+
+    List<Object> values = new ArrayList<>(this.parameters.size());
+    for (CriteriaParameter<?> parameter : this.parameters) {
+      values.add(parameter.getValue());
+    }
+    return values;
+  }
+
+  /**
+   * @return the unmodifiable {@link List} of the collected {@link CriteriaParameter}s.
+   */
+  public List<CriteriaParameter<?>> getParameters() {
+
+    return Collections.unmodifiableList(this.parameters);
+  }
+
+  @Override
+  public Iterator<CriteriaParameter<?>> iterator() {
+
+    return getParameters().iterator();
+  }
+
+  @Override
+  public String toString() {
+
+    return this.parameters.toString();
+  }
+
+}
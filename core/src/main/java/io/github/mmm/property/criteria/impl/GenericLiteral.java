@@ -5,6 +5,7 @@ package io.github.mmm.property.criteria.impl;
 import java.util.Objects;
 import java.util.function.Supplier;
 
+import io.github.mmm.property.criteria.CriteriaStructureHelper;
 import io.github.mmm.property.criteria.Literal;
 
 /**
@@ -35,6 +36,23 @@ public class GenericLiteral<V> implements Literal<V> {
     return this.value;
   }
 
+  @Override
+  public int hashCode() {
+
+    return CriteriaStructureHelper.hashCode(CriteriaStructureHelper.computeFingerprint(this));
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+
+    if (obj == this) {
+      return true;
+    } else if ((obj == null) || (obj.getClass() != getClass())) {
+      return false;
+    }
+    return CriteriaStructureHelper.isEqual(this, (Literal<?>) obj);
+  }
+
   @Override
   public String toString() {
 
@@ -0,0 +1,87 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.property.criteria.impl;
+
+import io.github.mmm.property.criteria.Literal;
+import io.github.mmm.property.criteria.PreparedCriteria;
+
+/**
+ * Placeholder {@link Literal} for a parameter of a {@link PreparedCriteria}. It has no {@link #get() value} as the
+ * actual value is bound later via its {@link #getIndex() index}.
+ *
+ * @param <V> type of the {@link #get() value}.
+ * @since 1.0.0
+ */
+public final class ParameterLiteral<V> implements Literal<V> {
+
+  private static final ParameterLiteral<?>[] CACHE = new ParameterLiteral<?>[64];
+
+  static {
+    for (int i = 0; i < CACHE.length; i++) {
+      CACHE[i] = new ParameterLiteral<>(i);
+    }
+  }
+
+  private final int index;
+
+  private ParameterLiteral(int index) {
+
+    super();
+    this.index = index;
+  }
+
+  /**
+   * @return the zero-based index of the parameter.
+   */
+  public int getIndex() {
+
+    return this.index;
+  }
+
+  /**
+   * @return always {@code null} as the value is not yet bound.
+   */
+  @Override
+  public V get() {
+
+    return null;
+  }
+
+  @Override
+  public int hashCode() {
+
+    return this.index;
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+
+    if (obj == this) {
+      return true;
+    } else if ((obj == null) || (obj.getClass() != getClass())) {
+      return false;
+    }
+    return ((ParameterLiteral<?>) obj).index == this.index;
+  }
+
+  @Override
+  public String toString() {
+
+    return "?";
+  }
+
+  /**
+   * @param <V> type of the {@link #get() value}.
+   * @param index the {@link #getIndex() index}.
+   * @return the {@link ParameterLiteral} for the given {@code index}.
+   */
+  @SuppressWarnings("unchecked")
+  public static <V> ParameterLiteral<V> of(int index) {
+
+    if ((index >= 0) && (index < CACHE.length)) {
+      return (ParameterLiteral<V>) CACHE[index];
+    }
+    return new ParameterLiteral<>(index);
+  }
+
+}
@@ -5,6 +5,7 @@ package io.github.mmm.property.criteria.impl;
 import java.util.Objects;
 import java.util.function.Supplier;
 
+import io.github.mmm.property.criteria.CriteriaStructureHelper;
 import io.github.mmm.property.criteria.Literal;
 
 /**
@@ -45,6 +46,23 @@ public final class StringLiteral implements Literal<String> {
     return "'" + string.replace("'", "\'\'") + "'";
   }
 
+  @Override
+  public int hashCode() {
+
+    return CriteriaStructureHelper.hashCode(CriteriaStructureHelper.computeFingerprint(this));
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+
+    if (obj == this) {
+      return true;
+    } else if ((obj == null) || (obj.getClass() != getClass())) {
+      return false;
+    }
+    return CriteriaStructureHelper.isEqual(this, (Literal<?>) obj);
+  }
+
   @Override
   public String toString() {
 
@@ -0,0 +1,429 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.property.criteria.index;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import io.github.mmm.property.criteria.BooleanSelection;
+import io.github.mmm.property.criteria.CriteriaOptimizer;
+import io.github.mmm.property.criteria.CriteriaPredicate;
+import io.github.mmm.property.criteria.CriteriaStructureHelper;
+import io.github.mmm.property.criteria.CriteriaValueHelper;
+import io.github.mmm.property.criteria.Literal;
+import io.github.mmm.property.criteria.PredicateOperator;
+import io.github.mmm.property.criteria.PropertyPathHelper;
+import io.github.mmm.property.criteria.evaluation.CriteriaEvaluator;
+import io.github.mmm.property.criteria.impl.ConjunctionPredicate;
+import io.github.mmm.value.CriteriaObject;
+import io.github.mmm.value.PropertyPath;
+
+/**
+ * Cache for the results of {@link IndexedCollection#filter(CriteriaPredicate) filtering} an {@link IndexedCollection}.
+ * Entries are keyed by the canonical form of the {@link CriteriaPredicate} ({@link CriteriaOptimizer#optimize(
+ * CriteriaPredicate) optimized} with the arguments of {@link PredicateOperator#AND AND} and {@link PredicateOperator#OR
+ * OR} sorted by their {@link CriteriaStructureHelper#fingerprint(CriteriaObject) fingerprint}) and stamped with the
+ * {@link IndexedCollection#getVersion() data version} they reflect. The cache is bounded and evicts the least recently
+ * used entry.<br>
+ * If a {@link CriteriaPredicate} is not cached but provably a restriction of a cached one (each conjunct of the cached
+ * predicate is implied by a conjunct of the new one, e.g. {@code Age > 40 AND City = 'X'} is a restriction of
+ * {@code Age > 30}), only the smallest such cached result is filtered instead of the full collection.<br>
+ * Mutations of the {@link IndexedCollection} are applied precisely: an added, removed or updated bean is only tested
+ * against the cached predicates and added to or removed from their results, so entries stay valid instead of being
+ * discarded. To detect updates, the {@link PropertyPath}s referenced by the cached predicates are observed for all
+ * beans (whether indexed or not) as long as they are cached. Like for indexes, changes of values that are not
+ * {@link io.github.mmm.value.observable.ObservableValue observable} (or replaced intermediate objects of a nested
+ * {@link PropertyPath}) have to be announced via {@link IndexedCollection#update(Object)}.
+ *
+ * @param <B> type of the beans.
+ * @since 1.0.0
+ * @see IndexedCollection#setResultCacheSize(int)
+ */
+public class CriteriaResultCache<B> {
+
+  private static final Comparator<CriteriaObject<?>> FINGERPRINT_ORDER = Comparator
+      .comparingLong(CriteriaStructureHelper::fingerprint);
+
+  private final IndexedCollection<B> collection;
+
+  private final CriteriaEvaluator evaluator;
+
+  private final int maxSize;
+
+  private final Map<CriteriaPredicate, Entry<B>> cache;
+
+  private long hits;
+
+  private long subsumptionHits;
+
+  private long misses;
+
+  /**
+   * The constructor.
+   *
+   * @param collection the owning {@link IndexedCollection}.
+   * @param evaluator the {@link CriteriaEvaluator} to compile the predicates.
+   * @param maxSize the {@link #getMaxSize() maximum size}.
+   */
+  CriteriaResultCache(IndexedCollection<B> collection, CriteriaEvaluator evaluator, int maxSize) {
+
+    super();
+    if (maxSize <= 0) {
+      throw new IllegalArgumentException("" + maxSize);
+    }
+    this.collection = collection;
+    this.evaluator = evaluator;
+    this.maxSize = maxSize;
+    this.cache = new LinkedHashMap<>(16, 0.75F, true) {
+
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<CriteriaPredicate, Entry<B>> eldest) {
+
+        if (size() > CriteriaResultCache.this.maxSize) {
+          release(eldest.getValue());
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  /**
+   * @return the maximum number of cached results.
+   */
+  public int getMaxSize() {
+
+    return this.maxSize;
+  }
+
+  /**
+   * @return the current number of cached results.
+   */
+  public int size() {
+
+    return this.cache.size();
+  }
+
+  /**
+   * @return the number of {@link IndexedCollection#filter(CriteriaPredicate) filter} calls served directly from the
+   *         cache.
+   */
+  public long getHits() {
+
+    return this.hits;
+  }
+
+  /**
+   * @return the number of {@link IndexedCollection#filter(CriteriaPredicate) filter} calls computed by filtering the
+   *         cached result of a less restrictive predicate.
+   */
+  public long getSubsumptionHits() {
+
+    return this.subsumptionHits;
+  }
+
+  /**
+   * @return the number of {@link IndexedCollection#filter(CriteriaPredicate) filter} calls that had to be computed
+   *         from the {@link IndexedCollection}.
+   */
+  public long getMisses() {
+
+    return this.misses;
+  }
+
+  /**
+   * Removes all cached results.
+   */
+  public void clear() {
+
+    for (Entry<B> entry : this.cache.values()) {
+      release(entry);
+    }
+    this.cache.clear();
+  }
+
+  private void release(Entry<B> entry) {
+
+    for (PropertyPath<?> path : entry.paths) {
+      this.collection.unobserve(path);
+    }
+  }
+
+  List<B> filter(CriteriaPredicate predicate) {
+
+    CriteriaPredicate key = canonicalize(predicate);
+    long version = this.collection.getVersion();
+    Entry<B> entry = this.cache.get(key);
+    if (entry != null) {
+      if (entry.version == version) {
+        this.hits++;
+        return new ArrayList<>(entry.result);
+      }
+      release(this.cache.remove(key));
+    }
+    entry = new Entry<>(key, this.evaluator.compileCondition(key), version);
+    Iterable<B> candidates = findSubsumingResult(entry.conjuncts, version);
+    if (candidates == null) {
+      this.misses++;
+      candidates = this.collection.lookup(key);
+      if (candidates == null) {
+        candidates = this.collection;
+      }
+    } else {
+      this.subsumptionHits++;
+    }
+    for (B bean : candidates) {
+      if (entry.filter.test(bean)) {
+        entry.result.add(bean);
+      }
+    }
+    for (PropertyPath<?> path : entry.paths) {
+      this.collection.observe(path);
+    }
+    this.cache.put(key, entry);
+    return new ArrayList<>(entry.result);
+  }
+
+  private Set<B> findSubsumingResult(List<CriteriaPredicate> conjuncts, long version) {
+
+    Set<B> best = null;
+    for (Entry<B> entry : this.cache.values()) {
+      if ((entry.version == version) && ((best == null) || (entry.result.size() < best.size()))
+          && isRestriction(conjuncts, entry.conjuncts)) {
+        best = entry.result;
+      }
+    }
+    return best;
+  }
+
+  void onAdd(B bean) {
+
+    long version = this.collection.getVersion();
+    for (Entry<B> entry : this.cache.values()) {
+      if (entry.filter.test(bean)) {
+        entry.result.add(bean);
+      }
+      entry.version = version;
+    }
+  }
+
+  void onRemove(B bean) {
+
+    long version = this.collection.getVersion();
+    for (Entry<B> entry : this.cache.values()) {
+      entry.result.remove(bean);
+      entry.version = version;
+    }
+  }
+
+  void onUpdate(B bean) {
+
+    long version = this.collection.getVersion();
+    for (Entry<B> entry : this.cache.values()) {
+      if (entry.filter.test(bean)) {
+        entry.result.add(bean);
+      } else {
+        entry.result.remove(bean);
+      }
+      entry.version = version;
+    }
+  }
+
+  /**
+   * @param predicate the {@link CriteriaPredicate} to canonicalize.
+   * @return the canonical form of the given {@link CriteriaPredicate} so that logically equal predicates (e.g.
+   *         {@code a AND b} and {@code b AND a}) are structurally equal.
+   */
+  protected CriteriaPredicate canonicalize(CriteriaPredicate predicate) {
+
+    return sortArgs(CriteriaOptimizer.get().optimize(predicate));
+  }
+
+  private static CriteriaPredicate sortArgs(CriteriaPredicate predicate) {
+
+    PredicateOperator op = predicate.getOperator();
+    if ((op != PredicateOperator.AND) && (op != PredicateOperator.OR)) {
+      return predicate;
+    }
+    List<BooleanSelection> args = new ArrayList<>(predicate.getArgCount());
+    for (CriteriaObject<?> arg : predicate.getArgs()) {
+      if (arg instanceof CriteriaPredicate) {
+        args.add(sortArgs((CriteriaPredicate) arg));
+      } else if (arg instanceof BooleanSelection) {
+        args.add((BooleanSelection) arg);
+      } else {
+        return predicate;
+      }
+    }
+    args.sort(FINGERPRINT_ORDER);
+    return new ConjunctionPredicate(op, args);
+  }
+
+  private static List<CriteriaPredicate> getConjuncts(CriteriaPredicate predicate) {
+
+    List<CriteriaPredicate> conjuncts = new ArrayList<>();
+    if (predicate.getOperator() == PredicateOperator.AND) {
+      for (CriteriaObject<?> arg : predicate.getArgs()) {
+        if (arg instanceof CriteriaPredicate) {
+          conjuncts.add((CriteriaPredicate) arg);
+        }
+      }
+    } else {
+      conjuncts.add(predicate);
+    }
+    return conjuncts;
+  }
+
+  /**
+   * @param restriction the conjuncts of the potentially more restrictive predicate.
+   * @param general the conjuncts of the potentially more general predicate.
+   * @return {@code true} if every conjunct of {@code general} is implied by a conjunct of {@code restriction},
+   *         {@code false} otherwise (what does not mean that there is no logical implication).
+   */
+  private static boolean isRestriction(List<CriteriaPredicate> restriction, List<CriteriaPredicate> general) {
+
+    for (CriteriaPredicate condition : general) {
+      boolean implied = false;
+      for (CriteriaPredicate candidate : restriction) {
+        if (implies(candidate, condition)) {
+          implied = true;
+          break;
+        }
+      }
+      if (!implied) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean implies(CriteriaPredicate p, CriteriaPredicate q) {
+
+    if (CriteriaStructureHelper.isEqual(p, q)) {
+      return true;
+    }
+    PredicateOperator pOp = p.getOperator();
+    PredicateOperator qOp = q.getOperator();
+    if (pOp.isConjunction() || qOp.isConjunction() || !(p.getFirstArg() instanceof PropertyPath)
+        || !CriteriaStructureHelper.isEqual(p.getFirstArg(), q.getFirstArg())
+        || !(p.getSecondArg() instanceof Literal)) {
+      return false;
+    }
+    Object pValue = ((Literal<?>) p.getSecondArg()).get();
+    if (pValue == null) {
+      return false;
+    } else if (qOp == PredicateOperator.IS_NOT_NULL) {
+      // comparisons are never satisfied by null
+      return isComparison(pOp) || (pOp == PredicateOperator.EQ) || (pOp == PredicateOperator.IN);
+    } else if (!(q.getSecondArg() instanceof Literal)) {
+      return false;
+    }
+    Object qValue = ((Literal<?>) q.getSecondArg()).get();
+    if (qValue == null) {
+      return false;
+    }
+    try {
+      if (pOp == PredicateOperator.EQ) {
+        return matches(pValue, qOp, qValue);
+      } else if ((pOp == PredicateOperator.IN) && (pValue instanceof Collection)) {
+        for (Object element : (Collection<?>) pValue) {
+          if (!matches(element, qOp, qValue)) {
+            return false;
+          }
+        }
+        return true;
+      } else if (isLowerBound(pOp) && isLowerBound(qOp)) {
+        int delta = CriteriaValueHelper.compare(pValue, qValue);
+        return (delta > 0) || ((delta == 0) && ((qOp == PredicateOperator.GE) || (pOp == PredicateOperator.GT)));
+      } else if (isUpperBound(pOp) && isUpperBound(qOp)) {
+        int delta = CriteriaValueHelper.compare(pValue, qValue);
+        return (delta < 0) || ((delta == 0) && ((qOp == PredicateOperator.LE) || (pOp == PredicateOperator.LT)));
+      }
+    } catch (IllegalArgumentException e) {
+      // not comparable
+    }
+    return false;
+  }
+
+  private static boolean matches(Object value, PredicateOperator op, Object other) {
+
+    if (value == null) {
+      return false;
+    } else if (op == PredicateOperator.EQ) {
+      return CriteriaValueHelper.isEqual(value, other);
+    } else if (op == PredicateOperator.NEQ) {
+      return !CriteriaValueHelper.isEqual(value, other);
+    } else if ((op == PredicateOperator.IN) || (op == PredicateOperator.NOT_IN)) {
+      if (!(other instanceof Collection)) {
+        return false;
+      }
+      boolean contained = false;
+      for (Object element : (Collection<?>) other) {
+        if (CriteriaValueHelper.isEqual(value, element)) {
+          contained = true;
+          break;
+        }
+      }
+      return contained == (op == PredicateOperator.IN);
+    } else if (isComparison(op)) {
+      int delta = CriteriaValueHelper.compare(value, other);
+      if (op == PredicateOperator.GT) {
+        return delta > 0;
+      } else if (op == PredicateOperator.GE) {
+        return delta >= 0;
+      } else if (op == PredicateOperator.LT) {
+        return delta < 0;
+      }
+      return delta <= 0;
+    }
+    return false;
+  }
+
+  private static boolean isComparison(PredicateOperator op) {
+
+    return isLowerBound(op) || isUpperBound(op);
+  }
+
+  private static boolean isLowerBound(PredicateOperator op) {
+
+    return (op == PredicateOperator.GT) || (op == PredicateOperator.GE);
+  }
+
+  private static boolean isUpperBound(PredicateOperator op) {
+
+    return (op == PredicateOperator.LT) || (op == PredicateOperator.LE);
+  }
+
+  private static class Entry<B> {
+
+    private final List<CriteriaPredicate> conjuncts;
+
+    private final List<PropertyPath<?>> paths;
+
+    private final Predicate<Object> filter;
+
+    private final Set<B> result;
+
+    private long version;
+
+    private Entry(CriteriaPredicate key, Predicate<Object> filter, long version) {
+
+      super();
+      this.conjuncts = getConjuncts(key);
+      this.paths = new ArrayList<>();
+      PropertyPathHelper.collectPaths(key, this.paths);
+      this.filter = filter;
+      this.result = PropertyIndex.newBeanSet();
+      this.version = version;
+    }
+  }
+
+}
@@ -0,0 +1,90 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.property.criteria.index;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import io.github.mmm.property.criteria.CriteriaValueHelper;
+import io.github.mmm.property.criteria.PredicateOperator;
+import io.github.mmm.property.criteria.evaluation.ValueAccessor;
+import io.github.mmm.value.PropertyPath;
+
+/**
+ * {@link PropertyIndex} based on hashing for {@link PredicateOperator#EQ EQ} and {@link PredicateOperator#IN IN}.
+ * Keys are normalized so that the lookup is consistent with {@link CriteriaValueHelper#isEqual(Object, Object)} (e.g.
+ * {@link Integer} {@code 1} finds {@link Long} {@code 1L} and an {@link Enum} is indexed by its {@link Enum#name()
+ * name}).
+ *
+ * @param <B> type of the indexed beans.
+ * @since 1.0.0
+ */
+public class HashPropertyIndex<B> extends PropertyIndex<B> {
+
+  private final Map<Object, Set<B>> buckets;
+
+  /**
+   * The constructor.
+   *
+   * @param path the {@link #getPath() path}.
+   * @param accessor the {@link ValueAccessor} to read the value of the {@link #getPath() path} from a bean.
+   */
+  public HashPropertyIndex(PropertyPath<?> path, ValueAccessor accessor) {
+
+    super(path, accessor);
+    this.buckets = new HashMap<>();
+  }
+
+  @Override
+  protected void doAdd(Object key, B bean) {
+
+    this.buckets.computeIfAbsent(key, k -> newBeanSet()).add(bean);
+  }
+
+  @Override
+  protected void doRemove(Object key, B bean) {
+
+    Set<B> bucket = this.buckets.get(key);
+    if (bucket != null) {
+      bucket.remove(bean);
+      if (bucket.isEmpty()) {
+        this.buckets.remove(key);
+      }
+    }
+  }
+
+  @Override
+  protected Object normalizeKey(Object value) {
+
+    return CriteriaValueHelper.normalizeKey(value);
+  }
+
+  @Override
+  protected Set<B> doFind(PredicateOperator op, Object value) {
+
+    if (op == PredicateOperator.EQ) {
+      return get(value);
+    } else if ((op == PredicateOperator.IN) && (value instanceof Collection)) {
+      Set<B> result = newBeanSet();
+      for (Object element : (Collection<?>) value) {
+        if (element != null) {
+          result.addAll(get(element));
+        }
+      }
+      return result;
+    }
+    return null;
+  }
+
+  private Set<B> get(Object value) {
+
+    Set<B> bucket = this.buckets.get(normalizeKey(value));
+    if (bucket == null) {
+      return Set.of();
+    }
+    return bucket;
+  }
+
+}
@@ -0,0 +1,630 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.property.criteria.index;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import io.github.mmm.property.criteria.CriteriaPredicate;
+import io.github.mmm.property.criteria.CriteriaValueHelper;
+import io.github.mmm.property.criteria.Literal;
+import io.github.mmm.property.criteria.PredicateOperator;
+import io.github.mmm.property.criteria.PropertyPathHelper;
+import io.github.mmm.property.criteria.evaluation.BeanChangeBatch;
+import io.github.mmm.property.criteria.evaluation.CriteriaEvaluator;
+import io.github.mmm.property.criteria.evaluation.PropertyPathResolver;
+import io.github.mmm.property.criteria.evaluation.ReflectivePropertyPathResolver;
+import io.github.mmm.property.criteria.evaluation.ValueAccessor;
+import io.github.mmm.value.CriteriaObject;
+import io.github.mmm.value.PropertyPath;
+import io.github.mmm.value.observable.ObservableEventListener;
+import io.github.mmm.value.observable.ObservableValue;
+
+/**
+ * Collection of beans with secondary {@link PropertyIndex indexes} on selected {@link PropertyPath}s. When
+ * {@link #filter(CriteriaPredicate) filtering} by a {@link CriteriaPredicate}, indexable conditions (e.g.
+ * {@code Age > 5} if there is an index for {@code Age}) are resolved via the indexes. The results of the arguments of
+ * an {@link PredicateOperator#AND AND} are intersected (range conditions on the same {@link SortedPropertyIndex} are
+ * merged into a single range scan) and the results of an {@link PredicateOperator#OR OR} are united if all its
+ * arguments are indexable. The remaining candidates are then verified with the compiled {@link CriteriaPredicate} so
+ * the result is always identical to a full scan. Only if no index is applicable, all beans are scanned.<br>
+ * If the value of an indexed {@link PropertyPath} is an {@link ObservableValue} (e.g. a
+ * {@link io.github.mmm.property.Property}), a listener is registered so the indexes stay up-to-date when the value
+ * changes. Otherwise (or if an intermediate object of a nested {@link PropertyPath} is replaced) you need to call
+ * {@link #update(Object)} after modifying a bean. Beans are compared by identity and the iteration order is
+ * unspecified. Optionally the results of {@link #filter(CriteriaPredicate) filtering} can be cached (see
+ * {@link #setResultCacheSize(int)}). In that case the same kind of listener is also registered for the
+ * {@link PropertyPath}s referenced by the cached {@link CriteriaPredicate}s, even if they are not indexed. This class
+ * is not thread-safe.
+ *
+ * @param <B> type of the beans.
+ * @since 1.0.0
+ */
+public class IndexedCollection<B> implements Iterable<B> {
+
+  private final CriteriaEvaluator evaluator;
+
+  private final Map<B, List<ListenerRegistration>> beans;
+
+  private final Map<List<String>, IndexEntry> indexes;
+
+  private final Map<List<String>, ObservedPath> observedPaths;
+
+  private CriteriaResultCache<B> resultCache;
+
+  private long version;
+
+  /**
+   * The constructor.
+   */
+  public IndexedCollection() {
+
+    this(null);
+  }
+
+  /**
+   * The constructor.
+   *
+   * @param evaluator the {@link CriteriaEvaluator} or {@code null} for {@link CriteriaEvaluator#get() default}.
+   */
+  public IndexedCollection(CriteriaEvaluator evaluator) {
+
+    super();
+    if (evaluator == null) {
+      this.evaluator = CriteriaEvaluator.get();
+    } else {
+      this.evaluator = evaluator;
+    }
+    this.beans = new IdentityHashMap<>();
+    this.indexes = new HashMap<>();
+    this.observedPaths = new HashMap<>();
+  }
+
+  /**
+   * @param path the {@link PropertyPath} to index.
+   * @return the new {@link HashPropertyIndex} for {@link PredicateOperator#EQ EQ} and {@link PredicateOperator#IN IN}.
+   */
+  public HashPropertyIndex<B> addHashIndex(PropertyPath<?> path) {
+
+    return addIndex(new HashPropertyIndex<>(path, this.evaluator.compileValue(path)));
+  }
+
+  /**
+   * @param path the {@link PropertyPath} to index.
+   * @return the new {@link SortedPropertyIndex} for range and prefix lookups.
+   */
+  public SortedPropertyIndex<B> addSortedIndex(PropertyPath<?> path) {
+
+    return addIndex(
+        new SortedPropertyIndex<>(path, this.evaluator.compileValue(path), this.evaluator.getLikeSyntax()));
+  }
+
+  /**
+   * @param <I> type of the {@link PropertyIndex}.
+   * @param index the {@link PropertyIndex} to add. Will be populated with all beans of this collection. Replaces an
+   *        existing {@link PropertyIndex} for the same {@link PropertyIndex#getPath() path}.
+   * @return the given {@link PropertyIndex}.
+   */
+  public <I extends PropertyIndex<B>> I addIndex(I index) {
+
+    PropertyPath<?> path = index.getPath();
+    List<String> key = List.of(PropertyPathHelper.getSegments(path));
+    removeIndex(path);
+    IndexEntry entry = new IndexEntry(key, index, resolveProperty(path));
+    this.indexes.put(key, entry);
+    for (Map.Entry<B, List<ListenerRegistration>> beanEntry : this.beans.entrySet()) {
+      B bean = beanEntry.getKey();
+      index.add(bean);
+      entry.register(bean, beanEntry.getValue());
+    }
+    return index;
+  }
+
+  /**
+   * @param path the {@link PropertyPath} of the {@link PropertyIndex} to remove.
+   * @return {@code true} if the {@link PropertyIndex} was removed, {@code false} if no such index existed.
+   */
+  public boolean removeIndex(PropertyPath<?> path) {
+
+    IndexEntry entry = this.indexes.remove(List.of(PropertyPathHelper.getSegments(path)));
+    if (entry == null) {
+      return false;
+    }
+    unregister(entry);
+    return true;
+  }
+
+  private void unregister(Object entry) {
+
+    for (List<ListenerRegistration> registrations : this.beans.values()) {
+      Iterator<ListenerRegistration> iterator = registrations.iterator();
+      while (iterator.hasNext()) {
+        ListenerRegistration registration = iterator.next();
+        if (registration.entry == entry) {
+          registration.unregister();
+          iterator.remove();
+        }
+      }
+    }
+  }
+
+  private ValueAccessor resolveProperty(PropertyPath<?> path) {
+
+    PropertyPathResolver resolver = this.evaluator.getResolver();
+    if (resolver instanceof ReflectivePropertyPathResolver) {
+      return ((ReflectivePropertyPathResolver) resolver).resolve(path, false);
+    }
+    return null;
+  }
+
+  /**
+   * Observes the given {@link PropertyPath} of all beans so that changes of its value are announced to the
+   * {@link #getResultCache() result cache} even if the {@link PropertyPath} is not indexed. Calls are counted and have
+   * to be balanced with {@link #unobserve(PropertyPath)}.
+   *
+   * @param path the {@link PropertyPath} to observe.
+   */
+  void observe(PropertyPath<?> path) {
+
+    List<String> key = List.of(PropertyPathHelper.getSegments(path));
+    ObservedPath observed = this.observedPaths.get(key);
+    if (observed == null) {
+      observed = new ObservedPath(resolveProperty(path));
+      this.observedPaths.put(key, observed);
+      for (Map.Entry<B, List<ListenerRegistration>> beanEntry : this.beans.entrySet()) {
+        observed.register(beanEntry.getKey(), beanEntry.getValue());
+      }
+    }
+    observed.count++;
+  }
+
+  /**
+   * @param path the {@link PropertyPath} to stop observing.
+   * @see #observe(PropertyPath)
+   */
+  void unobserve(PropertyPath<?> path) {
+
+    List<String> key = List.of(PropertyPathHelper.getSegments(path));
+    ObservedPath observed = this.observedPaths.get(key);
+    if ((observed != null) && (--observed.count == 0)) {
+      this.observedPaths.remove(key);
+      unregister(observed);
+    }
+  }
+
+  /**
+   * @param path the {@link PropertyPath}.
+   * @return the {@link PropertyIndex} for the given {@link PropertyPath} or {@code null} if not indexed.
+   */
+  public PropertyIndex<B> getIndex(PropertyPath<?> path) {
+
+    IndexEntry entry = this.indexes.get(List.of(PropertyPathHelper.getSegments(path)));
+    if (entry == null) {
+      return null;
+    }
+    return entry.index;
+  }
+
+  /**
+   * @return the {@link CriteriaResultCache} or {@code null} if results are not cached.
+   */
+  public CriteriaResultCache<B> getResultCache() {
+
+    return this.resultCache;
+  }
+
+  /**
+   * @param maxSize the maximum number of {@link #filter(CriteriaPredicate) filter} results to cache or {@code 0} to
+   *        disable the {@link #getResultCache() result cache}.
+   */
+  public void setResultCacheSize(int maxSize) {
+
+    if (this.resultCache != null) {
+      this.resultCache.clear();
+    }
+    if (maxSize == 0) {
+      this.resultCache = null;
+    } else {
+      this.resultCache = new CriteriaResultCache<>(this, this.evaluator, maxSize);
+    }
+  }
+
+  /**
+   * @return the data version that is incremented whenever this collection is modified (a bean is added, removed, or
+   *         updated).
+   */
+  public long getVersion() {
+
+    return this.version;
+  }
+
+  /**
+   * @param bean the bean to add.
+   * @return {@code true} if the bean has been added, {@code false} if already contained.
+   */
+  public boolean add(B bean) {
+
+    if (this.beans.containsKey(bean)) {
+      return false;
+    }
+    List<ListenerRegistration> registrations = new ArrayList<>();
+    this.beans.put(bean, registrations);
+    for (IndexEntry entry : this.indexes.values()) {
+      entry.index.add(bean);
+      entry.register(bean, registrations);
+    }
+    for (ObservedPath observed : this.observedPaths.values()) {
+      observed.register(bean, registrations);
+    }
+    this.version++;
+    if (this.resultCache != null) {
+      this.resultCache.onAdd(bean);
+    }
+    return true;
+  }
+
+  /**
+   * @param collection the beans to add.
+   */
+  public void addAll(Collection<? extends B> collection) {
+
+    for (B bean : collection) {
+      add(bean);
+    }
+  }
+
+  /**
+   * @param bean the bean to remove.
+   * @return {@code true} if the bean has been removed, {@code false} if not contained.
+   */
+  public boolean remove(B bean) {
+
+    List<ListenerRegistration> registrations = this.beans.remove(bean);
+    if (registrations == null) {
+      return false;
+    }
+    for (ListenerRegistration registration : registrations) {
+      registration.unregister();
+    }
+    for (IndexEntry entry : this.indexes.values()) {
+      entry.index.remove(bean);
+    }
+    this.version++;
+    if (this.resultCache != null) {
+      this.resultCache.onRemove(bean);
+    }
+    return true;
+  }
+
+  /**
+   * Re-indexes the given bean. Only needed for changes that are not observed automatically.
+   *
+   * @param bean the bean that has been modified.
+   */
+  public void update(B bean) {
+
+    if (this.beans.containsKey(bean)) {
+      for (IndexEntry entry : this.indexes.values()) {
+        entry.index.update(bean);
+      }
+      onChange(bean);
+    }
+  }
+
+  private void onChange(B bean) {
+
+    this.version++;
+    if (this.resultCache != null) {
+      this.resultCache.onUpdate(bean);
+    }
+  }
+
+  /**
+   * @param bean the bean to check.
+   * @return {@code true} if the given bean is contained in this collection, {@code false} otherwise.
+   */
+  public boolean contains(Object bean) {
+
+    return this.beans.containsKey(bean);
+  }
+
+  /**
+   * @return the number of beans in this collection.
+   */
+  public int size() {
+
+    return this.beans.size();
+  }
+
+  @Override
+  public Iterator<B> iterator() {
+
+    return Collections.unmodifiableSet(this.beans.keySet()).iterator();
+  }
+
+  /**
+   * @param predicate the {@link CriteriaPredicate} to filter by.
+   * @return a new {@link List} with the beans matching the given {@link CriteriaPredicate} in unspecified order.
+   */
+  public List<B> filter(CriteriaPredicate predicate) {
+
+    if (this.resultCache != null) {
+      return this.resultCache.filter(predicate);
+    }
+    Predicate<Object> filter = this.evaluator.compileCondition(predicate);
+    Iterable<B> candidates = lookup(predicate);
+    if (candidates == null) {
+      candidates = this.beans.keySet();
+    }
+    List<B> result = new ArrayList<>();
+    for (B bean : candidates) {
+      if (filter.test(bean)) {
+        result.add(bean);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * @param condition the {@link CriteriaObject} to resolve via the indexes.
+   * @return the {@link Set} of candidates that is a super-set of the beans matching the given condition or
+   *         {@code null} if the condition can not be resolved via the indexes. The result shall not be modified.
+   */
+  protected Set<B> lookup(CriteriaObject<?> condition) {
+
+    if (!(condition instanceof CriteriaPredicate)) {
+      return null;
+    }
+    CriteriaPredicate predicate = (CriteriaPredicate) condition;
+    PredicateOperator op = predicate.getOperator();
+    if (op == PredicateOperator.AND) {
+      return lookupAnd(predicate);
+    } else if (op == PredicateOperator.OR) {
+      Set<B> result = PropertyIndex.newBeanSet();
+      for (CriteriaObject<?> arg : predicate.getArgs()) {
+        Set<B> candidates = lookup(arg);
+        if (candidates == null) {
+          return null;
+        }
+        result.addAll(candidates);
+      }
+      return result;
+    } else if (op.isConjunction() || (op == PredicateOperator.NOT)) {
+      return null;
+    }
+    IndexEntry entry = getIndexEntry(predicate.getFirstArg());
+    if (entry == null) {
+      return null;
+    }
+    CriteriaObject<?> arg2 = predicate.getSecondArg();
+    Object value = null;
+    if (arg2 instanceof Literal) {
+      value = ((Literal<?>) arg2).get();
+    } else if (arg2 != null) {
+      return null;
+    }
+    return entry.index.find(op, value);
+  }
+
+  private Set<B> lookupAnd(CriteriaPredicate predicate) {
+
+    List<Set<B>> sets = new ArrayList<>();
+    Map<SortedPropertyIndex<B>, Range> ranges = new LinkedHashMap<>();
+    for (CriteriaObject<?> arg : predicate.getArgs()) {
+      if (!addRange(arg, ranges)) {
+        Set<B> candidates = lookup(arg);
+        if (candidates != null) {
+          sets.add(candidates);
+        }
+      }
+    }
+    for (Map.Entry<SortedPropertyIndex<B>, Range> entry : ranges.entrySet()) {
+      Range range = entry.getValue();
+      Set<B> candidates = entry.getKey().findRange(range.min, range.minInclusive, range.max, range.maxInclusive);
+      if (candidates != null) {
+        sets.add(candidates);
+      }
+    }
+    if (sets.isEmpty()) {
+      return null;
+    }
+    Set<B> smallest = sets.get(0);
+    for (Set<B> set : sets) {
+      if (set.size() < smallest.size()) {
+        smallest = set;
+      }
+    }
+    if (sets.size() == 1) {
+      return smallest;
+    }
+    Set<B> result = PropertyIndex.newBeanSet();
+    for (B bean : smallest) {
+      boolean match = true;
+      for (Set<B> set : sets) {
+        if ((set != smallest) && !set.contains(bean)) {
+          match = false;
+          break;
+        }
+      }
+      if (match) {
+        result.add(bean);
+      }
+    }
+    return result;
+  }
+
+  @SuppressWarnings("unchecked")
+  private boolean addRange(CriteriaObject<?> arg, Map<SortedPropertyIndex<B>, Range> ranges) {
+
+    if (!(arg instanceof CriteriaPredicate)) {
+      return false;
+    }
+    CriteriaPredicate predicate = (CriteriaPredicate) arg;
+    PredicateOperator op = predicate.getOperator();
+    if ((op != PredicateOperator.LT) && (op != PredicateOperator.LE) && (op != PredicateOperator.GT)
+        && (op != PredicateOperator.GE)) {
+      return false;
+    }
+    IndexEntry entry = getIndexEntry(predicate.getFirstArg());
+    CriteriaObject<?> arg2 = predicate.getSecondArg();
+    if ((entry == null) || !(entry.index instanceof SortedPropertyIndex) || !(arg2 instanceof Literal)) {
+      return false;
+    }
+    Object value = ((Literal<?>) arg2).get();
+    if (value == null) {
+      return false;
+    }
+    Range range = ranges.computeIfAbsent((SortedPropertyIndex<B>) entry.index, k -> new Range());
+    try {
+      if ((op == PredicateOperator.GT) || (op == PredicateOperator.GE)) {
+        range.setMin(value, op == PredicateOperator.GE);
+      } else {
+        range.setMax(value, op == PredicateOperator.LE);
+      }
+    } catch (IllegalArgumentException e) {
+      return false;
+    }
+    return true;
+  }
+
+  private IndexEntry getIndexEntry(CriteriaObject<?> arg) {
+
+    if (!(arg instanceof PropertyPath) || this.indexes.isEmpty()) {
+      return null;
+    }
+    return this.indexes.get(List.of(PropertyPathHelper.getSegments((PropertyPath<?>) arg)));
+  }
+
+  private class IndexEntry {
+
+    private final List<String> key;
+
+    private final PropertyIndex<B> index;
+
+    private final ValueAccessor propertyAccessor;
+
+    private IndexEntry(List<String> key, PropertyIndex<B> index, ValueAccessor propertyAccessor) {
+
+      super();
+      this.key = key;
+      this.index = index;
+      this.propertyAccessor = propertyAccessor;
+    }
+
+    private void register(B bean, List<ListenerRegistration> registrations) {
+
+      if (this.propertyAccessor == null) {
+        return;
+      }
+      Object property = this.propertyAccessor.get(bean);
+      if (property instanceof ObservableValue) {
+        ObservableValue<?> observable = (ObservableValue<?>) property;
+        ObservableEventListener<Object> listener = event -> {
+          BeanChangeBatch.notify(this.index, bean, () -> this.index.update(bean));
+          // if also observed for the result cache, the ObservedPath already announces the change
+          if (!IndexedCollection.this.observedPaths.containsKey(this.key)) {
+            BeanChangeBatch.notify(IndexedCollection.this, bean, () -> onChange(bean));
+          }
+        };
+        observable.addListener(listener);
+        registrations.add(new ListenerRegistration(this, observable, listener));
+      }
+    }
+  }
+
+  private class ObservedPath {
+
+    private final ValueAccessor propertyAccessor;
+
+    private int count;
+
+    private ObservedPath(ValueAccessor propertyAccessor) {
+
+      super();
+      this.propertyAccessor = propertyAccessor;
+    }
+
+    private void register(B bean, List<ListenerRegistration> registrations) {
+
+      if (this.propertyAccessor == null) {
+        return;
+      }
+      Object property = this.propertyAccessor.get(bean);
+      if (property instanceof ObservableValue) {
+        ObservableValue<?> observable = (ObservableValue<?>) property;
+        ObservableEventListener<Object> listener = event -> BeanChangeBatch.notify(IndexedCollection.this, bean,
+            () -> onChange(bean));
+        observable.addListener(listener);
+        registrations.add(new ListenerRegistration(this, observable, listener));
+      }
+    }
+  }
+
+  private static class ListenerRegistration {
+
+    private final Object entry;
+
+    private final ObservableValue<?> observable;
+
+    private final ObservableEventListener<Object> listener;
+
+    private ListenerRegistration(Object entry, ObservableValue<?> observable,
+        ObservableEventListener<Object> listener) {
+
+      super();
+      this.entry = entry;
+      this.observable = observable;
+      this.listener = listener;
+    }
+
+    private void unregister() {
+
+      this.observable.removeListener(this.listener);
+    }
+  }
+
+  private static class Range {
+
+    private Object min;
+
+    private boolean minInclusive;
+
+    private Object max;
+
+    private boolean maxInclusive;
+
+    private void setMin(Object value, boolean inclusive) {
+
+      if (this.min != null) {
+        int delta = CriteriaValueHelper.compare(value, this.min);
+        if ((delta < 0) || ((delta == 0) && inclusive)) {
+          return;
+        }
+      }
+      this.min = value;
+      this.minInclusive = inclusive;
+    }
+
+    private void setMax(Object value, boolean inclusive) {
+
+      if (this.max != null) {
+        int delta = CriteriaValueHelper.compare(value, this.max);
+        if ((delta > 0) || ((delta == 0) && inclusive)) {
+          return;
+        }
+      }
+      this.max = value;
+      this.maxInclusive = inclusive;
+    }
+  }
+
+}
@@ -0,0 +1,191 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.property.criteria.index;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import io.github.mmm.property.criteria.PredicateOperator;
+import io.github.mmm.property.criteria.evaluation.ValueAccessor;
+import io.github.mmm.value.PropertyPath;
+
+/**
+ * Abstract base class for a secondary index of beans by the value of a {@link #getPath() property path}. The index
+ * remembers the current key of each bean so it can be {@link #update(Object) updated} when the value changes. Beans
+ * are compared by identity. Indexes are not thread-safe.
+ *
+ * @param <B> type of the indexed beans.
+ * @since 1.0.0
+ * @see IndexedCollection
+ */
+public abstract class PropertyIndex<B> {
+
+  private final PropertyPath<?> path;
+
+  private final ValueAccessor accessor;
+
+  private final Map<B, Object> keys;
+
+  private final Set<B> nullBeans;
+
+  /**
+   * The constructor.
+   *
+   * @param path the {@link #getPath() path}.
+   * @param accessor the {@link ValueAccessor} to read the value of the {@link #getPath() path} from a bean.
+   */
+  protected PropertyIndex(PropertyPath<?> path, ValueAccessor accessor) {
+
+    super();
+    Objects.requireNonNull(path, "path");
+    Objects.requireNonNull(accessor, "accessor");
+    this.path = path;
+    this.accessor = accessor;
+    this.keys = new IdentityHashMap<>();
+    this.nullBeans = newBeanSet();
+  }
+
+  /**
+   * @return the {@link PropertyPath} of the indexed values.
+   */
+  public PropertyPath<?> getPath() {
+
+    return this.path;
+  }
+
+  /**
+   * @return the number of indexed beans.
+   */
+  public int size() {
+
+    return this.keys.size();
+  }
+
+  /**
+   * @param bean the bean to add to this index.
+   */
+  public void add(B bean) {
+
+    Object key = normalizeKey(this.accessor.get(bean));
+    this.keys.put(bean, key);
+    addEntry(key, bean);
+  }
+
+  /**
+   * @param bean the bean to remove from this index.
+   */
+  public void remove(B bean) {
+
+    if (this.keys.containsKey(bean)) {
+      removeEntry(this.keys.remove(bean), bean);
+    }
+  }
+
+  /**
+   * Re-indexes the given bean after its value for the {@link #getPath() path} may have changed.
+   *
+   * @param bean the bean to update.
+   * @return {@code true} if the key of the bean changed, {@code false} otherwise.
+   */
+  public boolean update(B bean) {
+
+    if (!this.keys.containsKey(bean)) {
+      return false;
+    }
+    Object oldKey = this.keys.get(bean);
+    Object newKey = normalizeKey(this.accessor.get(bean));
+    if (Objects.equals(oldKey, newKey)) {
+      return false;
+    }
+    removeEntry(oldKey, bean);
+    this.keys.put(bean, newKey);
+    addEntry(newKey, bean);
+    return true;
+  }
+
+  private void addEntry(Object key, B bean) {
+
+    if (key == null) {
+      this.nullBeans.add(bean);
+    } else {
+      doAdd(key, bean);
+    }
+  }
+
+  private void removeEntry(Object key, B bean) {
+
+    if (key == null) {
+      this.nullBeans.remove(bean);
+    } else {
+      doRemove(key, bean);
+    }
+  }
+
+  /**
+   * @param key the normalized key that is not {@code null}.
+   * @param bean the bean to add for the given {@code key}.
+   */
+  protected abstract void doAdd(Object key, B bean);
+
+  /**
+   * @param key the normalized key that is not {@code null}.
+   * @param bean the bean to remove for the given {@code key}.
+   */
+  protected abstract void doRemove(Object key, B bean);
+
+  /**
+   * @param value the value of the {@link #getPath() path}.
+   * @return the normalized key to index the value.
+   */
+  protected Object normalizeKey(Object value) {
+
+    return value;
+  }
+
+  /**
+   * @param op the {@link PredicateOperator}.
+   * @param value the value to compare with (e.g. {@link io.github.mmm.property.criteria.Literal#get() literal value}).
+   *        Will be {@code null} for {@link PredicateOperator#isUnary() unary} operators.
+   * @return the {@link Set} of beans matching the condition "path op value" or {@code null} if the given
+   *         {@link PredicateOperator} is not supported by this index. The result may be a live view of the index and
+   *         shall not be modified.
+   */
+  public Set<B> find(PredicateOperator op, Object value) {
+
+    if (op == PredicateOperator.IS_NULL) {
+      return this.nullBeans;
+    } else if (op.isUnary()) {
+      return null;
+    } else if (value == null) {
+      // comparison with null is never satisfied (SQL semantics)
+      return Set.of();
+    }
+    return doFind(op, value);
+  }
+
+  /**
+   * @param op the binary {@link PredicateOperator}.
+   * @param value the value to compare with. Will not be {@code null}.
+   * @return the result of {@link #find(PredicateOperator, Object)}.
+   */
+  protected abstract Set<B> doFind(PredicateOperator op, Object value);
+
+  /**
+   * @param <B> type of the beans.
+   * @return a new mutable {@link Set} for beans that compares by identity.
+   */
+  protected static <B> Set<B> newBeanSet() {
+
+    return Collections.newSetFromMap(new IdentityHashMap<>());
+  }
+
+  @Override
+  public String toString() {
+
+    return getClass().getSimpleName() + "(" + this.path.path() + ")";
+  }
+
+}
@@ -0,0 +1,168 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.property.criteria.index;
+
+import java.util.Collection;
+import java.util.Map.Entry;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+import io.github.mmm.property.criteria.CriteriaValueHelper;
+import io.github.mmm.property.criteria.LikePatternSyntax;
+import io.github.mmm.property.criteria.PredicateOperator;
+import io.github.mmm.property.criteria.evaluation.ValueAccessor;
+import io.github.mmm.value.PropertyPath;
+
+/**
+ * {@link PropertyIndex} based on a sorted tree for {@link PredicateOperator#EQ EQ}, {@link PredicateOperator#IN IN},
+ * the range operators {@link PredicateOperator#LT LT}, {@link PredicateOperator#LE LE}, {@link PredicateOperator#GT
+ * GT}, {@link PredicateOperator#GE GE} as well as {@link #findRange(Object, boolean, Object, boolean) ranges} and
+ * {@link PredicateOperator#LIKE LIKE} with a literal prefix (e.g. {@code LIKE 'abc%'}) that is resolved as a range
+ * scan.
+ * Keys are ordered via {@link CriteriaValueHelper#compare(Object, Object)} so all values of the indexed
+ * {@link #getPath() path} have to be mutually comparable.
+ *
+ * @param <B> type of the indexed beans.
+ * @since 1.0.0
+ */
+public class SortedPropertyIndex<B> extends PropertyIndex<B> {
+
+  private final NavigableMap<Object, Set<B>> tree;
+
+  private final LikePatternSyntax likeSyntax;
+
+  /**
+   * The constructor.
+   *
+   * @param path the {@link #getPath() path}.
+   * @param accessor the {@link ValueAccessor} to read the value of the {@link #getPath() path} from a bean.
+   * @param likeSyntax the {@link LikePatternSyntax} of the patterns for {@link PredicateOperator#LIKE LIKE} or
+   *        {@code null} for {@link LikePatternSyntax#autoDetect(String) auto-detection}.
+   */
+  public SortedPropertyIndex(PropertyPath<?> path, ValueAccessor accessor, LikePatternSyntax likeSyntax) {
+
+    super(path, accessor);
+    this.tree = new TreeMap<>(CriteriaValueHelper::compare);
+    this.likeSyntax = likeSyntax;
+  }
+
+  @Override
+  protected void doAdd(Object key, B bean) {
+
+    this.tree.computeIfAbsent(key, k -> newBeanSet()).add(bean);
+  }
+
+  @Override
+  protected void doRemove(Object key, B bean) {
+
+    Set<B> bucket = this.tree.get(key);
+    if (bucket != null) {
+      bucket.remove(bean);
+      if (bucket.isEmpty()) {
+        this.tree.remove(key);
+      }
+    }
+  }
+
+  @Override
+  protected Set<B> doFind(PredicateOperator op, Object value) {
+
+    try {
+      if (op == PredicateOperator.EQ) {
+        Set<B> bucket = this.tree.get(value);
+        if (bucket == null) {
+          return Set.of();
+        }
+        return bucket;
+      } else if (op == PredicateOperator.LT) {
+        return union(this.tree.headMap(value, false));
+      } else if (op == PredicateOperator.LE) {
+        return union(this.tree.headMap(value, true));
+      } else if (op == PredicateOperator.GT) {
+        return union(this.tree.tailMap(value, false));
+      } else if (op == PredicateOperator.GE) {
+        return union(this.tree.tailMap(value, true));
+      } else if ((op == PredicateOperator.IN) && (value instanceof Collection)) {
+        Set<B> result = newBeanSet();
+        for (Object element : (Collection<?>) value) {
+          if (element != null) {
+            Set<B> bucket = this.tree.get(element);
+            if (bucket != null) {
+              result.addAll(bucket);
+            }
+          }
+        }
+        return result;
+      } else if ((op == PredicateOperator.LIKE) && (value instanceof String)) {
+        return findPrefix((String) value);
+      }
+    } catch (IllegalArgumentException e) {
+      // value not comparable with the indexed keys - fall back to scan
+    }
+    return null;
+  }
+
+  private Set<B> findPrefix(String pattern) {
+
+    LikePatternSyntax syntax = this.likeSyntax;
+    if (syntax == null) {
+      syntax = LikePatternSyntax.autoDetect(pattern);
+      if (syntax == null) {
+        syntax = LikePatternSyntax.SQL;
+      }
+    }
+    String prefix = syntax.compile(pattern).getLiteralPrefix();
+    if (prefix.isEmpty()) {
+      return null;
+    }
+    Set<B> result = newBeanSet();
+    for (Entry<Object, Set<B>> entry : this.tree.tailMap(prefix, true).entrySet()) {
+      Object key = entry.getKey();
+      if (!(key instanceof String) || !((String) key).startsWith(prefix)) {
+        break;
+      }
+      result.addAll(entry.getValue());
+    }
+    return result;
+  }
+
+  /**
+   * @param min the lower bound or {@code null} for unbounded.
+   * @param minInclusive - {@code true} if the lower bound is inclusive, {@code false} otherwise.
+   * @param max the upper bound or {@code null} for unbounded.
+   * @param maxInclusive - {@code true} if the upper bound is inclusive, {@code false} otherwise.
+   * @return the {@link Set} of beans with a value within the given range or {@code null} if the bounds are not
+   *         comparable with the indexed keys.
+   */
+  public Set<B> findRange(Object min, boolean minInclusive, Object max, boolean maxInclusive) {
+
+    try {
+      NavigableMap<Object, Set<B>> range = this.tree;
+      if ((min != null) && (max != null)) {
+        int delta = CriteriaValueHelper.compare(min, max);
+        if ((delta > 0) || ((delta == 0) && !(minInclusive && maxInclusive))) {
+          return Set.of();
+        }
+        range = range.subMap(min, minInclusive, max, maxInclusive);
+      } else if (min != null) {
+        range = range.tailMap(min, minInclusive);
+      } else if (max != null) {
+        range = range.headMap(max, maxInclusive);
+      }
+      return union(range);
+    } catch (IllegalArgumentException e) {
+      return null;
+    }
+  }
+
+  private static <B> Set<B> union(NavigableMap<Object, Set<B>> map) {
+
+    Set<B> result = newBeanSet();
+    for (Set<B> bucket : map.values()) {
+      result.addAll(bucket);
+    }
+    return result;
+  }
+
+}
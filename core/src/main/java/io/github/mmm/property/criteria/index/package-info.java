@@ -0,0 +1,10 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+/**
+ * Contains secondary in-memory indexes over collections of beans. Use
+ * {@link io.github.mmm.property.criteria.index.IndexedCollection} to maintain
+ * {@link io.github.mmm.property.criteria.index.PropertyIndex indexes} on selected
+ * {@link io.github.mmm.value.PropertyPath}s and to filter by {@link io.github.mmm.property.criteria.CriteriaPredicate}s
+ * without scanning the entire collection.
+ */
+package io.github.mmm.property.criteria.index;
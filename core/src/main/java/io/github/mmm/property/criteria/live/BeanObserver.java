@@ -0,0 +1,122 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.property.criteria.live;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import io.github.mmm.property.criteria.evaluation.BeanChangeBatch;
+import io.github.mmm.property.criteria.evaluation.PropertyPathResolver;
+import io.github.mmm.property.criteria.evaluation.ReflectivePropertyPathResolver;
+import io.github.mmm.property.criteria.evaluation.ValueAccessor;
+import io.github.mmm.value.PropertyPath;
+import io.github.mmm.value.observable.ObservableEventListener;
+import io.github.mmm.value.observable.ObservableValue;
+
+/**
+ * Registers listeners on the {@link ObservableValue}s (e.g. {@link io.github.mmm.property.Property properties}) of
+ * beans for a set of {@link PropertyPath}s and invokes a callback with the bean whenever one of them changes. Changes
+ * within a {@link BeanChangeBatch} are coalesced into a single callback per bean.
+ *
+ * @param <B> type of the beans.
+ */
+final class BeanObserver<B> {
+
+  private final List<ValueAccessor> propertyAccessors;
+
+  private final Consumer<B> callback;
+
+  private final Map<B, List<Registration>> registrations;
+
+  /**
+   * The constructor.
+   *
+   * @param paths the {@link PropertyPath}s to observe.
+   * @param resolver the {@link PropertyPathResolver}. Observing is only supported for
+   *        {@link ReflectivePropertyPathResolver}.
+   * @param callback the callback to invoke with the bean that has changed.
+   */
+  BeanObserver(Iterable<PropertyPath<?>> paths, PropertyPathResolver resolver, Consumer<B> callback) {
+
+    super();
+    this.propertyAccessors = new ArrayList<>();
+    if (resolver instanceof ReflectivePropertyPathResolver) {
+      for (PropertyPath<?> path : paths) {
+        this.propertyAccessors.add(((ReflectivePropertyPathResolver) resolver).resolve(path, false));
+      }
+    }
+    this.callback = callback;
+    this.registrations = new IdentityHashMap<>();
+  }
+
+  /**
+   * @param bean the bean to observe.
+   */
+  void observe(B bean) {
+
+    if (this.propertyAccessors.isEmpty() || this.registrations.containsKey(bean)) {
+      return;
+    }
+    List<Registration> list = new ArrayList<>(this.propertyAccessors.size());
+    for (ValueAccessor accessor : this.propertyAccessors) {
+      Object property = accessor.get(bean);
+      if (property instanceof ObservableValue) {
+        ObservableValue<?> observable = (ObservableValue<?>) property;
+        ObservableEventListener<Object> listener = event -> BeanChangeBatch.notify(this, bean,
+            () -> this.callback.accept(bean));
+        observable.addListener(listener);
+        list.add(new Registration(observable, listener));
+      }
+    }
+    this.registrations.put(bean, list);
+  }
+
+  /**
+   * @param bean the bean to stop observing.
+   */
+  void unobserve(B bean) {
+
+    List<Registration> list = this.registrations.remove(bean);
+    if (list != null) {
+      for (Registration registration : list) {
+        registration.unregister();
+      }
+    }
+  }
+
+  /**
+   * Stops observing all beans.
+   */
+  void clear() {
+
+    for (List<Registration> list : this.registrations.values()) {
+      for (Registration registration : list) {
+        registration.unregister();
+      }
+    }
+    this.registrations.clear();
+  }
+
+  private static final class Registration {
+
+    private final ObservableValue<?> observable;
+
+    private final ObservableEventListener<Object> listener;
+
+    private Registration(ObservableValue<?> observable, ObservableEventListener<Object> listener) {
+
+      super();
+      this.observable = observable;
+      this.listener = listener;
+    }
+
+    private void unregister() {
+
+      this.observable.removeListener(this.listener);
+    }
+  }
+
+}
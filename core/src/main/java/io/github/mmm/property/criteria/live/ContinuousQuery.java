@@ -0,0 +1,374 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.property.criteria.live;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Predicate;
+
+import io.github.mmm.event.ChangeType;
+import io.github.mmm.property.criteria.CriteriaPredicate;
+import io.github.mmm.property.criteria.PropertyPathHelper;
+import io.github.mmm.property.criteria.evaluation.CriteriaEvaluator;
+import io.github.mmm.value.PropertyPath;
+import io.github.mmm.value.observable.ObservableEvent;
+import io.github.mmm.value.observable.ObservableEventListener;
+import io.github.mmm.value.observable.ObservableValue;
+import io.github.mmm.value.observable.container.collection.CollectionChange;
+
+/**
+ * A continuous query that keeps the {@link #getResult() result} of a {@link CriteriaPredicate} over a collection of
+ * beans up-to-date. For each bean a listener is registered on the {@link ObservableValue}s (e.g.
+ * {@link io.github.mmm.property.Property properties}) of all {@link PropertyPath}s referenced by the
+ * {@link CriteriaPredicate} so when a value changes only the affected bean is re-evaluated. If the collection itself is
+ * {@link #bind(ObservableValue) bound} to an {@link ObservableValue} (e.g. a
+ * {@link io.github.mmm.property.container.list.ListProperty}), added and removed beans are also tracked automatically.
+ * Instead of rescanning the collection, {@link ContinuousQueryListener}s receive the deltas of the result.<br>
+ * Beans are compared by identity. Changes that are not observable (e.g. plain fields or replaced intermediate objects
+ * of a nested {@link PropertyPath}) require an explicit call of {@link #update(Object)}. This class is not thread-safe.
+ *
+ * @param <B> type of the beans.
+ * @since 1.0.0
+ */
+public class ContinuousQuery<B> implements AutoCloseable {
+
+  private final CriteriaPredicate predicate;
+
+  private final Predicate<Object> filter;
+
+  private final BeanObserver<B> observer;
+
+  private final Set<B> beans;
+
+  private final Set<B> result;
+
+  private final List<ContinuousQueryListener<B>> listeners;
+
+  private ObservableValue<? extends Collection<? extends B>> source;
+
+  private ObservableEventListener<Object> sourceListener;
+
+  private boolean duplicates;
+
+  /**
+   * The constructor.
+   *
+   * @param predicate the {@link CriteriaPredicate} to maintain the {@link #getResult() result} for.
+   */
+  public ContinuousQuery(CriteriaPredicate predicate) {
+
+    this(predicate, null);
+  }
+
+  /**
+   * The constructor.
+   *
+   * @param predicate the {@link CriteriaPredicate} to maintain the {@link #getResult() result} for.
+   * @param evaluator the {@link CriteriaEvaluator} or {@code null} for {@link CriteriaEvaluator#get() default}.
+   */
+  public ContinuousQuery(CriteriaPredicate predicate, CriteriaEvaluator evaluator) {
+
+    super();
+    if (evaluator == null) {
+      evaluator = CriteriaEvaluator.get();
+    }
+    this.predicate = predicate;
+    this.filter = evaluator.compileCondition(predicate);
+    List<PropertyPath<?>> paths = new ArrayList<>();
+    PropertyPathHelper.collectPaths(predicate, paths);
+    this.observer = new BeanObserver<>(paths, evaluator.getResolver(), this::update);
+    this.beans = Collections.newSetFromMap(new IdentityHashMap<>());
+    this.result = Collections.newSetFromMap(new IdentityHashMap<>());
+    this.listeners = new CopyOnWriteArrayList<>();
+  }
+
+  /**
+   * @return the {@link CriteriaPredicate} of this query.
+   */
+  public CriteriaPredicate getPredicate() {
+
+    return this.predicate;
+  }
+
+  /**
+   * @return the unmodifiable and live {@link Set} with the beans currently matching the {@link #getPredicate()
+   *         predicate}. Iteration order is unspecified.
+   */
+  public Set<B> getResult() {
+
+    return Collections.unmodifiableSet(this.result);
+  }
+
+  /**
+   * @param listener the {@link ContinuousQueryListener} to add.
+   */
+  public void addListener(ContinuousQueryListener<B> listener) {
+
+    this.listeners.add(listener);
+  }
+
+  /**
+   * @param listener the {@link ContinuousQueryListener} to remove.
+   * @return {@code true} if the given {@link ContinuousQueryListener} has been removed, {@code false} otherwise.
+   */
+  public boolean removeListener(ContinuousQueryListener<B> listener) {
+
+    return this.listeners.remove(listener);
+  }
+
+  /**
+   * Binds this query to the given {@link ObservableValue} of a {@link Collection}. Change events of the {@code source}
+   * are handled by {@link #onSourceChange(ObservableEvent)}. A previous binding is replaced.
+   *
+   * @param collection the {@link ObservableValue} with the {@link Collection} of beans (e.g. a
+   *        {@link io.github.mmm.property.container.list.ListProperty}).
+   */
+  public void bind(ObservableValue<? extends Collection<? extends B>> collection) {
+
+    unbind();
+    this.source = collection;
+    this.sourceListener = this::onSourceChange;
+    collection.addListener(this.sourceListener);
+    sync(collection.get());
+  }
+
+  /**
+   * Called on a change event of the {@link #bind(ObservableValue) bound} source. If the {@link ObservableEvent}
+   * carries a {@link CollectionChange} (e.g. from the {@link
+   * io.github.mmm.property.container.list.ListProperty#getChangeAwareValue() change-aware value} of a
+   * {@link io.github.mmm.property.container.list.ListProperty}) that adds or removes elements, this delta is
+   * {@link #applyChanges(Collection, Collection) applied} so the cost is proportional to the size of the change.
+   * Otherwise (e.g. the {@link Collection} has been replaced, elements have been updated, or a removed bean may still
+   * be contained as duplicate) the beans are {@link #sync(Collection) synchronized} with the current
+   * {@link Collection} of the source.
+   *
+   * @param event the {@link ObservableEvent} of the source.
+   */
+  @SuppressWarnings("unchecked")
+  protected void onSourceChange(ObservableEvent<?> event) {
+
+    Object change = event.getChange();
+    if (change instanceof CollectionChange) {
+      CollectionChange<?, ?> collectionChange = (CollectionChange<?, ?>) change;
+      ChangeType type = collectionChange.getType();
+      if ((type == ChangeType.ADD) || ((type == ChangeType.REMOVE) && !this.duplicates)) {
+        int count = collectionChange.getCount();
+        List<B> elements = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+          elements.add((B) collectionChange.getElement(i));
+        }
+        if (type == ChangeType.ADD) {
+          int size = this.beans.size();
+          applyChanges(elements, null);
+          if ((this.beans.size() - size) < count) {
+            this.duplicates = true;
+          }
+        } else {
+          applyChanges(null, elements);
+        }
+        return;
+      }
+    }
+    sync(this.source.get());
+  }
+
+  /**
+   * Removes a previous {@link #bind(ObservableValue) binding}. The current beans remain.
+   */
+  public void unbind() {
+
+    if (this.source != null) {
+      this.source.removeListener(this.sourceListener);
+      this.source = null;
+      this.sourceListener = null;
+    }
+  }
+
+  /**
+   * @param bean the bean to add.
+   * @return {@code true} if the bean has been added, {@code false} if already contained.
+   */
+  public boolean add(B bean) {
+
+    if (!this.beans.add(bean)) {
+      return false;
+    }
+    this.observer.observe(bean);
+    if (this.filter.test(bean)) {
+      this.result.add(bean);
+      fireChange(List.of(bean), List.of());
+    }
+    return true;
+  }
+
+  /**
+   * @param bean the bean to remove.
+   * @return {@code true} if the bean has been removed, {@code false} if not contained.
+   */
+  public boolean remove(B bean) {
+
+    if (!this.beans.remove(bean)) {
+      return false;
+    }
+    this.observer.unobserve(bean);
+    if (this.result.remove(bean)) {
+      fireChange(List.of(), List.of(bean));
+    }
+    return true;
+  }
+
+  /**
+   * Re-evaluates the given bean. Only needed for changes that are not observed automatically.
+   *
+   * @param bean the bean that has been modified.
+   */
+  public void update(B bean) {
+
+    if (!this.beans.contains(bean)) {
+      return;
+    }
+    boolean match = this.filter.test(bean);
+    if (match) {
+      if (this.result.add(bean)) {
+        fireChange(List.of(bean), List.of());
+      }
+    } else if (this.result.remove(bean)) {
+      fireChange(List.of(), List.of(bean));
+    }
+  }
+
+  /**
+   * Applies the given delta of the underlying collection. Only the given beans are evaluated so the cost is
+   * proportional to the size of the delta and not of the collection. All changes of the {@link #getResult() result}
+   * are sent as a single delta.
+   *
+   * @param added the {@link Collection} with the beans that have been added. May be {@code null} or empty.
+   * @param removed the {@link Collection} with the beans that have been removed. May be {@code null} or empty.
+   */
+  public void applyChanges(Collection<? extends B> added, Collection<? extends B> removed) {
+
+    List<B> resultAdded = new ArrayList<>();
+    List<B> resultRemoved = new ArrayList<>();
+    if (removed != null) {
+      for (B bean : removed) {
+        if (this.beans.remove(bean)) {
+          this.observer.unobserve(bean);
+          if (this.result.remove(bean)) {
+            resultRemoved.add(bean);
+          }
+        }
+      }
+    }
+    if (added != null) {
+      for (B bean : added) {
+        if (this.beans.add(bean)) {
+          this.observer.observe(bean);
+          if (this.filter.test(bean)) {
+            this.result.add(bean);
+            if (!removeIdentical(resultRemoved, bean)) {
+              resultAdded.add(bean);
+            }
+          }
+        }
+      }
+    }
+    if (!resultAdded.isEmpty() || !resultRemoved.isEmpty()) {
+      fireChange(resultAdded, resultRemoved);
+    }
+  }
+
+  private static <B> boolean removeIdentical(List<B> list, B bean) {
+
+    int size = list.size();
+    for (int i = 0; i < size; i++) {
+      if (list.get(i) == bean) {
+        list.remove(i);
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Synchronizes the beans of this query with the given {@link Collection}. Only beans that have been added or removed
+   * are evaluated and all changes of the {@link #getResult() result} are sent as a single delta.
+   *
+   * @param collection the {@link Collection} with the current beans.
+   */
+  public void sync(Collection<? extends B> collection) {
+
+    List<B> added = new ArrayList<>();
+    List<B> removed = new ArrayList<>();
+    Set<B> current = Collections.newSetFromMap(new IdentityHashMap<>());
+    if (collection != null) {
+      for (B bean : collection) {
+        if (current.add(bean) && this.beans.add(bean)) {
+          this.observer.observe(bean);
+          if (this.filter.test(bean)) {
+            this.result.add(bean);
+            added.add(bean);
+          }
+        }
+      }
+    }
+    this.duplicates = (collection != null) && (current.size() < collection.size());
+    if (current.size() < this.beans.size()) {
+      List<B> obsolete = new ArrayList<>();
+      for (B bean : this.beans) {
+        if (!current.contains(bean)) {
+          obsolete.add(bean);
+        }
+      }
+      for (B bean : obsolete) {
+        this.beans.remove(bean);
+        this.observer.unobserve(bean);
+        if (this.result.remove(bean)) {
+          removed.add(bean);
+        }
+      }
+    }
+    if (!added.isEmpty() || !removed.isEmpty()) {
+      fireChange(added, removed);
+    }
+  }
+
+  /**
+   * @return the number of beans observed by this query (matching or not).
+   */
+  public int size() {
+
+    return this.beans.size();
+  }
+
+  /**
+   * @param added the {@link List} of beans that have been added to the {@link #getResult() result}.
+   * @param removed the {@link List} of beans that have been removed from the {@link #getResult() result}.
+   */
+  protected void fireChange(List<B> added, List<B> removed) {
+
+    List<B> addedView = Collections.unmodifiableList(added);
+    List<B> removedView = Collections.unmodifiableList(removed);
+    for (ContinuousQueryListener<B> listener : this.listeners) {
+      listener.onChange(addedView, removedView);
+    }
+  }
+
+  /**
+   * {@link #unbind() Unbinds} this query and removes all listeners registered on the beans.
+   */
+  @Override
+  public void close() {
+
+    unbind();
+    this.observer.clear();
+    this.beans.clear();
+    this.result.clear();
+  }
+
+}
@@ -0,0 +1,23 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.property.criteria.live;
+
+import java.util.List;
+
+/**
+ * Listener that receives the deltas of a {@link ContinuousQuery}.
+ *
+ * @param <B> type of the beans.
+ * @since 1.0.0
+ */
+@FunctionalInterface
+public interface ContinuousQueryListener<B> {
+
+  /**
+   * @param added the {@link List} of beans that have been added to the {@link ContinuousQuery#getResult() result}.
+   * @param removed the {@link List} of beans that have been removed from the {@link ContinuousQuery#getResult()
+   *        result}.
+   */
+  void onChange(List<B> added, List<B> removed);
+
+}
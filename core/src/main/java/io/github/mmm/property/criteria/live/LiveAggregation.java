@@ -0,0 +1,323 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.property.criteria.live;
+
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.github.mmm.property.ReadableProperty;
+import io.github.mmm.property.criteria.CriteriaAggregation;
+import io.github.mmm.property.criteria.CriteriaAggregationOperator;
+import io.github.mmm.property.criteria.CriteriaValueHelper;
+import io.github.mmm.property.criteria.evaluation.CriteriaEvaluator;
+import io.github.mmm.property.criteria.evaluation.ValueAccessor;
+import io.github.mmm.property.object.ObjectProperty;
+import io.github.mmm.value.CriteriaObject;
+import io.github.mmm.value.PropertyPath;
+
+/**
+ * A materialized {@link CriteriaAggregation} over a collection of beans that is maintained incrementally. Instead of
+ * recomputing the aggregation over all beans, each added, removed, or modified bean only updates the aggregated state
+ * ({@link CriteriaAggregationOperator#COUNT COUNT}, {@link CriteriaAggregationOperator#SUM SUM}, and
+ * {@link CriteriaAggregationOperator#AVG AVG} in {@code O(1)}, {@link CriteriaAggregationOperator#MIN MIN} and
+ * {@link CriteriaAggregationOperator#MAX MAX} in {@code O(log n)} via an ordered multiset). The result is exposed as
+ * read-only {@link #getProperty() property} so other components can bind to it or listen for changes.<br>
+ * Like in SQL {@code null} values are ignored and the result of an empty aggregation is {@code null} except for
+ * {@link CriteriaAggregationOperator#COUNT COUNT} that is {@code 0}. If the aggregated {@link PropertyPath} points to an
+ * {@link io.github.mmm.value.observable.ObservableValue} it is observed automatically, otherwise call
+ * {@link #update(Object)} after modifying a bean. Beans are compared by identity. This class is not thread-safe.
+ *
+ * @param <B> type of the beans.
+ * @param <V> type of the aggregated {@link #get() value}.
+ * @since 1.0.0
+ * @see #of(CriteriaAggregation)
+ */
+public abstract class LiveAggregation<B, V> implements AutoCloseable {
+
+  private final CriteriaAggregation<?> aggregation;
+
+  private final ValueAccessor accessor;
+
+  private final BeanObserver<B> observer;
+
+  private final Map<B, Object> values;
+
+  private final ObjectProperty<V> property;
+
+  private ContinuousQuery<B> query;
+
+  private ContinuousQueryListener<B> queryListener;
+
+  /**
+   * The constructor. The initial {@link #get() value} is not {@link #compute() computed} here as subclasses are not
+   * yet initialized. Call {@link #refresh()} after construction as done by
+   * {@link #of(CriteriaAggregation, CriteriaEvaluator)}.
+   *
+   * @param aggregation the {@link #getAggregation() aggregation}.
+   * @param valueClass the {@link Class} reflecting the aggregated {@link #get() value}.
+   * @param evaluator the {@link CriteriaEvaluator} to use.
+   */
+  protected LiveAggregation(CriteriaAggregation<?> aggregation, Class<V> valueClass, CriteriaEvaluator evaluator) {
+
+    super();
+    this.aggregation = aggregation;
+    CriteriaObject<?> arg = aggregation.getFirstArg();
+    if (arg == null) {
+      this.accessor = null;
+      this.observer = null;
+    } else if (arg instanceof PropertyPath) {
+      this.accessor = evaluator.compileValue(arg);
+      this.observer = new BeanObserver<>(List.of((PropertyPath<?>) arg), evaluator.getResolver(), this::update);
+    } else {
+      throw new IllegalArgumentException("Nested aggregation " + aggregation + " is not supported.");
+    }
+    this.values = new IdentityHashMap<>();
+    this.property = new ObjectProperty<>(aggregation.toString(), valueClass);
+  }
+
+  /**
+   * @return the {@link CriteriaAggregation} that is materialized.
+   */
+  public CriteriaAggregation<?> getAggregation() {
+
+    return this.aggregation;
+  }
+
+  /**
+   * @return the current aggregated value.
+   */
+  public V get() {
+
+    return this.property.get();
+  }
+
+  /**
+   * @return the read-only {@link ReadableProperty property} with the current aggregated value that fires change events
+   *         whenever the aggregated value changes.
+   */
+  public ReadableProperty<V> getProperty() {
+
+    return this.property.getReadOnly();
+  }
+
+  /**
+   * @return the number of beans observed by this aggregation.
+   */
+  public int size() {
+
+    return this.values.size();
+  }
+
+  /**
+   * @param bean the bean to add.
+   * @return {@code true} if the bean has been added, {@code false} if already contained.
+   */
+  public boolean add(B bean) {
+
+    if (!addInternal(bean)) {
+      return false;
+    }
+    refresh();
+    return true;
+  }
+
+  /**
+   * @param collection the beans to add.
+   */
+  public void addAll(Collection<? extends B> collection) {
+
+    boolean changed = false;
+    for (B bean : collection) {
+      changed = addInternal(bean) || changed;
+    }
+    if (changed) {
+      refresh();
+    }
+  }
+
+  /**
+   * @param bean the bean to remove.
+   * @return {@code true} if the bean has been removed, {@code false} if not contained.
+   */
+  public boolean remove(B bean) {
+
+    if (!removeInternal(bean)) {
+      return false;
+    }
+    refresh();
+    return true;
+  }
+
+  /**
+   * Updates the aggregated value for the given bean. Only needed for changes that are not observed automatically.
+   *
+   * @param bean the bean that has been modified.
+   */
+  public void update(B bean) {
+
+    if ((this.accessor == null) || !this.values.containsKey(bean)) {
+      return;
+    }
+    Object oldValue = this.values.get(bean);
+    Object newValue = this.accessor.get(bean);
+    if (CriteriaValueHelper.isEqual(oldValue, newValue)) {
+      return;
+    }
+    if (oldValue != null) {
+      doRemove(oldValue);
+    }
+    if (newValue != null) {
+      doAdd(newValue);
+    }
+    this.values.put(bean, newValue);
+    refresh();
+  }
+
+  /**
+   * Binds this aggregation to the {@link ContinuousQuery#getResult() result} of the given {@link ContinuousQuery} so
+   * it aggregates exactly the matching beans and follows all deltas. A previous binding is replaced.
+   *
+   * @param continuousQuery the {@link ContinuousQuery} to aggregate.
+   */
+  public void bind(ContinuousQuery<B> continuousQuery) {
+
+    unbind();
+    this.query = continuousQuery;
+    this.queryListener = (added, removed) -> {
+      boolean changed = false;
+      for (B bean : removed) {
+        changed = removeInternal(bean) || changed;
+      }
+      for (B bean : added) {
+        changed = addInternal(bean) || changed;
+      }
+      if (changed) {
+        refresh();
+      }
+    };
+    continuousQuery.addListener(this.queryListener);
+    addAll(continuousQuery.getResult());
+  }
+
+  /**
+   * Removes a previous {@link #bind(ContinuousQuery) binding}. The current beans remain.
+   */
+  public void unbind() {
+
+    if (this.query != null) {
+      this.query.removeListener(this.queryListener);
+      this.query = null;
+      this.queryListener = null;
+    }
+  }
+
+  private boolean addInternal(B bean) {
+
+    if (this.values.containsKey(bean)) {
+      return false;
+    }
+    Object value = bean;
+    if (this.accessor != null) {
+      value = this.accessor.get(bean);
+      this.observer.observe(bean);
+    }
+    this.values.put(bean, value);
+    if (value != null) {
+      doAdd(value);
+    }
+    return true;
+  }
+
+  private boolean removeInternal(B bean) {
+
+    if (!this.values.containsKey(bean)) {
+      return false;
+    }
+    Object value = this.values.remove(bean);
+    if (this.observer != null) {
+      this.observer.unobserve(bean);
+    }
+    if (value != null) {
+      doRemove(value);
+    }
+    return true;
+  }
+
+  /**
+   * Updates the {@link #get() value} with the result of {@link #compute()}.
+   */
+  protected void refresh() {
+
+    this.property.set(compute());
+  }
+
+  /**
+   * @param value the non-null value to add to the aggregated state.
+   */
+  protected abstract void doAdd(Object value);
+
+  /**
+   * @param value the non-null value to remove from the aggregated state. Has been {@link #doAdd(Object) added} before.
+   */
+  protected abstract void doRemove(Object value);
+
+  /**
+   * @return the aggregated value computed from the current state.
+   */
+  protected abstract V compute();
+
+  /**
+   * {@link #unbind() Unbinds} this aggregation and removes all listeners registered on the beans.
+   */
+  @Override
+  public void close() {
+
+    unbind();
+    if (this.observer != null) {
+      this.observer.clear();
+    }
+  }
+
+  /**
+   * @param <B> type of the beans.
+   * @param aggregation the {@link CriteriaAggregation} to materialize.
+   * @return the {@link LiveAggregation} for the given {@link CriteriaAggregation}.
+   */
+  public static <B> LiveAggregation<B, ?> of(CriteriaAggregation<?> aggregation) {
+
+    return of(aggregation, null);
+  }
+
+  /**
+   * @param <B> type of the beans.
+   * @param aggregation the {@link CriteriaAggregation} to materialize.
+   * @param evaluator the {@link CriteriaEvaluator} or {@code null} for {@link CriteriaEvaluator#get() default}.
+   * @return the {@link LiveAggregation} for the given {@link CriteriaAggregation}.
+   * @throws IllegalArgumentException if the {@link CriteriaAggregation#getOperator() operator} is not supported (e.g.
+   *         {@link CriteriaAggregationOperator#GROUP_CONCAT GROUP_CONCAT}).
+   */
+  public static <B> LiveAggregation<B, ?> of(CriteriaAggregation<?> aggregation, CriteriaEvaluator evaluator) {
+
+    if (evaluator == null) {
+      evaluator = CriteriaEvaluator.get();
+    }
+    CriteriaAggregationOperator op = aggregation.getOperator();
+    LiveAggregation<B, ?> result;
+    if (op == CriteriaAggregationOperator.COUNT) {
+      result = new LiveCount<>(aggregation, evaluator);
+    } else if (op == CriteriaAggregationOperator.SUM) {
+      result = new LiveSum<>(aggregation, evaluator);
+    } else if (op == CriteriaAggregationOperator.AVG) {
+      result = new LiveAverage<>(aggregation, evaluator);
+    } else if ((op == CriteriaAggregationOperator.MIN) || (op == CriteriaAggregationOperator.MAX)) {
+      result = new LiveExtremum<>(aggregation, evaluator, op == CriteriaAggregationOperator.MAX);
+    } else {
+      throw new IllegalArgumentException("Unsupported aggregation " + aggregation);
+    }
+    result.refresh();
+    return result;
+  }
+
+}
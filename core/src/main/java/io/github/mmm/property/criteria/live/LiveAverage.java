@@ -0,0 +1,37 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.property.criteria.live;
+
+import io.github.mmm.property.criteria.CriteriaAggregation;
+import io.github.mmm.property.criteria.CriteriaAggregationOperator;
+import io.github.mmm.property.criteria.evaluation.CriteriaEvaluator;
+
+/**
+ * {@link LiveAggregation} for {@link CriteriaAggregationOperator#AVG AVG} based on the exact {@link LiveSum sum}.
+ *
+ * @param <B> type of the beans.
+ */
+class LiveAverage<B> extends LiveSum<B> {
+
+  /**
+   * The constructor.
+   *
+   * @param aggregation the {@link #getAggregation() aggregation}.
+   * @param evaluator the {@link CriteriaEvaluator} to use.
+   */
+  LiveAverage(CriteriaAggregation<?> aggregation, CriteriaEvaluator evaluator) {
+
+    super(aggregation, evaluator);
+  }
+
+  @Override
+  protected Number compute() {
+
+    Number sum = super.compute();
+    if (sum == null) {
+      return null;
+    }
+    return Double.valueOf(sum.doubleValue() / getCount());
+  }
+
+}
@@ -0,0 +1,47 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.property.criteria.live;
+
+import io.github.mmm.property.criteria.CriteriaAggregation;
+import io.github.mmm.property.criteria.CriteriaAggregationOperator;
+import io.github.mmm.property.criteria.evaluation.CriteriaEvaluator;
+
+/**
+ * {@link LiveAggregation} for {@link CriteriaAggregationOperator#COUNT COUNT}.
+ *
+ * @param <B> type of the beans.
+ */
+class LiveCount<B> extends LiveAggregation<B, Long> {
+
+  private long count;
+
+  /**
+   * The constructor.
+   *
+   * @param aggregation the {@link #getAggregation() aggregation}.
+   * @param evaluator the {@link CriteriaEvaluator} to use.
+   */
+  LiveCount(CriteriaAggregation<?> aggregation, CriteriaEvaluator evaluator) {
+
+    super(aggregation, Long.class, evaluator);
+  }
+
+  @Override
+  protected void doAdd(Object value) {
+
+    this.count++;
+  }
+
+  @Override
+  protected void doRemove(Object value) {
+
+    this.count--;
+  }
+
+  @Override
+  protected Long compute() {
+
+    return Long.valueOf(this.count);
+  }
+
+}
@@ -0,0 +1,69 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.property.criteria.live;
+
+import java.util.TreeMap;
+
+import io.github.mmm.property.criteria.CriteriaAggregation;
+import io.github.mmm.property.criteria.CriteriaAggregationOperator;
+import io.github.mmm.property.criteria.CriteriaValueHelper;
+import io.github.mmm.property.criteria.evaluation.CriteriaEvaluator;
+
+/**
+ * {@link LiveAggregation} for {@link CriteriaAggregationOperator#MIN MIN} and {@link CriteriaAggregationOperator#MAX
+ * MAX} based on an ordered multiset so removing the current extremum is {@code O(log n)}.
+ *
+ * @param <B> type of the beans.
+ */
+class LiveExtremum<B> extends LiveAggregation<B, Object> {
+
+  private final TreeMap<Object, int[]> multiset;
+
+  private final boolean max;
+
+  /**
+   * The constructor.
+   *
+   * @param aggregation the {@link #getAggregation() aggregation}.
+   * @param evaluator the {@link CriteriaEvaluator} to use.
+   * @param max - {@code true} for {@link CriteriaAggregationOperator#MAX MAX}, {@code false} for
+   *        {@link CriteriaAggregationOperator#MIN MIN}.
+   */
+  LiveExtremum(CriteriaAggregation<?> aggregation, CriteriaEvaluator evaluator, boolean max) {
+
+    super(aggregation, Object.class, evaluator);
+    this.multiset = new TreeMap<>(CriteriaValueHelper::compare);
+    this.max = max;
+  }
+
+  @Override
+  protected void doAdd(Object value) {
+
+    int[] count = this.multiset.computeIfAbsent(value, k -> new int[1]);
+    count[0]++;
+  }
+
+  @Override
+  protected void doRemove(Object value) {
+
+    int[] count = this.multiset.get(value);
+    if (count != null) {
+      count[0]--;
+      if (count[0] == 0) {
+        this.multiset.remove(value);
+      }
+    }
+  }
+
+  @Override
+  protected Object compute() {
+
+    if (this.multiset.isEmpty()) {
+      return null;
+    } else if (this.max) {
+      return this.multiset.lastKey();
+    }
+    return this.multiset.firstKey();
+  }
+
+}
@@ -0,0 +1,178 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.property.criteria.live;
+
+import java.math.BigDecimal;
+
+import io.github.mmm.property.criteria.CriteriaAggregation;
+import io.github.mmm.property.criteria.CriteriaAggregationOperator;
+import io.github.mmm.property.criteria.CriteriaValueHelper;
+import io.github.mmm.property.criteria.evaluation.CriteriaEvaluator;
+
+/**
+ * {@link LiveAggregation} for {@link CriteriaAggregationOperator#SUM SUM}. Integral values are summed up as
+ * {@code long} and all other values (or on overflow) as {@link BigDecimal} so removing a value restores the exact
+ * previous sum without accumulating rounding errors. The result is a {@link Long} if only integral values have been
+ * added, a {@link Double} if any {@link Double} or {@link Float} value has been added, and a {@link BigDecimal}
+ * otherwise. Non-finite values ({@link Double#NaN NaN} and infinity) can not be represented as {@link BigDecimal} and
+ * are therefore only counted so the result follows IEEE 754 ({@code NaN} if any {@code NaN} or both infinities are
+ * contained, otherwise the contained infinity).
+ *
+ * @param <B> type of the beans.
+ */
+class LiveSum<B> extends LiveAggregation<B, Number> {
+
+  private long longSum;
+
+  private BigDecimal decimalSum;
+
+  private int count;
+
+  private int floatingCount;
+
+  private int bigCount;
+
+  private int nanCount;
+
+  private int positiveInfinityCount;
+
+  private int negativeInfinityCount;
+
+  /**
+   * The constructor.
+   *
+   * @param aggregation the {@link #getAggregation() aggregation}.
+   * @param evaluator the {@link CriteriaEvaluator} to use.
+   */
+  LiveSum(CriteriaAggregation<?> aggregation, CriteriaEvaluator evaluator) {
+
+    super(aggregation, Number.class, evaluator);
+  }
+
+  @Override
+  protected void doAdd(Object value) {
+
+    Number number = requireNumber(value);
+    if (CriteriaValueHelper.isIntegral(number)) {
+      try {
+        this.longSum = Math.addExact(this.longSum, number.longValue());
+      } catch (ArithmeticException e) {
+        addDecimal(BigDecimal.valueOf(number.longValue()));
+      }
+    } else if (isNonFinite(number)) {
+      countNonFinite(number.doubleValue(), 1);
+    } else {
+      addDecimal(CriteriaValueHelper.toBigDecimal(number));
+      if (CriteriaValueHelper.isBig(number)) {
+        this.bigCount++;
+      } else {
+        this.floatingCount++;
+      }
+    }
+    this.count++;
+  }
+
+  @Override
+  protected void doRemove(Object value) {
+
+    Number number = requireNumber(value);
+    if (CriteriaValueHelper.isIntegral(number)) {
+      try {
+        this.longSum = Math.subtractExact(this.longSum, number.longValue());
+      } catch (ArithmeticException e) {
+        addDecimal(BigDecimal.valueOf(number.longValue()).negate());
+      }
+    } else if (isNonFinite(number)) {
+      countNonFinite(number.doubleValue(), -1);
+    } else {
+      addDecimal(CriteriaValueHelper.toBigDecimal(number).negate());
+      if (CriteriaValueHelper.isBig(number)) {
+        this.bigCount--;
+      } else {
+        this.floatingCount--;
+      }
+    }
+    this.count--;
+  }
+
+  private static boolean isNonFinite(Number number) {
+
+    if ((number instanceof Double) || (number instanceof Float)) {
+      return !Double.isFinite(number.doubleValue());
+    }
+    return false;
+  }
+
+  private void countNonFinite(double value, int delta) {
+
+    if (Double.isNaN(value)) {
+      this.nanCount += delta;
+    } else if (value > 0) {
+      this.positiveInfinityCount += delta;
+    } else {
+      this.negativeInfinityCount += delta;
+    }
+  }
+
+  private void addDecimal(BigDecimal decimal) {
+
+    if (this.decimalSum == null) {
+      this.decimalSum = decimal;
+    } else {
+      this.decimalSum = this.decimalSum.add(decimal);
+    }
+  }
+
+  private static Number requireNumber(Object value) {
+
+    if (value instanceof Number) {
+      return (Number) value;
+    }
+    throw new IllegalArgumentException("Can not sum non-numeric value " + value);
+  }
+
+  /**
+   * @return the number of non-null values.
+   */
+  int getCount() {
+
+    return this.count;
+  }
+
+  @Override
+  protected Number compute() {
+
+    if (this.count == 0) {
+      this.longSum = 0;
+      this.decimalSum = null;
+      return null;
+    }
+    if ((this.nanCount > 0) || ((this.positiveInfinityCount > 0) && (this.negativeInfinityCount > 0))) {
+      return Double.valueOf(Double.NaN);
+    } else if (this.positiveInfinityCount > 0) {
+      return Double.valueOf(Double.POSITIVE_INFINITY);
+    } else if (this.negativeInfinityCount > 0) {
+      return Double.valueOf(Double.NEGATIVE_INFINITY);
+    }
+    if ((this.decimalSum == null) || (this.decimalSum.signum() == 0)) {
+      if ((this.floatingCount == 0) && (this.bigCount == 0)) {
+        return Long.valueOf(this.longSum);
+      }
+    }
+    BigDecimal sum = BigDecimal.valueOf(this.longSum);
+    if (this.decimalSum != null) {
+      sum = sum.add(this.decimalSum);
+    }
+    if (this.floatingCount > 0) {
+      return Double.valueOf(sum.doubleValue());
+    } else if ((this.bigCount == 0) && (sum.scale() <= 0)) {
+      try {
+        return Long.valueOf(sum.longValueExact());
+      } catch (ArithmeticException e) {
+        // fall through and return as BigDecimal
+      }
+    }
+    return sum;
+  }
+
+}
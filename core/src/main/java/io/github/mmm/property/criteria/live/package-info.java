@@ -0,0 +1,9 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+/**
+ * Contains live views of observable collections of beans that are maintained incrementally. Use
+ * {@link io.github.mmm.property.criteria.live.ContinuousQuery} to keep the result set of a
+ * {@link io.github.mmm.property.criteria.CriteriaPredicate} up-to-date and receive deltas instead of re-running the
+ * query.
+ */
+package io.github.mmm.property.criteria.live;
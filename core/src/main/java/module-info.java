@@ -72,6 +72,11 @@ module io.github.mmm.property {
 
   exports io.github.mmm.property.criteria;
 
+  exports io.github.mmm.property.criteria.evaluation;
+
+  exports io.github.mmm.property.criteria.index;
+  exports io.github.mmm.property.criteria.live;
+
   exports io.github.mmm.property.object;
 
   exports io.github.mmm.property.pattern;
@@ -0,0 +1,103 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.property.criteria;
+
+import java.math.BigDecimal;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.List;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import io.github.mmm.property.criteria.evaluation.TestPerson;
+import io.github.mmm.property.criteria.impl.SimplePredicate;
+
+/**
+ * Test of {@link CriteriaBinaryMarshalling}.
+ */
+public class CriteriaBinaryMarshallingTest extends Assertions {
+
+  private final TestPerson p = new TestPerson();
+
+  private static CriteriaExpression<?> roundTrip(CriteriaExpression<?> expression) {
+
+    CriteriaBinaryMarshalling marshalling = CriteriaBinaryMarshalling.get();
+    byte[] data = marshalling.encode(expression);
+    CriteriaExpression<?> result = marshalling.decode(data);
+    assertThat(CriteriaStructureHelper.isEqual(expression, result)).as(expression.toString()).isTrue();
+    // parity with the JSON form of CriteriaMarshalling
+    assertThat(CriteriaParserCacheTest.writeJson(result)).isEqualTo(CriteriaParserCacheTest.writeJson(expression));
+    return result;
+  }
+
+  /** Test of {@link CriteriaBinaryMarshalling#encode(CriteriaExpression)} and decoding. */
+  @Test
+  public void testRoundTrip() {
+
+    roundTrip(this.p.Age().gt(-42).and(this.p.Name().like("J%"), this.p.Age().eq((Integer) null))
+        .or(this.p.Name().eq(this.p.Name()).and(CriteriaPredicate.ofIn(this.p.Age(), List.of(1, 2, 3)))));
+    roundTrip(CriteriaAggregation.COUNT_ALL.gt(3).and(CriteriaAggregationOperator.SUM.criteria(this.p.Age()).lt(100)));
+    roundTrip(new CriteriaParserCache().parsePredicate("NOT(p.Name = 'x') OR p.Age >= 1234567890123"));
+    roundTrip(new SimplePredicate(this.p.Age(), PredicateOperator.EQ, Literal.of(new BigDecimal("-1.50"))));
+    roundTrip(new SimplePredicate(this.p.Age(), PredicateOperator.LT, Literal.of(Instant.ofEpochSecond(42, 17))));
+    roundTrip(new SimplePredicate(this.p.Age(), PredicateOperator.GE, Literal.of(LocalDate.of(2000, 2, 29))));
+  }
+
+  /** Test that the path dictionary sends repeated paths only once and invalid data is rejected. */
+  @Test
+  public void testCompact() {
+
+    CriteriaBinaryMarshalling marshalling = CriteriaBinaryMarshalling.get();
+    byte[] once = marshalling.encode(this.p.Name().eq("x"));
+    byte[] twice = marshalling.encode(this.p.Name().eq("x").and(this.p.Name().eq("y")));
+    // second occurrence of path is a tag and a single byte id
+    assertThat(twice.length - once.length).isLessThan(once.length);
+    assertThatThrownBy(() -> marshalling.decode(Arrays.copyOf(twice, twice.length - 1)))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  /** Test that deeply nested data is rejected instead of overflowing the stack. */
+  @Test
+  public void testMaxDepth() {
+
+    CriteriaBinaryMarshalling marshalling = CriteriaBinaryMarshalling.get();
+    CriteriaPredicate predicate = this.p.Age().gt(0);
+    for (int i = 1; i < CriteriaBinaryMarshalling.MAX_DEPTH; i++) {
+      predicate = new SimplePredicate(predicate, PredicateOperator.NOT, null);
+    }
+    assertThat(CriteriaStructureHelper.isEqual(marshalling.decode(marshalling.encode(predicate)), predicate)).isTrue();
+    byte[] tooDeep = marshalling.encode(new SimplePredicate(predicate, PredicateOperator.NOT, null));
+    assertThatThrownBy(() -> marshalling.decode(tooDeep)).isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("depth");
+  }
+
+  /** Test of {@link CriteriaBinaryMarshalling#decode(byte[])} with malicious collection and temporal values. */
+  @Test
+  public void testMaliciousValues() {
+
+    CriteriaBinaryMarshalling marshalling = CriteriaBinaryMarshalling.get();
+    Literal<LocalTime> midnight = Literal.of(LocalTime.MIDNIGHT);
+    byte[] data = marshalling.encode(new SimplePredicate(this.p.Age(), PredicateOperator.EQ, midnight));
+    // replace the trailing local time (tag + nano of day 0) with deeply nested collections of size one
+    int prefix = data.length - 2;
+    byte[] nested = Arrays.copyOf(data, prefix + 2 * 100000 + 1);
+    for (int i = prefix; i < nested.length - 1; i += 2) {
+      nested[i] = 31;
+      nested[i + 1] = 1;
+    }
+    assertThatThrownBy(() -> marshalling.decode(nested)).isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("depth");
+    // nano of day Long.MAX_VALUE as varint
+    byte[] time = Arrays.copyOf(data, prefix + 10);
+    time[prefix] = 30;
+    Arrays.fill(time, prefix + 1, prefix + 9, (byte) 0xFF);
+    time[prefix + 9] = 0x7F;
+    assertThatThrownBy(() -> marshalling.decode(time)).isInstanceOf(IllegalArgumentException.class)
+        .hasCauseInstanceOf(DateTimeException.class);
+  }
+
+}
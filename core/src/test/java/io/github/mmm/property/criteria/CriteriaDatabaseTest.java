@@ -0,0 +1,192 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.property.criteria;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import io.github.mmm.property.criteria.evaluation.CriteriaEvaluator;
+import io.github.mmm.property.criteria.evaluation.TestPerson;
+import io.github.mmm.property.criteria.impl.CriteriaParametersIndexed;
+import io.github.mmm.property.criteria.impl.SimplePredicate;
+
+/**
+ * Test of {@link CriteriaFormatter} with {@link CriteriaDialect}s, {@link CriteriaParametersIndexed}, and
+ * {@link CriteriaStatementCache} that executes the generated SQL against an in-memory database and compares the result
+ * with {@link CriteriaEvaluator}.
+ */
+public class CriteriaDatabaseTest extends Assertions {
+
+  private static final List<TestPerson> PERSONS = List.of(new TestPerson("John", 42), new TestPerson("Jane", 17),
+      new TestPerson("Bob", null), new TestPerson("J_x", 30));
+
+  /** {@link CriteriaDialect} with a small IN list limit to verify the chunked SQL. */
+  private static final CriteriaDialect CHUNKED = new CriteriaDialect("Chunked", '"', LikePatternSyntax.SQL, true, 2) {
+  };
+
+  private static final Pattern NAMED_PARAMETER = Pattern.compile(":(p[0-9]+)");
+
+  private static Connection connection;
+
+  private final TestPerson p = new TestPerson();
+
+  /**
+   * Creates the in-memory database with the {@link #PERSONS}.
+   *
+   * @throws SQLException on error.
+   */
+  @BeforeAll
+  public static void setUp() throws SQLException {
+
+    // keep the case of unquoted identifiers so quoted and unquoted dialects address the same columns
+    connection = DriverManager.getConnection("jdbc:h2:mem:criteria;DATABASE_TO_UPPER=FALSE");
+    try (Statement statement = connection.createStatement()) {
+      statement.execute("CREATE TABLE Person (Name VARCHAR(32), Age INTEGER)");
+    }
+    try (PreparedStatement statement = connection.prepareStatement("INSERT INTO Person (Name, Age) VALUES (?, ?)")) {
+      for (TestPerson person : PERSONS) {
+        statement.setObject(1, person.Name().get());
+        statement.setObject(2, person.Age().get());
+        statement.executeUpdate();
+      }
+    }
+  }
+
+  /**
+   * Closes the in-memory database.
+   *
+   * @throws SQLException on error.
+   */
+  @AfterAll
+  public static void tearDown() throws SQLException {
+
+    connection.close();
+  }
+
+  /** Test of {@link CriteriaDialect#DEFAULT}. */
+  @Test
+  public void testDefault() throws SQLException {
+
+    check(CriteriaDialect.DEFAULT);
+  }
+
+  /** Test of {@link CriteriaDialect#ANSI}. */
+  @Test
+  public void testAnsi() throws SQLException {
+
+    check(CriteriaDialect.ANSI);
+  }
+
+  /** Test of {@link CriteriaDialect#getMaxInListSize() IN list chunking}. */
+  @Test
+  public void testChunked() throws SQLException {
+
+    check(CHUNKED);
+  }
+
+  /** Test of {@link CriteriaStatementCache} with JDBC placeholders. */
+  @Test
+  public void testStatementCache() throws SQLException {
+
+    CriteriaStatementCache cache = new CriteriaStatementCache();
+    List<CriteriaPredicate> predicates = getPredicates();
+    for (CriteriaPredicate predicate : predicates) {
+      CriteriaStatement statement = cache.format(predicate);
+      List<Object> values = new ArrayList<>();
+      for (CriteriaParameter<?> parameter : statement.getParameters()) {
+        values.add(parameter.getValue());
+      }
+      check(predicate, statement.getSql(), values);
+    }
+    // predicates of the same shape (e.g. the LIKE patterns) are served from the cache
+    assertThat(cache.size()).isLessThan(predicates.size());
+  }
+
+  /** Test of {@link CriteriaStatementCache} with named placeholders ({@code :pN}). */
+  @Test
+  public void testStatementCacheNamed() throws SQLException {
+
+    CriteriaStatementCache cache = new CriteriaStatementCache("p", 16);
+    for (CriteriaPredicate predicate : getPredicates()) {
+      CriteriaStatement statement = cache.format(predicate);
+      Map<String, Object> named = new HashMap<>();
+      for (CriteriaParameter<?> parameter : statement.getParameters()) {
+        named.put(parameter.getName(), parameter.getValue());
+      }
+      // JDBC has no named parameters so the names are replaced by JDBC placeholders in the order of occurrence
+      Matcher matcher = NAMED_PARAMETER.matcher(statement.getSql());
+      StringBuilder sql = new StringBuilder();
+      List<Object> values = new ArrayList<>();
+      while (matcher.find()) {
+        String name = matcher.group(1);
+        assertThat(named).as(statement.getSql()).containsKey(name);
+        values.add(named.get(name));
+        matcher.appendReplacement(sql, "?");
+      }
+      matcher.appendTail(sql);
+      assertThat(values).hasSameSizeAs(statement.getParameters());
+      check(predicate, sql.toString(), values);
+    }
+  }
+
+  private List<CriteriaPredicate> getPredicates() {
+
+    CriteriaPredicate adult = this.p.Age().gt(18);
+    return List.of(adult, this.p.Age().le(18), new SimplePredicate(adult, PredicateOperator.NOT, null),
+        this.p.Age().eq((Integer) null), this.p.Name().like("J%"), this.p.Name().like("J\\_%"),
+        this.p.Name().notLike("J%"), CriteriaPredicate.ofIn(this.p.Age(), List.of(17, 30, 42, 99, 100)),
+        CriteriaPredicate.ofNotIn(this.p.Age(), List.of(17, 30, 42, 99, 100)),
+        adult.and(this.p.Name().like("J%")).or(this.p.Name().eq("Bob")));
+  }
+
+  private void check(CriteriaDialect dialect) throws SQLException {
+
+    for (CriteriaPredicate predicate : getPredicates()) {
+      CriteriaParametersIndexed parameters = new CriteriaParametersIndexed();
+      String sql = CriteriaFormatter.format(predicate, parameters, dialect);
+      List<Object> values = new ArrayList<>();
+      for (CriteriaParameter<?> parameter : parameters) {
+        values.add(parameter.getValue());
+      }
+      check(predicate, sql, values);
+    }
+  }
+
+  private void check(CriteriaPredicate predicate, String where, List<Object> values) throws SQLException {
+
+    String sql = "SELECT Name FROM Person WHERE " + where;
+    List<String> actual = new ArrayList<>();
+    try (PreparedStatement statement = connection.prepareStatement(sql)) {
+      int i = 1;
+      for (Object value : values) {
+        statement.setObject(i++, value);
+      }
+      try (ResultSet resultSet = statement.executeQuery()) {
+        while (resultSet.next()) {
+          actual.add(resultSet.getString(1));
+        }
+      }
+    }
+    List<String> expected = new ArrayList<>();
+    for (TestPerson person : CriteriaEvaluator.get().filter(PERSONS, predicate)) {
+      expected.add(person.Name().get());
+    }
+    assertThat(actual).as(sql).containsExactlyInAnyOrderElementsOf(expected);
+  }
+
+}
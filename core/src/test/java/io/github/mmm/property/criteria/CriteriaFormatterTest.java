@@ -0,0 +1,72 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.property.criteria;
+
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.List;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import io.github.mmm.property.criteria.evaluation.TestPerson;
+import io.github.mmm.property.criteria.impl.CriteriaParametersIndexed;
+
+/**
+ * Test of {@link CriteriaFormatter} and {@link CriteriaDialect}.
+ */
+public class CriteriaFormatterTest extends Assertions {
+
+  private final TestPerson p = new TestPerson();
+
+  /** Test of {@link CriteriaFormatter#format(CriteriaExpression, CriteriaParameters, CriteriaDialect)}. */
+  @Test
+  public void testFormat() {
+
+    CriteriaPredicate predicate = this.p.Age().gt(18).and(this.p.Name().like("J%"));
+    CriteriaParametersIndexed parameters = new CriteriaParametersIndexed();
+    String sql = CriteriaFormatter.format(predicate, parameters, CriteriaDialect.DEFAULT);
+    assertThat(sql).isEqualTo("Age > ? AND Name LIKE ?");
+    assertThat(parameters.getValues()).containsExactly(18, "J%");
+    // buffer is reused
+    assertThat(CriteriaFormatter.format(predicate)).isEqualTo("Age > 18 AND Name LIKE 'J%'")
+        .isEqualTo(predicate.toString());
+  }
+
+  /** Test of {@link CriteriaDialect#ANSI} writing to a {@link java.io.Writer}. */
+  @Test
+  public void testQuotingAndLikeEscape() {
+
+    CriteriaPredicate predicate = this.p.Name().like("J*");
+    StringWriter writer = new StringWriter();
+    CriteriaFormatter formatter = CriteriaFormatter.of(new CriteriaParametersIndexed(), CriteriaDialect.ANSI, writer);
+    formatter.setLikeSyntaxSource(LikePatternSyntax.GLOB);
+    formatter.onExpression(predicate);
+    assertThat(writer.toString()).isEqualTo("\"Name\" LIKE ? ESCAPE '\\'");
+    assertThat(formatter.getParameters().<CriteriaParametersIndexed> cast().getValues()).containsExactly("J%");
+  }
+
+  /** Test of IN list chunking via {@link CriteriaDialect#getMaxInListSize()}. */
+  @Test
+  public void testInListChunking() {
+
+    CriteriaDialect dialect = new CriteriaDialect("Test", (char) 0, LikePatternSyntax.SQL, false, 2) {
+    };
+    CriteriaPredicate in = CriteriaPredicate.ofIn(this.p.Age(), List.of(1, 2, 3, 4, 5));
+    CriteriaParametersIndexed parameters = new CriteriaParametersIndexed();
+    assertThat(CriteriaFormatter.format(in, parameters, dialect))
+        .isEqualTo("Age IN (?, ?) OR Age IN (?, ?) OR Age IN (?)");
+    assertThat(parameters.getValues()).containsExactly(1, 2, 3, 4, 5);
+    CriteriaPredicate notIn = this.p.Name().like("J%")
+        .and(CriteriaPredicate.ofNotIn(this.p.Age(), List.of(1, 2, 3, 4, 5)));
+    parameters = new CriteriaParametersIndexed();
+    assertThat(CriteriaFormatter.format(notIn, parameters, dialect))
+        .isEqualTo("Name LIKE ? AND (Age NOT IN (?, ?) AND Age NOT IN (?, ?) AND Age NOT IN (?))");
+    // null elements are preserved
+    CriteriaPredicate inWithNull = CriteriaPredicate.ofIn(this.p.Age(), Arrays.asList(1, null, 3));
+    parameters = new CriteriaParametersIndexed();
+    assertThat(CriteriaFormatter.format(inWithNull, parameters, dialect)).isEqualTo("Age IN (?, ?) OR Age IN (?)");
+    assertThat(parameters.getValues()).containsExactly(1, null, 3);
+  }
+
+}
@@ -0,0 +1,116 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.property.criteria;
+
+import java.math.BigInteger;
+import java.util.List;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import io.github.mmm.property.criteria.evaluation.CriteriaEvaluator;
+import io.github.mmm.property.criteria.evaluation.TestPerson;
+import io.github.mmm.property.criteria.impl.SimplePredicate;
+import io.github.mmm.value.CriteriaObject;
+
+/**
+ * Test of {@link CriteriaFunction} and {@link CriteriaFunctionOperator}.
+ */
+public class CriteriaFunctionTest extends Assertions {
+
+  private static final TestPerson JOHN = new TestPerson("John", 42);
+
+  private static final TestPerson JANE = new TestPerson("Jane", 17);
+
+  private static final TestPerson BOB = new TestPerson("Bob", null);
+
+  private final TestPerson p = new TestPerson();
+
+  private static Object evaluate(CriteriaObject<?> value, TestPerson person) {
+
+    return CriteriaEvaluator.get().compileValue(value).get(person);
+  }
+
+  /** Test of parsing {@link CriteriaFunction}s. */
+  @Test
+  public void testParse() {
+
+    CriteriaParserCache cache = new CriteriaParserCache();
+    String text = "(p.Price + 1) * p.Qty > 1000 AND LOWER(p.Name) = 'x' OR p.Price - (p.Qty - 1) < 3";
+    CriteriaPredicate predicate = cache.parsePredicate(text);
+    assertThat(predicate).hasToString(text);
+    CriteriaPredicate comparison = (CriteriaPredicate) ((CriteriaPredicate) predicate.getFirstArg()).getFirstArg();
+    assertThat(comparison.getFirstArg()).isInstanceOf(CriteriaFunction.class);
+    assertThat(((CriteriaFunction<?>) comparison.getFirstArg()).getOperator()).isSameAs(CriteriaFunctionOperator.MUL);
+    assertThat(cache.parsePredicate("COALESCE(p.Name, 'n') = 'n'")).hasToString("COALESCE(p.Name, 'n') = 'n'");
+  }
+
+  /** Test of {@link CriteriaFormatter formatting} nested {@link CriteriaFunction}s with brackets. */
+  @Test
+  public void testFormatBrackets() {
+
+    CriteriaFunction<?> right = CriteriaFunctionOperator.SUB.criteria(this.p.Age(),
+        CriteriaFunctionOperator.SUB.criteria(this.p.Age(), Literal.of(1)));
+    assertThat(right).hasToString("Age - (Age - 1)");
+    CriteriaFunction<?> left = CriteriaFunctionOperator.SUB
+        .criteria(CriteriaFunctionOperator.SUB.criteria(this.p.Age(), Literal.of(1)), this.p.Age());
+    assertThat(left).hasToString("Age - 1 - Age");
+    CriteriaFunction<?> product = CriteriaFunctionOperator.DIV.criteria(this.p.Age(),
+        CriteriaFunctionOperator.MUL.criteria(Literal.of(2), Literal.of(3)));
+    assertThat(product).hasToString("Age / (2 * 3)");
+    CriteriaParserCache cache = new CriteriaParserCache();
+    CriteriaPredicate predicate = cache.parsePredicate("p.Age - (p.Age - 1) = 1");
+    assertThat(predicate).hasToString("p.Age - (p.Age - 1) = 1");
+    assertThat(((CriteriaFunction<?>) predicate.getFirstArg()).getArgs().get(1)).isInstanceOf(CriteriaFunction.class);
+    assertThat(cache.parsePredicate("(p.Age - p.Age) - 1 = 1")).hasToString("p.Age - p.Age - 1 = 1");
+  }
+
+  /** Test of evaluating arithmetic {@link CriteriaFunction}s. */
+  @Test
+  public void testEvaluateArithmetic() {
+
+    // integral division truncates like SQL
+    CriteriaFunction<?> half = CriteriaFunctionOperator.DIV.criteria(this.p.Age(), Literal.of(2));
+    assertThat(evaluate(half, JANE)).isEqualTo(8L);
+    assertThat(evaluate(CriteriaFunctionOperator.DIV.criteria(Literal.of(-7), Literal.of(2)), null)).isEqualTo(-3L);
+    assertThat(evaluate(CriteriaFunctionOperator.MOD.criteria(this.p.Age(), Literal.of(5)), JANE)).isEqualTo(2L);
+    CriteriaPredicate predicate = new SimplePredicate(half, PredicateOperator.EQ, Literal.of(8));
+    assertThat(CriteriaEvaluator.get().filter(List.of(JOHN, JANE, BOB), predicate)).containsExactly(JANE);
+    // floating point operand
+    assertThat(evaluate(CriteriaFunctionOperator.DIV.criteria(this.p.Age(), Literal.of(2.0)), JANE)).isEqualTo(8.5);
+    // division by zero is null
+    assertThat(evaluate(CriteriaFunctionOperator.DIV.criteria(this.p.Age(), Literal.of(0)), JANE)).isNull();
+    // brackets
+    CriteriaFunction<?> right = CriteriaFunctionOperator.SUB.criteria(Literal.of(100),
+        CriteriaFunctionOperator.SUB.criteria(this.p.Age(), Literal.of(7)));
+    assertThat(evaluate(right, JANE)).isEqualTo(90L);
+    CriteriaFunction<?> left = CriteriaFunctionOperator.SUB
+        .criteria(CriteriaFunctionOperator.SUB.criteria(Literal.of(100), this.p.Age()), Literal.of(7));
+    assertThat(evaluate(left, JANE)).isEqualTo(76L);
+    // null propagation
+    assertThat(evaluate(half, BOB)).isNull();
+    assertThat(evaluate(right, BOB)).isNull();
+    CriteriaPredicate notZero = new SimplePredicate(right, PredicateOperator.NE, Literal.of(0));
+    assertThat(CriteriaEvaluator.get().filter(List.of(BOB), notZero)).isEmpty();
+    // exact beyond double precision and on overflow
+    long max = Long.MAX_VALUE;
+    assertThat(evaluate(CriteriaFunctionOperator.ADD.criteria(Literal.of(1L << 53), this.p.Age()), JANE))
+        .isEqualTo((1L << 53) + 17);
+    assertThat(evaluate(CriteriaFunctionOperator.ADD.criteria(Literal.of(max), Literal.of(1)), null))
+        .isEqualTo(BigInteger.valueOf(max).add(BigInteger.ONE));
+    CriteriaFunction<?> overflow = CriteriaFunctionOperator.SUB
+        .criteria(CriteriaFunctionOperator.ADD.criteria(this.p.Age(), Literal.of(max)), Literal.of(max));
+    assertThat(evaluate(overflow, JANE)).isEqualTo(17L);
+  }
+
+  /** Test of {@link CriteriaFunctionOperator#ROUND ROUND}. */
+  @Test
+  public void testRound() {
+
+    assertThat(evaluate(CriteriaFunctionOperator.ROUND.criteria(Literal.of(0.49999999999999994)), null)).isEqualTo(0L);
+    assertThat(evaluate(CriteriaFunctionOperator.ROUND.criteria(Literal.of(2.5)), null)).isEqualTo(3L);
+    assertThat(evaluate(CriteriaFunctionOperator.ROUND.criteria(Literal.of(-2.5)), null)).isEqualTo(-3L);
+    assertThat(evaluate(CriteriaFunctionOperator.ROUND.criteria(Literal.of(-0.5)), null)).isEqualTo(-1L);
+  }
+
+}
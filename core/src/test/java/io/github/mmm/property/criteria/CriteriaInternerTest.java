@@ -0,0 +1,46 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.property.criteria;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import io.github.mmm.property.criteria.evaluation.TestPerson;
+
+/**
+ * Test of {@link CriteriaInterner} and {@link CriteriaStructureHelper}.
+ */
+public class CriteriaInternerTest extends Assertions {
+
+  private final TestPerson p = new TestPerson();
+
+  /** Test of structural {@link Object#equals(Object) equals}, {@link Object#hashCode() hashCode} and fingerprint. */
+  @Test
+  public void testStructuralEquality() {
+
+    CriteriaPredicate predicate1 = this.p.Age().gt(5).and(this.p.Name().like("J%"));
+    CriteriaPredicate predicate2 = new TestPerson().Age().gt(5).and(this.p.Name().like("J%"));
+    assertThat(predicate1).isNotSameAs(predicate2).isEqualTo(predicate2).hasSameHashCodeAs(predicate2);
+    assertThat(predicate1.getFingerprint()).isEqualTo(predicate2.getFingerprint());
+    assertThat(predicate1).isNotEqualTo(this.p.Age().gt(6).and(this.p.Name().like("J%")));
+    assertThat(predicate1).isNotEqualTo(this.p.Age().ge(5).and(this.p.Name().like("J%")));
+    assertThat(predicate1.getFingerprint()).isNotEqualTo(predicate1.not().getFingerprint());
+  }
+
+  /** Test of {@link CriteriaInterner#intern(io.github.mmm.value.CriteriaObject)}. */
+  @Test
+  public void testIntern() {
+
+    CriteriaInterner interner = new CriteriaInterner();
+    CriteriaPredicate predicate1 = interner.intern(this.p.Age().gt(5).and(this.p.Name().eq((String) null)));
+    CriteriaPredicate predicate2 = interner.intern(this.p.Age().gt(5).and(this.p.Name().eq((String) null)));
+    assertThat(predicate1).isSameAs(predicate2);
+    CriteriaPredicate predicate3 = interner.intern(this.p.Age().gt(5).or(this.p.Name().eq((String) null)));
+    assertThat(predicate3).isNotSameAs(predicate1);
+    assertThat(predicate3.getFirstArg()).isSameAs(predicate1.getFirstArg());
+    assertThat(predicate3.getSecondArg()).isSameAs(predicate1.getSecondArg());
+    interner.clear();
+    assertThat(interner.size()).isZero();
+  }
+
+}
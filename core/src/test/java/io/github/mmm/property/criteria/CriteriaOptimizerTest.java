@@ -0,0 +1,68 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.property.criteria;
+
+import java.util.List;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import io.github.mmm.property.criteria.evaluation.TestPerson;
+import io.github.mmm.property.criteria.impl.SimplePredicate;
+
+/**
+ * Test of {@link CriteriaOptimizer}.
+ */
+public class CriteriaOptimizerTest extends Assertions {
+
+  private final TestPerson p = new TestPerson();
+
+  private final CriteriaOptimizer optimizer = CriteriaOptimizer.get();
+
+  private String optimize(CriteriaPredicate predicate) {
+
+    return this.optimizer.optimize(predicate).toString();
+  }
+
+  /** Test of constant folding and removal of duplicates. */
+  @Test
+  public void testConstantsAndDuplicates() {
+
+    assertThat(this.optimizer.optimize(SimplePredicate.ALWAYS.and(this.p.Age().gt(5)).or(SimplePredicate.NEVER)))
+        .hasToString("Age > 5");
+    assertThat(this.optimizer.optimize(SimplePredicate.NEVER.and(this.p.Age().gt(5))))
+        .isSameAs(SimplePredicate.NEVER);
+    assertThat(optimize(this.p.Name().like("J%").and(this.p.Name().like("J%")))).isEqualTo("Name LIKE 'J%'");
+  }
+
+  /** Test of merging ranges and detecting contradictions. */
+  @Test
+  public void testRanges() {
+
+    assertThat(optimize(this.p.Age().gt(5).and(this.p.Age().gt(7)))).isEqualTo("Age > 7");
+    assertThat(optimize(this.p.Age().ge(5).and(this.p.Age().le(5)))).isEqualTo("Age = 5");
+    assertThat(optimize(this.p.Age().eq(3).or(this.p.Age().eq(4)))).isEqualTo("Age IN '[3, 4]'");
+    assertThat(optimize(this.p.Age().gt(5).or(this.p.Age().eq(7)))).isEqualTo("Age > 5");
+    assertThat(optimize(CriteriaPredicate.ofIn(this.p.Age(), List.of(1, 2, 3, 4)).and(this.p.Age().gt(2))))
+        .isEqualTo("Age IN '[3, 4]'");
+    assertThat(this.optimizer.optimize(this.p.Age().eq(3).and(this.p.Age().gt(5)))).isSameAs(SimplePredicate.NEVER);
+    assertThat(this.optimizer.optimize(this.p.Age().gt(5).and(this.p.Age().le(5)))).isSameAs(SimplePredicate.NEVER);
+    assertThat(this.optimizer.optimize(this.p.Age().eq((Integer) null).or(this.p.Age().neq((Integer) null))))
+        .isSameAs(SimplePredicate.ALWAYS);
+  }
+
+  /** Test of normalization to DNF and CNF. */
+  @Test
+  public void testNormalForm() {
+
+    CriteriaPredicate predicate = this.p.Age().eq(1).or(this.p.Name().eq("a"))
+        .and(this.p.Age().eq(3).or(this.p.Name().eq("b")));
+    assertThat(this.optimizer.toDnf(predicate)).hasToString("Age = 1 AND Name = 'b' OR Name = 'a' AND Age = 3");
+    assertThat(this.optimizer.toCnf(predicate.not()))
+        .hasToString("(Age <> 1 OR Age <> 3) AND (Age <> 1 OR Name <> 'b') AND (Name <> 'a' OR Age <> 3) AND "
+            + "(Name <> 'a' OR Name <> 'b')");
+    // size limit exceeded
+    assertThat(new CriteriaOptimizer(3).toDnf(predicate)).hasToString(predicate.toString());
+  }
+
+}
@@ -0,0 +1,47 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.property.criteria;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import io.github.mmm.marshall.MarshallingConfig;
+import io.github.mmm.marshall.StandardFormat;
+import io.github.mmm.marshall.StructuredWriter;
+
+/**
+ * Test of {@link CriteriaParserCache} and {@link CriteriaObjectParser}.
+ */
+public class CriteriaParserCacheTest extends Assertions {
+
+  /** Test of {@link CriteriaParserCache#parsePredicate(String)}. */
+  @Test
+  public void testParse() {
+
+    CriteriaParserCache cache = new CriteriaParserCache();
+    String text = "p.Age > 5 OR p.Name = 'x' AND p.Age < 9 OR p.Address.City = 'Berlin'";
+    CriteriaPredicate predicate = cache.parsePredicate(text);
+    assertThat(predicate.getOperator()).isSameAs(PredicateOperator.OR);
+    assertThat(predicate.getArgCount()).isEqualTo(3);
+    assertThat(predicate.getArgs().get(1)).hasToString("p.Name = 'x' AND p.Age < 9");
+    assertThat(cache.parse(text)).isSameAs(predicate);
+    assertThat(cache.getHits()).isEqualTo(1);
+    assertThat(cache.getMisses()).isEqualTo(1);
+    // paths are interned
+    CriteriaPredicate other = cache.parsePredicate("(p.Age = 1 OR p.Age = 2) AND NOT(p.Name LIKE 'J%')");
+    assertThat(other).hasToString("(p.Age = 1 OR p.Age = 2) AND p.Name NOT LIKE 'J%'");
+    CriteriaPredicate age = (CriteriaPredicate) ((CriteriaPredicate) other.getFirstArg()).getFirstArg();
+    assertThat(age.getFirstArg()).isSameAs(((CriteriaPredicate) predicate.getFirstArg()).getFirstArg());
+    assertThatThrownBy(() -> cache.parse("p.Age = 1 )")).isInstanceOf(IllegalArgumentException.class);
+  }
+
+  static String writeJson(CriteriaExpression<?> expression) {
+
+    StringBuilder json = new StringBuilder();
+    try (StructuredWriter writer = StandardFormat.json(MarshallingConfig.NO_INDENTATION).writer(json)) {
+      CriteriaMarshalling.get().writeObject(writer, expression);
+    }
+    return json.toString();
+  }
+
+}
@@ -0,0 +1,78 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.property.criteria;
+
+import java.util.List;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import io.github.mmm.property.criteria.evaluation.TestPerson;
+import io.github.mmm.value.PropertyPath;
+import io.github.mmm.value.SimplePath;
+
+/**
+ * Test of {@link CriteriaStatementCache} and {@link io.github.mmm.property.criteria.impl.CriteriaParametersIndexed}.
+ */
+public class CriteriaStatementCacheTest extends Assertions {
+
+  private final TestPerson p = new TestPerson();
+
+  private CriteriaPredicate create(int age, String name, List<Integer> ages) {
+
+    return this.p.Age().gt(age).and(this.p.Name().like(name).or(CriteriaPredicate.ofIn(this.p.Age(), ages)));
+  }
+
+  private static List<Object> getValues(CriteriaStatement statement) {
+
+    return statement.getParameters().stream().map(CriteriaParameter::getValue).toList();
+  }
+
+  /** Test of {@link CriteriaStatementCache#format(CriteriaPredicate)} with JDBC placeholders. */
+  @Test
+  public void testFormat() {
+
+    CriteriaStatementCache cache = new CriteriaStatementCache();
+    CriteriaStatement statement1 = cache.format(create(10, "J%", List.of(1, 2)));
+    CriteriaStatement statement2 = cache.format(create(20, "Jo%", List.of(3, 4)));
+    assertThat(statement1.getSql()).isEqualTo("Age > ? AND (Name LIKE ? OR Age IN (?, ?))")
+        .isSameAs(statement2.getSql());
+    assertThat(getValues(statement1)).containsExactly(10, "J%", 1, 2);
+    assertThat(getValues(statement2)).containsExactly(20, "Jo%", 3, 4);
+    assertThat(cache.size()).isEqualTo(1);
+    CriteriaStatement statement3 = cache.format(create(20, "Jo%", List.of(3, 4, 5)));
+    assertThat(statement3.getSql()).isEqualTo("Age > ? AND (Name LIKE ? OR Age IN (?, ?, ?))");
+    assertThat(cache.size()).isEqualTo(2);
+  }
+
+  /** Test of {@link CriteriaStatementCache#format(CriteriaPredicate)} with named placeholders. */
+  @Test
+  public void testFormatNamed() {
+
+    CriteriaStatementCache cache = new CriteriaStatementCache("p", 10);
+    CriteriaStatement statement = cache.format(create(10, "J%", List.of(1, 2)));
+    assertThat(statement.getSql()).isEqualTo("Age > :p1 AND (Name LIKE :p2 OR Age IN (:p3, :p4))");
+    assertThat(statement.getParameters().get(3).getName()).isEqualTo("p4");
+    assertThat(statement.getParameters().get(3).getIndex()).isEqualTo(3);
+    assertThat(statement.getParameters().get(0).getType()).isEqualTo(Integer.class);
+  }
+
+  /** Test of {@link CriteriaStatementCache#format(CriteriaPredicate)} with the same shape but different aliases. */
+  @Test
+  public void testFormatAlias() {
+
+    CriteriaStatementCache cache = new CriteriaStatementCache();
+    assertThat(cache.format(ageEq("a", 1)).getSql()).isEqualTo("a.Age = ?");
+    assertThat(cache.format(ageEq("b", 2)).getSql()).isEqualTo("b.Age = ?");
+    assertThat(cache.format(ageEq("a", 3)).getSql()).isEqualTo("a.Age = ?");
+    assertThat(cache.size()).isEqualTo(2);
+  }
+
+  @SuppressWarnings({ "unchecked", "rawtypes" })
+  private static CriteriaPredicate ageEq(String alias, int age) {
+
+    PropertyPath<Integer> path = (PropertyPath) SimplePath.of(alias + ".Age");
+    return CriteriaPredicate.of(path, PredicateOperator.EQ, Integer.valueOf(age));
+  }
+
+}
@@ -84,4 +84,35 @@ public class LikePatternSyntaxTest extends Assertions {
     assertThat(LikePatternSyntax.autoDetect("a_b")).isEqualTo(LikePatternSyntax.SQL);
   }
 
-}
\ No newline at end of file
+  /** Test of {@link LikePatternSyntax#compile(String)} and {@link LikePatternMatcher#matches(CharSequence)}. */
+  @Test
+  public void testCompile() {
+
+    LikePatternSyntax syntax = LikePatternSyntax.SQL;
+    assertThat(syntax.compile("a%b")).isSameAs(syntax.compile("a%b"));
+    // exact
+    assertThat(syntax.compile("a_c").matches("abc")).isTrue();
+    assertThat(syntax.compile("a_c").matches("abcd")).isFalse();
+    assertThat(syntax.compile("10\\%").matches("10%")).isTrue();
+    assertThat(syntax.compile("10\\%").matches("100")).isFalse();
+    // prefix
+    assertThat(syntax.compile("ab%").matches("abc")).isTrue();
+    assertThat(syntax.compile("ab%").matches("ab")).isTrue();
+    assertThat(syntax.compile("ab%").matches("a")).isFalse();
+    assertThat(syntax.compile("%").matches("")).isTrue();
+    // suffix
+    assertThat(syntax.compile("%bc").matches("abc")).isTrue();
+    assertThat(syntax.compile("%bc").matches("bcd")).isFalse();
+    // contains
+    assertThat(syntax.compile("%needle%").matches("haystack with needle inside")).isTrue();
+    assertThat(syntax.compile("%needle%").matches("haystack with needl")).isFalse();
+    assertThat(syntax.compile("%\u0161%").matches("a")).isFalse();
+    // wildcard
+    assertThat(syntax.compile("a%b_c%d").matches("axxbycd")).isTrue();
+    assertThat(syntax.compile("a%b_c%d").matches("axxbcd")).isFalse();
+    assertThat(syntax.compile("%a%a%").matches("banana")).isTrue();
+    assertThat(LikePatternSyntax.GLOB.compile("J*n?").matches("Johny")).isTrue();
+    assertThat(syntax.compile("%").matches(null)).isFalse();
+  }
+
+}
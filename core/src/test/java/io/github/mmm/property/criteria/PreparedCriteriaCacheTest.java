@@ -0,0 +1,103 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.property.criteria;
+
+import java.util.List;
+import java.util.function.Predicate;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import io.github.mmm.property.criteria.evaluation.CriteriaEvaluator;
+import io.github.mmm.property.criteria.evaluation.TestPerson;
+import io.github.mmm.property.criteria.impl.SimplePredicate;
+import io.github.mmm.value.PropertyPath;
+import io.github.mmm.value.SimplePath;
+
+/**
+ * Test of {@link PreparedCriteriaCache} and {@link PreparedCriteria}.
+ */
+public class PreparedCriteriaCacheTest extends Assertions {
+
+  private static final TestPerson JOHN = new TestPerson("John", 42);
+
+  private static final TestPerson JANE = new TestPerson("Jane", 17);
+
+  private static final TestPerson BOB = new TestPerson("Bob", null);
+
+  private final TestPerson p = new TestPerson();
+
+  private CriteriaPredicate create(int age, String name) {
+
+    return this.p.Age().gt(age).and(this.p.Name().like(name).or(CriteriaPredicate.ofIn(this.p.Age(), List.of(1, 2))));
+  }
+
+  /** Test of {@link PreparedCriteriaCache#prepare(CriteriaPredicate)}. */
+  @Test
+  public void testPrepare() {
+
+    PreparedCriteriaCache cache = new PreparedCriteriaCache();
+    BoundCriteria bound1 = cache.prepare(create(10, "J%"));
+    BoundCriteria bound2 = cache.prepare(create(20, "Jo%"));
+    assertThat(bound1.getPrepared()).isSameAs(bound2.getPrepared());
+    CriteriaStatement statement = bound1.getStatement();
+    assertThat(statement.getSql()).isEqualTo("Age > ? AND (Name LIKE ? OR Age IN (?, ?))");
+    assertThat(statement.getParameters()).extracting(CriteriaParameter::getValue).containsExactly(10, "J%", 1, 2);
+    assertThat(bound1.getValues()).containsExactly(10, "J%", List.of(1, 2));
+    assertThat(bound2.getValues()).containsExactly(20, "Jo%", List.of(1, 2));
+    assertThat(cache.size()).isEqualTo(1);
+    assertThat(cache.getHits()).isEqualTo(1);
+    assertThat(cache.getMisses()).isEqualTo(1);
+    Predicate<Object> predicate1 = bound1.compile();
+    assertThat(predicate1.test(JOHN)).isTrue();
+    assertThat(predicate1.test(JANE)).isTrue();
+    assertThat(predicate1.test(BOB)).isFalse();
+    Predicate<Object> predicate2 = bound2.compile();
+    assertThat(predicate2.test(JOHN)).isTrue();
+    assertThat(predicate2.test(JANE)).isFalse();
+    assertThat(bound2.getPrepared().bind(bound2.getValues().toArray())).isEqualTo(create(20, "Jo%"));
+    cache.prepare(this.p.Name().eq((String) null));
+    assertThat(cache.size()).isEqualTo(2);
+  }
+
+  /** Test of {@link PreparedCriteria} with a {@code null} parameter under {@link PredicateOperator#NOT NOT}. */
+  @Test
+  public void testNullParameterNegated() {
+
+    CriteriaPredicate notAdult = new SimplePredicate(this.p.Age().gt(18), PredicateOperator.NOT, null);
+    PreparedCriteria prepared = new PreparedCriteriaCache().prepare(notAdult).getPrepared();
+    Object[] values = { null };
+    // NOT (Age > NULL) is UNKNOWN and therefore never satisfied
+    Predicate<Object> predicate = prepared.compile(values);
+    assertThat(predicate.test(JOHN)).isFalse();
+    assertThat(predicate.test(JANE)).isFalse();
+    assertThat(predicate.test(BOB)).isFalse();
+    CriteriaPredicate bound = prepared.bind(values);
+    assertThat(CriteriaEvaluator.get().filter(List.of(JOHN, JANE, BOB), bound)).isEmpty();
+    assertThat(prepared.compile(18).test(JANE)).isTrue();
+  }
+
+  /** Test of {@link PreparedCriteriaCache#prepare(CriteriaPredicate)} with the same shape but different aliases. */
+  @Test
+  public void testPrepareAlias() {
+
+    PreparedCriteriaCache cache = new PreparedCriteriaCache();
+    BoundCriteria boundA = cache.prepare(ageEq("a", 1));
+    BoundCriteria boundB = cache.prepare(ageEq("b", 2));
+    assertThat(boundA.getPrepared()).isNotSameAs(boundB.getPrepared());
+    assertThat(boundA.getStatement().getSql()).isEqualTo("a.Age = ?");
+    assertThat(boundB.getStatement().getSql()).isEqualTo("b.Age = ?");
+    assertThat(cache.prepare(ageEq("a", 3)).getPrepared()).isSameAs(boundA.getPrepared());
+    assertThat(cache.size()).isEqualTo(2);
+    assertThat(cache.getMisses()).isEqualTo(2);
+    assertThat(cache.getHits()).isEqualTo(1);
+  }
+
+  @SuppressWarnings({ "unchecked", "rawtypes" })
+  private static CriteriaPredicate ageEq(String alias, int age) {
+
+    PropertyPath<Integer> path = (PropertyPath) SimplePath.of(alias + ".Age");
+    return CriteriaPredicate.of(path, PredicateOperator.EQ, Integer.valueOf(age));
+  }
+
+}
@@ -0,0 +1,42 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.property.criteria.evaluation;
+
+import java.util.function.Predicate;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import io.github.mmm.property.criteria.CriteriaPredicate;
+
+/**
+ * Test of {@link AdaptiveCriteriaEvaluator}.
+ */
+public class AdaptiveCriteriaEvaluatorTest extends Assertions {
+
+  /** Test of the initial order and the recorded statistics. */
+  @Test
+  public void testReorder() {
+
+    TestPerson p = new TestPerson();
+    CriteriaPredicate predicate = p.Name().like("%o%").and(p.Age().gt(30), p.Age().lt(40));
+    AdaptiveCriteriaEvaluator evaluator = new AdaptiveCriteriaEvaluator(null, null, 64, 4);
+    Predicate<TestPerson> filter = evaluator.compile(predicate);
+    assertThat(filter).isInstanceOf(AdaptiveConjunction.class);
+    AdaptiveConjunction conjunction = (AdaptiveConjunction) filter;
+    // static estimation evaluates cheap comparisons before LIKE
+    assertThat(conjunction.getEvaluationOrder().get(2).getArgument()).isSameAs(predicate.getArgs().get(0));
+    int matches = 0;
+    for (int i = 0; i < 1000; i++) {
+      if (filter.test(new TestPerson("Bob", Integer.valueOf(i % 100)))) {
+        matches++;
+      }
+    }
+    assertThat(matches).isEqualTo(90);
+    assertThat(conjunction.getEvaluations()).isEqualTo(1000);
+    assertThat(conjunction.getReorderCount()).isEqualTo(15);
+    AdaptiveConjunction.ArgumentStatistics like = conjunction.getStatistics().get(0);
+    assertThat(like.getPassRate()).isEqualTo(1.0);
+  }
+
+}
@@ -0,0 +1,140 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.property.criteria.evaluation;
+
+import java.io.StringReader;
+import java.util.List;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import io.github.mmm.marshall.MarshallingConfig;
+import io.github.mmm.marshall.StandardFormat;
+import io.github.mmm.marshall.StructuredReader;
+import io.github.mmm.marshall.StructuredWriter;
+import io.github.mmm.property.criteria.CriteriaAggregation;
+import io.github.mmm.property.criteria.CriteriaAggregationOperator;
+import io.github.mmm.property.criteria.CriteriaBinaryMarshalling;
+import io.github.mmm.property.criteria.CriteriaExpression;
+import io.github.mmm.property.criteria.CriteriaFormatter;
+import io.github.mmm.property.criteria.CriteriaMarshalling;
+import io.github.mmm.property.criteria.CriteriaObjectParser;
+import io.github.mmm.property.criteria.CriteriaPredicate;
+import io.github.mmm.property.criteria.CriteriaStructureHelper;
+import io.github.mmm.property.criteria.SimplePathParser;
+import io.github.mmm.scanner.CharSequenceScanner;
+
+/**
+ * Test of {@link CriteriaAggregator}.
+ */
+public class CriteriaAggregatorTest extends Assertions {
+
+  private static final List<TestPerson> PERSONS = List.of(new TestPerson("John", 42), new TestPerson("Jane", 17),
+      new TestPerson("John", 18), new TestPerson("Bob", null), new TestPerson("Jane", 31));
+
+  private final TestPerson p = new TestPerson();
+
+  /** Test of aggregation without grouping. */
+  @Test
+  public void testAggregate() {
+
+    CriteriaAggregator aggregator = new CriteriaAggregator(List.of(),
+        List.of(CriteriaAggregation.COUNT_ALL, CriteriaAggregation.count(this.p.Age()),
+            CriteriaAggregationOperator.SUM.criteria(this.p.Age()),
+            CriteriaAggregationOperator.AVG.criteria(this.p.Age()),
+            CriteriaAggregationOperator.MIN.criteria(this.p.Age()),
+            CriteriaAggregationOperator.MAX.criteria(this.p.Name())),
+        null);
+    List<AggregationRow> rows = aggregator.aggregate(PERSONS);
+    assertThat(rows).hasSize(1);
+    AggregationRow row = rows.get(0);
+    assertThat(row.getGroupCount()).isZero();
+    assertThat(row.getValue(0)).isEqualTo(5L);
+    assertThat(row.getValue(1)).isEqualTo(4L);
+    assertThat(row.getValue(2)).isEqualTo(108L);
+    assertThat(row.getValue(3)).isEqualTo(27.0);
+    assertThat(row.getValue(4)).isEqualTo(17);
+    assertThat(row.getValue(5)).isEqualTo("John");
+    // empty input still produces a single row
+    row = aggregator.aggregate(List.of()).get(0);
+    assertThat(row.getValue(0)).isEqualTo(0L);
+    assertThat(row.getValue(2)).isNull();
+  }
+
+  /** Test of aggregation with GROUP BY and HAVING also in parallel. */
+  @Test
+  public void testGroupByHaving() {
+
+    CriteriaAggregator aggregator = new CriteriaAggregator(List.of(this.p.Name()),
+        List.of(CriteriaAggregationOperator.SUM.criteria(this.p.Age())),
+        CriteriaAggregation.COUNT_ALL.gt(1).and(this.p.Name().neq("Jane")));
+    List<AggregationRow> rows = aggregator.aggregate(PERSONS);
+    assertThat(rows).hasSize(1);
+    assertThat(rows.get(0).getGroupValue(0)).isEqualTo("John");
+    assertThat(rows.get(0).getValue(0)).isEqualTo(60L);
+    assertThat(rows.get(0).getValueCount()).isEqualTo(1);
+    assertThat(aggregator.aggregate(PERSONS.parallelStream())).hasToString(rows.toString());
+  }
+
+  /** Test of approximate aggregations based on mergeable sketches. */
+  @Test
+  public void testApproximate() {
+
+    CriteriaAggregator aggregator = new CriteriaAggregator(List.of(),
+        List.of(CriteriaAggregation.approxCountDistinct(this.p.Name()),
+            CriteriaAggregationOperator.APPROX_MEDIAN.criteria(this.p.Age())),
+        null);
+    AggregationRow row = aggregator.aggregate(PERSONS).get(0);
+    assertThat(row.getValue(0)).isEqualTo(3L);
+    assertThat(row.getValue(1)).isEqualTo(24.5);
+    assertThat(CriteriaAggregationOperator.of("APPROX_PERCENTILE_99").getQuantile()).isEqualTo(0.99);
+    row = aggregator.aggregate(List.of()).get(0);
+    assertThat(row.getValue(0)).isEqualTo(0L);
+    assertThat(row.getValue(1)).isNull();
+  }
+
+  /**
+   * Test that the approximate {@link CriteriaAggregationOperator}s survive format, parse, JSON and binary round-trips.
+   */
+  @Test
+  public void testApproximateRoundTrip() {
+
+    CriteriaAggregationOperator[] operators = { CriteriaAggregationOperator.APPROX_COUNT_DISTINCT,
+        CriteriaAggregationOperator.APPROX_MEDIAN, CriteriaAggregationOperator.APPROX_PERCENTILE_90,
+        CriteriaAggregationOperator.APPROX_PERCENTILE_95, CriteriaAggregationOperator.APPROX_PERCENTILE_99 };
+    CriteriaBinaryMarshalling binary = CriteriaBinaryMarshalling.get();
+    for (CriteriaAggregationOperator operator : operators) {
+      String syntax = operator.getSyntax();
+      assertThat(CriteriaFormatter.format(operator.criteria(this.p.Age()).gt(3))).isEqualTo(syntax + "(Age) > 3");
+      // parse -> format
+      String text = syntax + "(p.Age) > 3";
+      CriteriaPredicate predicate = CriteriaObjectParser.get().parsePredicate(new CharSequenceScanner(text),
+          SimplePathParser.INSTANCE);
+      assertThat(predicate).hasToString(text);
+      assertThat(((CriteriaExpression<?>) predicate.getFirstArg()).getOperator()).isSameAs(operator);
+      // JSON
+      CriteriaExpression<?> unmarshalled = readJson(writeJson(predicate));
+      assertThat(unmarshalled).hasToString(text);
+      assertThat(((CriteriaExpression<?>) unmarshalled.getFirstArg()).getOperator()).isSameAs(operator);
+      assertThat(CriteriaStructureHelper.isEqual(unmarshalled, predicate)).isTrue();
+      // binary
+      assertThat(CriteriaStructureHelper.isEqual(binary.decode(binary.encode(predicate)), predicate)).isTrue();
+    }
+  }
+
+  private static String writeJson(CriteriaExpression<?> expression) {
+
+    StringBuilder json = new StringBuilder();
+    try (StructuredWriter writer = StandardFormat.json(MarshallingConfig.NO_INDENTATION).writer(json)) {
+      CriteriaMarshalling.get().writeObject(writer, expression);
+    }
+    return json.toString();
+  }
+
+  private static CriteriaExpression<?> readJson(String json) {
+
+    StructuredReader reader = StandardFormat.json().reader(new StringReader(json));
+    return CriteriaMarshalling.get().readObject(reader);
+  }
+
+}
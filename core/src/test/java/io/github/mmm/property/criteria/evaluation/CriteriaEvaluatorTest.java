@@ -0,0 +1,260 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.property.criteria.evaluation;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.DayOfWeek;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Predicate;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import io.github.mmm.property.container.list.ListProperty;
+import io.github.mmm.property.container.map.MapProperty;
+import io.github.mmm.property.container.set.SetProperty;
+import io.github.mmm.property.criteria.CriteriaFunction;
+import io.github.mmm.property.criteria.CriteriaFunctionOperator;
+import io.github.mmm.property.criteria.CriteriaPredicate;
+import io.github.mmm.property.criteria.CriteriaValueHelper;
+import io.github.mmm.property.criteria.Literal;
+import io.github.mmm.property.criteria.PredicateOperator;
+import io.github.mmm.property.criteria.impl.CollectionLiteral;
+import io.github.mmm.property.criteria.impl.SimplePredicate;
+import io.github.mmm.property.number.integers.IntegerProperty;
+import io.github.mmm.property.string.ReadableTagsProperty;
+import io.github.mmm.property.string.StringProperty;
+import io.github.mmm.property.string.StringSetProperty;
+
+/**
+ * Test of {@link CriteriaEvaluator}.
+ */
+public class CriteriaEvaluatorTest extends Assertions {
+
+  private static final TestPerson JOHN = new TestPerson("John", 42);
+
+  private static final TestPerson JANE = new TestPerson("Jane", 17);
+
+  private static final TestPerson BOB = new TestPerson("Bob", null);
+
+  private static final List<TestPerson> PERSONS = List.of(JOHN, JANE, BOB);
+
+  private final TestPerson p = new TestPerson();
+
+  private List<TestPerson> filter(CriteriaPredicate predicate) {
+
+    return CriteriaEvaluator.get().filter(PERSONS, predicate);
+  }
+
+  /** Test of comparison operators. */
+  @Test
+  public void testComparison() {
+
+    assertThat(filter(this.p.Name().eq("Jane"))).containsExactly(JANE);
+    assertThat(filter(this.p.Name().neq("Jane"))).containsExactly(JOHN, BOB);
+    assertThat(filter(this.p.Age().gt(17))).containsExactly(JOHN);
+    assertThat(filter(this.p.Age().ge(17))).containsExactly(JOHN, JANE);
+    assertThat(filter(this.p.Age().lt(42))).containsExactly(JANE);
+    assertThat(filter(this.p.Age().le(42))).containsExactly(JOHN, JANE);
+    // numbers are compared by value independent of their type
+    Literal<Long> fortyTwo = Literal.of(Long.valueOf(42));
+    assertThat(filter(new SimplePredicate(this.p.Age(), PredicateOperator.EQ, fortyTwo))).containsExactly(JOHN);
+  }
+
+  /** Test of {@link PredicateOperator#IS_NULL} and {@link PredicateOperator#IS_NOT_NULL}. */
+  @Test
+  public void testNull() {
+
+    assertThat(filter(this.p.Age().eq((Integer) null))).containsExactly(BOB);
+    assertThat(filter(this.p.Age().neq((Integer) null))).containsExactly(JOHN, JANE);
+  }
+
+  /** Test of {@link PredicateOperator#LIKE} and {@link PredicateOperator#NOT_LIKE}. */
+  @Test
+  public void testLike() {
+
+    assertThat(filter(this.p.Name().like("J%"))).containsExactly(JOHN, JANE);
+    assertThat(filter(this.p.Name().like("J*n"))).containsExactly(JOHN);
+    assertThat(filter(this.p.Name().like("Ja_e"))).containsExactly(JANE);
+    assertThat(filter(this.p.Name().notLike("J%"))).containsExactly(BOB);
+  }
+
+  /** Test of {@link PredicateOperator#IN} and {@link PredicateOperator#NOT_IN}. */
+  @Test
+  public void testIn() {
+
+    assertThat(filter(CriteriaPredicate.ofIn(this.p.Name(), List.of("Bob", "Jane", "Joe")))).containsExactly(JANE,
+        BOB);
+    assertThat(filter(CriteriaPredicate.ofNotIn(this.p.Age(), List.of(17, 18)))).containsExactly(JOHN);
+    // large IN list uses hashed lookup
+    List<Integer> ages = new ArrayList<>();
+    for (int i = 0; i < 1000; i += 2) {
+      ages.add(Integer.valueOf(i));
+    }
+    assertThat(filter(CriteriaPredicate.ofIn(this.p.Age(), ages))).containsExactly(JOHN);
+    assertThat(filter(CriteriaPredicate.ofNotIn(this.p.Age(), ages))).containsExactly(JANE);
+  }
+
+  /** Test of conjunctions and negation. */
+  @Test
+  public void testConjunction() {
+
+    CriteriaPredicate predicate = this.p.Name().like("J%").and(this.p.Age().gt(18));
+    assertThat(filter(predicate)).containsExactly(JOHN);
+    assertThat(filter(predicate.not())).containsExactly(JANE, BOB);
+    assertThat(filter(this.p.Name().eq("Bob").or(this.p.Age().lt(18)))).containsExactly(JANE, BOB);
+  }
+
+  /** Test of negation with SQL null semantics. */
+  @Test
+  public void testNegation() {
+
+    CriteriaPredicate adult = this.p.Age().gt(18);
+    // NOT (Age > 18) is UNKNOWN for a null Age just like Age <= 18
+    CriteriaPredicate notAdult = new SimplePredicate(adult, PredicateOperator.NOT, null);
+    assertThat(filter(notAdult)).containsExactly(JANE);
+    assertThat(filter(new SimplePredicate(notAdult, PredicateOperator.NOT, null))).containsExactly(JOHN);
+    assertThat(filter(adult.or(this.p.Name().eq("John")).not())).containsExactly(JANE);
+  }
+
+  /** Test of comparisons with a {@link Literal} as first argument. */
+  @Test
+  public void testLiteralFirst() {
+
+    assertThat(filter(new SimplePredicate(Literal.of(18), PredicateOperator.LT, this.p.Age()))).containsExactly(JOHN);
+    assertThat(filter(new SimplePredicate(Literal.of(18), PredicateOperator.GE, this.p.Age()))).containsExactly(JANE);
+    assertThat(filter(CriteriaPredicate.of("Jane", PredicateOperator.LIKE, this.p.Name()))).containsExactly(JANE);
+    assertThat(filter(CriteriaPredicate.of("J%", PredicateOperator.NOT_LIKE, this.p.Name()))).containsExactly(JOHN,
+        JANE, BOB);
+  }
+
+  /** Test of constant folding for {@link SimplePredicate#ALWAYS} and {@link SimplePredicate#NEVER}. */
+  @Test
+  public void testConstants() {
+
+    CriteriaEvaluator evaluator = CriteriaEvaluator.get();
+    Predicate<TestPerson> always = evaluator.compile(SimplePredicate.ALWAYS.and(this.p.Age().gt(18)));
+    assertThat(always.test(JOHN)).isTrue();
+    assertThat(evaluator.compile(SimplePredicate.NEVER.and(this.p.Age().gt(18)))).isSameAs(CriteriaEvaluator.FALSE);
+    assertThat(evaluator.compile(SimplePredicate.ALWAYS.or(this.p.Age().gt(18)))).isSameAs(CriteriaEvaluator.TRUE);
+  }
+
+  /** Test of arithmetic and scalar {@link CriteriaFunction}s. */
+  @Test
+  public void testFunction() {
+
+    CriteriaFunction<Number> doubled = CriteriaFunctionOperator.MUL.criteria(this.p.Age(), Literal.of(2));
+    CriteriaPredicate predicate = new SimplePredicate(doubled, PredicateOperator.GT, Literal.of(40));
+    assertThat(predicate).hasToString("Age * 2 > 40");
+    assertThat(filter(predicate)).containsExactly(JOHN);
+    CriteriaFunction<String> lower = CriteriaFunctionOperator.LOWER.criteria(this.p.Name());
+    assertThat(filter(new SimplePredicate(lower, PredicateOperator.EQ, Literal.of("jane")))).containsExactly(JANE);
+    // arithmetic is compiled and constants are folded
+    CriteriaEvaluator evaluator = CriteriaEvaluator.get();
+    ValueAccessor age = evaluator
+        .compileValue(CriteriaFunctionOperator.ADD.criteria(this.p.Age(), Literal.of(1), Literal.of(2)));
+    assertThat(age).isInstanceOf(NumericAccessor.class);
+    assertThat(age.get(JANE)).isEqualTo(20L);
+    assertThat(age.get(BOB)).isNull();
+    ValueAccessor constant = evaluator.compileValue(CriteriaFunctionOperator.MUL
+        .criteria(CriteriaFunctionOperator.ADD.criteria(Literal.of(2), Literal.of(3)), Literal.of(4)));
+    assertThat(constant.isConstant()).isTrue();
+    assertThat(constant.get(null)).isEqualTo(20L);
+    // operands are not reordered as double arithmetic is not associative
+    ValueAccessor sum = evaluator
+        .compileValue(CriteriaFunctionOperator.ADD.criteria(this.p.Age(), Literal.of(1e16), Literal.of(-1e16)));
+    assertThat(sum.get(JANE)).isEqualTo(NumericAccessor.toNumber((17 + 1e16) + -1e16)).isNotEqualTo(17L);
+  }
+
+  /** Test of {@link PredicateOperator#CONTAINS CONTAINS} with containers and the bulk mode. */
+  @Test
+  public void testContains() {
+
+    List<Object> names = new ArrayList<>();
+    for (int i = 0; i <= CriteriaValueHelper.LIST_HASH_THRESHOLD; i++) {
+      names.add("Name" + i);
+    }
+    names.add("Jane");
+    CollectionLiteral<Object> container = new CollectionLiteral<>(names);
+    assertThat(filter(new SimplePredicate(container, PredicateOperator.CONTAINS, this.p.Name()))).containsExactly(JANE);
+    assertThat(filter(new SimplePredicate(container, PredicateOperator.NOT_CONTAINS, this.p.Name())))
+        .containsExactly(JOHN, BOB);
+    // numbers are matched by value also for hash based containers
+    assertThat(CriteriaValueHelper.contains(Set.of(1, 2, 3), Long.valueOf(2))).isTrue();
+    assertThat(CriteriaValueHelper.contains(Map.of("key", "value"), "key")).isTrue();
+    assertThat(CriteriaValueHelper.contains(List.of(5L, 6L), Integer.valueOf(6))).isTrue();
+    assertThat(CriteriaValueHelper.containsEach(names, List.of("Jane", "John", "Name3"))).containsExactly(true, false,
+        true);
+    // sets are not scanned but searched with the element converted to the types it may be equal to
+    assertThat(CriteriaValueHelper.contains(Set.of(1.5, 2.0), Integer.valueOf(2))).isTrue();
+    assertThat(CriteriaValueHelper.contains(Set.of(1.5F), new BigDecimal("1.50"))).isTrue();
+    assertThat(CriteriaValueHelper.contains(Set.of(BigInteger.TEN), Integer.valueOf(10))).isTrue();
+    assertThat(CriteriaValueHelper.contains(Set.of(DayOfWeek.MONDAY), "MONDAY")).isTrue();
+    assertThat(CriteriaValueHelper.contains(Set.of(DayOfWeek.MONDAY), "FRIDAY")).isFalse();
+    assertThat(CriteriaValueHelper.contains(Set.of(new BigDecimal("1.50")), Double.valueOf(1.5))).isTrue();
+    // sorted sets can not compare elements of a different type
+    assertThat(CriteriaValueHelper.contains(new TreeSet<>(List.of(1, 2, 3)), Long.valueOf(2))).isTrue();
+    assertThat(CriteriaValueHelper.contains(new TreeSet<>(List.of("a", "b")), Integer.valueOf(1))).isFalse();
+    Set<Object> mixed = new HashSet<>(List.of(Long.valueOf(1), Integer.valueOf(2)));
+    assertThat(CriteriaValueHelper.contains(mixed, Long.valueOf(2))).isTrue();
+    assertThat(CriteriaValueHelper.contains(mixed, Integer.valueOf(1))).isTrue();
+    assertThat(CriteriaValueHelper.contains(mixed, Integer.valueOf(3))).isFalse();
+  }
+
+  /** Test of {@link CriteriaValueHelper#contains(Object, Object)} with container properties of beans. */
+  @Test
+  public void testContainsProperty() {
+
+    ListProperty<Integer> list = new ListProperty<>("List", new IntegerProperty("Item"));
+    list.set(List.of(1, 2));
+    assertThat(CriteriaValueHelper.contains(list, Long.valueOf(2))).isTrue();
+    assertThat(CriteriaValueHelper.contains(list, Integer.valueOf(3))).isFalse();
+    SetProperty<Integer> set = new SetProperty<>("Set", new IntegerProperty("Item"));
+    set.set(new TreeSet<>(List.of(1, 2)));
+    assertThat(CriteriaValueHelper.contains(set, Long.valueOf(2))).isTrue();
+    assertThat(CriteriaValueHelper.contains(set, "2")).isFalse();
+    MapProperty<String, Integer> map = new MapProperty<>("Map", new StringProperty("Key"),
+        new IntegerProperty("Value"));
+    map.set(Map.of("key", 1));
+    assertThat(CriteriaValueHelper.contains(map, "key")).isTrue();
+    assertThat(CriteriaValueHelper.contains(map, Integer.valueOf(1))).isFalse();
+    StringSetProperty strings = new StringSetProperty("Strings");
+    strings.add("Jane");
+    strings.add("John");
+    assertThat(CriteriaValueHelper.contains(strings, "Jane")).isTrue();
+    assertThat(CriteriaValueHelper.contains(strings, "Jan")).isFalse();
+    assertThat(CriteriaValueHelper.containsEach(strings, List.of("John", "Bob"))).containsExactly(true, false);
+    TagsProperty tags = new TagsProperty("Tags", "red,green");
+    assertThat(CriteriaValueHelper.contains(tags, "green")).isTrue();
+    assertThat(CriteriaValueHelper.contains(tags, "blue")).isFalse();
+    assertThat(CriteriaValueHelper.contains(tags, null)).isFalse();
+  }
+
+  /**
+   * Simple {@link ReadableTagsProperty} with comma separated {@link #getTags() tags}.
+   */
+  private static class TagsProperty extends StringProperty implements ReadableTagsProperty {
+
+    private TagsProperty(String name, String value) {
+
+      super(name, value);
+    }
+
+    @Override
+    public Set<String> getTags() {
+
+      String value = get();
+      if (value == null) {
+        return Set.of();
+      }
+      return Set.of(value.split(","));
+    }
+  }
+
+}
@@ -0,0 +1,58 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.property.criteria.evaluation;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test of {@link CriteriaJoiner}.
+ */
+public class CriteriaJoinerTest extends Assertions {
+
+  private static final List<TestPerson> PERSONS = List.of(new TestPerson("John", 42), new TestPerson("Jane", 17),
+      new TestPerson("John", 18), new TestPerson("Bob", null), new TestPerson("Jane", 31));
+
+  private static final List<TestPerson> OTHERS = List.of(new TestPerson("Jane", 20), new TestPerson("John", 42),
+      new TestPerson(null, 30));
+
+  private final TestPerson p = new TestPerson();
+
+  private final TestPerson o = new TestPerson();
+
+  /** Test of hash join with additional range condition. */
+  @Test
+  public void testHashJoin() {
+
+    CriteriaJoiner joiner = new CriteriaJoiner(this.p.Name().eq(this.o.Name()));
+    assertThat(format(joiner.join(PERSONS, OTHERS).collect(Collectors.toList()))).containsExactlyInAnyOrder(
+        "John42-John42", "Jane17-Jane20", "John18-John42", "Jane31-Jane20");
+    joiner = new CriteriaJoiner(this.p.Name().eq(this.o.Name()).and(this.p.Age().lt(this.o.Age())));
+    assertThat(format(joiner.join(PERSONS, OTHERS).collect(Collectors.toList())))
+        .containsExactlyInAnyOrder("Jane17-Jane20", "John18-John42");
+  }
+
+  /** Test of sort-merge join for a range condition. */
+  @Test
+  public void testRangeJoin() {
+
+    CriteriaJoiner joiner = new CriteriaJoiner(this.p.Age().ge(this.o.Age()));
+    assertThat(format(joiner.join(PERSONS, OTHERS).collect(Collectors.toList()))).containsExactlyInAnyOrder(
+        "John42-Jane20", "John42-John42", "John42-null30", "Jane31-Jane20", "Jane31-null30");
+  }
+
+  private static List<String> format(List<JoinPair<TestPerson, TestPerson>> pairs) {
+
+    return pairs.stream().map(pair -> format(pair.getLeft()) + "-" + format(pair.getRight()))
+        .collect(Collectors.toList());
+  }
+
+  private static String format(TestPerson person) {
+
+    return person.Name().get() + person.Age().get();
+  }
+
+}
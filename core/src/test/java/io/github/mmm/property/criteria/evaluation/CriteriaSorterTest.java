@@ -0,0 +1,41 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.property.criteria.evaluation;
+
+import java.util.List;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import io.github.mmm.base.sort.SortOrder;
+import io.github.mmm.property.criteria.CriteriaOrdering;
+
+/**
+ * Test of {@link CriteriaSorter}.
+ */
+public class CriteriaSorterTest extends Assertions {
+
+  private final TestPerson p = new TestPerson();
+
+  /** Test of {@link CriteriaSorter#sort(Iterable, int, int)} with full sort and top-K paging. */
+  @Test
+  public void testSort() {
+
+    TestPerson john = new TestPerson("John", 42);
+    TestPerson jane = new TestPerson("Jane", 17);
+    TestPerson bob = new TestPerson("Bob", null);
+    TestPerson alice = new TestPerson("Alice", 42);
+    List<TestPerson> persons = List.of(john, jane, bob, alice);
+    CriteriaSorter sorter = new CriteriaSorter(List.of(new CriteriaOrdering(this.p.Age(), SortOrder.DESCENDING),
+        new CriteriaOrdering(this.p.Name(), SortOrder.ASCENDING)));
+
+    assertThat(sorter.sort(persons)).containsExactly(bob, alice, john, jane);
+    assertThat(sorter.sort(persons, 1, 2)).containsExactly(alice, john);
+    assertThat(sorter.sort(persons.stream(), 3, 10)).containsExactly(jane);
+    assertThat(sorter.sort(persons, 4, 1)).isEmpty();
+    CriteriaSorter ascending = new CriteriaSorter(List.of(new CriteriaOrdering(this.p.Age(), SortOrder.ASCENDING)));
+    // stable: john before alice as in the input
+    assertThat(ascending.sort(persons, 0, 3)).containsExactly(jane, john, alice);
+  }
+
+}
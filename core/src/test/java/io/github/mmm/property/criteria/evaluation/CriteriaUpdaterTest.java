@@ -0,0 +1,126 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.property.criteria.evaluation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import io.github.mmm.property.criteria.PropertyAssignment;
+import io.github.mmm.property.number.integers.IntegerProperty;
+import io.github.mmm.value.PropertyPath;
+import io.github.mmm.value.SimplePath;
+
+/**
+ * Test of {@link CriteriaUpdater}.
+ */
+public class CriteriaUpdaterTest extends Assertions {
+
+  private final TestPerson p = new TestPerson();
+
+  /** Test of {@link CriteriaUpdater#update(Iterable)} with a where condition and coalesced notifications. */
+  @Test
+  public void testUpdate() {
+
+    TestPerson john = new TestPerson("John", 42);
+    TestPerson jane = new TestPerson("Jane", 17);
+    TestPerson bob = new TestPerson("Bob", 5);
+    List<String> notifications = new ArrayList<>();
+    Object listener = new Object();
+    jane.Age().addListener(event -> BeanChangeBatch.notify(listener, jane, () -> notifications.add("Jane")));
+    jane.Name().addListener(event -> BeanChangeBatch.notify(listener, jane, () -> notifications.add("Jane")));
+    CriteriaUpdater updater = new CriteriaUpdater(
+        List.of(PropertyAssignment.of(this.p.Age(), 18), PropertyAssignment.of(this.p.Name(), "Adult")),
+        this.p.Age().ge(10).and(this.p.Age().lt(18)));
+
+    assertThat(updater.update(List.of(john, jane, bob))).isEqualTo(1);
+    assertThat(jane.Name().get()).isEqualTo("Adult");
+    assertThat(jane.Age().get()).isEqualTo(18);
+    assertThat(john.Name().get()).isEqualTo("John");
+    assertThat(bob.Age().get()).isEqualTo(5);
+    // two properties changed but only one coalesced notification
+    assertThat(notifications).containsExactly("Jane");
+  }
+
+  /** Test of {@link CriteriaUpdater} with nested paths, overloaded setters and a read-only resolver. */
+  @Test
+  @SuppressWarnings({ "unchecked", "rawtypes" })
+  public void testWriters() {
+
+    Order order = new Order();
+    PropertyPath<Object> city = (PropertyPath) SimplePath.of("Order.Address.City");
+    CriteriaUpdater cityUpdater = new CriteriaUpdater(List.of(PropertyAssignment.of(city, "Berlin")));
+    // intermediate object is null so the bean is not updated
+    assertThat(cityUpdater.update(order)).isFalse();
+    order.address = new Address();
+    assertThat(cityUpdater.update(order)).isTrue();
+    assertThat(order.address.city).isEqualTo("Berlin");
+    // the overloaded setter is chosen by the value type of the property
+    CriteriaUpdater amountUpdater = new CriteriaUpdater(
+        List.of(PropertyAssignment.of(new IntegerProperty("Amount"), 5)));
+    amountUpdater.update(order);
+    assertThat(order.amount).isEqualTo("Integer:5");
+    // resolver that is not a PropertyPathWriterResolver can not be used for updates
+    CriteriaEvaluator readOnly = new CriteriaEvaluator(path -> bean -> null);
+    assertThatThrownBy(() -> new CriteriaUpdater(readOnly, List.of(PropertyAssignment.of(city, "Paris")), null))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  /** Bean with a nested {@link Address} and an overloaded setter. */
+  public static class Order {
+
+    /** The address. */
+    public Address address;
+
+    private String amount;
+
+    /**
+     * @return the address.
+     */
+    public Address getAddress() {
+
+      return this.address;
+    }
+
+    /**
+     * @param value the amount as {@link Object}.
+     */
+    public void setAmount(Object value) {
+
+      this.amount = "Object:" + value;
+    }
+
+    /**
+     * @param value the amount as {@link Integer}.
+     */
+    public void setAmount(Integer value) {
+
+      this.amount = "Integer:" + value;
+    }
+
+    /**
+     * @param value the amount as {@link String}.
+     */
+    public void setAmount(String value) {
+
+      this.amount = "String:" + value;
+    }
+  }
+
+  /** Address bean. */
+  public static class Address {
+
+    private String city;
+
+    /**
+     * @param city the city.
+     */
+    public void setCity(String city) {
+
+      this.city = city;
+    }
+  }
+
+}
@@ -0,0 +1,79 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.property.criteria.evaluation;
+
+import java.util.List;
+import java.util.function.Predicate;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import io.github.mmm.property.criteria.CriteriaPredicate;
+import io.github.mmm.property.criteria.PredicateOperator;
+import io.github.mmm.property.criteria.impl.SimplePredicate;
+
+/**
+ * Test of {@link HiddenClassCriteriaEvaluator}.
+ */
+public class HiddenClassCriteriaEvaluatorTest extends Assertions {
+
+  private static final TestPerson JOHN = new TestPerson("John", 42);
+
+  private static final TestPerson JANE = new TestPerson("Jane", 17);
+
+  private static final TestPerson BOB = new TestPerson("Bob", null);
+
+  private static final List<TestPerson> PERSONS = List.of(JOHN, JANE, BOB);
+
+  private final TestPerson p = new TestPerson();
+
+  private final HiddenClassCriteriaEvaluator evaluator = new HiddenClassCriteriaEvaluator();
+
+  private void check(CriteriaPredicate predicate, TestPerson... expected) {
+
+    Predicate<TestPerson> dynamic = this.evaluator.compile(predicate);
+    Predicate<TestPerson> typed = this.evaluator.compile(predicate, TestPerson.class);
+    assertThat(PERSONS.stream().filter(dynamic)).containsExactly(expected);
+    assertThat(PERSONS.stream().filter(typed)).containsExactly(expected);
+    // result has to be identical to the default evaluator
+    assertThat(CriteriaEvaluator.get().filter(PERSONS, predicate)).containsExactly(expected);
+  }
+
+  /** Test of simple predicates. */
+  @Test
+  public void testSimple() {
+
+    check(this.p.Name().eq("Jane"), JANE);
+    check(this.p.Age().gt(17), JOHN);
+    check(this.p.Age().neq(17), JOHN);
+    check(this.p.Age().eq((Integer) null), BOB);
+    check(this.p.Name().like("J%"), JOHN, JANE);
+    check(CriteriaPredicate.ofIn(this.p.Name(), List.of("Bob", "Jane")), JANE, BOB);
+  }
+
+  /** Test of conjunctions and negation. */
+  @Test
+  public void testConjunction() {
+
+    CriteriaPredicate predicate = this.p.Name().like("J%").and(this.p.Age().gt(18));
+    check(predicate, JOHN);
+    check(predicate.not(), JANE, BOB);
+    check(this.p.Name().eq("Bob").or(this.p.Age().lt(18)), JANE, BOB);
+    // negation is UNKNOWN for a null Age (SQL semantics)
+    check(new SimplePredicate(this.p.Age().gt(18), PredicateOperator.NOT, null), JANE);
+    check(this.p.Age().gt(18).or(this.p.Name().eq("John")).not(), JANE);
+    assertThat(this.evaluator.compile(SimplePredicate.NEVER.and(this.p.Age().gt(18))))
+        .isSameAs(CriteriaEvaluator.FALSE);
+  }
+
+  /** Test that compiling a structurally equal {@link CriteriaPredicate} reuses the hidden class. */
+  @Test
+  public void testCache() {
+
+    Predicate<TestPerson> predicate = this.evaluator.compile(this.p.Age().gt(18));
+    assertThat(this.evaluator.compile(this.p.Age().gt(18))).isSameAs(predicate);
+    assertThat(this.evaluator.compile(this.p.Age().gt(19))).isNotSameAs(predicate);
+    assertThat(this.evaluator.compile(this.p.Age().gt(18), TestPerson.class)).isNotSameAs(predicate);
+  }
+
+}
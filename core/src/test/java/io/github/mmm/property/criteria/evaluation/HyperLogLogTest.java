@@ -0,0 +1,61 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.property.criteria.evaluation;
+
+import org.assertj.core.api.Assertions;
+import org.assertj.core.data.Percentage;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test of {@link HyperLogLog}.
+ */
+public class HyperLogLogTest extends Assertions {
+
+  private static final int COUNT = 100000;
+
+  /** Test of {@link HyperLogLog#estimate()} with many distinct values. */
+  @Test
+  public void testEstimate() {
+
+    HyperLogLog numbers = new HyperLogLog();
+    HyperLogLog strings = new HyperLogLog();
+    for (int i = 0; i < COUNT; i++) {
+      numbers.add(Integer.valueOf(i));
+      // equal numbers of different types are the same value
+      numbers.add(Long.valueOf(i));
+      strings.add("value-" + i);
+    }
+    assertThat(numbers.estimate()).isCloseTo(COUNT, Percentage.withPercentage(3));
+    assertThat(strings.estimate()).isCloseTo(COUNT, Percentage.withPercentage(3));
+    // small cardinalities are exact
+    HyperLogLog small = new HyperLogLog();
+    for (int i = 0; i < 100; i++) {
+      small.add(Integer.valueOf(i % 50));
+    }
+    small.add(null);
+    assertThat(small.estimate()).isEqualTo(50);
+    assertThat(new HyperLogLog().estimate()).isZero();
+  }
+
+  /** Test of {@link HyperLogLog#merge(HyperLogLog)}. */
+  @Test
+  public void testMerge() {
+
+    HyperLogLog first = new HyperLogLog();
+    HyperLogLog second = new HyperLogLog();
+    HyperLogLog all = new HyperLogLog();
+    for (int i = 0; i < 60000; i++) {
+      first.add(Integer.valueOf(i));
+      all.add(Integer.valueOf(i));
+    }
+    // overlapping values are only counted once
+    for (int i = 40000; i < COUNT; i++) {
+      second.add(Integer.valueOf(i));
+      all.add(Integer.valueOf(i));
+    }
+    first.merge(second);
+    assertThat(first.estimate()).isEqualTo(all.estimate()).isCloseTo(COUNT, Percentage.withPercentage(3));
+    assertThatThrownBy(() -> first.merge(new HyperLogLog(10))).isInstanceOf(IllegalArgumentException.class);
+  }
+
+}
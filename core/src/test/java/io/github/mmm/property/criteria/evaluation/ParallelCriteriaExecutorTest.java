@@ -0,0 +1,45 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.property.criteria.evaluation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import io.github.mmm.base.sort.SortOrder;
+import io.github.mmm.property.criteria.CriteriaAggregation;
+import io.github.mmm.property.criteria.CriteriaOrdering;
+import io.github.mmm.property.criteria.CriteriaPredicate;
+
+/**
+ * Test of {@link ParallelCriteriaExecutor}.
+ */
+public class ParallelCriteriaExecutorTest extends Assertions {
+
+  private final TestPerson p = new TestPerson();
+
+  /** Test that parallel results are identical to sequential evaluation. */
+  @Test
+  public void testParallel() {
+
+    List<TestPerson> persons = new ArrayList<>();
+    for (int i = 0; i < 20000; i++) {
+      persons.add(new TestPerson("P" + i, Integer.valueOf(i % 100)));
+    }
+    ParallelCriteriaExecutor executor = new ParallelCriteriaExecutor(null, null, 1000);
+    CriteriaPredicate predicate = this.p.Age().ge(90);
+    List<TestPerson> expected = CriteriaEvaluator.get().filter(persons, predicate);
+
+    assertThat(executor.filter(persons, predicate)).containsExactlyElementsOf(expected);
+    List<CriteriaOrdering> orderings = List.of(new CriteriaOrdering(this.p.Age(), SortOrder.DESCENDING));
+    List<TestPerson> page = executor.filter(persons, predicate, orderings, 10, 5);
+    // stable: age 99 in encounter order
+    assertThat(page).containsExactlyElementsOf(List.of(persons.get(1099), persons.get(1199), persons.get(1299),
+        persons.get(1399), persons.get(1499)));
+    CriteriaAggregator aggregator = new CriteriaAggregator(List.of(), List.of(CriteriaAggregation.COUNT_ALL), null);
+    assertThat(executor.aggregate(persons, predicate, aggregator).get(0).getValue(0)).isEqualTo(2000L);
+  }
+
+}
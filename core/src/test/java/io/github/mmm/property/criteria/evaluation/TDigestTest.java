@@ -0,0 +1,65 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.property.criteria.evaluation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.assertj.core.api.Assertions;
+import org.assertj.core.data.Offset;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test of {@link TDigest}.
+ */
+public class TDigestTest extends Assertions {
+
+  private static final int COUNT = 100000;
+
+  /** Test of {@link TDigest#quantile(double)} with uniformly distributed values. */
+  @Test
+  public void testQuantileUniform() {
+
+    List<Double> values = new ArrayList<>(COUNT);
+    for (int i = 1; i <= COUNT; i++) {
+      values.add(Double.valueOf(i));
+    }
+    Collections.shuffle(values, new Random(42));
+    TDigest digest = new TDigest();
+    for (Double value : values) {
+      digest.add(value.doubleValue());
+    }
+    assertThat(digest.getCount()).isEqualTo(COUNT);
+    assertThat(digest.quantile(0.5)).isCloseTo(50000, Offset.offset(500.0));
+    assertThat(digest.quantile(0.99)).isCloseTo(99000, Offset.offset(200.0));
+    assertThat(digest.quantile(0)).isEqualTo(1);
+    assertThat(digest.quantile(1)).isEqualTo(COUNT);
+    assertThat(new TDigest().quantile(0.5)).isNaN();
+    assertThatThrownBy(() -> digest.quantile(1.5)).isInstanceOf(IllegalArgumentException.class);
+  }
+
+  /** Test of {@link TDigest#merge(TDigest)} with normally distributed values. */
+  @Test
+  public void testMergeNormal() {
+
+    Random random = new Random(7);
+    TDigest first = new TDigest();
+    TDigest second = new TDigest();
+    for (int i = 0; i < COUNT; i++) {
+      double value = random.nextGaussian();
+      if ((i % 2) == 0) {
+        first.add(value);
+      } else {
+        second.add(value);
+      }
+    }
+    first.merge(second);
+    assertThat(first.getCount()).isEqualTo(COUNT);
+    // standard normal distribution: median 0 and 99th percentile 2.326
+    assertThat(first.quantile(0.5)).isCloseTo(0, Offset.offset(0.02));
+    assertThat(first.quantile(0.99)).isCloseTo(2.326, Offset.offset(0.05));
+  }
+
+}
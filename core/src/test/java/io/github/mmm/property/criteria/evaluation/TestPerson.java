@@ -0,0 +1,61 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.property.criteria.evaluation;
+
+import io.github.mmm.property.number.integers.IntegerProperty;
+import io.github.mmm.property.string.StringProperty;
+
+/**
+ * Simple bean with properties for testing the in-memory evaluation of criteria.
+ */
+public class TestPerson {
+
+  private final StringProperty name;
+
+  private final IntegerProperty age;
+
+  /**
+   * The constructor.
+   */
+  public TestPerson() {
+
+    this(null, null);
+  }
+
+  /**
+   * The constructor.
+   *
+   * @param name the {@link #Name() name}.
+   * @param age the {@link #Age() age}.
+   */
+  public TestPerson(String name, Integer age) {
+
+    super();
+    this.name = new StringProperty("Name");
+    this.name.set(name);
+    this.age = new IntegerProperty("Age", age);
+  }
+
+  /**
+   * @return the name.
+   */
+  public StringProperty Name() {
+
+    return this.name;
+  }
+
+  /**
+   * @return the age.
+   */
+  public IntegerProperty Age() {
+
+    return this.age;
+  }
+
+  @Override
+  public String toString() {
+
+    return this.name.get() + "(" + this.age.get() + ")";
+  }
+
+}
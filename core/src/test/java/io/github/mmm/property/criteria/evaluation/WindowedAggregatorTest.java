@@ -0,0 +1,52 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.property.criteria.evaluation;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import io.github.mmm.property.criteria.CriteriaAggregation;
+import io.github.mmm.property.criteria.CriteriaAggregationOperator;
+
+/**
+ * Test of {@link WindowedAggregator}.
+ */
+public class WindowedAggregatorTest extends Assertions {
+
+  private final TestPerson p = new TestPerson();
+
+  /** Test of tumbling and sliding windows with eviction (age is used as epoch millis timestamp). */
+  @Test
+  public void testWindows() {
+
+    WindowedAggregator aggregator = new WindowedAggregator(this.p.Age(), Duration.ofMillis(10), 3,
+        List.of(CriteriaAggregation.COUNT_ALL, CriteriaAggregationOperator.SUM.criteria(this.p.Age())));
+    assertThat(aggregator.add(new TestPerson("John", 17))).isTrue();
+    assertThat(aggregator.add(new TestPerson("Jane", 18))).isTrue();
+    assertThat(aggregator.add(new TestPerson("Bob", 42))).isTrue();
+    // bucket [10, 20) has been evicted by bucket [40, 50)
+    assertThat(aggregator.add(new TestPerson("Old", 11))).isFalse();
+    assertThat(aggregator.add(new TestPerson("None", null))).isFalse();
+    assertThat(aggregator.add(new TestPerson("Jane", 31))).isTrue();
+    assertThat(aggregator.add(new TestPerson("Jim", 35))).isTrue();
+    List<AggregationRow> buckets = aggregator.getBuckets();
+    assertThat(buckets).hasSize(2);
+    assertThat(buckets.get(0).getGroupValue(0)).isEqualTo(Instant.ofEpochMilli(30));
+    assertThat(buckets.get(0).getValue(0)).isEqualTo(2L);
+    assertThat(buckets.get(0).getValue(1)).isEqualTo(66L);
+    assertThat(buckets.get(1).getValue(1)).isEqualTo(42L);
+    AggregationRow window = aggregator.getWindow(3);
+    assertThat(window.getGroupValue(0)).isEqualTo(Instant.ofEpochMilli(20));
+    assertThat(window.getValue(0)).isEqualTo(3L);
+    assertThat(window.getValue(1)).isEqualTo(108L);
+    assertThat(aggregator.getWindow(1).getValue(0)).isEqualTo(1L);
+    aggregator.advanceTo(Instant.ofEpochMilli(65));
+    assertThat(aggregator.getBuckets()).hasSize(1);
+    assertThat(aggregator.getWindow(3).getValue(1)).isEqualTo(42L);
+  }
+
+}
@@ -0,0 +1,147 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.property.criteria.index;
+
+import java.util.List;
+import java.util.function.Predicate;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import io.github.mmm.property.criteria.CriteriaPredicate;
+import io.github.mmm.property.criteria.PredicateOperator;
+import io.github.mmm.property.criteria.evaluation.CriteriaEvaluator;
+import io.github.mmm.property.criteria.evaluation.TestPerson;
+import io.github.mmm.value.CriteriaObject;
+
+/**
+ * Test of {@link IndexedCollection}.
+ */
+public class IndexedCollectionTest extends Assertions {
+
+  private final TestPerson p = new TestPerson();
+
+  /** Test of {@link IndexedCollection#filter(CriteriaPredicate)} with indexes that are kept up-to-date. */
+  @Test
+  public void testFilter() {
+
+    TestPerson john = new TestPerson("John", 42);
+    TestPerson jane = new TestPerson("Jane", 17);
+    TestPerson bob = new TestPerson("Bob", null);
+    ScanCountingEvaluator evaluator = new ScanCountingEvaluator();
+    IndexedCollection<TestPerson> persons = new IndexedCollection<>(evaluator);
+    persons.addAll(List.of(john, jane, bob));
+    SortedPropertyIndex<TestPerson> ageIndex = persons.addSortedIndex(this.p.Age());
+    persons.addHashIndex(this.p.Name());
+
+    // only the candidates found via the indexes are tested
+    assertThat(persons.filter(this.p.Age().ge(17).and(this.p.Age().lt(42)))).containsExactly(jane);
+    assertThat(evaluator.reset()).isEqualTo(1);
+    assertThat(persons.filter(this.p.Name().eq("Bob").or(this.p.Age().gt(20)))).containsExactlyInAnyOrder(bob, john);
+    assertThat(evaluator.reset()).isEqualTo(2);
+    assertThat(persons.filter(this.p.Name().like("J%").and(this.p.Age().gt(20)))).containsExactly(john);
+    assertThat(evaluator.reset()).isEqualTo(1);
+    // without an index all beans are scanned
+    assertThat(persons.filter(this.p.Name().like("J%"))).containsExactlyInAnyOrder(john, jane);
+    assertThat(evaluator.reset()).isEqualTo(3);
+    assertThat(ageIndex.find(PredicateOperator.IS_NULL, null)).containsExactly(bob);
+    // change is observed and index updated
+    jane.Age().set(50);
+    assertThat(ageIndex.find(PredicateOperator.GT, 45)).containsExactly(jane);
+    assertThat(persons.filter(this.p.Age().gt(45))).containsExactly(jane);
+    assertThat(evaluator.reset()).isEqualTo(1);
+    persons.remove(jane);
+    jane.Age().set(17);
+    assertThat(persons.filter(this.p.Age().ge(17))).containsExactly(john);
+    assertThat(ageIndex.size()).isEqualTo(2);
+  }
+
+  /** Test of {@link IndexedCollection#filter(CriteriaPredicate)} with {@link CriteriaResultCache}. */
+  @Test
+  public void testResultCache() {
+
+    TestPerson john = new TestPerson("John", 42);
+    TestPerson jane = new TestPerson("Jane", 17);
+    TestPerson bob = new TestPerson("Bob", 31);
+    IndexedCollection<TestPerson> persons = new IndexedCollection<>();
+    persons.addAll(List.of(john, jane, bob));
+    persons.addSortedIndex(this.p.Age());
+    persons.setResultCacheSize(10);
+    CriteriaResultCache<TestPerson> cache = persons.getResultCache();
+
+    assertThat(persons.filter(this.p.Age().gt(30))).containsExactlyInAnyOrder(john, bob);
+    assertThat(cache.getMisses()).isEqualTo(1);
+    assertThat(persons.filter(this.p.Name().eq("John").and(this.p.Age().gt(35)))).containsExactly(john);
+    assertThat(cache.getSubsumptionHits()).isEqualTo(1);
+    assertThat(persons.filter(this.p.Age().gt(35).and(this.p.Name().eq("John")))).containsExactly(john);
+    assertThat(cache.getHits()).isEqualTo(1);
+    // mutations are applied precisely to the cached results
+    jane.Age().set(50);
+    TestPerson jim = new TestPerson("Jim", 33);
+    persons.add(jim);
+    persons.remove(bob);
+    assertThat(persons.filter(this.p.Age().gt(30))).containsExactlyInAnyOrder(john, jane, jim);
+    assertThat(cache.getHits()).isEqualTo(2);
+    assertThat(cache.getMisses()).isEqualTo(1);
+    assertThat(cache.size()).isEqualTo(2);
+  }
+
+  /** Test of {@link CriteriaResultCache} with changes of a property that is not indexed. */
+  @Test
+  public void testResultCacheNotIndexed() {
+
+    TestPerson john = new TestPerson("John", 42);
+    TestPerson jane = new TestPerson("Jane", 17);
+    IndexedCollection<TestPerson> persons = new IndexedCollection<>();
+    persons.addAll(List.of(john, jane));
+    persons.addSortedIndex(this.p.Age());
+    persons.setResultCacheSize(1);
+    CriteriaResultCache<TestPerson> cache = persons.getResultCache();
+
+    assertThat(persons.filter(this.p.Name().like("J%"))).containsExactlyInAnyOrder(john, jane);
+    john.Name().set("Bob");
+    assertThat(persons.filter(this.p.Name().like("J%"))).containsExactly(jane);
+    assertThat(cache.getHits()).isEqualTo(1);
+    // beans added later are observed as well
+    TestPerson jim = new TestPerson("Jim", 33);
+    persons.add(jim);
+    jim.Name().set("Tim");
+    assertThat(persons.filter(this.p.Name().like("J%"))).containsExactly(jane);
+    assertThat(cache.getHits()).isEqualTo(2);
+    // evicted entries are no longer observed
+    assertThat(persons.filter(this.p.Age().gt(20))).containsExactlyInAnyOrder(john, jim);
+    long version = persons.getVersion();
+    jane.Name().set("Ann");
+    assertThat(persons.getVersion()).isEqualTo(version);
+    jane.Age().set(50);
+    assertThat(persons.getVersion()).isEqualTo(version + 1);
+    assertThat(persons.filter(this.p.Age().gt(20))).containsExactlyInAnyOrder(john, jim, jane);
+    assertThat(cache.getHits()).isEqualTo(3);
+  }
+
+  /**
+   * {@link CriteriaEvaluator} counting the beans tested by the compiled conditions.
+   */
+  private static class ScanCountingEvaluator extends CriteriaEvaluator {
+
+    private int tests;
+
+    @Override
+    public Predicate<Object> compileCondition(CriteriaObject<?> condition) {
+
+      Predicate<Object> predicate = super.compileCondition(condition);
+      return bean -> {
+        this.tests++;
+        return predicate.test(bean);
+      };
+    }
+
+    private int reset() {
+
+      int result = this.tests;
+      this.tests = 0;
+      return result;
+    }
+  }
+
+}
@@ -0,0 +1,116 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.property.criteria.live;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import io.github.mmm.property.container.list.ListProperty;
+import io.github.mmm.property.criteria.evaluation.TestPerson;
+import io.github.mmm.property.object.ObjectProperty;
+
+/**
+ * Test of {@link ContinuousQuery}.
+ */
+public class ContinuousQueryTest extends Assertions {
+
+  private final TestPerson p = new TestPerson();
+
+  /** Test of {@link ContinuousQuery} with observed property changes and deltas. */
+  @Test
+  public void testDeltas() {
+
+    TestPerson john = new TestPerson("John", 42);
+    TestPerson jane = new TestPerson("Jane", 17);
+    TestPerson bob = new TestPerson("Bob", null);
+    List<String> deltas = new ArrayList<>();
+    try (ContinuousQuery<TestPerson> query = new ContinuousQuery<>(this.p.Age().ge(18))) {
+      query.addListener((added, removed) -> deltas.add(names(added) + "-" + names(removed)));
+      query.sync(List.of(john, jane, bob));
+      assertThat(query.getResult()).containsExactly(john);
+      assertThat(deltas).containsExactly("[John]-[]");
+      // change is observed and only the affected bean is re-evaluated
+      jane.Age().set(18);
+      assertThat(query.getResult()).containsExactlyInAnyOrder(john, jane);
+      john.Age().set(43);
+      bob.Age().set(7);
+      john.Age().set(10);
+      assertThat(query.getResult()).containsExactly(jane);
+      query.sync(List.of(john, bob));
+      assertThat(query.getResult()).isEmpty();
+      assertThat(query.size()).isEqualTo(2);
+      // removed bean is no longer observed
+      jane.Age().set(99);
+      assertThat(query.getResult()).isEmpty();
+      assertThat(deltas).containsExactly("[John]-[]", "[Jane]-[]", "[]-[John]", "[]-[Jane]");
+    }
+  }
+
+  /** Test of {@link ContinuousQuery#applyChanges(java.util.Collection, java.util.Collection)}. */
+  @Test
+  public void testApplyChanges() {
+
+    TestPerson john = new TestPerson("John", 42);
+    TestPerson jane = new TestPerson("Jane", 17);
+    TestPerson bob = new TestPerson("Bob", 31);
+    List<String> deltas = new ArrayList<>();
+    try (ContinuousQuery<TestPerson> query = new ContinuousQuery<>(this.p.Age().ge(18))) {
+      query.addListener((added, removed) -> deltas.add(names(added) + "-" + names(removed)));
+      query.applyChanges(List.of(john, jane), null);
+      assertThat(query.getResult()).containsExactly(john);
+      query.applyChanges(List.of(bob), List.of(john));
+      assertThat(query.getResult()).containsExactly(bob);
+      assertThat(query.size()).isEqualTo(2);
+      // removing and adding the same bean in one delta is no change of the result
+      query.applyChanges(List.of(bob), List.of(bob));
+      assertThat(query.getResult()).containsExactly(bob);
+      // unknown beans are ignored
+      query.applyChanges(null, List.of(john));
+      john.Age().set(50);
+      assertThat(query.getResult()).containsExactly(bob);
+      assertThat(deltas).containsExactly("[John]-[]", "[Bob]-[John]");
+    }
+  }
+
+  /** Test of {@link ContinuousQuery#bind(io.github.mmm.value.observable.ObservableValue)} with change deltas. */
+  @Test
+  public void testBind() {
+
+    TestPerson john = new TestPerson("John", 42);
+    TestPerson jane = new TestPerson("Jane", 17);
+    TestPerson bob = new TestPerson("Bob", 31);
+    ListProperty<TestPerson> persons = new ListProperty<>("Persons", new ObjectProperty<>("Person", TestPerson.class));
+    List<TestPerson> list = persons.getChangeAwareValue();
+    List<String> deltas = new ArrayList<>();
+    try (ContinuousQuery<TestPerson> query = new ContinuousQuery<>(this.p.Age().ge(18))) {
+      query.addListener((added, removed) -> deltas.add(names(added) + "-" + names(removed)));
+      query.bind(persons);
+      list.add(john);
+      list.addAll(List.of(jane, bob));
+      assertThat(query.getResult()).containsExactlyInAnyOrder(john, bob);
+      list.remove(john);
+      assertThat(query.getResult()).containsExactly(bob);
+      assertThat(query.size()).isEqualTo(2);
+      // removing one of two occurrences keeps the bean
+      list.add(bob);
+      list.remove(bob);
+      assertThat(query.getResult()).containsExactly(bob);
+      list.remove(bob);
+      assertThat(query.getResult()).isEmpty();
+      // replaced value without delta
+      persons.set(List.of(john));
+      assertThat(query.getResult()).containsExactly(john);
+      assertThat(query.size()).isEqualTo(1);
+      assertThat(deltas).containsExactly("[John]-[]", "[Bob]-[]", "[]-[John]", "[]-[Bob]", "[John]-[]");
+    }
+  }
+
+  private static List<String> names(List<TestPerson> persons) {
+
+    return persons.stream().map(person -> person.Name().get()).toList();
+  }
+
+}
@@ -0,0 +1,128 @@
+/* Copyright (c) The m-m-m Team, Licensed under the Apache License, Version 2.0
+ * http://www.apache.org/licenses/LICENSE-2.0 */
+package io.github.mmm.property.criteria.live;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import io.github.mmm.property.criteria.CriteriaAggregationOperator;
+import io.github.mmm.property.criteria.evaluation.TestPerson;
+import io.github.mmm.property.number.doubles.DoubleProperty;
+
+/**
+ * Test of {@link LiveAggregation}.
+ */
+public class LiveAggregationTest extends Assertions {
+
+  private final TestPerson p = new TestPerson();
+
+  /** Test of {@link LiveAggregation} for all supported operators with observed property changes. */
+  @Test
+  public void testAggregations() {
+
+    TestPerson john = new TestPerson("John", 42);
+    TestPerson jane = new TestPerson("Jane", 17);
+    TestPerson bob = new TestPerson("Bob", null);
+    List<TestPerson> persons = List.of(john, jane, bob);
+    LiveAggregation<TestPerson, ?> count = LiveAggregation.of(CriteriaAggregationOperator.COUNT.criteria(this.p.Age()));
+    LiveAggregation<TestPerson, ?> sum = LiveAggregation.of(CriteriaAggregationOperator.SUM.criteria(this.p.Age()));
+    LiveAggregation<TestPerson, ?> avg = LiveAggregation.of(CriteriaAggregationOperator.AVG.criteria(this.p.Age()));
+    LiveAggregation<TestPerson, ?> min = LiveAggregation.of(CriteriaAggregationOperator.MIN.criteria(this.p.Age()));
+    LiveAggregation<TestPerson, ?> max = LiveAggregation.of(CriteriaAggregationOperator.MAX.criteria(this.p.Age()));
+    for (LiveAggregation<TestPerson, ?> aggregation : List.of(count, sum, avg, min, max)) {
+      aggregation.addAll(persons);
+    }
+    List<Object> maxValues = new ArrayList<>();
+    max.getProperty().addListener(event -> maxValues.add(max.get()));
+    assertThat(count.get()).isEqualTo(2L);
+    assertThat(sum.get()).isEqualTo(59L);
+    assertThat(avg.get()).isEqualTo(29.5);
+    assertThat(min.get()).isEqualTo(17);
+    assertThat(max.get()).isEqualTo(42);
+    // change is observed and applied incrementally
+    jane.Age().set(60);
+    bob.Age().set(1);
+    assertThat(count.get()).isEqualTo(3L);
+    assertThat(sum.get()).isEqualTo(103L);
+    assertThat(min.get()).isEqualTo(1);
+    assertThat(max.get()).isEqualTo(60);
+    max.remove(jane);
+    assertThat(max.get()).isEqualTo(42);
+    assertThat(maxValues).containsExactly(60, 42);
+    for (LiveAggregation<TestPerson, ?> aggregation : List.of(count, sum, avg, min, max)) {
+      aggregation.close();
+    }
+  }
+
+  /** Test of {@link LiveAggregation#bind(ContinuousQuery)}. */
+  @Test
+  public void testBind() {
+
+    TestPerson john = new TestPerson("John", 42);
+    TestPerson jane = new TestPerson("Jane", 17);
+    try (ContinuousQuery<TestPerson> adults = new ContinuousQuery<>(this.p.Age().ge(18));
+        LiveAggregation<TestPerson, ?> min = LiveAggregation
+            .of(CriteriaAggregationOperator.MIN.criteria(this.p.Age()))) {
+      adults.sync(List.of(john, jane));
+      min.bind(adults);
+      assertThat(min.get()).isEqualTo(42);
+      jane.Age().set(20);
+      assertThat(min.get()).isEqualTo(20);
+      jane.Age().set(10);
+      assertThat(min.get()).isEqualTo(42);
+      assertThat(min.size()).isEqualTo(1);
+    }
+  }
+
+  /** Test of {@link LiveAggregation} for {@link CriteriaAggregationOperator#SUM SUM} with non-finite values. */
+  @Test
+  public void testSumNonFinite() {
+
+    Measurement m = new Measurement(null);
+    LiveAggregation<Measurement, ?> sum = LiveAggregation.of(CriteriaAggregationOperator.SUM.criteria(m.Value()));
+    LiveAggregation<Measurement, ?> avg = LiveAggregation.of(CriteriaAggregationOperator.AVG.criteria(m.Value()));
+    assertThat(sum.get()).isNull();
+    Measurement finite = new Measurement(1.5);
+    Measurement nan = new Measurement(Double.NaN);
+    Measurement positive = new Measurement(Double.POSITIVE_INFINITY);
+    Measurement negative = new Measurement(Double.NEGATIVE_INFINITY);
+    sum.addAll(List.of(finite, positive));
+    avg.addAll(List.of(finite, positive));
+    assertThat(sum.get()).isEqualTo(Double.POSITIVE_INFINITY);
+    assertThat(avg.get()).isEqualTo(Double.POSITIVE_INFINITY);
+    sum.add(negative);
+    assertThat(sum.get()).isEqualTo(Double.NaN);
+    sum.remove(negative);
+    sum.add(nan);
+    assertThat(sum.get()).isEqualTo(Double.NaN);
+    // removing the non-finite values restores the exact finite sum
+    sum.remove(nan);
+    positive.Value().set(2.0);
+    assertThat(sum.get()).isEqualTo(3.5);
+    sum.close();
+    avg.close();
+  }
+
+  /** Bean with a {@link DoubleProperty}. */
+  public static class Measurement {
+
+    private final DoubleProperty value;
+
+    private Measurement(Double value) {
+
+      this.value = new DoubleProperty("Value", value);
+    }
+
+    /**
+     * @return the value.
+     */
+    public DoubleProperty Value() {
+
+      return this.value;
+    }
+  }
+
+}